@@ -0,0 +1,210 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree.benchmark;
+
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.googlecode.jctree.ArrayRedBlackTree;
+import com.googlecode.jctree.BTree;
+import com.googlecode.jctree.BinaryRedBlackTree;
+import com.googlecode.jctree.IntSortedTree;
+import com.googlecode.jctree.NodeNotFoundException;
+import com.googlecode.jctree.SortedTree;
+import com.googlecode.jctree.StaticSortedTree;
+import com.googlecode.jctree.Trees;
+
+/**
+ * Compares ordered lookups of {@link BTree} of a few orders with {@link BinaryRedBlackTree}, 
+ * {@link ArrayRedBlackTree}, {@link StaticSortedTree}, {@link IntSortedTree} and {@link TreeSet}. Trees are filled with every even number below twice the size in a shuffled order, so that
+ * half of the keys looked up are missing. Sizes go up to a million so that the trees do not fit in the caches.
+ * <br>
+ * StaticSortedTree can not be changed and is only measured by the benchmarks which read the tree. IntSortedTree has
+ * no iterators, so its walks copy the values into an array and follow higher instead. Run with -prof gc to check 
+ * that its operations do not allocate.
+ * @author Gaurav Saxena
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortedTreeBenchmark {
+	private static final int KEYS = 1024;
+
+	/**
+	 * Tree of one implementation and the keys looked up in it
+	 */
+	@State(Scope.Benchmark)
+	public abstract static class TreeState {
+		@Param({"1000", "100000", "1000000"})
+		public int size;
+		SortedTree<Integer> tree;
+		NavigableSet<Integer> set;
+		IntSortedTree intTree;
+		/** Array which intTree copies its values into */
+		int[] out;
+		private Integer[] keys = new Integer[KEYS];
+		private Integer[] present = new Integer[KEYS];
+		private int next = 0;
+
+		void fill(String implementation) {
+			Random random = new Random(42);
+			for(int i = 0; i < KEYS; i++) {
+				keys[i] = random.nextInt(2 * size);
+				present[i] = random.nextInt(size) * 2;
+			}
+			int[] shuffled = new int[size];
+			for(int i = 0; i < size; i++) {
+				int j = random.nextInt(i + 1);
+				shuffled[i] = shuffled[j];
+				shuffled[j] = i * 2;
+			}
+			if(implementation.equals("TreeSet")) {
+				set = new TreeSet<Integer>();
+				for(int key : shuffled)
+					set.add(key);
+			} else if(implementation.equals("IntSortedTree")) {
+				intTree = new IntSortedTree(size);
+				for(int key : shuffled)
+					intTree.add(key);
+				out = new int[size];
+			} else {
+				if(implementation.equals("BinaryRedBlackTree"))
+					tree = new BinaryRedBlackTree<Integer>();
+				else if(implementation.equals("ArrayRedBlackTree") || implementation.equals("StaticSortedTree"))
+					tree = new ArrayRedBlackTree<Integer>();
+				else
+					tree = new BTree<Integer>(Integer.parseInt(implementation.substring("BTree".length())));
+				for(int key : shuffled)
+					tree.add(key);
+				if(implementation.equals("StaticSortedTree"))
+					tree = Trees.staticSortedTree(tree);
+			}
+		}
+		Integer nextKey() {
+			return keys[next++ & (KEYS - 1)];
+		}
+		Integer nextPresent() {
+			return present[next++ & (KEYS - 1)];
+		}
+	}
+	/**
+	 * Trees of every implementation, {@link StaticSortedTree} included, for the benchmarks which only read the tree
+	 */
+	@State(Scope.Benchmark)
+	public static class ReadTree extends TreeState {
+		@Param({"BTree16", "BTree64", "BTree256", "BinaryRedBlackTree", "ArrayRedBlackTree", "StaticSortedTree", 
+			"IntSortedTree", "TreeSet"})
+		public String implementation;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			fill(implementation);
+		}
+	}
+	/**
+	 * Trees of the implementations which can be changed
+	 */
+	@State(Scope.Benchmark)
+	public static class UpdateTree extends TreeState {
+		@Param({"BTree16", "BTree64", "BTree256", "BinaryRedBlackTree", "ArrayRedBlackTree", "IntSortedTree", "TreeSet"})
+		public String implementation;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			fill(implementation);
+		}
+	}
+	@Benchmark
+	public boolean contains(ReadTree state) {
+		Integer key = state.nextKey();
+		if(state.intTree != null)
+			return state.intTree.contains(key);
+		return state.tree != null ? state.tree.contains(key) : state.set.contains(key);
+	}
+	@Benchmark
+	public void ceiling(ReadTree state, Blackhole blackhole) {
+		Integer key = state.nextKey();
+		if(state.intTree != null)
+			blackhole.consume(state.intTree.ceiling(key));
+		else
+			blackhole.consume(state.tree != null ? state.tree.ceiling(key) : state.set.ceiling(key));
+	}
+	@Benchmark
+	public void successor(ReadTree state, Blackhole blackhole) throws NodeNotFoundException {
+		Integer key = state.nextPresent();
+		if(state.intTree != null)
+			blackhole.consume(state.intTree.successor(key));
+		else
+			blackhole.consume(state.tree != null ? state.tree.successor(key) : state.set.higher(key));
+	}
+	/**
+	 * Removes a key and adds it back, so that the tree keeps its size
+	 */
+	@Benchmark
+	public boolean removeAndAdd(UpdateTree state) {
+		Integer key = state.nextPresent();
+		if(state.intTree != null)
+			return state.intTree.remove(key) && state.intTree.add(key);
+		else if(state.tree != null)
+			return state.tree.remove(key) && state.tree.add(key);
+		else
+			return state.set.remove(key) && state.set.add(key);
+	}
+	/**
+	 * Walks the hundred keys following a random one
+	 */
+	@Benchmark
+	public void range(ReadTree state, Blackhole blackhole) {
+		Integer key = state.nextKey();
+		if(state.intTree != null) {
+			for(int i = 0, value = state.intTree.ceiling(key); i < 100 && value > -1; i++, value = state.intTree.higher(value))
+				blackhole.consume(value);
+			return;
+		}
+		Iterator<Integer> iterator = state.tree != null ? state.tree.tailTree(key).iterator() : state.set.tailSet(key).iterator();
+		for(int i = 0; i < 100 && iterator.hasNext(); i++)
+			blackhole.consume(iterator.next());
+	}
+	@Benchmark
+	public void iterator(ReadTree state, Blackhole blackhole) {
+		if(state.intTree != null) {
+			int count = state.intTree.inOrderTraversal(state.out);
+			for(int i = 0; i < count; i++)
+				blackhole.consume(state.out[i]);
+			return;
+		}
+		Iterator<Integer> iterator = state.tree != null ? state.tree.iterator() : state.set.iterator();
+		while(iterator.hasNext())
+			blackhole.consume(iterator.next());
+	}
+}
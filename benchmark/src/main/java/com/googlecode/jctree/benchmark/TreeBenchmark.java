@@ -0,0 +1,293 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree.benchmark;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.googlecode.jctree.ArrayListBinarySearchTree;
+import com.googlecode.jctree.ArrayListTree;
+import com.googlecode.jctree.ArrayRedBlackTree;
+import com.googlecode.jctree.ArrayTree;
+import com.googlecode.jctree.BTree;
+import com.googlecode.jctree.BinaryRedBlackTree;
+import com.googlecode.jctree.BinarySearchTree;
+import com.googlecode.jctree.IntTree;
+import com.googlecode.jctree.LinkedTree;
+import com.googlecode.jctree.MapIndexedArrayListTree;
+import com.googlecode.jctree.NodeNotFoundException;
+import com.googlecode.jctree.SortedTree;
+import com.googlecode.jctree.Tree;
+
+/**
+ * Measures the operations of every tree implementation over trees of different sizes. Free form trees are built
+ * as complete trees where every node has {@value #CHILDREN} children and sorted trees get the same keys in a 
+ * shuffled order. Keys looked up are drawn from a seeded random sequence so that runs are comparable.
+ * <br>
+ * {@link IntTree} is measured on the operations it has, which copy into an array given by the caller instead of
+ * building lists, so that -prof gc shows whether they allocate. Other operations are measured over the 
+ * implementations of {@link Tree} alone.
+ * <br>
+ * Run with -prof gc to get the allocation rate of every operation.
+ * @author Gaurav Saxena
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBenchmark {
+	static final int CHILDREN = 4;
+	private static final int KEYS = 1024;
+
+	/**
+	 * Keys looked up and leaves removed by the benchmarks, drawn for the size of the trees
+	 */
+	@State(Scope.Benchmark)
+	public abstract static class Keys {
+		@Param({"100", "1000", "10000"})
+		public int size;
+		private int[] keys = new int[KEYS];
+		private int[] leaves = new int[KEYS];
+		private int next = 0;
+
+		void drawKeys() {
+			Random random = new Random(42);
+			int firstLeaf = (size - 2) / CHILDREN + 1;
+			for(int i = 0; i < KEYS; i++) {
+				keys[i] = random.nextInt(size);
+				leaves[i] = firstLeaf + random.nextInt(size - firstLeaf);
+			}
+		}
+		int nextKey() {
+			return keys[next++ & (KEYS - 1)];
+		}
+		int nextLeaf() {
+			return leaves[next++ & (KEYS - 1)];
+		}
+	}
+	/**
+	 * Trees of every implementation, {@link IntTree} included, for the operations which IntTree has as well
+	 */
+	@State(Scope.Benchmark)
+	public static class AnyTree extends Keys {
+		@Param({"ArrayListTree", "MapIndexedArrayListTree", "ArrayTree", "LinkedTree", "BinarySearchTree", 
+			"ArrayListBinarySearchTree", "BinaryRedBlackTree", "ArrayRedBlackTree", "BTree", "IntTree"})
+		public String implementation;
+		private Tree<Integer> tree;
+		private IntTree intTree;
+		/** Array which intTree copies children and traversals into */
+		private int[] out;
+
+		@Setup(Level.Trial)
+		public void setUp() throws NodeNotFoundException {
+			drawKeys();
+			if(implementation.equals("IntTree")) {
+				intTree = buildIntTree(size);
+				out = new int[size];
+			} else
+				tree = build(implementation, size);
+		}
+	}
+	/**
+	 * Trees of the implementations of {@link Tree}, for the operations which {@link IntTree} does not have
+	 */
+	@State(Scope.Benchmark)
+	public static class ObjectTree extends Keys {
+		@Param({"ArrayListTree", "MapIndexedArrayListTree", "ArrayTree", "LinkedTree", "BinarySearchTree", 
+			"ArrayListBinarySearchTree", "BinaryRedBlackTree", "ArrayRedBlackTree", "BTree"})
+		public String implementation;
+		private Tree<Integer> tree;
+
+		@Setup(Level.Trial)
+		public void setUp() throws NodeNotFoundException {
+			drawKeys();
+			tree = build(implementation, size);
+		}
+	}
+	@Benchmark
+	public Object add(AnyTree state) throws NodeNotFoundException {
+		return state.intTree != null ? buildIntTree(state.size) : build(state.implementation, state.size);
+	}
+	@Benchmark
+	public boolean contains(AnyTree state) {
+		int key = state.nextKey();
+		return state.intTree != null ? state.intTree.contains(key) : state.tree.contains(key);
+	}
+	@Benchmark
+	public void children(AnyTree state, Blackhole blackhole) throws NodeNotFoundException {
+		int key = state.nextKey();
+		if(state.intTree != null)
+			blackhole.consume(state.intTree.children(key, state.out));
+		else
+			blackhole.consume(state.tree.children(key));
+	}
+	@Benchmark
+	public void parent(AnyTree state, Blackhole blackhole) throws NodeNotFoundException {
+		int key = state.nextKey();
+		if(state.intTree != null)
+			blackhole.consume(state.intTree.parent(key));
+		else
+			blackhole.consume(state.tree.parent(key));
+	}
+	@Benchmark
+	public void commonAncestor(AnyTree state, Blackhole blackhole) throws NodeNotFoundException {
+		int node1 = state.nextKey(), node2 = state.nextKey();
+		if(state.intTree != null)
+			blackhole.consume(state.intTree.commonAncestor(node1, node2));
+		else
+			blackhole.consume(state.tree.commonAncestor(node1, node2));
+	}
+	/**
+	 * Removes a leaf and adds it back at the same place, so that the tree keeps its size
+	 */
+	@SuppressWarnings("deprecation")
+	@Benchmark
+	public boolean removeAndAdd(AnyTree state) throws NodeNotFoundException {
+		int leaf = state.nextLeaf();
+		if(state.intTree != null) {
+			boolean removed = state.intTree.remove(leaf);
+			state.intTree.add((leaf - 1) / CHILDREN, leaf);
+			return removed;
+		}
+		boolean removed = state.tree.remove(leaf);
+		if(state.tree instanceof SortedTree)
+			state.tree.add(leaf);
+		else
+			state.tree.add((leaf - 1) / CHILDREN, leaf);
+		return removed;
+	}
+	@Benchmark
+	public void preOrderTraversal(AnyTree state, Blackhole blackhole) {
+		if(state.intTree != null)
+			blackhole.consume(state.intTree.preOrderTraversal(state.out));
+		else
+			blackhole.consume(state.tree.preOrderTraversal());
+	}
+	@Benchmark
+	public Object inOrderTraversal(ObjectTree state) {
+		return state.tree.inOrderTraversal();
+	}
+	@Benchmark
+	public void postOrderTraversal(AnyTree state, Blackhole blackhole) {
+		if(state.intTree != null)
+			blackhole.consume(state.intTree.postOrderTraversal(state.out));
+		else
+			blackhole.consume(state.tree.postOrderTraversal());
+	}
+	@Benchmark
+	public void levelOrderTraversal(AnyTree state, Blackhole blackhole) {
+		if(state.intTree != null)
+			blackhole.consume(state.intTree.levelOrderTraversal(state.out));
+		else
+			blackhole.consume(state.tree.levelOrderTraversal());
+	}
+	@Benchmark
+	public Object leaves(ObjectTree state) {
+		return state.tree.leaves();
+	}
+	@Benchmark
+	public void preOrderIterator(ObjectTree state, Blackhole blackhole) {
+		consume(state.tree.preOrderIterator(), blackhole);
+	}
+	@Benchmark
+	public void inOrderIterator(ObjectTree state, Blackhole blackhole) {
+		consume(state.tree.inOrderIterator(), blackhole);
+	}
+	@Benchmark
+	public void postOrderIterator(ObjectTree state, Blackhole blackhole) {
+		consume(state.tree.postOrderIterator(), blackhole);
+	}
+	@Benchmark
+	public void levelOrderIterator(ObjectTree state, Blackhole blackhole) {
+		consume(state.tree.levelOrderIterator(), blackhole);
+	}
+	@Benchmark
+	public long parallelStream(ObjectTree state) {
+		return state.tree.parallelStream().filter(e -> (e & 1) == 0).count();
+	}
+	private static void consume(Iterator<Integer> iterator, Blackhole blackhole) {
+		while(iterator.hasNext())
+			blackhole.consume(iterator.next());
+	}
+	/**
+	 * Builds the same complete tree as {@link #build(String, int)} does for free form trees
+	 */
+	static IntTree buildIntTree(int size) throws NodeNotFoundException {
+		IntTree tree = new IntTree(size);
+		tree.add(0);
+		for(int i = 1; i < size; i++)
+			tree.add((i - 1) / CHILDREN, i);
+		return tree;
+	}
+	@SuppressWarnings("deprecation")
+	static Tree<Integer> build(String implementation, int size) throws NodeNotFoundException {
+		Tree<Integer> tree = create(implementation);
+		if(tree instanceof SortedTree) {
+			Random random = new Random(size);
+			int[] shuffled = new int[size];
+			for(int i = 0; i < size; i++) {
+				int j = random.nextInt(i + 1);
+				shuffled[i] = shuffled[j];
+				shuffled[j] = i;
+			}
+			for(int key : shuffled)
+				tree.add(key);
+		} else {
+			tree.add(0);
+			for(int i = 1; i < size; i++)
+				tree.add((i - 1) / CHILDREN, i);
+		}
+		return tree;
+	}
+	private static Tree<Integer> create(String implementation) {
+		switch(implementation) {
+			case "ArrayListTree":
+				return new ArrayListTree<Integer>();
+			case "MapIndexedArrayListTree":
+				return new MapIndexedArrayListTree<Integer>();
+			case "ArrayTree":
+				return new ArrayTree<Integer>(CHILDREN);
+			case "LinkedTree":
+				return new LinkedTree<Integer>();
+			case "BinarySearchTree":
+				return new BinarySearchTree<Integer>();
+			case "ArrayListBinarySearchTree":
+				return new ArrayListBinarySearchTree<Integer>();
+			case "BinaryRedBlackTree":
+				return new BinaryRedBlackTree<Integer>();
+			case "ArrayRedBlackTree":
+				return new ArrayRedBlackTree<Integer>();
+			case "BTree":
+				return new BTree<Integer>();
+			default:
+				throw new IllegalArgumentException("Unknown tree implementation " + implementation);
+		}
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Index of the ancestors of every node of a tree which answers ancestor queries with two comparisons and common 
+ * ancestor and distance queries in O(log depth). Nodes are numbered in the order in which they are added, which 
+ * has to be a level order until the index is built so that a parent is always known before its children.
+ * <br>
+ * Building labels every node with the interval of pre order numbers of its sub-tree, so that a node is an 
+ * ancestor of another if the interval of the first holds the number of the other. Every node also keeps its 
+ * depth and its ancestors 1, 2, 4 ... levels above it for binary lifting, the root being its own ancestor.
+ * <br>
+ * Leaves added to the tree after the index is built are added to the index as well. They get ancestor tables 
+ * but no interval and are answered through the interval of their closest labelled ancestor. Removed nodes 
+ * don't change the relations between the nodes left in the tree and are left in the index, so callers should 
+ * make sure nodes are present in the tree before asking about them. Trees build the index again once it 
+ * becomes {@link #isStale(int) stale}, which keeps the cost of a build amortized over the changes it covers.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+class AncestorIndex<E> {
+	private final HashMap<E, Integer> ids;
+	private Object[] elements;
+	private int[] depths;
+	private int[][] ancestors;
+	private int[] labelledAncestors;
+	private int[] preOrder;
+	private int[] lastDescendant;
+	private int size = 0;
+	private int labelled = 0;
+	private int maxDepth = 0;
+	private boolean built = false;
+
+	AncestorIndex(int capacity) {
+		capacity = Math.max(1, capacity);
+		ids = new HashMap<E, Integer>(Math.max(16, capacity * 4 / 3 + 1));
+		elements = new Object[capacity];
+		depths = new int[capacity];
+		ancestors = new int[][] {new int[capacity]};
+		labelledAncestors = new int[capacity];
+	}
+	/**
+	 * Adds element as a child of parent, which should have been added before. Once the index is built, element 
+	 * should be a leaf
+	 * @param parent parent of element or null if element is the root
+	 */
+	void add(E element, E parent) {
+		ensureCapacity(size + 1);
+		int id = size++;
+		elements[id] = element;
+		ids.put(element, id);
+		if(parent != null) {
+			int parentId = ids.get(parent);
+			ancestors[0][id] = parentId;
+			depths[id] = depths[parentId] + 1;
+			maxDepth = Math.max(maxDepth, depths[id]);
+			labelledAncestors[id] = parentId < labelled ? parentId : labelledAncestors[parentId];
+		} else {
+			ancestors[0][id] = id;
+			labelledAncestors[id] = -1;
+		}
+		if(built) {
+			if(maxDepth >= 1 << ancestors.length)
+				addLevel();
+			for(int k = 1; k < ancestors.length; k++)
+				ancestors[k][id] = ancestors[k - 1][ancestors[k - 1][id]];
+		}
+	}
+	/**
+	 * Fills the ancestor tables and the intervals once all the nodes have been added
+	 * @return this index
+	 */
+	AncestorIndex<E> build() {
+		int levels = 32 - Integer.numberOfLeadingZeros(maxDepth);
+		while(ancestors.length < levels)
+			addLevel();
+		int[] subTreeSizes = new int[size];
+		for(int i = size - 1; i >= 0; i--) {
+			subTreeSizes[i]++;
+			if(ancestors[0][i] != i)
+				subTreeSizes[ancestors[0][i]] += subTreeSizes[i];
+		}
+		preOrder = new int[size];
+		lastDescendant = new int[size];
+		int[] nextChild = new int[size];
+		for(int i = 0; i < size; i++) {
+			int parentId = ancestors[0][i];
+			if(parentId != i) {
+				preOrder[i] = nextChild[parentId];
+				nextChild[parentId] += subTreeSizes[i];
+			}
+			nextChild[i] = preOrder[i] + 1;
+			lastDescendant[i] = preOrder[i] + subTreeSizes[i] - 1;
+		}
+		labelled = size;
+		built = true;
+		return this;
+	}
+	/**
+	 * @param treeSize number of nodes in the tree
+	 * @return true if more nodes have been added since the index was built than were labelled by it, or if the 
+	 * nodes removed since then outnumber the nodes left in the tree
+	 */
+	boolean isStale(int treeSize) {
+		return size > 2 * labelled || size > 2 * treeSize;
+	}
+	/**
+	 * @return true if node is an ancestor of child but not child itself
+	 */
+	boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		int nodeId = id(node);
+		int childId = id(child);
+		if(nodeId >= labelled) {
+			int levels = depths[childId] - depths[nodeId];
+			return childId >= labelled && levels > 0 && ancestor(childId, levels) == nodeId;
+		}
+		if(childId >= labelled) {
+			childId = labelledAncestors[childId];
+			if(childId == nodeId)
+				return true;
+		}
+		return preOrder[nodeId] < preOrder[childId] && preOrder[childId] <= lastDescendant[nodeId];
+	}
+	@SuppressWarnings("unchecked")
+	E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		return (E) elements[commonAncestor(id(node1), id(node2))];
+	}
+	/**
+	 * @return number of edges on the path between node1 and node2
+	 */
+	int distance(E node1, E node2) throws NodeNotFoundException {
+		int id1 = id(node1);
+		int id2 = id(node2);
+		return depths[id1] + depths[id2] - 2 * depths[commonAncestor(id1, id2)];
+	}
+	private int commonAncestor(int id1, int id2) {
+		if(depths[id1] < depths[id2]) {
+			int id = id1;
+			id1 = id2;
+			id2 = id;
+		}
+		id1 = ancestor(id1, depths[id1] - depths[id2]);
+		if(id1 == id2)
+			return id1;
+		for(int k = ancestors.length - 1; k >= 0; k--)
+			if(ancestors[k][id1] != ancestors[k][id2]) {
+				id1 = ancestors[k][id1];
+				id2 = ancestors[k][id2];
+			}
+		return ancestors[0][id1];
+	}
+	/**
+	 * @return ancestor of id the given number of levels above it
+	 */
+	private int ancestor(int id, int levels) {
+		for(int k = 0; levels > 0; k++, levels >>= 1)
+			if((levels & 1) == 1)
+				id = ancestors[k][id];
+		return id;
+	}
+	/**
+	 * Adds the table of ancestors twice as far above as the ones of the current highest level
+	 */
+	private void addLevel() {
+		int[] previous = ancestors[ancestors.length - 1];
+		int[] current = new int[elements.length];
+		for(int i = 0; i < size; i++)
+			current[i] = previous[previous[i]];
+		ancestors = Arrays.copyOf(ancestors, ancestors.length + 1);
+		ancestors[ancestors.length - 1] = current;
+	}
+	private void ensureCapacity(int capacity) {
+		if(capacity > elements.length) {
+			int newCapacity = Math.max(capacity, elements.length + (elements.length >> 1) + 1);
+			elements = Arrays.copyOf(elements, newCapacity);
+			depths = Arrays.copyOf(depths, newCapacity);
+			labelledAncestors = Arrays.copyOf(labelledAncestors, newCapacity);
+			for(int k = 0; k < ancestors.length; k++)
+				ancestors[k] = Arrays.copyOf(ancestors[k], newCapacity);
+		}
+	}
+	private int id(E node) throws NodeNotFoundException {
+		Integer id = ids.get(node);
+		if(id != null)
+			return id;
+		else
+			throw new NodeNotFoundException("No node was found for object");
+	}
+}
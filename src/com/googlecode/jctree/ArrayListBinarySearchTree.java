@@ -17,12 +17,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * Traditional BST. The implementation is using arraylists which have to be traversed completely to find a node. As a result this implementation doesn't give traditional
  * log(n) operation time. {@link BinarySearchTree} implementation is based on tradition left-right-parent links
+ * <br>
+ * Parent and children slots of all the nodes are kept in two int arrays indexed by position of the node
  * 
  * @author Gaurav Saxena
  *
@@ -30,12 +34,13 @@ import java.util.List;
  */
 public class ArrayListBinarySearchTree<E extends Comparable<E>> implements SortedTree<E>, Cloneable {
 	private ArrayList<E> nodeList = new ArrayList<E>();
-	private ArrayList<Integer> parentList = new ArrayList<Integer>();
-	private ArrayList<int[]> childrenArray = new ArrayList<int[]>();
+	private final int MAX_CHILDREN = 2;
+	private int[] parentArray = new int[10];
+	private int[] childrenArray = new int[parentArray.length * MAX_CHILDREN];
 	private int size = 0;
 	private int depth = 0;
-	private final int MAX_CHILDREN = 2;
 	private int rootIndex = -1;
+	private int freeSlot = -1;
 	/** 
 	 * A binary search tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)
 	 * The method throws {@link UnsupportedOperationException}
@@ -77,7 +82,7 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 			int childIndex = nodeList.indexOf(child);
 			int emptySlot;
 			if(childIndex == -1) {
-				if((emptySlot = getEmptySlot(childrenArray.get(parentIndex))) > -1) {
+				if((emptySlot = getEmptySlot(parentIndex)) > -1) {
 					addChild(child, parentIndex, emptySlot);
 					return true;
 				} else
@@ -138,12 +143,12 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 			return false;
 		}
 	}
-	private E child(E parent, int index) throws NodeNotFoundException {
+	private E childAt(E parent, int index) throws NodeNotFoundException {
 		checkNode(parent);
 		int parentIndex = nodeList.indexOf(parent);
 		int childIndex;
 		if(parentIndex > -1) {
-			if((childIndex = childrenArray.get(parentIndex)[index]) > -1)
+			if((childIndex = childrenArray[parentIndex * MAX_CHILDREN + index]) > -1)
 				return nodeList.get(childIndex);
 			else
 				return null;
@@ -155,22 +160,53 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 		checkNode(e);
 		int index = nodeList.indexOf(e);
 		if(index > -1) {
-			ArrayList<E> children = new ArrayList<E>();
-			for (int i = 0; i < childrenArray.get(index).length; i++)
-				if(childrenArray.get(index)[i] > -1)
-					children.add(nodeList.get(childrenArray.get(index)[i]));
+			ArrayList<E> children = new ArrayList<E>(MAX_CHILDREN);
+			for (int i = index * MAX_CHILDREN, len = i + MAX_CHILDREN; i < len; i++)
+				if(childrenArray[i] > -1)
+					children.add(nodeList.get(childrenArray[i]));
 			return children;
 		} else
 			throw new NodeNotFoundException("No node was found for object");
 	}
 	@Override
+	public int childCount(E parent) throws NodeNotFoundException {
+		return childCount(indexOf(parent));
+	}
+	/**
+	 * Children are numbered in the order of {@link #children(Comparable)} i.e. a lone right child is at index 0. 
+	 * Please use {@link #left(Comparable)} and {@link #right(Comparable)} to get a child by its side
+	 * @see com.googlecode.jctree.Tree#child(java.lang.Object, int)
+	 */
+	@Override
+	public E child(E parent, int index) throws NodeNotFoundException {
+		int parentIndex = indexOf(parent) * MAX_CHILDREN;
+		if(index < 0)
+			throw new IndexOutOfBoundsException("index found to be " + index + ".It cannot be negative");
+		else if(index == 0)
+			return element(childrenArray[parentIndex] > -1 ? childrenArray[parentIndex] : childrenArray[parentIndex + 1]);
+		else if(index == 1 && childrenArray[parentIndex] > -1)
+			return element(childrenArray[parentIndex + 1]);
+		else
+			return null;
+	}
+	@Override
+	public void forEachChild(E parent, Consumer<? super E> action) throws NodeNotFoundException {
+		for (int i = indexOf(parent) * MAX_CHILDREN, len = i + MAX_CHILDREN; i < len; i++)
+			if(childrenArray[i] > -1)
+				action.accept(nodeList.get(childrenArray[i]));
+	}
+	@Override
+	public List<E> childrenView(E parent) throws NodeNotFoundException {
+		indexOf(parent);
+		return new TreeHelper().childrenView(this, parent);
+	}
+	@Override
 	public void clear() {
 		nodeList.clear();
-		parentList.clear();
-		childrenArray.clear();
 		size = 0;
 		depth = 0;
 		rootIndex = -1;
+		freeSlot = -1;
 	}
 	@Override
 	@SuppressWarnings("unchecked")
@@ -179,12 +215,10 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 		try {
 			v = (ArrayListBinarySearchTree<E>) super.clone();
 			v.nodeList = (ArrayList<E>) nodeList.clone();
-			v.parentList = (ArrayList<Integer>) parentList.clone();
-			v.childrenArray = new ArrayList<int[]>();
+			v.parentArray = Arrays.copyOf(parentArray, parentArray.length);
+			v.childrenArray = Arrays.copyOf(childrenArray, childrenArray.length);
 			v.size = this.size;
 			v.depth = this.depth;
-			for(int i = 0; i < childrenArray.size(); i++)
-				v.childrenArray.add(Arrays.copyOf(childrenArray.get(i), childrenArray.get(i).length));
 		} catch (CloneNotSupportedException e) {
 			//This should't happen because we are cloneable
 		}
@@ -194,34 +228,47 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
 		checkNode(node1);
 		checkNode(node2);
-		int height1 = 0;
-		E e1 = node1; 
-		while(e1 != null) {
-			height1++;
-			e1 = parent(e1);
-		}
-		int height2 = 0;
-		E e2 = node2; 
-		while(e2 != null) {
-			height2++;
-			e2 = parent(e2);
-		}
-		if(height1 > height2) {
-			while(height1 - height2 > 0) {
-				node1 = parent(node1);
-				height1--;
-			}
-		} else {
-			while(height2 - height1 > 0) {
-				node2 = parent(node2);
-				height2--;
-			}
+		int split = split(node1, node2);
+		pathLength(split, node1);
+		pathLength(split, node2);
+		return nodeList.get(split);
+	}
+	@Override
+	public int distance(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		int split = split(node1, node2);
+		return pathLength(split, node1) + pathLength(split, node2);
+	}
+	/**
+	 * @return index at which the search paths of node1 and node2 part, which is their common ancestor when both
+	 * are present
+	 */
+	private int split(E node1, E node2) throws NodeNotFoundException {
+		int index = rootIndex;
+		while(index > -1) {
+			int comparison1 = node1.compareTo(nodeList.get(index));
+			int comparison2 = node2.compareTo(nodeList.get(index));
+			if(comparison1 > 0 && comparison2 > 0)
+				index = childrenArray[index * MAX_CHILDREN + 1];
+			else if(comparison1 < 0 && comparison2 < 0)
+				index = childrenArray[index * MAX_CHILDREN];
+			else
+				return index;
 		}
-		while(node1 != null && !node1.equals(node2)) {
-			node1 = parent(node1);
-			node2 = parent(node2);
+		throw new NodeNotFoundException("No node was found for object");
+	}
+	/**
+	 * @return number of edges from index down to the node of value
+	 */
+	private int pathLength(int index, E value) throws NodeNotFoundException {
+		for(int length = 0; index > -1; length++) {
+			int comparison = value.compareTo(nodeList.get(index));
+			if(comparison == 0)
+				return length;
+			index = childrenArray[index * MAX_CHILDREN + (comparison > 0 ? 1 : 0)];
 		}
-		return node1;
+		throw new NodeNotFoundException("No node was found for object");
 	}
 	@Override
 	public boolean contains(Object o) {
@@ -245,14 +292,11 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 	@Override
 	@Deprecated
 	public List<E> inorderOrderTraversal() {
-		return inorderOrderTraversal(0, new ArrayList<E>());
+		return inOrderTraversal();
 	}
 	@Override
 	public List<E> inOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return inorderOrderTraversal(rootIndex, new ArrayList<E>());
+		return new TreeHelper().toList(inOrderIterator(), size);
 	}
 	@Override
 	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
@@ -270,65 +314,33 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 	}
 	@Override
 	public Iterator<E> iterator() {
-		return getCurrentList().iterator();
+		return inOrderIterator();
 	}
 	@Override
 	public List<E> leaves() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return leaves(rootIndex, new ArrayList<E>());
-	}
-	private List<E> leaves(int nodeIndex, ArrayList<E> list) {
-		int[] children = childrenArray.get(nodeIndex);
-		if(children.length > 0)	{
-			int i = 0;
-			int chidrenLength = children.length;
-			for(int len = (int)Math.ceil((double)chidrenLength / 2); i < len; i++)
-				if(children[i] > -1)
-					leaves(children[i], list);
-			if(isChildrenArrayEmpty(childrenArray.get(nodeIndex)))
-				list.add(nodeList.get(nodeIndex));
-			for(int len = chidrenLength; i < len; i++)
-				if(children[i] > -1)
-					leaves(children[i], list);
-		} else if(isChildrenArrayEmpty(childrenArray.get(nodeIndex)))
-			list.add(nodeList.get(nodeIndex));
-		return list;
+		return new TreeHelper().toList(new ChildrenArrayIterator(TraversalIterator.Order.LEAF), 10);
 	}
 	@Override
 	public List<E> levelOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else {
-			LinkedList<Integer> queue = new LinkedList<Integer>();
-			queue.add(0);
-			return levelOrderTraversal(new ArrayList<E>(), queue);
-		}
+		return new TreeHelper().toList(levelOrderIterator(), size);
 	}
 	@Override
 	public E parent(E e) throws NodeNotFoundException {
 		checkNode(e);
 		int index = nodeList.indexOf(e);
-		if(index == 0)
+		if(index < 0)
+			throw new NodeNotFoundException("No node was found for object");
+		else if(index == rootIndex)
 			return null;
-		else if(index > 0)
-			return nodeList.get(parentList.get(index));
 		else
-			throw new NodeNotFoundException("No node was found for object");
+			return nodeList.get(parentArray[index]);
 	}
 	@Override
 	public List<E> postOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return postOrderTraversal(rootIndex, new ArrayList<E>());
+		return new TreeHelper().toList(postOrderIterator(), size);
 	}
 	public List<E> preOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return preOrderTraversal(rootIndex, new ArrayList<E>());
+		return new TreeHelper().toList(preOrderIterator(), size);
 	}
 	/**
 	 * Deletes node as mentioned in <a href="http://en.wikipedia.org/wiki/Binary_search_tree#Deletion">BST</a>.
@@ -342,10 +354,10 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 		int index = nodeList.indexOf(o);
 		if(index > -1) {
 			try {
-				List<E> children = children((E) o);
-				if(children.isEmpty())
+				int children = childCount(index);
+				if(children == 0)
 					deleteCase1(index);
-				else if(children.size() == 1)
+				else if(children == 1)
 					deleteCase2(index);
 				else
 					deleteCase3(index, (E) o);
@@ -369,65 +381,171 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 		remove(o);
 	}
 	private void deleteCase2(int index) {
-		Integer parentIndex = parentList.set(index, -1);
-		for(int i = 0; i < childrenArray.get(parentIndex).length; i++) {
-			if(childrenArray.get(parentIndex)[i] == index) {
-				if(childrenArray.get(index)[0] > -1)
-					childrenArray.get(parentIndex)[i] = childrenArray.get(index)[0];
-				else
-					childrenArray.get(parentIndex)[i] = childrenArray.get(index)[1];
-				break;
+		int parentIndex = parentArray[index];
+		int child = childrenArray[index * MAX_CHILDREN] > -1 ? childrenArray[index * MAX_CHILDREN] : childrenArray[index * MAX_CHILDREN + 1];
+		if(parentIndex > -1) {
+			for(int i = parentIndex * MAX_CHILDREN, len = i + MAX_CHILDREN; i < len; i++) {
+				if(childrenArray[i] == index) {
+					childrenArray[i] = child;
+					break;
+				}
 			}
-		}
-		nodeList.set(index, null);
+		} else
+			rootIndex = child;
 		size--;
-		for(int i : childrenArray.get(index))
-			if(i > -1)
-				parentList.set(i, parentIndex);
-		Arrays.fill(childrenArray.get(index), -1);
-		parentList.set(index, -1);
-		depth = recalculateDepth(rootIndex, 0);		
+		parentArray[child] = parentIndex;
+		release(index);
+		depth = recalculateDepth(rootIndex);		
 	}
 	private void deleteCase1(int index) {
-		Integer parentIndex = parentList.set(index, -1);
-		for(int i = 0; i < childrenArray.get(parentIndex).length; i++)
-			if(childrenArray.get(parentIndex)[i] == index)
-				childrenArray.get(parentIndex)[i] = -1;
-		nodeList.set(index, null);
+		if(index == rootIndex) {
+			clear();
+			return;
+		}
+		int parentIndex = parentArray[index];
+		for(int i = parentIndex * MAX_CHILDREN, len = i + MAX_CHILDREN; i < len; i++)
+			if(childrenArray[i] == index)
+				childrenArray[i] = -1;
 		size--;
-		Arrays.fill(childrenArray.get(index), -1);
-		parentList.set(index, -1);
-		depth = recalculateDepth(rootIndex, 0);
+		release(index);
+		depth = recalculateDepth(rootIndex);
 	}
 	@Override
 	public E successor(E node) throws NodeNotFoundException {
-		E right = right(node);
-		if(right != null) {
-			node = right;
-			while(left(node) != null)
-				node = left(node);
-			return node;
-		} else {
-			while(!right(parent(node)).equals(node))
-				node = parent(node);
-			return node;
-		}
+		return element(successorIndex(indexOf(node)));
 	}
 	@Override
 	public E predecessor(E node) throws NodeNotFoundException {
-		E left = left(node);
-		if(left != null) {
-			node = left;
-			while(right(node) != null)
-				node = right(node);
-			return node;
+		return element(predecessorIndex(indexOf(node)));
+	}
+	/**
+	 * @return index of the next node in order or -1 if index is the last
+	 */
+	private int successorIndex(int index) {
+		int right = childrenArray[index * MAX_CHILDREN + 1];
+		if(right > -1) {
+			index = right;
+			while(childrenArray[index * MAX_CHILDREN] > -1)
+				index = childrenArray[index * MAX_CHILDREN];
+			return index;
+		} else {
+			while(parentArray[index] > -1 && childrenArray[parentArray[index] * MAX_CHILDREN + 1] == index)
+				index = parentArray[index];
+			return parentArray[index];
+		}
+	}
+	/**
+	 * @return index of the previous node in order or -1 if index is the first
+	 */
+	private int predecessorIndex(int index) {
+		int left = childrenArray[index * MAX_CHILDREN];
+		if(left > -1) {
+			index = left;
+			while(childrenArray[index * MAX_CHILDREN + 1] > -1)
+				index = childrenArray[index * MAX_CHILDREN + 1];
+			return index;
 		} else {
-			while(!left(parent(node)).equals(node))
-				node = parent(node);
-			return node;
+			while(parentArray[index] > -1 && childrenArray[parentArray[index] * MAX_CHILDREN] == index)
+				index = parentArray[index];
+			return parentArray[index];
 		}
 	}
 	@Override
+	public E floor(E value) {
+		checkNode(value);
+		return element(highestBelow(value, true));
+	}
+	@Override
+	public E ceiling(E value) {
+		checkNode(value);
+		return element(lowestAbove(value, true));
+	}
+	@Override
+	public E higher(E value) {
+		checkNode(value);
+		return element(lowestAbove(value, false));
+	}
+	@Override
+	public E lower(E value) {
+		checkNode(value);
+		return element(highestBelow(value, false));
+	}
+	/**
+	 * @return index of the smallest value greater than value, or equal to it if inclusive is true. -1 if there
+	 * is no such node
+	 */
+	private int lowestAbove(E value, boolean inclusive) {
+		int found = -1;
+		int index = rootIndex;
+		while(index > -1) {
+			int comparison = value.compareTo(nodeList.get(index));
+			if(comparison < 0 || (comparison == 0 && inclusive)) {
+				found = index;
+				index = childrenArray[index * MAX_CHILDREN];
+			} else
+				index = childrenArray[index * MAX_CHILDREN + 1];
+		}
+		return found;
+	}
+	/**
+	 * @return index of the greatest value less than value, or equal to it if inclusive is true. -1 if there is
+	 * no such node
+	 */
+	private int highestBelow(E value, boolean inclusive) {
+		int found = -1;
+		int index = rootIndex;
+		while(index > -1) {
+			int comparison = value.compareTo(nodeList.get(index));
+			if(comparison > 0 || (comparison == 0 && inclusive)) {
+				found = index;
+				index = childrenArray[index * MAX_CHILDREN + 1];
+			} else
+				index = childrenArray[index * MAX_CHILDREN];
+		}
+		return found;
+	}
+	/**
+	 * @return index of the node at the end of the left most path if child is 0 or the right most path if child 
+	 * is 1. -1 if the tree is empty
+	 */
+	private int extremeIndex(int child) {
+		int index = rootIndex;
+		if(index > -1)
+			while(childrenArray[index * MAX_CHILDREN + child] > -1)
+				index = childrenArray[index * MAX_CHILDREN + child];
+		return index;
+	}
+	private int childCount(int index) {
+		return (childrenArray[index * MAX_CHILDREN] > -1 ? 1 : 0) + (childrenArray[index * MAX_CHILDREN + 1] > -1 ? 1 : 0);
+	}
+	private E element(int index) {
+		return index > -1 ? nodeList.get(index) : null;
+	}
+	private int indexOf(E node) throws NodeNotFoundException {
+		checkNode(node);
+		int index = nodeList.indexOf(node);
+		if(index > -1)
+			return index;
+		else
+			throw new NodeNotFoundException("No node was found for object");
+	}
+	@Override
+	public SortedSet<E> subTree(E fromElement, E toElement) {
+		checkNode(fromElement);
+		checkNode(toElement);
+		return new ChildrenArrayView(fromElement, toElement);
+	}
+	@Override
+	public SortedSet<E> headTree(E toElement) {
+		checkNode(toElement);
+		return new ChildrenArrayView(null, toElement);
+	}
+	@Override
+	public SortedSet<E> tailTree(E fromElement) {
+		checkNode(fromElement);
+		return new ChildrenArrayView(fromElement, null);
+	}
+	@Override
 	public boolean removeAll(Collection<?> c) {
 		boolean retVal = false;
 		for (Iterator<?> iterator = c.iterator(); iterator.hasNext();)
@@ -449,15 +567,13 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 	}
 	@Override
 	public List<E> siblings(E e) throws NodeNotFoundException {
-		checkNode(e);
-		E parent = parent(e);
-		if(parent != null) {
-			List<E> children = children(parent);
-			children.remove(e);
-			return children;
-		}
-		else
-			return new ArrayList<E>();
+		int index = indexOf(e);
+		ArrayList<E> siblings = new ArrayList<E>(1);
+		if(index != rootIndex)
+			for (int i = parentArray[index] * MAX_CHILDREN, len = i + MAX_CHILDREN; i < len; i++)
+				if(childrenArray[i] > -1 && childrenArray[i] != index)
+					siblings.add(nodeList.get(childrenArray[i]));
+		return siblings;
 	}
 	@Override
 	public int size() {
@@ -465,39 +581,54 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 	}
 	@Override
 	public Object[] toArray() {
-		return getCurrentList().toArray();
+		return new TreeHelper().toArray(this);
 	}
 	@Override
 	public <T> T[] toArray(T[] a) {
-		return getCurrentList().toArray(a);
+		return new TreeHelper().toArray(this, a);
 	}
 
 	private void addChild(E child, int parentIndex, int childIndex) {
-		nodeList.add(child);
-		parentList.add(parentIndex);
-		childrenArray.get(parentIndex)[childIndex] = nodeList.size() - 1;
-		int[] children = new int[MAX_CHILDREN];
-		Arrays.fill(children, -1);
-		childrenArray.add(children);
+		int index = addSlot(child, parentIndex);
+		childrenArray[parentIndex * MAX_CHILDREN + childIndex] = index;
 		size++;
 		int currentDepth = 2;
-		while(parentIndex != 0)	{
-			parentIndex = parentList.get(parentIndex);
+		while(parentIndex != rootIndex)	{
+			parentIndex = parentArray[parentIndex];
 			currentDepth++;
 		}
 		depth = Math.max(currentDepth, depth);
 	}
 
 	private void addRoot(E child) {
-		nodeList.add(child);
-		rootIndex = nodeList.size() - 1;
-		parentList.add(-1);
-		int[] children = new int[MAX_CHILDREN];
-		Arrays.fill(children, -1);
-		childrenArray.add(children);
+		rootIndex = addSlot(child, -1);
 		size++;
 		depth++;
 	}
+	/**
+	 * Stores element at a slot released by an earlier remove if there is one or appends it to the node list 
+	 * otherwise and sets up its parent and empty children slots
+	 * @return index of the element
+	 */
+	private int addSlot(E element, int parentIndex) {
+		int index;
+		if(freeSlot > -1) {
+			index = freeSlot;
+			freeSlot = parentArray[index];
+			nodeList.set(index, element);
+		} else {
+			index = nodeList.size();
+			if(index == parentArray.length) {
+				int capacity = index + (index >> 1) + 1;
+				parentArray = Arrays.copyOf(parentArray, capacity);
+				childrenArray = Arrays.copyOf(childrenArray, capacity * MAX_CHILDREN);
+			}
+			nodeList.add(element);
+		}
+		parentArray[index] = parentIndex;
+		Arrays.fill(childrenArray, index * MAX_CHILDREN, (index + 1) * MAX_CHILDREN, -1);
+		return index;
+	}
 
 	private void checkNode(E child) {
 		if(child == null)
@@ -507,84 +638,216 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 	private List<E> getCurrentList() {
 		return inOrderTraversal();
 	}
-	private int getEmptySlot(int[] children) {
-		for (int i = 0; i < children.length; i++)
-			if(children[i] == -1)
+	private int getEmptySlot(int nodeIndex) {
+		for (int i = 0; i < MAX_CHILDREN; i++)
+			if(childrenArray[nodeIndex * MAX_CHILDREN + i] == -1)
 				return i;
 		return -1;
 	}
-	private List<E> inorderOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		int[] children = childrenArray.get(nodeIndex);
-		if(children.length > 0)	{
-			int i = 0;
-			for(int len = (int)Math.ceil((double)children.length / 2); i < len; i++)
-				if(children[i] > -1)
-					inorderOrderTraversal(children[i], list);
-			list.add(nodeList.get(nodeIndex));
-			for(int len = children.length; i < len; i++)
-				if(children[i] > -1)
-					inorderOrderTraversal(children[i], list);
+	/**
+	 * @return number of levels in the sub-tree rooted at index
+	 */
+	private int recalculateDepth(int index) {
+		int[] queue = new int[size];
+		int tail = 0;
+		queue[tail++] = index;
+		int depth = 0;
+		for(int head = 0, levelEnd = tail; head < tail; depth++, levelEnd = tail)
+			for(; head < levelEnd; head++)
+				for(int i = queue[head] * MAX_CHILDREN, len = i + MAX_CHILDREN; i < len; i++)
+					if(childrenArray[i] > -1)
+						queue[tail++] = childrenArray[i];
+		return depth;
+	}
+	/**
+	 * Removed slots are chained through their parent entries and are reused by addSlot
+	 */
+	private void release(int index) {
+		nodeList.set(index, null);
+		Arrays.fill(childrenArray, index * MAX_CHILDREN, (index + 1) * MAX_CHILDREN, -1);
+		parentArray[index] = freeSlot;
+		freeSlot = index;
+	}
+	/**
+	 * Moves the nodes to the front of the underlying storage in level order, so that the slots left behind by
+	 * removed nodes are no longer kept. Removed slots are otherwise reused by later additions
+	 */
+	public void compact() {
+		if(nodeList.size() == size)
+			return;
+		int[] order = new int[size];
+		int[] newIndex = new int[nodeList.size()];
+		int tail = 0;
+		order[tail++] = rootIndex;
+		for(int head = 0; head < tail; head++) {
+			newIndex[order[head]] = head;
+			for(int i = order[head] * MAX_CHILDREN, len = i + MAX_CHILDREN; i < len; i++)
+				if(childrenArray[i] > -1)
+					order[tail++] = childrenArray[i];
 		}
-		else
-			list.add(nodeList.get(nodeIndex));
-		return list;
+		ArrayList<E> compactList = new ArrayList<E>(Math.max(size, 10));
+		int[] compactParentArray = new int[parentArray.length];
+		int[] compactChildrenArray = new int[childrenArray.length];
+		for(int i = 0; i < size; i++) {
+			int index = order[i];
+			compactList.add(nodeList.get(index));
+			compactParentArray[i] = parentArray[index] > -1 ? newIndex[parentArray[index]] : -1;
+			for(int j = 0; j < MAX_CHILDREN; j++) {
+				int child = childrenArray[index * MAX_CHILDREN + j];
+				compactChildrenArray[i * MAX_CHILDREN + j] = child > -1 ? newIndex[child] : -1;
+			}
+		}
+		nodeList = compactList;
+		parentArray = compactParentArray;
+		childrenArray = compactChildrenArray;
+		rootIndex = 0;
+		freeSlot = -1;
 	}
-	private boolean isChildrenArrayEmpty(int[] children) {
-		for (int i = 0; i < children.length; i++)
-			if(children[i] != -1)
-				return false;
-		return true;
+	/**
+	 * Compacts the tree and trims the capacity of the underlying storage to the size of the tree
+	 */
+	public void trimToSize() {
+		compact();
+		nodeList.trimToSize();
+		parentArray = Arrays.copyOf(parentArray, size);
+		childrenArray = Arrays.copyOf(childrenArray, size * MAX_CHILDREN);
 	}
-	private List<E> levelOrderTraversal(ArrayList<E> list, LinkedList<Integer> queue) {
-		while(!queue.isEmpty()) {
-			list.add(nodeList.get(queue.getFirst()));
-			for(int i : childrenArray.get(queue.getFirst()))
-				if(i > -1)
-					queue.add(i);
-			queue.remove();
-		}
-		return list;
-	}
-	private List<E> postOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		for(int  i :  childrenArray.get(nodeIndex))
-			if(i > -1)
-				postOrderTraversal(i, list);
-		if(nodeList.get(nodeIndex) != null)
-			list.add(nodeList.get(nodeIndex));
-		return list;
-	}
-	private List<E> preOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		if(nodeList.get(nodeIndex) != null)
-			list.add(nodeList.get(nodeIndex));
-		for(int i : childrenArray.get(nodeIndex))
-			if(i > -1)
-				preOrderTraversal(i, list);
-		return list;
-	}
-	private int recalculateDepth(int index, int depth) {
-		int childDepth = depth + 1;
-		if(isChildrenArrayEmpty(childrenArray.get(index)))
-			return childDepth;
-		for(int i : childrenArray.get(index))
-			if(i != -1)
-				depth = Math.max(depth, recalculateDepth(i, childDepth));
-		return depth;
+	@Override
+	public Iterator<E> preOrderIterator() {
+		return new ChildrenArrayIterator(TraversalIterator.Order.PRE);
+	}
+	@Override
+	public Iterator<E> inOrderIterator() {
+		return new ChildrenArrayIterator(TraversalIterator.Order.IN);
+	}
+	@Override
+	public Iterator<E> postOrderIterator() {
+		return new ChildrenArrayIterator(TraversalIterator.Order.POST);
+	}
+	@Override
+	public Iterator<E> levelOrderIterator() {
+		return new ChildrenArrayIterator(TraversalIterator.Order.LEVEL);
+	}
+	@Override
+	public Iterator<E> descendingIterator() {
+		return new ChildrenArrayView(null, null).descendingIterator();
+	}
+	/**
+	 * Spliterator splits at sub-tree boundaries and walks the tree in the order of its iterator
+	 * @see java.util.Collection#spliterator()
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return new ChildrenArraySpliterator();
+	}
+	/**
+	 * Walks the children array. In order publishes a node after its children in the first half of the slots
+	 */
+	private class ChildrenArrayIterator extends SlotTraversalIterator<E> {
+		ChildrenArrayIterator(TraversalIterator.Order order) {
+			super(order, rootIndex);
+		}
+		@Override
+		E element(int slot) {
+			return nodeList.get(slot);
+		}
+		@Override
+		int firstChild(int slot) {
+			return nextChild(slot, -1);
+		}
+		@Override
+		int nextChild(int slot, int cursor) {
+			for(int i = cursor + 1; i < MAX_CHILDREN; i++)
+				if(childrenArray[slot * MAX_CHILDREN + i] > -1)
+					return i;
+			return -1;
+		}
+		@Override
+		int child(int slot, int cursor) {
+			return childrenArray[slot * MAX_CHILDREN + cursor];
+		}
+		@Override
+		int childrenBefore(int slot) {
+			int count = 0;
+			for(int i = slot * MAX_CHILDREN, len = i + (MAX_CHILDREN + 1) / 2; i < len; i++)
+				if(childrenArray[i] > -1)
+					count++;
+			return count;
+		}
+	}
+	private class ChildrenArrayView extends SortedTreeView<E, Integer> {
+		ChildrenArrayView(E from, E to) {
+			super(from, to);
+		}
+		@Override
+		Integer ceilingNode(E value) {
+			return slot(value != null ? lowestAbove(value, true) : extremeIndex(0));
+		}
+		@Override
+		Integer lowerNode(E value) {
+			return slot(value != null ? highestBelow(value, false) : extremeIndex(1));
+		}
+		@Override
+		Integer successor(Integer slot) {
+			return slot(successorIndex(slot));
+		}
+		@Override
+		Integer predecessor(Integer slot) {
+			return slot(predecessorIndex(slot));
+		}
+		@Override
+		E element(Integer slot) {
+			return nodeList.get(slot);
+		}
+		@Override
+		SortedTreeView<E, Integer> view(E from, E to) {
+			return new ChildrenArrayView(from, to);
+		}
+		private Integer slot(int index) {
+			return index > -1 ? index : null;
+		}
+	}
+	private class ChildrenArraySpliterator extends SlotTreeSpliterator<E> {
+		ChildrenArraySpliterator() {
+			super(rootIndex, size, Spliterator.SORTED);
+		}
+		@Override
+		E element(int slot) {
+			return nodeList.get(slot);
+		}
+		@Override
+		int firstChild(int slot) {
+			return nextChild(slot, -1);
+		}
+		@Override
+		int nextChild(int slot, int cursor) {
+			for(int i = cursor + 1; i < MAX_CHILDREN; i++)
+				if(childrenArray[slot * MAX_CHILDREN + i] > -1)
+					return i;
+			return -1;
+		}
+		@Override
+		int child(int slot, int cursor) {
+			return childrenArray[slot * MAX_CHILDREN + cursor];
+		}
+		@Override
+		int childrenBefore(int slot) {
+			int count = 0;
+			for(int i = slot * MAX_CHILDREN, len = i + (MAX_CHILDREN + 1) / 2; i < len; i++)
+				if(childrenArray[i] > -1)
+					count++;
+			return count;
+		}
 	}
 	@Override
 	public String toString() {
 		return getCurrentList().toString();
 	}
 	private E findParent(E root, E child) throws NodeNotFoundException {
-		if(child.compareTo(root) > 0) {
-			E right = right(root);
-			if(right != null)
-				return findParent(right, child);
-			else
-				return root;
-		} else {
-			E left = left(root);
-			if(left != null)
-				return findParent(left, child);
+		while(true) {
+			E next = child.compareTo(root) > 0 ? right(root) : left(root);
+			if(next != null)
+				root = next;
 			else
 				return root;
 		}
@@ -595,7 +858,7 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 	 * @throws NodeNotFoundException
 	 */
 	public E left(E parent) throws NodeNotFoundException {
-		return child(parent, 0);
+		return childAt(parent, 0);
 	}
 	/**
 	 * @param parent
@@ -603,11 +866,11 @@ public class ArrayListBinarySearchTree<E extends Comparable<E>> implements Sorte
 	 * @throws NodeNotFoundException
 	 */
 	public E right(E parent) throws NodeNotFoundException {
-		return child(parent, 1);
+		return childAt(parent, 1);
 	}
 	@Override
 	public int hashCode() {
-		return getCurrentList().hashCode();
+		return new TreeHelper().hashCode(this);
 	}
 	@SuppressWarnings("unchecked")
 	@Override
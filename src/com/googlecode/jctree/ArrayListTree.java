@@ -15,25 +15,31 @@ package com.googlecode.jctree;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * This is a general purpose tree where each node is free to have any number of children
  * This implementation of tree interface is done using {@link ArrayList}as underlying data structure. 
- * As a result, children are maintained in insertion order under their respective parents 
+ * As a result, children are maintained in insertion order under their respective parents.
+ * Nodes are located through a {@link HashMap} from element to its index in the underlying lists and hence
+ * elements should have consistent equals and hashCode implementations. Parent and children of a node are kept
+ * as int links instead of lists of indices
  * @author Gaurav Saxena
  *
  * @param <E>
  */
 public class ArrayListTree<E> implements Tree<E>, Cloneable {
 	private ArrayList<E> nodeList = new ArrayList<E>();
-	private ArrayList<Integer> parentList = new ArrayList<Integer>();
-	private ArrayList<ArrayList<Integer>> childrenList = new ArrayList<ArrayList<Integer>>();
+	private HashMap<E, Integer> indexMap = new HashMap<E, Integer>();
+	private NodeLinks links = new NodeLinks(10);
 	private int size = 0;
 	private int depth = 0;
 	private int rootIndex = -1;
+	private volatile AncestorIndex<E> ancestorIndex;
 	
 	/**
 	 * If tree is empty, it adds a root. In case tree is not empty, it will attempt to add parameter as a child of the root 
@@ -55,29 +61,77 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 		checkNode(child);
 		if(isRootElementBeingAdded(parent, child))
 			return true;
-		int	parentIndex = nodeList.indexOf(parent);
-		if(parentIndex > -1) {
-			int childIndex = nodeList.indexOf(child);
-			if(childIndex == -1) {
-				nodeList.add(child);
-				parentList.add(parentIndex);
-				childrenList.get(parentIndex).add(nodeList.size() - 1);
-				childrenList.add(new ArrayList<Integer>());
-				size++;
-				int currentDepth = 2;
-				while(parentIndex > 0) {
-					currentDepth++;
-					parentIndex = parentList.get(parentIndex);
-				}
-				depth = Math.max(currentDepth, depth);
-				return true;
-			} else {
-				nodeList.set(childIndex, child);
-				return false;
-			}
-		} else
+		int	parentIndex = indexOf(parent);
+		if(parentIndex > -1)
+			return addChild(parentIndex, child) > -1;
+		else
 			throw new NodeNotFoundException("No node was found for parent object");
 	}
+	/**
+	 * Adds child as the last child of the node at parentIndex. If child is already present in the tree, it is 
+	 * replaced and its position is not changed
+	 * @return index of child or -1 if it was already present
+	 */
+	int addChild(int parentIndex, E child) {
+		int childIndex = indexOf(child);
+		if(childIndex == -1) {
+			childIndex = addSlot(child, parentIndex, links.childCount(parentIndex));
+			indexMap.put(child, childIndex);
+			indexLeaf(child, nodeList.get(parentIndex));
+			size++;
+			int currentDepth = 2;
+			while(parentIndex != rootIndex) {
+				currentDepth++;
+				parentIndex = links.parent(parentIndex);
+			}
+			depth = Math.max(currentDepth, depth);
+			return childIndex;
+		} else {
+			ancestorIndex = null;
+			nodeList.set(childIndex, child);
+			indexMap.remove(child);
+			indexMap.put(child, childIndex);
+			return -1;
+		}
+	}
+	int childCountAt(int index) {
+		return links.childCount(index);
+	}
+	/**
+	 * @return cursor at the node of e, which moves through the int links of the tree without looking elements up.
+	 * Cursors are invalidated by {@link #compact()} as it moves nodes to other slots
+	 * @throws NodeNotFoundException if e is not found
+	 */
+	public TreeCursor<E> cursor(E e) throws NodeNotFoundException {
+		int index = slotOf(e);
+		return new SlotCursor<E>(index, nodeList.get(index)) {
+			@Override
+			int parent(int slot) {
+				return links.parent(slot);
+			}
+			@Override
+			int firstChild(int slot) {
+				return links.firstChild(slot);
+			}
+			@Override
+			int nextSibling(int slot) {
+				return links.nextSibling(slot);
+			}
+			@Override
+			int childCount(int slot) {
+				return links.childCount(slot);
+			}
+			@Override
+			E element(int slot) {
+				return slot < nodeList.size() ? nodeList.get(slot) : null;
+			}
+			@Override
+			int add(int parentSlot, E child) {
+				checkNode(child);
+				return addChild(parentSlot, child);
+			}
+		};
+	}
 	private boolean isRootElementBeingAdded(E parent, E child) {
 		if(parent == null) {
 			if(isEmpty()) {
@@ -89,10 +143,9 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 			return false;
 	}
 	private void addRoot(E child) {
-		nodeList.add(child);
-		rootIndex = nodeList.size() - 1;
-		parentList.add(-1);
-		childrenList.add(new ArrayList<Integer>());
+		ancestorIndex = null;
+		rootIndex = addSlot(child, -1, 0);
+		indexMap.put(child, rootIndex);
 		size++;
 		depth++;		
 	}
@@ -124,37 +177,71 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 	@Override
 	public List<E> children(E e) throws NodeNotFoundException {
 		checkNode(e);
-		int index = nodeList.indexOf(e);
+		int index = indexOf(e);
 		if(index > -1) {
-			ArrayList<Integer> childrenIndexList = childrenList.get(index);
-			ArrayList<E> children = new ArrayList<E>(childrenIndexList.size());
-			for (Integer i : childrenIndexList) {
+			ArrayList<E> children = new ArrayList<E>(links.childCount(index));
+			for (int i = links.firstChild(index); i > -1; i = links.nextSibling(i))
 				children.add(nodeList.get(i));
-			}
 			return children;
 		} else
 			throw new NodeNotFoundException("No node was found for object");
 	}
-	/*@Override
-	public List<E> children(E e) throws NodeNotFoundException {
-		checkNode(e);
-		int index = nodeList.indexOf(e);
-		if(index > -1) {
-			ArrayList<Integer> childrenIndexList = childrenList.get(index);
-			Object[] array = new Object[childrenList.size()];
-			int j = 0;
-			for (Integer i : childrenIndexList) {
-				array[j++] = (nodeList.get(i));
+	@Override
+	public int childCount(E parent) throws NodeNotFoundException {
+		return links.childCount(slotOf(parent));
+	}
+	@Override
+	public E child(E parent, int index) throws NodeNotFoundException {
+		int parentIndex = slotOf(parent);
+		if(index < 0)
+			throw new IndexOutOfBoundsException("index found to be " + index + ".It cannot be negative");
+		int child = links.child(parentIndex, index);
+		return child > -1 ? nodeList.get(child) : null;
+	}
+	@Override
+	public void forEachChild(E parent, Consumer<? super E> action) throws NodeNotFoundException {
+		for (int i = links.firstChild(slotOf(parent)); i > -1; i = links.nextSibling(i))
+			action.accept(nodeList.get(i));
+	}
+	@Override
+	public List<E> childrenView(E parent) throws NodeNotFoundException {
+		return new SlotChildrenView<E>(slotOf(parent), parent) {
+			@Override
+			int slotOf(E element) {
+				return ArrayListTree.this.indexOf(element);
 			}
-			return (List<E>) Arrays.asList(array);
-		} else
-			throw new NodeNotFoundException("No node was found for object");
-	}*/
+			@Override
+			E element(int slot) {
+				return slot < nodeList.size() ? nodeList.get(slot) : null;
+			}
+			@Override
+			int childCount(int slot) {
+				return links.childCount(slot);
+			}
+			@Override
+			int childAt(int slot, int index) {
+				return links.child(slot, index);
+			}
+			@Override
+			int firstChild(int slot) {
+				return links.firstChild(slot);
+			}
+			@Override
+			int nextChild(int slot, int cursor) {
+				return links.nextSibling(cursor);
+			}
+			@Override
+			int child(int slot, int cursor) {
+				return cursor;
+			}
+		};
+	}
 	@Override
 	public void clear() {
+		ancestorIndex = null;
 		nodeList.clear();
-		parentList.clear();
-		childrenList.clear();
+		indexMap.clear();
+		links.clear();
 		size = 0;
 		depth = 0;
 		rootIndex = -1;
@@ -166,12 +253,11 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 		try {
 			v = (ArrayListTree<E>) super.clone();
 			v.nodeList = (ArrayList<E>) nodeList.clone();
-			v.parentList = (ArrayList<Integer>) parentList.clone();
-			v.childrenList = new ArrayList<ArrayList<Integer>>();
+			v.indexMap = (HashMap<E, Integer>) indexMap.clone();
+			v.links = links.clone();
+			v.ancestorIndex = null;
 			v.size = this.size;
 			v.depth = this.depth;
-			for(int i = 0; i < childrenList.size(); i++)
-				v.childrenList.add((ArrayList<Integer>) childrenList.get(i).clone());
 		} catch (CloneNotSupportedException e) {
 			//This should't happen because we are cloneable
 		}
@@ -179,45 +265,35 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 	}
 	@Override
 	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
-		int height1 = 0;
-		E e1 = node1; 
-		while(e1 != null) {
-			height1++;
-			e1 = parent(e1);
-		}
-		int height2 = 0;
-		E e2 = node2; 
-		while(e2 != null) {
-			height2++;
-			e2 = parent(e2);
-		}
-		if(height1 > height2) {
-			while(height1 - height2 > 0) {
-				node1 = parent(node1);
-				height1--;
-			}
-		} else {
-			while(height2 - height1 > 0) {
-				node2 = parent(node2);
-				height2--;
-			}
-		}
-		while(node1 != null && !node1.equals(node2)) {
-			node1 = parent(node1);
-			node2 = parent(node2);
-		}
-		return node1;
+		checkNode(node1);
+		checkNode(node2);
+		if(contains(node1) && contains(node2))
+			return ancestorIndex().commonAncestor(node1, node2);
+		else
+			throw new NodeNotFoundException("No node was found for object");
+	}
+	@Override
+	public int distance(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		if(contains(node1) && contains(node2))
+			return ancestorIndex().distance(node1, node2);
+		else
+			throw new NodeNotFoundException("No node was found for object");
 	}
 	@Override
 	public boolean contains(Object o) {
 		if(o == null)
 			return false;
 		else
-			return nodeList.indexOf(o) > -1;
+			return indexMap.containsKey(o);
 	}
 	@Override
 	public boolean containsAll(Collection<?> c) {
-		return nodeList.containsAll(c);
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
 	}
 	@Override
 	public int depth() {
@@ -226,24 +302,27 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 	@Override
 	@Deprecated
 	public List<E> inorderOrderTraversal() {
-		return inorderOrderTraversal(0, new ArrayList<E>());
+		return inOrderTraversal();
 	}
 	@Override
 	public List<E> inOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return inorderOrderTraversal(rootIndex, new ArrayList<E>());
+		return new TreeHelper().toList(inOrderIterator(), size);
 	}
 	@Override
 	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
 		checkNode(child);
-		return new TreeHelper().isAncestor(this, node, child);
+		if(contains(child))
+			return contains(node) && ancestorIndex().isAncestor(node, child);
+		else
+			throw new NodeNotFoundException("No node was found for object");
 	}
 	@Override
 	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
 		checkNode(parent);
-		return new TreeHelper().isDescendant(this, parent, node);
+		if(contains(parent))
+			return node != null && isAncestor(parent, node);
+		else
+			throw new NodeNotFoundException("No node was found for object");
 	}
 	@Override
 	public boolean isEmpty() {
@@ -255,63 +334,34 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 	 */
 	@Override
 	public Iterator<E> iterator() {
-		return getCurrentList().iterator();
+		return inOrderIterator();
 	}
 	@Override
 	public List<E> leaves() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return leaves(rootIndex, new ArrayList<E>());
-	}
-	private List<E> leaves(int nodeIndex, ArrayList<E> list) {
-		ArrayList<Integer> children = childrenList.get(nodeIndex);
-		if(children.size() > 0)	{
-			int i = 0;
-			for(; i < (int)Math.ceil((double)children.size() / 2); i++)
-				leaves(children.get(i), list);
-			if(childrenList.get(nodeIndex).isEmpty())
-				list.add(nodeList.get(nodeIndex));
-			for(; i < children.size(); i++)
-				leaves(children.get(i), list);
-		} else if(childrenList.get(nodeIndex).isEmpty())
-			list.add(nodeList.get(nodeIndex));
-		return list;
+		return new TreeHelper().toList(iterator(TraversalIterator.Order.LEAF), 10);
 	}
 	@Override
 	public List<E> levelOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else {
-			LinkedList<Integer> queue = new LinkedList<Integer>();
-			queue.add(0);
-			return levelOrderTraversal(new ArrayList<E>(), queue);
-		}
+		return new TreeHelper().toList(levelOrderIterator(), size);
 	}
 	@Override
 	public E parent(E e) throws NodeNotFoundException {
 		checkNode(e);
-		int index = nodeList.indexOf(e);
-		if(index == 0)
+		int index = indexOf(e);
+		if(index < 0)
+			throw new NodeNotFoundException("No node was found for object");
+		else if(index == rootIndex)
 			return null;
-		else if(index > 0)
-			return nodeList.get(parentList.get(index));
 		else
-			throw new NodeNotFoundException("No node was found for object");
+			return nodeList.get(links.parent(index));
 	}
 	@Override
 	public List<E> postOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return postOrderTraversal(rootIndex, new ArrayList<E>());
+		return new TreeHelper().toList(postOrderIterator(), size);
 	}
 	@Override
 	public List<E> preOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return preOrderTraversal(rootIndex, new ArrayList<E>());
+		return new TreeHelper().toList(preOrderIterator(), size);
 	}
 
 	/**
@@ -321,12 +371,12 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 	@Override
 	public boolean remove(Object o) {
 		checkNode(o);
-		int i = nodeList.indexOf(o);
+		int i = indexOf(o);
 		if(i > -1) {
 			boolean wasRemoved;
 			if(i != rootIndex) {
 				wasRemoved = remove(i);
-				depth = recalculateDepth(rootIndex, 0);
+				depth = links.height(rootIndex);
 			} else {
 				wasRemoved = remove(i);
 				depth = 0;
@@ -358,14 +408,14 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 	}
 	@Override
 	public List<E> siblings(E e) throws NodeNotFoundException {
-		checkNode(e);
-		E parent = parent(e);
-		if(parent != null) {
-			List<E> children = children(parent);
-			children.remove(e);
-			return children;
-		} else
-			return new ArrayList<E>();
+		int index = slotOf(e);
+		int parentIndex = links.parent(index);
+		ArrayList<E> siblings = new ArrayList<E>(parentIndex > -1 ? links.childCount(parentIndex) - 1 : 0);
+		if(parentIndex > -1)
+			for (int i = links.firstChild(parentIndex); i > -1; i = links.nextSibling(i))
+				if(i != index)
+					siblings.add(nodeList.get(i));
+		return siblings;
 	}
 
 	@Override
@@ -375,59 +425,63 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 
 	@Override
 	public Object[] toArray() {
-		return getCurrentList().toArray();
+		return new TreeHelper().toArray(this);
 	}
 
 	@Override
 	public <T> T[] toArray(T[] a) {
-		return getCurrentList().toArray(a);
+		return new TreeHelper().toArray(this, a);
 	}
 
+	/**
+	 * @return index of the ancestors of the nodes, which is built again once it has fallen too far behind the tree
+	 */
+	private AncestorIndex<E> ancestorIndex() {
+		AncestorIndex<E> index = ancestorIndex;
+		if(index == null || index.isStale(size)) {
+			index = new AncestorIndex<E>(size);
+			if(!isEmpty())
+				for(int slot : links.levelOrder(rootIndex)) {
+					int parentSlot = links.parent(slot);
+					index.add(nodeList.get(slot), parentSlot > -1 ? nodeList.get(parentSlot) : null);
+				}
+			ancestorIndex = index.build();
+		}
+		return index;
+	}
+	/**
+	 * Adds a new leaf to the index of ancestors if there is one
+	 */
+	private void indexLeaf(E child, E parent) {
+		AncestorIndex<E> index = ancestorIndex;
+		if(index != null)
+			index.add(child, parent);
+	}
 	private void checkNode(Object child) {
 		if(child == null)
 			throw new IllegalArgumentException("null nodes are not allowed");
 	}
+	/**
+	 * @return index of e in the underlying lists
+	 * @throws NodeNotFoundException if e is not found
+	 */
+	private int slotOf(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int index = indexOf(e);
+		if(index > -1)
+			return index;
+		else
+			throw new NodeNotFoundException("No node was found for object");
+	}
 	private List<E> getCurrentList() {
 		return inOrderTraversal();
 	}
-	private List<E> inorderOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		ArrayList<Integer> children = childrenList.get(nodeIndex);
-		if(children.size() > 0)	{
-			int i = 0;
-			for(; i < (int)Math.ceil((double)children.size() / 2); i++)
-				inorderOrderTraversal(children.get(i), list);
-			list.add(nodeList.get(nodeIndex));
-			for(; i < children.size(); i++)
-				inorderOrderTraversal(children.get(i), list);
-		} else
-			list.add(nodeList.get(nodeIndex));
-		return list;
-	}
-	private List<E> levelOrderTraversal(ArrayList<E> list, LinkedList<Integer> queue) {
-		while(!queue.isEmpty()) {
-			list.add(nodeList.get(queue.getFirst()));
-			ArrayList<Integer> children = childrenList.get(queue.getFirst());
-			for(int i = 0; i < children.size(); i++)
-				queue.add(children.get(i));
-			queue.remove();
-		}
-		return list;
-	}
-	private List<E> postOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		ArrayList<Integer> children = childrenList.get(nodeIndex);
-		for(int i = 0; i < children.size(); i++)
-			postOrderTraversal(children.get(i), list);
-		if(nodeList.get(nodeIndex) != null)
-			list.add(nodeList.get(nodeIndex));
-		return list;
-	}
-	private List<E> preOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		if(nodeList.get(nodeIndex) != null)
-			list.add(nodeList.get(nodeIndex));
-		ArrayList<Integer> children = childrenList.get(nodeIndex);
-		for(int i = 0; i < children.size(); i++)
-			preOrderTraversal(children.get(i), list);
-		return list;
+	private int indexOf(Object o) {
+		Integer index = indexMap.get(o);
+		if(index != null)
+			return index;
+		else
+			return -1;
 	}
 	private boolean remove(int index) {
 		if(index > -1) {
@@ -435,31 +489,87 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 				rootIndex = -1;
 				size = 0;
 				nodeList.clear();
-				parentList.clear();
-				childrenList.clear();
+				indexMap.clear();
+				links.clear();
 				return true;
 			} else {
-				Integer parentIndex = parentList.set(index, -1);
-				if(parentIndex > -1)//if node is not root
-					childrenList.get(parentIndex).remove(Integer.valueOf(index));
-				nodeList.set(index, null);
-				size--;
-				ArrayList<Integer> children = childrenList.get(index);
-				for (int j = 0; j < children.size();) 
-					remove(children.get(0).intValue());
-				childrenList.get(index).clear();
+				links.unlink(index);
+				release(index);
 				return true;
 			}
 		} else
 			return false;
 	}
-	private int recalculateDepth(int index, int depth) {
-		int childDepth = depth + 1;
-		if(childrenList.get(index).isEmpty())
-			return childDepth;
-		else for(Integer i : childrenList.get(index))
-			depth = Math.max(depth, recalculateDepth(i, childDepth));
-		return depth;
+	private void release(int index) {
+		for(int slot : links.levelOrder(index)) {
+			indexMap.remove(nodeList.set(slot, null));
+			size--;
+			links.release(slot);
+		}
+	}
+	/**
+	 * Stores element at a slot released by an earlier remove if there is one or at the end otherwise
+	 * @return index of the element
+	 */
+	private int addSlot(E element, int parentIndex, int position) {
+		int index = links.add(parentIndex, position);
+		if(index == nodeList.size())
+			nodeList.add(element);
+		else
+			nodeList.set(index, element);
+		return index;
+	}
+	/**
+	 * Moves the nodes to the front of the underlying storage in level order, so that the slots left behind by
+	 * removed nodes are no longer kept. Removed slots are otherwise reused by later additions
+	 */
+	public void compact() {
+		if(nodeList.size() == size)
+			return;
+		int[] order = links.compact(rootIndex, size);
+		ArrayList<E> compactList = new ArrayList<E>(Math.max(size, 10));
+		for(int i = 0; i < size; i++) {
+			E element = nodeList.get(order[i]);
+			compactList.add(element);
+			indexMap.put(element, i);
+		}
+		nodeList = compactList;
+		rootIndex = 0;
+	}
+	/**
+	 * Compacts the tree and trims the capacity of the underlying storage to the size of the tree
+	 */
+	public void trimToSize() {
+		compact();
+		nodeList.trimToSize();
+		links.trimToSize();
+	}
+	@Override
+	public Iterator<E> preOrderIterator() {
+		return iterator(TraversalIterator.Order.PRE);
+	}
+	@Override
+	public Iterator<E> inOrderIterator() {
+		return iterator(TraversalIterator.Order.IN);
+	}
+	@Override
+	public Iterator<E> postOrderIterator() {
+		return iterator(TraversalIterator.Order.POST);
+	}
+	/**
+	 * Spliterator splits at sub-tree boundaries and walks the tree in the order of its iterator
+	 * @see java.util.Collection#spliterator()
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return links.spliterator(nodeList, rootIndex, size);
+	}
+	@Override
+	public Iterator<E> levelOrderIterator() {
+		return iterator(TraversalIterator.Order.LEVEL);
+	}
+	private Iterator<E> iterator(TraversalIterator.Order order) {
+		return links.iterator(order, nodeList, rootIndex);
 	}
 	@Override
 	public String toString() {
@@ -467,7 +577,7 @@ public class ArrayListTree<E> implements Tree<E>, Cloneable {
 	}
 	@Override
 	public int hashCode() {
-		return getCurrentList().hashCode();
+		return new TreeHelper().hashCode(this);
 	}
 	@SuppressWarnings("unchecked")
 	@Override
@@ -0,0 +1,690 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Self-balancing red black tree like {@link BinaryRedBlackTree} whose nodes are slots in arrays instead of objects.
+ * Elements are kept in an array, while left, right and parent slots of the nodes are kept in three parallel int 
+ * arrays and colors as bits of a long array by {@link RedBlackLinks}, which rebalances them as {@link IntSortedTree}
+ * does. A node hence takes an element reference, three ints and a bit, whereas every node of 
+ * {@link BinaryRedBlackTree} is an object of its own, while operations keep their O(log n) bounds.
+ * <br>
+ * Slot 0 is a black sentinel which stands for every missing child. Slots of removed nodes are chained through their
+ * right links and are reused by later additions. Depth is counted again by {@link #depth()} after the tree changes
+ * 
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class ArrayRedBlackTree<E extends Comparable<E>> implements SortedTree<E>, Cloneable {
+	private static final int NIL = RedBlackLinks.NIL;
+	private Object[] elements;
+	private RedBlackLinks links;
+	private int size = 0;
+	/** Number of levels in the tree or -1 if they have to be counted again */
+	private int depth = 0;
+
+	public ArrayRedBlackTree() {
+		this(10);
+	}
+	/**
+	 * @param initialCapacity number of nodes which are stored without growing the arrays
+	 * @throws IllegalArgumentException if initialCapacity is negative
+	 */
+	public ArrayRedBlackTree(int initialCapacity) {
+		if(initialCapacity < 0)
+			throw new IllegalArgumentException("initialCapacity found to be " + initialCapacity + ".It cannot be negative");
+		elements = new Object[initialCapacity + 1];
+		links = new RedBlackLinks(initialCapacity + 1);
+	}
+	/**
+	 * Adds child as a red leaf where a search for it ends and recolors and rotates the nodes above it as given in
+	 * <a href='http://en.wikipedia.org/wiki/Red%E2%80%93black_tree'>Wikipedia</a>. An equal element already
+	 * present is replaced by child
+	 * @see java.util.Collection#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(E child) {
+		checkNode(child);
+		int y = NIL, x = links.root(), comparison = 0;
+		while(x != NIL) {
+			y = x;
+			comparison = child.compareTo(element(x));
+			if(comparison < 0)
+				x = links.left(x);
+			else if(comparison > 0)
+				x = links.right(x);
+			else {
+				elements[x] = child;
+				return false;
+			}
+		}
+		links.insert(newSlot(child), y, comparison < 0);
+		size++;
+		depth = -1;
+		return true;
+	}
+	/**
+	 * Unsupported Operation
+	 * A red-black tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #add(Comparable)})
+	 * @see com.googlecode.jctree.Tree#add(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public boolean add(E parent, E child) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("A red-black tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	/**
+	 * Adds the elements one at a time if there are fewer of them than nodes in the tree. Otherwise they are merged 
+	 * with the nodes of the tree and the whole tree is built again perfectly balanced in O(n), as done by 
+	 * {@link BinaryRedBlackTree#addAll(Collection)}
+	 * @see java.util.Collection#addAll(java.util.Collection)
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		if(c.size() < size) {
+			boolean retVal = false;
+			for (Iterator<? extends E> iterator = c.iterator(); iterator.hasNext();)
+				retVal |= add(iterator.next());
+			return retVal;
+		} else {
+			int oldSize = size;
+			Object[] values = new TreeHelper().sortedUnion(inOrderIterator(), size, c, true);
+			int levels = 32 - Integer.numberOfLeadingZeros(values.length);
+			clear();
+			links.ensureCapacity(values.length + 1);
+			elements = Arrays.copyOf(elements, links.capacity());
+			build(values, 0, values.length - 1, NIL, false, 0, values.length == (1 << levels) - 1 ? -1 : levels - 1);
+			size = values.length;
+			depth = levels;
+			return size != oldSize;
+		}
+	}
+	/**
+	 * Builds a balanced sub-tree out of the sorted values between from and to, both inclusive, with the middle 
+	 * value at its root. Recursion is only as deep as the tree built, which is O(log n)
+	 * @param isLeft true if the sub-tree goes to the left of parentSlot
+	 * @param redLevel level whose nodes are colored red
+	 */
+	private void build(Object[] values, int from, int to, int parentSlot, boolean isLeft, int level, int redLevel) {
+		if(from > to)
+			return;
+		int middle = (from + to) >>> 1;
+		int slot = newSlot(values[middle]);
+		links.link(slot, parentSlot, isLeft, level == redLevel);
+		build(values, from, middle - 1, slot, true, level + 1, redLevel);
+		build(values, middle + 1, to, slot, false, level + 1, redLevel);
+	}
+	/**
+	 * Unsupported Operation
+	 * A red-black tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use {@link #addAll(Collection)})
+	 * @see com.googlecode.jctree.Tree#add(java.lang.Object, java.lang.Object)
+	 **/
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) {
+		throw new UnsupportedOperationException("A red-black tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	@Override
+	public List<E> children(E e) throws NodeNotFoundException {
+		int slot = indexOf(e);
+		ArrayList<E> children = new ArrayList<E>(2);
+		if(links.left(slot) != NIL)
+			children.add(element(links.left(slot)));
+		if(links.right(slot) != NIL)
+			children.add(element(links.right(slot)));
+		return children;
+	}
+	@Override
+	public int childCount(E parent) throws NodeNotFoundException {
+		int slot = indexOf(parent);
+		return (links.left(slot) != NIL ? 1 : 0) + (links.right(slot) != NIL ? 1 : 0);
+	}
+	/**
+	 * Children are numbered in the order of {@link #children(Comparable)} i.e. a lone right child is at index 0. 
+	 * Please use {@link #left(Comparable)} and {@link #right(Comparable)} to get a child by its side
+	 * @see com.googlecode.jctree.Tree#child(java.lang.Object, int)
+	 */
+	@Override
+	public E child(E parent, int index) throws NodeNotFoundException {
+		int slot = indexOf(parent);
+		if(index < 0)
+			throw new IndexOutOfBoundsException("index found to be " + index + ".It cannot be negative");
+		else if(index == 0)
+			return valueOf(links.left(slot) != NIL ? links.left(slot) : links.right(slot));
+		else if(index == 1 && links.left(slot) != NIL)
+			return valueOf(links.right(slot));
+		else
+			return null;
+	}
+	@Override
+	public void forEachChild(E parent, Consumer<? super E> action) throws NodeNotFoundException {
+		int slot = indexOf(parent);
+		if(links.left(slot) != NIL)
+			action.accept(element(links.left(slot)));
+		if(links.right(slot) != NIL)
+			action.accept(element(links.right(slot)));
+	}
+	@Override
+	public List<E> childrenView(E parent) throws NodeNotFoundException {
+		indexOf(parent);
+		return new TreeHelper().childrenView(this, parent);
+	}
+	@Override
+	public void clear() {
+		Arrays.fill(elements, 0, links.slots(), null);
+		links.clear();
+		size = 0;
+		depth = 0;
+	}
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object clone() {
+		ArrayRedBlackTree<E> v = null;
+		try {
+			v = (ArrayRedBlackTree<E>) super.clone();
+			v.links = links.clone();
+			v.elements = Arrays.copyOf(elements, v.links.capacity());
+		} catch (CloneNotSupportedException e) {
+			//This should't happen because we are cloneable
+		}
+		return v;
+	}
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		int fork = fork(node1, node2);
+		pathLength(fork, node1);
+		pathLength(fork, node2);
+		return element(fork);
+	}
+	@Override
+	public int distance(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		int fork = fork(node1, node2);
+		return pathLength(fork, node1) + pathLength(fork, node2);
+	}
+	/**
+	 * @return slot at which the search paths of node1 and node2 part, which is their common ancestor when both
+	 * are present
+	 */
+	private int fork(E node1, E node2) throws NodeNotFoundException {
+		int slot = links.root();
+		while(slot != NIL) {
+			int comparison1 = node1.compareTo(element(slot));
+			int comparison2 = node2.compareTo(element(slot));
+			if(comparison1 > 0 && comparison2 > 0)
+				slot = links.right(slot);
+			else if(comparison1 < 0 && comparison2 < 0)
+				slot = links.left(slot);
+			else
+				return slot;
+		}
+		throw new NodeNotFoundException("No node was found for object");
+	}
+	/**
+	 * @return number of edges from slot down to the node of value
+	 */
+	private int pathLength(int slot, E value) throws NodeNotFoundException {
+		for(int length = 0; slot != NIL; length++) {
+			int comparison = value.compareTo(element(slot));
+			if(comparison == 0)
+				return length;
+			slot = comparison > 0 ? links.right(slot) : links.left(slot);
+		}
+		throw new NodeNotFoundException("No node was found for object");
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean contains(Object o) {
+		if(o == null || size == 0)
+			return false;
+		else if(o instanceof Comparable)
+			return slotOf((Comparable<E>) o) != NIL;
+		else
+			return search(o) != NIL;
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
+	}
+	/**
+	 * Depth is counted by a walk over the tree, which needs no stack, the first time it is asked for after the tree
+	 * has changed
+	 * @see com.googlecode.jctree.Tree#depth()
+	 */
+	@Override
+	public int depth() {
+		if(depth < 0)
+			depth = links.height();
+		return depth;
+	}
+	@Override
+	@Deprecated
+	public List<E> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	@Override
+	public List<E> inOrderTraversal() {
+		return new TreeHelper().toList(inOrderIterator(), size);
+	}
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		checkNode(child);
+		return new TreeHelper().isAncestor(this, node, child);
+	}
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		checkNode(parent);
+		return new TreeHelper().isDescendant(this, parent, node);
+	}
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	@Override
+	public Iterator<E> iterator() {
+		return inOrderIterator();
+	}
+	@Override
+	public List<E> leaves() {
+		return new TreeHelper().toList(new SlotIterator(TraversalIterator.Order.LEAF), 10);
+	}
+	@Override
+	public List<E> levelOrderTraversal() {
+		return new TreeHelper().toList(levelOrderIterator(), size);
+	}
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		return valueOf(links.parent(indexOf(e)));
+	}
+	@Override
+	public List<E> postOrderTraversal() {
+		return new TreeHelper().toList(postOrderIterator(), size);
+	}
+	@Override
+	public List<E> preOrderTraversal() {
+		return new TreeHelper().toList(preOrderIterator(), size);
+	}
+	/**
+	 * Removes the node as given in Introduction to Algorithms by Cormen et al. A node with two children is replaced
+	 * by its successor, which is moved into its place rather than copied, so that slots of the other nodes do not 
+	 * change
+	 * @see java.util.Collection#remove(java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean remove(Object o) {
+		checkNode(o);
+		if(isEmpty())
+			return false;
+		int z = o instanceof Comparable ? slotOf((Comparable<E>) o) : search(o);
+		if(z == NIL)
+			return false;
+		links.remove(z);
+		elements[z] = null;
+		size--;
+		depth = -1;
+		return true;
+	}
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean retVal = false;
+		for (Iterator<?> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= remove(iterator.next());
+		return retVal;
+	}
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+	}
+	@Override
+	public E root() {
+		return valueOf(links.root());
+	}
+	@Override
+	public List<E> siblings(E e) throws NodeNotFoundException {
+		int slot = indexOf(e);
+		ArrayList<E> siblings = new ArrayList<E>(1);
+		int parentSlot = links.parent(slot);
+		if(parentSlot != NIL) {
+			int sibling = links.left(parentSlot) == slot ? links.right(parentSlot) : links.left(parentSlot);
+			if(sibling != NIL)
+				siblings.add(element(sibling));
+		}
+		return siblings;
+	}
+	@Override
+	public int size() {
+		return size;
+	}
+	@Override
+	public Object[] toArray() {
+		return new TreeHelper().toArray(this);
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return new TreeHelper().toArray(this, a);
+	}
+	@Override
+	public E successor(E node) throws NodeNotFoundException {
+		return valueOf(links.successor(indexOf(node)));
+	}
+	@Override
+	public E predecessor(E node) throws NodeNotFoundException {
+		return valueOf(links.predecessor(indexOf(node)));
+	}
+	@Override
+	public E floor(E value) {
+		checkNode(value);
+		return valueOf(highestBelow(value, true));
+	}
+	@Override
+	public E ceiling(E value) {
+		checkNode(value);
+		return valueOf(lowestAbove(value, true));
+	}
+	@Override
+	public E higher(E value) {
+		checkNode(value);
+		return valueOf(lowestAbove(value, false));
+	}
+	@Override
+	public E lower(E value) {
+		checkNode(value);
+		return valueOf(highestBelow(value, false));
+	}
+	@Override
+	public SortedSet<E> subTree(E fromElement, E toElement) {
+		checkNode(fromElement);
+		checkNode(toElement);
+		return new SlotView(fromElement, toElement);
+	}
+	@Override
+	public SortedSet<E> headTree(E toElement) {
+		checkNode(toElement);
+		return new SlotView(null, toElement);
+	}
+	@Override
+	public SortedSet<E> tailTree(E fromElement) {
+		checkNode(fromElement);
+		return new SlotView(fromElement, null);
+	}
+	/**
+	 * @param parent
+	 * @return the left child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E left(E parent) throws NodeNotFoundException {
+		return valueOf(links.left(indexOf(parent)));
+	}
+	/**
+	 * @param parent
+	 * @return the right child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E right(E parent) throws NodeNotFoundException {
+		return valueOf(links.right(indexOf(parent)));
+	}
+	/**
+	 * Moves the nodes to the front of the arrays in level order, so that the slots left behind by removed nodes are
+	 * no longer kept. Removed slots are otherwise reused by later additions
+	 */
+	public void compact() {
+		if(links.slots() == size + 1)
+			return;
+		int[] order = links.compact();
+		Object[] compactElements = new Object[elements.length];
+		for(int i = 1; i <= size; i++)
+			compactElements[i] = elements[order[i]];
+		elements = compactElements;
+	}
+	/**
+	 * Compacts the tree and trims the capacity of the arrays to the size of the tree
+	 */
+	public void trimToSize() {
+		compact();
+		links.trimToSize();
+		elements = Arrays.copyOf(elements, links.capacity());
+	}
+	@Override
+	public Iterator<E> preOrderIterator() {
+		return new SlotIterator(TraversalIterator.Order.PRE);
+	}
+	@Override
+	public Iterator<E> inOrderIterator() {
+		return new SlotIterator(TraversalIterator.Order.IN);
+	}
+	@Override
+	public Iterator<E> postOrderIterator() {
+		return new SlotIterator(TraversalIterator.Order.POST);
+	}
+	@Override
+	public Iterator<E> levelOrderIterator() {
+		return new SlotIterator(TraversalIterator.Order.LEVEL);
+	}
+	@Override
+	public Iterator<E> descendingIterator() {
+		return new SlotView(null, null).descendingIterator();
+	}
+	/**
+	 * Spliterator splits at sub-tree boundaries and walks the tree in sorted order
+	 * @see java.util.Collection#spliterator()
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return new SlotSpliterator();
+	}
+	@Override
+	public String toString() {
+		return inOrderTraversal().toString();
+	}
+	@Override
+	public int hashCode() {
+		return new TreeHelper().hashCode(this);
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof ArrayRedBlackTree) {
+			try {
+				return new TreeHelper().isEqual((ArrayRedBlackTree<E>) o, this, ((ArrayRedBlackTree<E>) o).root(), root());
+			} catch (NodeNotFoundException e) {
+				e.printStackTrace();
+				return false;
+			}
+		} else
+			return false;
+	}
+	private class SlotIterator extends SlotTraversalIterator<E> {
+		SlotIterator(TraversalIterator.Order order) {
+			super(order, links.root() != NIL ? links.root() : -1);
+		}
+		@Override
+		E element(int slot) {
+			return ArrayRedBlackTree.this.element(slot);
+		}
+		@Override
+		int firstChild(int slot) {
+			return links.left(slot) != NIL ? 0 : nextChild(slot, 0);
+		}
+		@Override
+		int nextChild(int slot, int cursor) {
+			return cursor == 0 && links.right(slot) != NIL ? 1 : -1;
+		}
+		@Override
+		int child(int slot, int cursor) {
+			return cursor == 0 ? links.left(slot) : links.right(slot);
+		}
+		@Override
+		int childrenBefore(int slot) {
+			return links.left(slot) != NIL ? 1 : 0;
+		}
+	}
+	private class SlotView extends SortedTreeView<E, Integer> {
+		SlotView(E from, E to) {
+			super(from, to);
+		}
+		@Override
+		Integer ceilingNode(E value) {
+			return slot(value != null ? lowestAbove(value, true) : links.minimum(links.root()));
+		}
+		@Override
+		Integer lowerNode(E value) {
+			return slot(value != null ? highestBelow(value, false) : links.maximum(links.root()));
+		}
+		@Override
+		Integer successor(Integer slot) {
+			return slot(links.successor(slot));
+		}
+		@Override
+		Integer predecessor(Integer slot) {
+			return slot(links.predecessor(slot));
+		}
+		@Override
+		E element(Integer slot) {
+			return ArrayRedBlackTree.this.element(slot);
+		}
+		@Override
+		SortedTreeView<E, Integer> view(E from, E to) {
+			return new SlotView(from, to);
+		}
+		private Integer slot(int slot) {
+			return slot != NIL ? slot : null;
+		}
+	}
+	private class SlotSpliterator extends SlotTreeSpliterator<E> {
+		SlotSpliterator() {
+			super(links.root() != NIL ? links.root() : -1, size, Spliterator.SORTED);
+		}
+		@Override
+		E element(int slot) {
+			return ArrayRedBlackTree.this.element(slot);
+		}
+		@Override
+		int firstChild(int slot) {
+			return links.left(slot) != NIL ? 0 : nextChild(slot, 0);
+		}
+		@Override
+		int nextChild(int slot, int cursor) {
+			return cursor == 0 && links.right(slot) != NIL ? 1 : -1;
+		}
+		@Override
+		int child(int slot, int cursor) {
+			return cursor == 0 ? links.left(slot) : links.right(slot);
+		}
+		@Override
+		int childrenBefore(int slot) {
+			return links.left(slot) != NIL ? 1 : 0;
+		}
+	}
+	@SuppressWarnings("unchecked")
+	private E element(int slot) {
+		return (E) elements[slot];
+	}
+	private E valueOf(int slot) {
+		return slot != NIL ? element(slot) : null;
+	}
+	/**
+	 * @return slot of value or the sentinel if it is not present
+	 */
+	private int slotOf(Comparable<E> value) {
+		int slot = links.root();
+		while(slot != NIL) {
+			int comparison = value.compareTo(element(slot));
+			if(comparison == 0)
+				return slot;
+			slot = comparison < 0 ? links.left(slot) : links.right(slot);
+		}
+		return NIL;
+	}
+	/**
+	 * @return slot of an element equal to o, found by a scan of the slots, or the sentinel if there is none
+	 */
+	private int search(Object o) {
+		for(int slot = 1; slot < links.slots(); slot++)
+			if(elements[slot] != null && o.equals(elements[slot]))
+				return slot;
+		return NIL;
+	}
+	private int indexOf(E node) throws NodeNotFoundException {
+		checkNode(node);
+		int slot = slotOf(node);
+		if(slot != NIL)
+			return slot;
+		else
+			throw new NodeNotFoundException("No node was found for object");
+	}
+	/**
+	 * @return slot of the smallest value greater than value, or equal to it if inclusive is true. The sentinel if
+	 * there is no such node
+	 */
+	private int lowestAbove(E value, boolean inclusive) {
+		int found = NIL;
+		int slot = links.root();
+		while(slot != NIL) {
+			int comparison = value.compareTo(element(slot));
+			if(comparison < 0 || (comparison == 0 && inclusive)) {
+				found = slot;
+				slot = links.left(slot);
+			} else
+				slot = links.right(slot);
+		}
+		return found;
+	}
+	/**
+	 * @return slot of the greatest value less than value, or equal to it if inclusive is true. The sentinel if 
+	 * there is no such node
+	 */
+	private int highestBelow(E value, boolean inclusive) {
+		int found = NIL;
+		int slot = links.root();
+		while(slot != NIL) {
+			int comparison = value.compareTo(element(slot));
+			if(comparison > 0 || (comparison == 0 && inclusive)) {
+				found = slot;
+				slot = links.right(slot);
+			} else
+				slot = links.left(slot);
+		}
+		return found;
+	}
+	/**
+	 * Stores element at a slot given by the links, growing the elements to the capacity of the links
+	 * @return slot of the element
+	 */
+	private int newSlot(Object element) {
+		int slot = links.newSlot();
+		if(slot >= elements.length)
+			elements = Arrays.copyOf(elements, links.capacity());
+		elements[slot] = element;
+		return slot;
+	}
+	private void checkNode(Object child) {
+		if(child == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+	}
+}
@@ -17,8 +17,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * The nodes in this class always have a particular number of children. It is not possible to add more children 
@@ -27,21 +28,27 @@ import java.util.List;
  * 
  * add(parent, child) adds child to the first available slot. Thus, it is better to add nodes using 
  * add(parent, child, index)
+ * <br>
+ * Parent and children slots of all the nodes are kept in two int arrays indexed by position of the node,
+ * children of a node taking maxChildren consecutive places
  * @author Gaurav Saxena
  *
  * @param <E>
  */
 public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 	private ArrayList<E> nodeList = new ArrayList<E>();
-	private ArrayList<Integer> parentList = new ArrayList<Integer>();
-	private ArrayList<int[]> childrenArray = new ArrayList<int[]>();
+	private int[] parentArray = new int[10];
+	private int[] childrenArray;
 	private int size = 0;
 	private int depth = 0;
 	private int maxChildren;
 	private int rootIndex = -1;
+	private volatile AncestorIndex<E> ancestorIndex;
+	private int freeSlot = -1;
 	
 	public ArrayTree(int maxChildren) {
 		this.maxChildren = maxChildren;
+		this.childrenArray = new int[parentArray.length * maxChildren];
 	}
 	/**
 	 * If tree is empty, it adds a root. In case tree is not empty, it will attempt to add parameter as a child of the root 
@@ -69,22 +76,76 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 		if(isRootElementBeingAdded(parent, child))
 			return true;
 		int	parentIndex = nodeList.indexOf(parent);
-		if(parentIndex > -1) {
-			int childIndex = nodeList.indexOf(child);
-			int emptySlot;
-			if(childIndex == -1) {
-				if((emptySlot = getEmptySlot(childrenArray.get(parentIndex))) > -1) {
-					addChild(child, parentIndex, emptySlot);
-					return true;
-				} else
-					throw new IndexOutOfBoundsException("Children array of parent is already full");
-			} else {
-				nodeList.set(childIndex, child);
-				return false;
-			}
-		} else
+		if(parentIndex > -1)
+			return addAtEmptySlot(parentIndex, child) > -1;
+		else
 			throw new NodeNotFoundException("No node was found for parent object");
 	}
+	/**
+	 * Adds child at the first available slot in the children array of parentIndex. If child is already present, 
+	 * it is replaced instead
+	 * @return index of child or -1 if it was already present
+	 */
+	private int addAtEmptySlot(int parentIndex, E child) {
+		int childIndex = nodeList.indexOf(child);
+		int emptySlot;
+		if(childIndex == -1) {
+			if((emptySlot = getEmptySlot(parentIndex)) > -1) {
+				addChild(child, parentIndex, emptySlot);
+				return childrenArray[parentIndex * maxChildren + emptySlot];
+			} else
+				throw new IndexOutOfBoundsException("Children array of parent is already full");
+		} else {
+			ancestorIndex = null;
+			nodeList.set(childIndex, child);
+			return -1;
+		}
+	}
+	/**
+	 * @return cursor at the node of e, which moves through the parent and children arrays without looking elements
+	 * up. Next sibling scans the children slots of the parent. Cursors are invalidated by {@link #compact()} as it
+	 * moves nodes to other slots
+	 * @throws NodeNotFoundException if e is not found
+	 */
+	public TreeCursor<E> cursor(E e) throws NodeNotFoundException {
+		int index = slotOf(e);
+		return new SlotCursor<E>(index, nodeList.get(index)) {
+			@Override
+			int parent(int slot) {
+				return slot != rootIndex ? parentArray[slot] : -1;
+			}
+			@Override
+			int firstChild(int slot) {
+				int i = getFilledSlot(slot, 0);
+				return i > -1 ? childrenArray[slot * maxChildren + i] : -1;
+			}
+			@Override
+			int nextSibling(int slot) {
+				if(slot == rootIndex)
+					return -1;
+				int parentIndex = parentArray[slot];
+				for(int i = 0; i < maxChildren; i++)
+					if(childrenArray[parentIndex * maxChildren + i] == slot) {
+						int next = getFilledSlot(parentIndex, i + 1);
+						return next > -1 ? childrenArray[parentIndex * maxChildren + next] : -1;
+					}
+				return -1;
+			}
+			@Override
+			int childCount(int slot) {
+				return ArrayTree.this.childCount(slot);
+			}
+			@Override
+			E element(int slot) {
+				return slot < nodeList.size() ? nodeList.get(slot) : null;
+			}
+			@Override
+			int add(int parentSlot, E child) {
+				checkNode(child);
+				return addAtEmptySlot(parentSlot, child);
+			}
+		};
+	}
 	private boolean isRootElementBeingAdded(E parent, E child) {
 		if(parent == null) {
 			if(isEmpty()) {
@@ -138,10 +199,11 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 	@Override
 	public E child(E parent, int index) throws NodeNotFoundException {
 		checkNode(parent);
+		checkIndex(index);
 		int parentIndex = nodeList.indexOf(parent);
 		int childIndex;
 		if(parentIndex > -1) {
-			if((childIndex = childrenArray.get(parentIndex)[index]) > -1)
+			if((childIndex = childrenArray[parentIndex * maxChildren + index]) > -1)
 				return nodeList.get(childIndex);
 			else
 				return null;
@@ -154,21 +216,72 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 		int index = nodeList.indexOf(e);
 		if(index > -1) {
 			ArrayList<E> children = new ArrayList<E>();
-			for (int i = 0; i < childrenArray.get(index).length; i++)
-				if(childrenArray.get(index)[i] > -1)
-					children.add(nodeList.get(childrenArray.get(index)[i]));
+			for (int i = index * maxChildren, len = i + maxChildren; i < len; i++)
+				if(childrenArray[i] > -1)
+					children.add(nodeList.get(childrenArray[i]));
 			return children;
 		} else
 			throw new NodeNotFoundException("No node was found for object");
 	}
 	@Override
+	public int childCount(E parent) throws NodeNotFoundException {
+		return childCount(slotOf(parent));
+	}
+	@Override
+	public void forEachChild(E parent, Consumer<? super E> action) throws NodeNotFoundException {
+		for (int i = slotOf(parent) * maxChildren, len = i + maxChildren; i < len; i++)
+			if(childrenArray[i] > -1)
+				action.accept(nodeList.get(childrenArray[i]));
+	}
+	/**
+	 * Empty child slots are skipped by the view i.e. its index is the position of a child among the children
+	 * present and not the index at which the child was added
+	 * @see com.googlecode.jctree.Tree#childrenView(java.lang.Object)
+	 */
+	@Override
+	public List<E> childrenView(E parent) throws NodeNotFoundException {
+		return new SlotChildrenView<E>(slotOf(parent), parent) {
+			@Override
+			int slotOf(E element) {
+				return nodeList.indexOf(element);
+			}
+			@Override
+			E element(int slot) {
+				return slot < nodeList.size() ? nodeList.get(slot) : null;
+			}
+			@Override
+			int childCount(int slot) {
+				return ArrayTree.this.childCount(slot);
+			}
+			@Override
+			int childAt(int slot, int index) {
+				for (int i = slot * maxChildren, len = i + maxChildren, position = 0; i < len; i++)
+					if(childrenArray[i] > -1 && position++ == index)
+						return childrenArray[i];
+				return -1;
+			}
+			@Override
+			int firstChild(int slot) {
+				return getFilledSlot(slot, 0);
+			}
+			@Override
+			int nextChild(int slot, int cursor) {
+				return getFilledSlot(slot, cursor + 1);
+			}
+			@Override
+			int child(int slot, int cursor) {
+				return childrenArray[slot * maxChildren + cursor];
+			}
+		};
+	}
+	@Override
 	public void clear() {
+		ancestorIndex = null;
 		nodeList.clear();
-		parentList.clear();
-		childrenArray.clear();
 		size = 0;
 		depth = 0;
 		rootIndex = -1;
+		freeSlot = -1;
 	}
 	@Override
 	@SuppressWarnings("unchecked")
@@ -177,12 +290,11 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 		try {
 			v = (ArrayTree<E>) super.clone();
 			v.nodeList = (ArrayList<E>) nodeList.clone();
-			v.parentList = (ArrayList<Integer>) parentList.clone();
-			v.childrenArray = new ArrayList<int[]>();
+			v.parentArray = Arrays.copyOf(parentArray, parentArray.length);
+			v.childrenArray = Arrays.copyOf(childrenArray, childrenArray.length);
+			v.ancestorIndex = null;
 			v.size = this.size;
 			v.depth = this.depth;
-			for(int i = 0; i < childrenArray.size(); i++)
-				v.childrenArray.add(Arrays.copyOf(childrenArray.get(i), childrenArray.get(i).length));
 		} catch (CloneNotSupportedException e) {
 			//This should't happen because we are cloneable
 		}
@@ -192,34 +304,19 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
 		checkNode(node1);
 		checkNode(node2);
-		int height1 = 0;
-		E e1 = node1; 
-		while(e1 != null) {
-			height1++;
-			e1 = parent(e1);
-		}
-		int height2 = 0;
-		E e2 = node2; 
-		while(e2 != null) {
-			height2++;
-			e2 = parent(e2);
-		}
-		if(height1 > height2) {
-			while(height1 - height2 > 0) {
-				node1 = parent(node1);
-				height1--;
-			}
-		} else {
-			while(height2 - height1 > 0) {
-				node2 = parent(node2);
-				height2--;
-			}
-		}
-		while(node1 != null && !node1.equals(node2)) {
-			node1 = parent(node1);
-			node2 = parent(node2);
-		}
-		return node1;
+		if(contains(node1) && contains(node2))
+			return ancestorIndex().commonAncestor(node1, node2);
+		else
+			throw new NodeNotFoundException("No node was found for object");
+	}
+	@Override
+	public int distance(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		if(contains(node1) && contains(node2))
+			return ancestorIndex().distance(node1, node2);
+		else
+			throw new NodeNotFoundException("No node was found for object");
 	}
 	@Override
 	public boolean contains(Object o) {
@@ -239,24 +336,27 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 	@Override
 	@Deprecated
 	public List<E> inorderOrderTraversal() {
-		return inorderOrderTraversal(0, new ArrayList<E>());
+		return inOrderTraversal();
 	}
 	@Override
 	public List<E> inOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return inorderOrderTraversal(rootIndex, new ArrayList<E>());
+		return new TreeHelper().toList(inOrderIterator(), size);
 	}
 	@Override
 	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
 		checkNode(child);
-		return new TreeHelper().isAncestor(this, node, child);
+		if(contains(child))
+			return contains(node) && ancestorIndex().isAncestor(node, child);
+		else
+			throw new NodeNotFoundException("No node was found for object");
 	}
 	@Override
 	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
 		checkNode(parent);
-		return new TreeHelper().isDescendant(this, parent, node);
+		if(contains(parent))
+			return node != null && isAncestor(parent, node);
+		else
+			throw new NodeNotFoundException("No node was found for object");
 	}
 	@Override
 	public boolean isEmpty() {
@@ -269,66 +369,33 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 	//TODO implement an iterator to enable throwing of concurrent modification exception
 	@Override
 	public Iterator<E> iterator() {
-		return getCurrentList().iterator();
+		return inOrderIterator();
 	}
 	@Override
 	public List<E> leaves() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return leaves(rootIndex, new ArrayList<E>());
-	}
-	private List<E> leaves(int nodeIndex, ArrayList<E> list) {
-		int[] children = childrenArray.get(nodeIndex);
-		if(children.length > 0)	{
-			int i = 0;
-			int chidrenLength = children.length;
-			for(int len = (int)Math.ceil((double)chidrenLength / 2); i < len; i++)
-				if(children[i] > -1)
-					leaves(children[i], list);
-			if(isChildrenArrayEmpty(childrenArray.get(nodeIndex)))
-				list.add(nodeList.get(nodeIndex));
-			for(int len = chidrenLength; i < len; i++)
-				if(children[i] > -1)
-					leaves(children[i], list);
-		}
-		else if(isChildrenArrayEmpty(childrenArray.get(nodeIndex)))
-			list.add(nodeList.get(nodeIndex));
-		return list;
+		return new TreeHelper().toList(new ChildrenArrayIterator(TraversalIterator.Order.LEAF), 10);
 	}
 	@Override
 	public List<E> levelOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else {
-			LinkedList<Integer> queue = new LinkedList<Integer>();
-			queue.add(0);
-			return levelOrderTraversal(new ArrayList<E>(), queue);
-		}
+		return new TreeHelper().toList(levelOrderIterator(), size);
 	}
 	@Override
 	public E parent(E e) throws NodeNotFoundException {
 		checkNode(e);
 		int index = nodeList.indexOf(e);
-		if(index == 0)
+		if(index < 0)
+			throw new NodeNotFoundException("No node was found for object");
+		else if(index == rootIndex)
 			return null;
-		else if(index > 0)
-			return nodeList.get(parentList.get(index));
 		else
-			throw new NodeNotFoundException("No node was found for object");
+			return nodeList.get(parentArray[index]);
 	}
 	@Override
 	public List<E> postOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return postOrderTraversal(rootIndex, new ArrayList<E>());
+		return new TreeHelper().toList(postOrderIterator(), size);
 	}
 	public List<E> preOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return preOrderTraversal(rootIndex, new ArrayList<E>());
+		return new TreeHelper().toList(preOrderIterator(), size);
 	}
 	@Override
 	public boolean remove(Object o) {
@@ -338,7 +405,7 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 			boolean wasRemoved;
 			if(i != rootIndex) {
 				wasRemoved = remove(i);
-				depth = recalculateDepth(rootIndex, 0);
+				depth = recalculateDepth(rootIndex);
 			} else {
 				wasRemoved = remove(i);
 				depth = 0;
@@ -369,15 +436,13 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 	}
 	@Override
 	public List<E> siblings(E e) throws NodeNotFoundException {
-		checkNode(e);
-		E parent = parent(e);
-		if(parent != null) {
-			List<E> children = children(parent);
-			children.remove(e);
-			return children;
-		}
-		else
-			return new ArrayList<E>();
+		int index = slotOf(e);
+		ArrayList<E> siblings = new ArrayList<E>();
+		if(index != rootIndex)
+			for (int i = parentArray[index] * maxChildren, len = i + maxChildren; i < len; i++)
+				if(childrenArray[i] > -1 && childrenArray[i] != index)
+					siblings.add(nodeList.get(childrenArray[i]));
+		return siblings;
 	}
 	@Override
 	public int size() {
@@ -385,101 +450,125 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 	}
 	@Override
 	public Object[] toArray() {
-		return getCurrentList().toArray();
+		return new TreeHelper().toArray(this);
 	}
 	@Override
 	public <T> T[] toArray(T[] a) {
-		return getCurrentList().toArray(a);
+		return new TreeHelper().toArray(this, a);
 	}
 
 	private void addChild(E child, int parentIndex, int childIndex) {
-		nodeList.add(child);
-		parentList.add(parentIndex);
-		childrenArray.get(parentIndex)[childIndex] = nodeList.size() - 1;
-		int[] children = new int[maxChildren];
-		Arrays.fill(children, -1);
-		childrenArray.add(children);
+		if(childrenArray[parentIndex * maxChildren + childIndex] == -1)
+			indexLeaf(child, nodeList.get(parentIndex));
+		else
+			ancestorIndex = null;
+		int index = addSlot(child, parentIndex);
+		childrenArray[parentIndex * maxChildren + childIndex] = index;
 		size++;
 		int currentDepth = 2;
-		while(parentIndex != 0)	{
-			parentIndex = parentList.get(parentIndex);
+		while(parentIndex != rootIndex)	{
+			parentIndex = parentArray[parentIndex];
 			currentDepth++;
 		}
 		depth = Math.max(currentDepth, depth);
 	}
 
 	private void addRoot(E child) {
-		nodeList.add(child);
-		rootIndex = nodeList.size() - 1;
-		parentList.add(-1);
-		int[] children = new int[maxChildren];
-		Arrays.fill(children, -1);
-		childrenArray.add(children);
+		ancestorIndex = null;
+		rootIndex = addSlot(child, -1);
 		size++;
 		depth++;
 	}
+	/**
+	 * Stores element at a slot released by an earlier remove if there is one or appends it to the node list 
+	 * otherwise and sets up its parent and empty children slots
+	 * @return index of the element
+	 */
+	private int addSlot(E element, int parentIndex) {
+		int index;
+		if(freeSlot > -1) {
+			index = freeSlot;
+			freeSlot = parentArray[index];
+			nodeList.set(index, element);
+		} else {
+			index = nodeList.size();
+			if(index == parentArray.length) {
+				int capacity = index + (index >> 1) + 1;
+				parentArray = Arrays.copyOf(parentArray, capacity);
+				childrenArray = Arrays.copyOf(childrenArray, capacity * maxChildren);
+			}
+			nodeList.add(element);
+		}
+		parentArray[index] = parentIndex;
+		Arrays.fill(childrenArray, index * maxChildren, (index + 1) * maxChildren, -1);
+		return index;
+	}
 
+	/**
+	 * @return index of the ancestors of the nodes, which is built again once it has fallen too far behind the tree
+	 */
+	private AncestorIndex<E> ancestorIndex() {
+		AncestorIndex<E> index = ancestorIndex;
+		if(index == null || index.isStale(size)) {
+			index = new AncestorIndex<E>(size);
+			if(!isEmpty())
+				for(int slot : levelOrder(rootIndex)) {
+					int parentIndex = parentArray[slot];
+					index.add(nodeList.get(slot), slot != rootIndex ? nodeList.get(parentIndex) : null);
+				}
+			ancestorIndex = index.build();
+		}
+		return index;
+	}
+	/**
+	 * Adds a new leaf to the index of ancestors if there is one
+	 */
+	private void indexLeaf(E child, E parent) {
+		AncestorIndex<E> index = ancestorIndex;
+		if(index != null)
+			index.add(child, parent);
+	}
 	private void checkNode(Object child) {
 		if(child == null)
 			throw new IllegalArgumentException("null nodes are not allowed");
 	}
 
+	/**
+	 * @return index of e in nodeList
+	 * @throws NodeNotFoundException if e is not found
+	 */
+	private int slotOf(E e) throws NodeNotFoundException {
+		checkNode(e);
+		int index = nodeList.indexOf(e);
+		if(index > -1)
+			return index;
+		else
+			throw new NodeNotFoundException("No node was found for object");
+	}
+	private int childCount(int index) {
+		int count = 0;
+		for (int i = index * maxChildren, len = i + maxChildren; i < len; i++)
+			if(childrenArray[i] > -1)
+				count++;
+		return count;
+	}
 	private List<E> getCurrentList() {
 		return inOrderTraversal();
 	}
-	private int getEmptySlot(int[] children) {
-		for (int i = 0; i < children.length; i++)
-			if(children[i] == -1)
+	private int getEmptySlot(int nodeIndex) {
+		for (int i = 0; i < maxChildren; i++)
+			if(childrenArray[nodeIndex * maxChildren + i] == -1)
 				return i;
 		return -1;
 	}
-	private List<E> inorderOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		int[] children = childrenArray.get(nodeIndex);
-		if(children.length > 0)	{
-			int i = 0;
-			for(int len = (int)Math.ceil((double)children.length / 2); i < len; i++)
-				if(children[i] > -1)
-					inorderOrderTraversal(children[i], list);
-			list.add(nodeList.get(nodeIndex));
-			for(int len = children.length; i < len; i++)
-				if(children[i] > -1)
-					inorderOrderTraversal(children[i], list);
-		}
-		else
-			list.add(nodeList.get(nodeIndex));
-		return list;
-	}
-	private boolean isChildrenArrayEmpty(int[] children) {
-		for (int i = 0; i < children.length; i++)
-			if(children[i] != -1)
-				return false;
-		return true;
-	}
-	private List<E> levelOrderTraversal(ArrayList<E> list, LinkedList<Integer> queue) {
-		while(!queue.isEmpty()) {
-			list.add(nodeList.get(queue.getFirst()));
-			for(int i : childrenArray.get(queue.getFirst()))
-				if(i > -1)
-					queue.add(i);
-			queue.remove();
-		}
-		return list;
-	}
-	private List<E> postOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		for(int  i :  childrenArray.get(nodeIndex))
-			if(i > -1)
-				postOrderTraversal(i, list);
-		if(nodeList.get(nodeIndex) != null)
-			list.add(nodeList.get(nodeIndex));
-		return list;
-	}
-	private List<E> preOrderTraversal(int nodeIndex, ArrayList<E> list) {
-		if(nodeList.get(nodeIndex) != null)
-			list.add(nodeList.get(nodeIndex));
-		for(int i : childrenArray.get(nodeIndex))
-			if(i > -1)
-				preOrderTraversal(i, list);
-		return list;
+	/**
+	 * @return first children slot of nodeIndex at or after from which holds a child or -1 if there is none
+	 */
+	private int getFilledSlot(int nodeIndex, int from) {
+		for (int i = from; i < maxChildren; i++)
+			if(childrenArray[nodeIndex * maxChildren + i] > -1)
+				return i;
+		return -1;
 	}
 	private boolean remove(int index) {
 		if(index > -1) {
@@ -487,41 +576,205 @@ public class ArrayTree<E> implements NumberedTree<E>, Cloneable {
 				rootIndex = -1;
 				size = 0;
 				nodeList.clear();
-				parentList.clear();
-				childrenArray.clear();
+				freeSlot = -1;
 				return true;
 			} else {
-				Integer parentIndex = parentList.set(index, -1);
-				for(int i = 0; i < childrenArray.get(parentIndex).length; i++)
-					if(childrenArray.get(parentIndex)[i] == index)
-						childrenArray.get(parentIndex)[i] = -1;
-				nodeList.set(index, null);
-				size--;
-				int[] children = childrenArray.get(index);
-				for (int j = 0; j < children.length; j++) 
-					remove(children[j]);
-				Arrays.fill(childrenArray.get(index), -1);
+				int parentIndex = parentArray[index];
+				parentArray[index] = -1;
+				for(int i = parentIndex * maxChildren, len = i + maxChildren; i < len; i++)
+					if(childrenArray[i] == index)
+						childrenArray[i] = -1;
+				for(int slot : levelOrder(index)) {
+					size--;
+					release(slot);
+				}
 				return true;
 			} 
 		} else
 			return false;
 	}
-	private int recalculateDepth(int index, int depth) {
-		int childDepth = depth + 1;
-		if(isChildrenArrayEmpty(childrenArray.get(index)))
-			return childDepth;
-		for(int i : childrenArray.get(index))
-			if(i != -1)
-				depth = Math.max(depth, recalculateDepth(i, childDepth));
+	/**
+	 * @return number of levels in the sub-tree rooted at index
+	 */
+	private int recalculateDepth(int index) {
+		int[] queue = new int[size];
+		int tail = 0;
+		queue[tail++] = index;
+		int depth = 0;
+		for(int head = 0, levelEnd = tail; head < tail; depth++, levelEnd = tail)
+			for(; head < levelEnd; head++)
+				for(int i = queue[head] * maxChildren, len = i + maxChildren; i < len; i++)
+					if(childrenArray[i] > -1)
+						queue[tail++] = childrenArray[i];
 		return depth;
 	}
+	/**
+	 * @return indices of the sub-tree rooted at index in level order
+	 */
+	private int[] levelOrder(int index) {
+		int[] queue = new int[8];
+		int tail = 0;
+		queue[tail++] = index;
+		for(int head = 0; head < tail; head++)
+			for(int i = queue[head] * maxChildren, len = i + maxChildren; i < len; i++)
+				if(childrenArray[i] > -1) {
+					if(tail == queue.length)
+						queue = Arrays.copyOf(queue, tail << 1);
+					queue[tail++] = childrenArray[i];
+				}
+		return Arrays.copyOf(queue, tail);
+	}
+	/**
+	 * Removed slots are chained through their parent entries and are reused by addSlot
+	 */
+	private void release(int index) {
+		nodeList.set(index, null);
+		Arrays.fill(childrenArray, index * maxChildren, (index + 1) * maxChildren, -1);
+		parentArray[index] = freeSlot;
+		freeSlot = index;
+	}
+	/**
+	 * Moves the nodes to the front of the underlying storage in level order, so that the slots left behind by
+	 * removed nodes are no longer kept. Removed slots are otherwise reused by later additions
+	 */
+	public void compact() {
+		if(nodeList.size() == size)
+			return;
+		int[] order = new int[size];
+		int[] newIndex = new int[nodeList.size()];
+		int tail = 0;
+		order[tail++] = rootIndex;
+		for(int head = 0; head < tail; head++) {
+			newIndex[order[head]] = head;
+			for(int i = order[head] * maxChildren, len = i + maxChildren; i < len; i++)
+				if(childrenArray[i] > -1)
+					order[tail++] = childrenArray[i];
+		}
+		ArrayList<E> compactList = new ArrayList<E>(Math.max(size, 10));
+		int[] compactParentArray = new int[parentArray.length];
+		int[] compactChildrenArray = new int[childrenArray.length];
+		for(int i = 0; i < size; i++) {
+			int index = order[i];
+			compactList.add(nodeList.get(index));
+			compactParentArray[i] = parentArray[index] > -1 ? newIndex[parentArray[index]] : -1;
+			for(int j = 0; j < maxChildren; j++) {
+				int child = childrenArray[index * maxChildren + j];
+				compactChildrenArray[i * maxChildren + j] = child > -1 ? newIndex[child] : -1;
+			}
+		}
+		nodeList = compactList;
+		parentArray = compactParentArray;
+		childrenArray = compactChildrenArray;
+		rootIndex = 0;
+		freeSlot = -1;
+	}
+	/**
+	 * Compacts the tree and trims the capacity of the underlying storage to the size of the tree
+	 */
+	public void trimToSize() {
+		compact();
+		nodeList.trimToSize();
+		parentArray = Arrays.copyOf(parentArray, size);
+		childrenArray = Arrays.copyOf(childrenArray, size * maxChildren);
+	}
+	@Override
+	public Iterator<E> preOrderIterator() {
+		return new ChildrenArrayIterator(TraversalIterator.Order.PRE);
+	}
+	@Override
+	public Iterator<E> inOrderIterator() {
+		return new ChildrenArrayIterator(TraversalIterator.Order.IN);
+	}
+	@Override
+	public Iterator<E> postOrderIterator() {
+		return new ChildrenArrayIterator(TraversalIterator.Order.POST);
+	}
+	@Override
+	public Iterator<E> levelOrderIterator() {
+		return new ChildrenArrayIterator(TraversalIterator.Order.LEVEL);
+	}
+	/**
+	 * Spliterator splits at sub-tree boundaries and walks the tree in the order of its iterator
+	 * @see java.util.Collection#spliterator()
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return new ChildrenArraySpliterator();
+	}
+	/**
+	 * Walks the children array. In order publishes a node after its children in the first half of the slots
+	 */
+	private class ChildrenArrayIterator extends SlotTraversalIterator<E> {
+		ChildrenArrayIterator(TraversalIterator.Order order) {
+			super(order, rootIndex);
+		}
+		@Override
+		E element(int slot) {
+			return nodeList.get(slot);
+		}
+		@Override
+		int firstChild(int slot) {
+			return nextChild(slot, -1);
+		}
+		@Override
+		int nextChild(int slot, int cursor) {
+			for(int i = cursor + 1; i < maxChildren; i++)
+				if(childrenArray[slot * maxChildren + i] > -1)
+					return i;
+			return -1;
+		}
+		@Override
+		int child(int slot, int cursor) {
+			return childrenArray[slot * maxChildren + cursor];
+		}
+		@Override
+		int childrenBefore(int slot) {
+			int count = 0;
+			for(int i = slot * maxChildren, len = i + (maxChildren + 1) / 2; i < len; i++)
+				if(childrenArray[i] > -1)
+					count++;
+			return count;
+		}
+	}
+	private class ChildrenArraySpliterator extends SlotTreeSpliterator<E> {
+		ChildrenArraySpliterator() {
+			super(rootIndex, size, 0);
+		}
+		@Override
+		E element(int slot) {
+			return nodeList.get(slot);
+		}
+		@Override
+		int firstChild(int slot) {
+			return nextChild(slot, -1);
+		}
+		@Override
+		int nextChild(int slot, int cursor) {
+			for(int i = cursor + 1; i < maxChildren; i++)
+				if(childrenArray[slot * maxChildren + i] > -1)
+					return i;
+			return -1;
+		}
+		@Override
+		int child(int slot, int cursor) {
+			return childrenArray[slot * maxChildren + cursor];
+		}
+		@Override
+		int childrenBefore(int slot) {
+			int count = 0;
+			for(int i = slot * maxChildren, len = i + (maxChildren + 1) / 2; i < len; i++)
+				if(childrenArray[i] > -1)
+					count++;
+			return count;
+		}
+	}
 	@Override
 	public String toString() {
 		return getCurrentList().toString();
 	}
 	@Override
 	public int hashCode() {
-		return getCurrentList().hashCode();
+		return new TreeHelper().hashCode(this);
 	}
 	@SuppressWarnings("unchecked")
 	@Override
@@ -0,0 +1,926 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Implements a B-tree which packs up to order - 1 sorted values into an array per node. A lookup binary searches 
+ * the arrays of about log(n) / log(order) nodes instead of visiting log(n) separate nodes as in 
+ * {@link BinaryRedBlackTree}, and successor and predecessor mostly move within the array of a node.
+ * <br>
+ * The methods of {@link Tree} see the B-tree in its usual binary form: the left child of a value is the first 
+ * value of the node before it and its right child is the next value of its node, or the first value of the last 
+ * child node for the last value. This form is a binary search tree, so in order traversal is sorted.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public class BTree<E extends Comparable<E>> implements SortedTree<E>, Cloneable {
+	private static final int DEFAULT_ORDER = 64;
+	private static class Node {
+		Node parent;
+		/** Values in ascending order. There is a spare slot so that a node can overflow before it is split */
+		Object[] values;
+		/** Children of the node or null for leaves */
+		Node[] children;
+		int count;
+
+		Node(int order) {
+			values = new Object[order];
+		}
+	}
+	/** Position of a value in the tree i.e. its node and its index in the node */
+	private class Entry {
+		Node node;
+		int index;
+
+		Entry(Node node, int index) {
+			this.node = node;
+			this.index = index;
+		}
+		@SuppressWarnings("unchecked")
+		E value() {
+			return (E) node.values[index];
+		}
+	}
+	private final int order;
+	/** Least number of values kept by nodes other than the root */
+	private final int minCount;
+	private int size = 0;
+	private Node root;
+
+	public BTree() {
+		this(DEFAULT_ORDER);
+	}
+	/**
+	 * @param order maximum number of children of a node. Nodes other than the root keep at least half as many
+	 */
+	public BTree(int order) {
+		if(order < 3)
+			throw new IllegalArgumentException("Order of a B-tree cannot be less than 3");
+		this.order = order;
+		this.minCount = (order + 1) / 2 - 1;
+	}
+	/** 
+	 * A B-tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)
+	 * The method throws {@link UnsupportedOperationException}
+	 */
+	@Override
+	public boolean add(E parent, E child) throws NodeNotFoundException {
+		throw new UnsupportedOperationException("A B-tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	/**
+	 * Adds the value to its leaf. A leaf which gets full is split in two around its middle value, which moves up 
+	 * to the parent, possibly splitting it in turn
+	 * @see java.util.Collection#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(E child) {
+		checkNode(child);
+		if(root == null)
+			root = new Node(order);
+		Node node = root;
+		while(true) {
+			int index = search(node, child);
+			if(index >= 0)
+				return false;
+			index = -index - 1;
+			if(node.children == null) {
+				insert(node, index, child, null);
+				size++;
+				return true;
+			}
+			node = node.children[index];
+		}
+	}
+	/**
+	 * Puts value at index of node and right as the child after it, then splits node if it is full
+	 */
+	private void insert(Node node, int index, Object value, Node right) {
+		System.arraycopy(node.values, index, node.values, index + 1, node.count - index);
+		node.values[index] = value;
+		if(right != null) {
+			System.arraycopy(node.children, index + 1, node.children, index + 2, node.count - index);
+			node.children[index + 1] = right;
+			right.parent = node;
+		}
+		if(++node.count == order)
+			split(node);
+	}
+	private void split(Node node) {
+		int middle = order / 2;
+		Node right = new Node(order);
+		right.count = node.count - middle - 1;
+		System.arraycopy(node.values, middle + 1, right.values, 0, right.count);
+		Object value = node.values[middle];
+		Arrays.fill(node.values, middle, node.count, null);
+		if(node.children != null) {
+			right.children = new Node[order + 1];
+			System.arraycopy(node.children, middle + 1, right.children, 0, right.count + 1);
+			Arrays.fill(node.children, middle + 1, node.count + 1, null);
+			for(int i = 0; i <= right.count; i++)
+				right.children[i].parent = right;
+		}
+		node.count = middle;
+		if(node.parent == null) {
+			root = new Node(order);
+			root.children = new Node[order + 1];
+			root.children[0] = node;
+			node.parent = root;
+			insert(root, 0, value, right);
+		} else
+			insert(node.parent, childIndex(node.parent, node), value, right);
+	}
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		boolean retVal = false;
+		for (Iterator<? extends E> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= add(iterator.next());
+		return retVal;
+	}
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) {
+		throw new UnsupportedOperationException("A B-tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
+	}
+	/**
+	 * @return index of value among the values of node if it is there, otherwise -(insertion point) - 1
+	 */
+	private int search(Node node, Object value) {
+		return Arrays.binarySearch(node.values, 0, node.count, value);
+	}
+	/**
+	 * @return the node which holds value or null if it is not in the tree
+	 */
+	private Node nodeOf(Object value) {
+		return nodeOf(root, value);
+	}
+	/**
+	 * @return the node at or below node which holds value or null if there is none
+	 */
+	private Node nodeOf(Node node, Object value) {
+		while(node != null) {
+			int index = search(node, value);
+			if(index >= 0)
+				return node;
+			node = node.children != null ? node.children[-index - 1] : null;
+		}
+		return null;
+	}
+	/**
+	 * @return the node which holds value
+	 * @throws NodeNotFoundException if value is not found
+	 */
+	private Node node(E value) throws NodeNotFoundException {
+		checkNode(value);
+		Node node = nodeOf(value);
+		if(node == null)
+			throw new NodeNotFoundException("No node was found for object");
+		return node;
+	}
+	private Entry entry(E value) throws NodeNotFoundException {
+		Node node = nodeOf(value);
+		if(node == null)
+			throw new NodeNotFoundException("No node was found for object");
+		return new Entry(node, search(node, value));
+	}
+	/**
+	 * @return position of node among the children of parent
+	 */
+	private int childIndex(Node parent, Node node) {
+		int index = 0;
+		while(parent.children[index] != node)
+			index++;
+		return index;
+	}
+	/**
+	 * @return left child of entry in the binary form or null if it has none
+	 */
+	private Entry left(Entry entry) {
+		return entry.node.children != null ? new Entry(entry.node.children[entry.index], 0) : null;
+	}
+	/**
+	 * @return right child of entry in the binary form or null if it has none
+	 */
+	private Entry right(Entry entry) {
+		if(entry.index + 1 < entry.node.count)
+			return new Entry(entry.node, entry.index + 1);
+		else if(entry.node.children != null)
+			return new Entry(entry.node.children[entry.node.count], 0);
+		else
+			return null;
+	}
+	/**
+	 * @return parent of entry in the binary form or null if entry is the root
+	 */
+	private Entry parent(Entry entry) {
+		if(entry.index > 0)
+			return new Entry(entry.node, entry.index - 1);
+		else if(entry.node.parent == null)
+			return null;
+		else {
+			Node parent = entry.node.parent;
+			return new Entry(parent, Math.min(childIndex(parent, entry.node), parent.count - 1));
+		}
+	}
+	@Override
+	public List<E> children(E e) throws NodeNotFoundException {
+		checkNode(e);
+		Entry entry = entry(e);
+		ArrayList<E> children = new ArrayList<E>(2);
+		Entry left = left(entry);
+		if(left != null)
+			children.add(left.value());
+		Entry right = right(entry);
+		if(right != null)
+			children.add(right.value());
+		return children;
+	}
+	@Override
+	public int childCount(E parent) throws NodeNotFoundException {
+		Node node = node(parent);
+		if(node.children != null)
+			return 2;
+		else
+			return search(node, parent) + 1 < node.count ? 1 : 0;
+	}
+	@Override
+	public E child(E parent, int index) throws NodeNotFoundException {
+		Node node = node(parent);
+		if(index < 0)
+			throw new IndexOutOfBoundsException("index found to be " + index + ".It cannot be negative");
+		return index < 2 ? child(node, search(node, parent), index) : null;
+	}
+	@Override
+	public void forEachChild(E parent, Consumer<? super E> action) throws NodeNotFoundException {
+		Node node = node(parent);
+		int index = search(node, parent);
+		for (int i = 0; i < 2; i++) {
+			E child = child(node, index, i);
+			if(child != null)
+				action.accept(child);
+		}
+	}
+	@Override
+	public List<E> childrenView(E parent) throws NodeNotFoundException {
+		node(parent);
+		return new TreeHelper().childrenView(this, parent);
+	}
+	/**
+	 * @return child at position 0 or 1 among the children of the value at index of node in the binary form, or null
+	 * if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	private E child(Node node, int index, int position) {
+		if(node.children != null)
+			return (E) (position == 0 ? node.children[index].values[0]
+					: index + 1 < node.count ? node.values[index + 1] : node.children[node.count].values[0]);
+		else
+			return position == 0 && index + 1 < node.count ? (E) node.values[index + 1] : null;
+	}
+	@Override
+	public void clear() {
+		root = null;
+		size = 0;
+	}
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object clone() {
+		BTree<E> clone = null;
+		try {
+			clone = (BTree<E>) super.clone();
+			clone.root = root != null ? copy(root, null) : null;
+		} catch (CloneNotSupportedException e) {
+			//This should't happen because we are cloneable
+		}
+		return clone;
+	}
+	/**
+	 * @return copy of the sub-tree under node. Recursion is only as deep as the number of levels of nodes
+	 */
+	private Node copy(Node node, Node parent) {
+		Node copy = new Node(order);
+		copy.parent = parent;
+		copy.count = node.count;
+		System.arraycopy(node.values, 0, copy.values, 0, node.count);
+		if(node.children != null) {
+			copy.children = new Node[order + 1];
+			for(int i = 0; i <= node.count; i++)
+				copy.children[i] = copy(node.children[i], copy);
+		}
+		return copy;
+	}
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		Entry fork = fork(node1, node2);
+		if(nodeOf(fork.node, node1) == null || nodeOf(fork.node, node2) == null)
+			throw new NodeNotFoundException("No node was found for object");
+		return fork.value();
+	}
+	@Override
+	public int distance(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		Entry fork = fork(node1, node2);
+		return level(node1) + level(node2) - 2 * level(fork.value());
+	}
+	/**
+	 * In the binary form the search path of a value runs through the values of a node up to the one it is found 
+	 * at or the one it leaves the node after, so the paths of two values part in the first node where they stop 
+	 * at or leave from different values
+	 * @return the entry at which the search paths of node1 and node2 part, which is their common ancestor when 
+	 * both are present
+	 */
+	private Entry fork(E node1, E node2) throws NodeNotFoundException {
+		Node node = root;
+		while(node != null) {
+			int index1 = search(node, node1);
+			int index2 = search(node, node2);
+			if(index1 < 0 && index1 == index2)
+				node = node.children != null ? node.children[-index1 - 1] : null;
+			else
+				return new Entry(node, Math.min(lastOnPath(node, index1), lastOnPath(node, index2)));
+		}
+		throw new NodeNotFoundException("No node was found for object");
+	}
+	/**
+	 * @param index result of search in node
+	 * @return index of the last value of node on the search path
+	 */
+	private int lastOnPath(Node node, int index) {
+		return index >= 0 ? index : Math.min(-index - 1, node.count - 1);
+	}
+	/**
+	 * @return number of edges from the root down to value in the binary form
+	 */
+	private int level(E value) throws NodeNotFoundException {
+		int level = 0;
+		for(Node node = root; node != null;) {
+			int index = search(node, value);
+			if(index >= 0)
+				return level + index;
+			level += lastOnPath(node, index) + 1;
+			node = node.children != null ? node.children[-index - 1] : null;
+		}
+		throw new NodeNotFoundException("No node was found for object");
+	}
+	@Override
+	public boolean contains(Object o) {
+		if(o == null || isEmpty())
+			return false;
+		else if(o instanceof Comparable)
+			return nodeOf(o) != null;
+		else {
+			for(E e : this)
+				if(o.equals(e))
+					return true;
+			return false;
+		}
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
+	}
+	/**
+	 * Walks the nodes, so this takes O(n / order)
+	 * @return depth of the binary form of the tree
+	 */
+	@Override
+	public int depth() {
+		return depth(root);
+	}
+	private int depth(Node node) {
+		if(node == null)
+			return 0;
+		else if(node.children == null)
+			return node.count;
+		else {
+			int depth = 0;
+			for(int i = 0; i <= node.count; i++)
+				depth = Math.max(depth, Math.min(i + 1, node.count) + depth(node.children[i]));
+			return depth;
+		}
+	}
+	@Override
+	@Deprecated
+	public List<E> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	@Override
+	public List<E> inOrderTraversal() {
+		return new TreeHelper().toList(inOrderIterator(), size);
+	}
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		checkNode(child);
+		return new TreeHelper().isAncestor(this, node, child);
+	}
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		checkNode(parent);
+		return new TreeHelper().isDescendant(this, parent, node);
+	}
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	@Override
+	public Iterator<E> iterator() {
+		return inOrderIterator();
+	}
+	@Override
+	public List<E> leaves() {
+		return new TreeHelper().toList(new EntryIterator(TraversalIterator.Order.LEAF), 10);
+	}
+	@Override
+	public List<E> levelOrderTraversal() {
+		return new TreeHelper().toList(levelOrderIterator(), size);
+	}
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		checkNode(e);
+		return valueOf(parent(entry(e)));
+	}
+	@Override
+	public List<E> postOrderTraversal() {
+		return new TreeHelper().toList(postOrderIterator(), size);
+	}
+	@Override
+	public List<E> preOrderTraversal() {
+		return new TreeHelper().toList(preOrderIterator(), size);
+	}
+	/**
+	 * A value of an inner node is first replaced by its predecessor, which is in a leaf. A leaf left with too few
+	 * values borrows one through its parent from a sibling which can spare it, or else is merged with a sibling, 
+	 * which takes a value out of the parent and may leave it short in turn
+	 * @see java.util.Collection#remove(java.lang.Object)
+	 */
+	@Override
+	public boolean remove(Object o) {
+		checkNode(o);
+		if(isEmpty())
+			return false;
+		else if(!(o instanceof Comparable)) {
+			for(E e : this)
+				if(o.equals(e))
+					return remove(e);
+			return false;
+		}
+		Node node = nodeOf(o);
+		if(node == null)
+			return false;
+		int index = search(node, o);
+		if(node.children != null) {
+			Node leaf = node.children[index];
+			while(leaf.children != null)
+				leaf = leaf.children[leaf.count];
+			node.values[index] = leaf.values[leaf.count - 1];
+			node = leaf;
+			index = leaf.count - 1;
+		}
+		System.arraycopy(node.values, index + 1, node.values, index, node.count - index - 1);
+		node.values[--node.count] = null;
+		rebalance(node);
+		size--;
+		return true;
+	}
+	private void rebalance(Node node) {
+		while(node != root && node.count < minCount) {
+			Node parent = node.parent;
+			int index = childIndex(parent, node);
+			if(index > 0 && parent.children[index - 1].count > minCount)
+				rotateRight(parent, index - 1);
+			else if(index < parent.count && parent.children[index + 1].count > minCount)
+				rotateLeft(parent, index);
+			else {
+				merge(parent, index > 0 ? index - 1 : index);
+				node = parent;
+				continue;
+			}
+			return;
+		}
+		if(node == root && root.count == 0) {
+			root = root.children != null ? root.children[0] : null;
+			if(root != null)
+				root.parent = null;
+		}
+	}
+	/**
+	 * Moves the last value of the child before separator up to the parent and the separator down to the front of
+	 * the child after it
+	 */
+	private void rotateRight(Node parent, int separator) {
+		Node left = parent.children[separator];
+		Node right = parent.children[separator + 1];
+		System.arraycopy(right.values, 0, right.values, 1, right.count);
+		right.values[0] = parent.values[separator];
+		parent.values[separator] = left.values[left.count - 1];
+		left.values[left.count - 1] = null;
+		if(right.children != null) {
+			System.arraycopy(right.children, 0, right.children, 1, right.count + 1);
+			right.children[0] = left.children[left.count];
+			right.children[0].parent = right;
+			left.children[left.count] = null;
+		}
+		left.count--;
+		right.count++;
+	}
+	/**
+	 * Moves the first value of the child after separator up to the parent and the separator down to the end of
+	 * the child before it
+	 */
+	private void rotateLeft(Node parent, int separator) {
+		Node left = parent.children[separator];
+		Node right = parent.children[separator + 1];
+		left.values[left.count] = parent.values[separator];
+		parent.values[separator] = right.values[0];
+		System.arraycopy(right.values, 1, right.values, 0, right.count - 1);
+		right.values[right.count - 1] = null;
+		if(left.children != null) {
+			left.children[left.count + 1] = right.children[0];
+			left.children[left.count + 1].parent = left;
+			System.arraycopy(right.children, 1, right.children, 0, right.count);
+			right.children[right.count] = null;
+		}
+		left.count++;
+		right.count--;
+	}
+	/**
+	 * Moves the separator and all of the child after it into the child before it and drops the child after it
+	 */
+	private void merge(Node parent, int separator) {
+		Node left = parent.children[separator];
+		Node right = parent.children[separator + 1];
+		left.values[left.count] = parent.values[separator];
+		System.arraycopy(right.values, 0, left.values, left.count + 1, right.count);
+		if(left.children != null) {
+			System.arraycopy(right.children, 0, left.children, left.count + 1, right.count + 1);
+			for(int i = 0; i <= right.count; i++)
+				right.children[i].parent = left;
+		}
+		left.count += right.count + 1;
+		System.arraycopy(parent.values, separator + 1, parent.values, separator, parent.count - separator - 1);
+		System.arraycopy(parent.children, separator + 2, parent.children, separator + 1, parent.count - separator - 1);
+		parent.count--;
+		parent.values[parent.count] = null;
+		parent.children[parent.count + 1] = null;
+	}
+	@Override
+	public E successor(E value) throws NodeNotFoundException {
+		checkNode(value);
+		return valueOf(next(entry(value)));
+	}
+	/**
+	 * Moves entry to the next value in order. Within a leaf this is the next slot of the array
+	 * @return entry or null if it was at the last value
+	 */
+	private Entry next(Entry entry) {
+		Node node = entry.node;
+		int index = entry.index + 1;
+		if(node.children != null) {
+			node = node.children[index];
+			while(node.children != null)
+				node = node.children[0];
+			index = 0;
+		} else
+			while(index == node.count) {
+				if(node.parent == null)
+					return null;
+				index = childIndex(node.parent, node);
+				node = node.parent;
+			}
+		entry.node = node;
+		entry.index = index;
+		return entry;
+	}
+	@Override
+	public E predecessor(E value) throws NodeNotFoundException {
+		checkNode(value);
+		return valueOf(previous(entry(value)));
+	}
+	/**
+	 * Moves entry to the previous value in order. Within a leaf this is the previous slot of the array
+	 * @return entry or null if it was at the first value
+	 */
+	private Entry previous(Entry entry) {
+		Node node = entry.node;
+		int index = entry.index;
+		if(node.children != null) {
+			node = node.children[index];
+			while(node.children != null)
+				node = node.children[node.count];
+			index = node.count;
+		} else
+			while(index == 0) {
+				if(node.parent == null)
+					return null;
+				index = childIndex(node.parent, node);
+				node = node.parent;
+			}
+		entry.node = node;
+		entry.index = index - 1;
+		return entry;
+	}
+	@Override
+	public E floor(E value) {
+		checkNode(value);
+		return valueOf(highestBelow(value, true));
+	}
+	@Override
+	public E ceiling(E value) {
+		checkNode(value);
+		return valueOf(lowestAbove(value, true));
+	}
+	@Override
+	public E higher(E value) {
+		checkNode(value);
+		return valueOf(lowestAbove(value, false));
+	}
+	@Override
+	public E lower(E value) {
+		checkNode(value);
+		return valueOf(highestBelow(value, false));
+	}
+	/**
+	 * @return entry of the smallest value greater than value, or equal to it if inclusive is true. null if there
+	 * is no such value
+	 */
+	private Entry lowestAbove(E value, boolean inclusive) {
+		Node found = null;
+		int foundIndex = 0;
+		for(Node node = root; node != null;) {
+			int index = search(node, value);
+			if(index >= 0 && inclusive)
+				return new Entry(node, index);
+			index = index >= 0 ? index + 1 : -index - 1;
+			if(index < node.count) {
+				found = node;
+				foundIndex = index;
+			}
+			node = node.children != null ? node.children[index] : null;
+		}
+		return found != null ? new Entry(found, foundIndex) : null;
+	}
+	/**
+	 * @return entry of the greatest value less than value, or equal to it if inclusive is true. null if there is
+	 * no such value
+	 */
+	private Entry highestBelow(E value, boolean inclusive) {
+		Node found = null;
+		int foundIndex = 0;
+		for(Node node = root; node != null;) {
+			int index = search(node, value);
+			if(index >= 0 && inclusive)
+				return new Entry(node, index);
+			index = index >= 0 ? index : -index - 1;
+			if(index > 0) {
+				found = node;
+				foundIndex = index - 1;
+			}
+			node = node.children != null ? node.children[index] : null;
+		}
+		return found != null ? new Entry(found, foundIndex) : null;
+	}
+	private Entry firstEntry() {
+		Node node = root;
+		if(node == null)
+			return null;
+		while(node.children != null)
+			node = node.children[0];
+		return new Entry(node, 0);
+	}
+	private Entry lastEntry() {
+		Node node = root;
+		if(node == null)
+			return null;
+		while(node.children != null)
+			node = node.children[node.count];
+		return new Entry(node, node.count - 1);
+	}
+	private E valueOf(Entry entry) {
+		return entry != null ? entry.value() : null;
+	}
+	@Override
+	public SortedSet<E> subTree(E fromElement, E toElement) {
+		checkNode(fromElement);
+		checkNode(toElement);
+		return new EntryView(fromElement, toElement);
+	}
+	@Override
+	public SortedSet<E> headTree(E toElement) {
+		checkNode(toElement);
+		return new EntryView(null, toElement);
+	}
+	@Override
+	public SortedSet<E> tailTree(E fromElement) {
+		checkNode(fromElement);
+		return new EntryView(fromElement, null);
+	}
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		boolean retVal = false;
+		for (Iterator<?> iterator = c.iterator(); iterator.hasNext();)
+			retVal |= remove(iterator.next());
+		return retVal;
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("Tree interface doesn't support retainAll");
+	}
+
+	@Override
+	public E root() {
+		if(isEmpty())
+			return null;
+		else
+			return valueOf(new Entry(root, 0));
+	}
+	@Override
+	public List<E> siblings(E e) throws NodeNotFoundException {
+		checkNode(e);
+		Entry parent = parent(entry(e));
+		ArrayList<E> siblings = new ArrayList<E>(1);
+		if(parent != null) {
+			Entry sibling = e.compareTo(parent.value()) < 0 ? right(parent) : left(parent);
+			if(sibling != null)
+				siblings.add(sibling.value());
+		}
+		return siblings;
+	}
+	@Override
+	public int size() {
+		return size;
+	}
+	@Override
+	public Object[] toArray() {
+		return new TreeHelper().toArray(this);
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return new TreeHelper().toArray(this, a);
+	}
+
+	private void checkNode(Object child) {
+		if(child == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+	}
+	@Override
+	public Iterator<E> preOrderIterator() {
+		return new EntryIterator(TraversalIterator.Order.PRE);
+	}
+	/**
+	 * Walks the arrays of the nodes in sorted order, which is the in order of the binary form
+	 * @see com.googlecode.jctree.Tree#inOrderIterator()
+	 */
+	@Override
+	public Iterator<E> inOrderIterator() {
+		return new EntryView(null, null).iterator();
+	}
+	@Override
+	public Iterator<E> postOrderIterator() {
+		return new EntryIterator(TraversalIterator.Order.POST);
+	}
+	@Override
+	public Iterator<E> levelOrderIterator() {
+		return new EntryIterator(TraversalIterator.Order.LEVEL);
+	}
+	@Override
+	public Iterator<E> descendingIterator() {
+		return new EntryView(null, null).descendingIterator();
+	}
+	/**
+	 * Spliterator splits at sub-tree boundaries of the binary form and walks the tree in sorted order
+	 * @see java.util.Collection#spliterator()
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return new EntrySpliterator();
+	}
+	private class EntryIterator extends NodeTraversalIterator<E, Entry> {
+		EntryIterator(TraversalIterator.Order order) {
+			super(order, root != null ? new Entry(root, 0) : null);
+		}
+		@Override
+		E element(Entry entry) {
+			return entry.value();
+		}
+		@Override
+		int firstChild(Entry entry) {
+			return entry.node.children != null ? 0 : nextChild(entry, 0);
+		}
+		@Override
+		int nextChild(Entry entry, int cursor) {
+			return cursor == 0 && (entry.index + 1 < entry.node.count || entry.node.children != null) ? 1 : -1;
+		}
+		@Override
+		Entry child(Entry entry, int cursor) {
+			return cursor == 0 ? left(entry) : right(entry);
+		}
+		@Override
+		int childrenBefore(Entry entry) {
+			return entry.node.children != null ? 1 : 0;
+		}
+	}
+	/**
+	 * Steps from value to value by moving the same entry, so that walking the view allocates nothing per value
+	 */
+	private class EntryView extends SortedTreeView<E, Entry> {
+		EntryView(E from, E to) {
+			super(from, to);
+		}
+		@Override
+		Entry ceilingNode(E value) {
+			return value != null ? lowestAbove(value, true) : firstEntry();
+		}
+		@Override
+		Entry lowerNode(E value) {
+			return value != null ? highestBelow(value, false) : lastEntry();
+		}
+		@Override
+		Entry successor(Entry entry) {
+			return next(entry);
+		}
+		@Override
+		Entry predecessor(Entry entry) {
+			return previous(entry);
+		}
+		@Override
+		E element(Entry entry) {
+			return entry.value();
+		}
+		@Override
+		SortedTreeView<E, Entry> view(E from, E to) {
+			return new EntryView(from, to);
+		}
+	}
+	private class EntrySpliterator extends TreeSpliterator<E, Entry> {
+		EntrySpliterator() {
+			super(root != null ? new Entry(root, 0) : null, size, Spliterator.SORTED);
+		}
+		@Override
+		E element(Entry entry) {
+			return entry.value();
+		}
+		@Override
+		int firstChild(Entry entry) {
+			return entry.node.children != null ? 0 : nextChild(entry, 0);
+		}
+		@Override
+		int nextChild(Entry entry, int cursor) {
+			return cursor == 0 && (entry.index + 1 < entry.node.count || entry.node.children != null) ? 1 : -1;
+		}
+		@Override
+		Entry child(Entry entry, int cursor) {
+			return cursor == 0 ? left(entry) : right(entry);
+		}
+		@Override
+		int childrenBefore(Entry entry) {
+			return entry.node.children != null ? 1 : 0;
+		}
+	}
+	@Override
+	public String toString() {
+		return inOrderTraversal().toString();
+	}
+	@Override
+	public int hashCode() {
+		return new TreeHelper().hashCode(this);
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof BTree) {
+			try {
+				return new TreeHelper().isEqual((BTree<E>) o, this, ((BTree<E>) o).root(), root());
+			} catch (NodeNotFoundException e) {
+				e.printStackTrace();
+				return false;
+			}
+		} else
+			return false;
+	}
+}
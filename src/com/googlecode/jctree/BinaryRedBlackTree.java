@@ -13,11 +13,15 @@
  */
 package com.googlecode.jctree;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 
 /**
@@ -31,6 +35,10 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 		Node parent, left, right;
 		E value;
 		COLOR color;
+		/** Number of levels in the sub-tree rooted at this node */
+		int height = 1;
+		/** Number of nodes in the sub-tree rooted at this node */
+		int count = 1;
 	}
 	private enum COLOR {RED, BLACK};
 	private int size = 0;
@@ -60,42 +68,50 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	}
 	private boolean addNode(Node parent, E child) throws NodeNotFoundException {
 		checkNode(child);
-		mendTree(parent, addChild(parent, child));
+		Node childNode = addChild(parent, child);
+		mendTree(parent, childNode);
+		updateNodes(childNode);
 		size++;
-		depth = recalculateDepth(root, 0);
+		depth = root.height;
 		return true;
 	}
+	/**
+	 * @return node holding e
+	 * @throws NodeNotFoundException if e is not found
+	 */
+	private Node nodeOf(E e) throws NodeNotFoundException {
+		checkNode(e);
+		if(size == 0)
+			throw new NodeNotFoundException("No node was found for object");
+		else
+			return node(root, e);
+	}
 	private Node node(Node parent, Comparable<E> child) throws NodeNotFoundException {
-		if(child.compareTo(parent.value) > 0) {
-			Node right = parent.right;
-			if(right != null)
-				return node(right, child);
+		while(parent != null) {
+			int comparison = child.compareTo(parent.value);
+			if(comparison > 0)
+				parent = parent.right;
+			else if(comparison < 0)
+				parent = parent.left;
 			else
-				throw new NodeNotFoundException("No node was found for object");
-		} else if(child.compareTo(parent.value) < 0) {
-			Node left = parent.left;
-			if(left != null)
-				return node(left, child);
-			else
-				throw new NodeNotFoundException("No node was found for object");
-		} else
-			return parent;
+				return parent;
+		}
+		throw new NodeNotFoundException("No node was found for object");
 	}
 	private Node findParent(Node parent, E child) throws NodeNotFoundException {
-		if(child.compareTo(parent.value) > 0) {
-			Node right = parent.right;
-			if(right != null)
-				return findParent(right, child);
+		while(true) {
+			int comparison = child.compareTo(parent.value);
+			Node next;
+			if(comparison > 0)
+				next = parent.right;
+			else if(comparison < 0)
+				next = parent.left;
 			else
+				return null;//Such a node already exists
+			if(next == null)
 				return parent;
-		} else if(child.compareTo(parent.value) < 0) {
-			Node left = parent.left;
-			if(left != null)
-				return findParent(left, child);
-			else
-				return parent;
-		} else
-			return null;//Such a node already exists
+			parent = next;
+		}
 	}
 	private void mendTree(Node parent, Node child) throws NodeNotFoundException {
 		inserCase1(parent, child);
@@ -128,15 +144,17 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 		Node grandParent = parent.parent;
 		if(parent.right != null && parent.right.value.equals(child.value) && grandParent.left != null && grandParent.left.value.equals(parent.value)) {
 			rotateLeft(parent);
+			insertCase5(child, parent);
 		} else if(parent.left != null && parent.left.value.equals(child.value) && grandParent.right != null && grandParent.right.value.equals(parent.value)) {
 			rotateRight(parent);
+			insertCase5(child, parent);
 		} else
 			insertCase5(parent, child);
 	}
 	private void insertCase5(Node parent, Node child) throws NodeNotFoundException {
 		Node grandParent = parent.parent;
 		parent.color = COLOR.BLACK;
-		child.color = COLOR.RED;
+		grandParent.color = COLOR.RED;
 		if(parent.left != null && parent.left.value.equals(child.value))
 			rotateRight(grandParent);
 		else
@@ -144,38 +162,63 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	}
 	//http://upload.wikimedia.org/wikipedia/commons/2/23/Tree_rotation.png
 	private void rotateRight(Node q) throws NodeNotFoundException {
-		if(!q.value.equals(root.value)) {
-			Node p = q.left;
-			Node b = p.right;
-			
-			p.parent = q.parent;
-			if(q.parent.left != null && q.parent.left.value.equals(q.value))
-				q.parent.left = p;
-			else
-				q.parent.right = p;
-			p.right = q;
-			q.parent = p;
-			q.left = b;
-			if(b != null)
-				b.parent = q;
-		}
+		Node p = q.left;
+		Node b = p.right;
+		
+		p.parent = q.parent;
+		if(q.parent == null)
+			root = p;
+		else if(q.parent.left == q)
+			q.parent.left = p;
+		else
+			q.parent.right = p;
+		p.right = q;
+		q.parent = p;
+		q.left = b;
+		if(b != null)
+			b.parent = q;
+		updateNode(q);
+		updateNode(p);
 	}
 	//http://upload.wikimedia.org/wikipedia/commons/2/23/Tree_rotation.png
 	private void rotateLeft(Node p) throws NodeNotFoundException {
-		if(!p.value.equals(root.value)) {
-			Node q = p.right;
-			Node b = q.left;
-			q.parent = p.parent;
-			if(p.parent.left != null && p.parent.left.value.equals(p.value)) 
-				p.parent.left = q;
-			else
-				p.parent.right = q;
-			q.left = p;
-			p.parent = q;
-			p.right = b;
-			if(b != null)
-				b.parent = p;
-		}
+		Node q = p.right;
+		Node b = q.left;
+		q.parent = p.parent;
+		if(p.parent == null)
+			root = q;
+		else if(p.parent.left == p)
+			p.parent.left = q;
+		else
+			p.parent.right = q;
+		q.left = p;
+		p.parent = q;
+		p.right = b;
+		if(b != null)
+			b.parent = p;
+		updateNode(p);
+		updateNode(q);
+	}
+	private int height(Node node) {
+		return node != null ? node.height : 0;
+	}
+	private int count(Node node) {
+		return node != null ? node.count : 0;
+	}
+	/**
+	 * Recalculates height and count of node from its children
+	 */
+	private void updateNode(Node node) {
+		node.height = Math.max(height(node.left), height(node.right)) + 1;
+		node.count = count(node.left) + count(node.right) + 1;
+	}
+	/**
+	 * Recalculates heights and counts from node up to the root. Rotations keep the nodes they move up to date
+	 * and every node moved by a rotation during insert or remove hangs below this path
+	 */
+	private void updateNodes(Node node) {
+		for(; node != null; node = node.parent)
+			updateNode(node);
 	}
 	private Node uncle(Node child) throws NodeNotFoundException {
 		Node parentNode = child.parent;
@@ -201,12 +244,49 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	public boolean add(E parent, E child) throws NodeNotFoundException {
 		throw new UnsupportedOperationException("A red-black tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)");
 	}
+	/**
+	 * Adds the elements one at a time if there are fewer of them than nodes in the tree. Otherwise they are merged 
+	 * with the nodes of the tree, after sorting them unless they already are in ascending order, and the whole 
+	 * tree is built again perfectly balanced in O(n). All levels but the last are then full, so nodes of an 
+	 * incomplete last level are colored red and all the others black
+	 * @see java.util.Collection#addAll(java.util.Collection)
+	 */
 	@Override
 	public boolean addAll(Collection<? extends E> c) {
-		boolean retVal = false;
-		for (Iterator<? extends E> iterator = c.iterator(); iterator.hasNext();)
-			retVal |= add(iterator.next());
-		return retVal;
+		if(c.size() < size) {
+			boolean retVal = false;
+			for (Iterator<? extends E> iterator = c.iterator(); iterator.hasNext();)
+				retVal |= add(iterator.next());
+			return retVal;
+		} else {
+			int oldSize = size;
+			Object[] values = new TreeHelper().sortedUnion(inOrderIterator(), size, c, true);
+			int levels = 32 - Integer.numberOfLeadingZeros(values.length);
+			root = build(values, 0, values.length - 1, null, 0, values.length == (1 << levels) - 1 ? -1 : levels - 1);
+			size = values.length;
+			depth = height(root);
+			return size != oldSize;
+		}
+	}
+	/**
+	 * Builds a balanced sub-tree out of the sorted values between from and to, both inclusive, with the middle 
+	 * value at its root. Recursion is only as deep as the tree built, which is O(log n)
+	 * @param redLevel level whose nodes are colored red
+	 * @return root of the sub-tree or null if there are no values
+	 */
+	@SuppressWarnings("unchecked")
+	private Node build(Object[] values, int from, int to, Node parent, int level, int redLevel) {
+		if(from > to)
+			return null;
+		int middle = (from + to) >>> 1;
+		Node node = new Node();
+		node.value = (E) values[middle];
+		node.parent = parent;
+		node.color = level == redLevel ? COLOR.RED : COLOR.BLACK;
+		node.left = build(values, from, middle - 1, node, level + 1, redLevel);
+		node.right = build(values, middle + 1, to, node, level + 1, redLevel);
+		updateNode(node);
+		return node;
 	}
 	/**
 	 * Unsupported Operation
@@ -232,6 +312,36 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 		return list;
 	}
 	@Override
+	public int childCount(E parent) throws NodeNotFoundException {
+		Node node = nodeOf(parent);
+		return (node.left != null ? 1 : 0) + (node.right != null ? 1 : 0);
+	}
+	@Override
+	public E child(E parent, int index) throws NodeNotFoundException {
+		Node node = nodeOf(parent);
+		if(index < 0)
+			throw new IndexOutOfBoundsException("index found to be " + index + ".It cannot be negative");
+		else if(index == 0)
+			return valueOf(node.left != null ? node.left : node.right);
+		else if(index == 1 && node.left != null)
+			return valueOf(node.right);
+		else
+			return null;
+	}
+	@Override
+	public void forEachChild(E parent, Consumer<? super E> action) throws NodeNotFoundException {
+		Node node = nodeOf(parent);
+		if(node.left != null)
+			action.accept(node.left.value);
+		if(node.right != null)
+			action.accept(node.right.value);
+	}
+	@Override
+	public List<E> childrenView(E parent) throws NodeNotFoundException {
+		nodeOf(parent);
+		return new TreeHelper().childrenView(this, parent);
+	}
+	@Override
 	public void clear() {
 		root = null;
 		size = 0;
@@ -252,26 +362,80 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 		}
 		return clone;
 	}
-	//TODO change this implementation to an iterative one to avoid StackOverflow in large trees
-		private void copy(Node cloneNode, Node node) {
+	/**
+	 * Copies the sub-tree under node into cloneNode. Pairs of nodes still to be copied are kept on an explicit
+	 * stack so that depth of the tree is not limited by the call stack
+	 */
+	private void copy(Node cloneNode, Node node) {
+		ArrayDeque<Node> stack = new ArrayDeque<Node>();
+		stack.push(node);
+		stack.push(cloneNode);
+		while(!stack.isEmpty()) {
+			cloneNode = stack.pop();
+			node = stack.pop();
+			cloneNode.value = node.value;
+			cloneNode.color = node.color;
+			cloneNode.height = node.height;
+			cloneNode.count = node.count;
 			if(node.left != null) {
 				cloneNode.left = new Node();
 				cloneNode.left.parent = cloneNode;
-				copy(cloneNode.left, node.left);
+				stack.push(node.left);
+				stack.push(cloneNode.left);
 			}
-			cloneNode.value = node.value;
-			cloneNode.color = node.color;
 			if(node.right != null) {
 				cloneNode.right = new Node();
 				cloneNode.right.parent = cloneNode;
-				copy(cloneNode.right, node.right);
+				stack.push(node.right);
+				stack.push(cloneNode.right);
 			}
 		}
+	}
 	@Override
 	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
 		checkNode(node1);
 		checkNode(node2);
-		return new TreeHelper().commonAncestor(this, node1, node2);
+		Node fork = fork(node1, node2);
+		pathLength(fork, node1);
+		pathLength(fork, node2);
+		return fork.value;
+	}
+	@Override
+	public int distance(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		Node fork = fork(node1, node2);
+		return pathLength(fork, node1) + pathLength(fork, node2);
+	}
+	/**
+	 * @return the node at which the search paths of node1 and node2 part, which is their common ancestor when both
+	 * are present
+	 */
+	private Node fork(E node1, E node2) throws NodeNotFoundException {
+		Node node = root;
+		while(node != null) {
+			int comparison1 = node1.compareTo(node.value);
+			int comparison2 = node2.compareTo(node.value);
+			if(comparison1 > 0 && comparison2 > 0)
+				node = node.right;
+			else if(comparison1 < 0 && comparison2 < 0)
+				node = node.left;
+			else
+				return node;
+		}
+		throw new NodeNotFoundException("No node was found for object");
+	}
+	/**
+	 * @return number of edges from node down to the node of value
+	 */
+	private int pathLength(Node node, E value) throws NodeNotFoundException {
+		for(int length = 0; node != null; length++) {
+			int comparison = value.compareTo(node.value);
+			if(comparison == 0)
+				return length;
+			node = comparison > 0 ? node.right : node.left;
+		}
+		throw new NodeNotFoundException("No node was found for object");
 	}
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	@Override
@@ -302,14 +466,11 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	@Override
 	@Deprecated
 	public List<E> inorderOrderTraversal() {
-		return inOrderTraversal(root, new ArrayList<E>());
+		return inOrderTraversal();
 	}
 	@Override
 	public List<E> inOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return inOrderTraversal(root, new ArrayList<E>());
+		return new TreeHelper().toList(inOrderIterator(), size);
 	}
 	@Override
 	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
@@ -327,33 +488,15 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	}
 	@Override
 	public Iterator<E> iterator() {
-		return getCurrentList().iterator();
+		return inOrderIterator();
 	}
 	@Override
 	public List<E> leaves() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return leaves(root, new ArrayList<E>());
-	}
-	private List<E> leaves(Node node, ArrayList<E> list) {
-		if(node.left != null)
-			leaves(node.left, list);
-		if(node.left == null && node.right == null)
-			list.add(node.value);
-		if(node.right != null)
-			leaves(node.right, list);
-		return list;
+		return new TreeHelper().toList(new NodeIterator(TraversalIterator.Order.LEAF), 10);
 	}
 	@Override
 	public List<E> levelOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else {
-			LinkedList<Node> queue = new LinkedList<Node>();
-			queue.add(root);
-			return levelOrderTraversal(new ArrayList<E>(), queue);
-		}
+		return new TreeHelper().toList(levelOrderIterator(), size);
 	}
 	@Override
 	public E parent(E e) throws NodeNotFoundException {
@@ -368,35 +511,32 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	}
 	@Override
 	public List<E> postOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return postOrderTraversal(root, new ArrayList<E>());
+		return new TreeHelper().toList(postOrderIterator(), size);
 	}
 	public List<E> preOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return preOrderTraversal(root, new ArrayList<E>());
+		return new TreeHelper().toList(preOrderIterator(), size);
 	}
 	@Override
 	public E successor(E value) throws NodeNotFoundException {
+		checkNode(value);
 		if(isEmpty())
 			throw new NodeNotFoundException("No node was found for the parameter");
 		else
-			return successorNode(node(root, value)).value;
+			return valueOf(successorNode(node(root, value)));
 	}
-	private Node successorNode(Node node) throws NodeNotFoundException {
-		Node right = node.right;
-		if(right != null) {
-			node = right;
+	/**
+	 * @return next node in order or null if node is the last
+	 */
+	private Node successorNode(Node node) {
+		if(node.right != null) {
+			node = node.right;
 			while(node.left != null)
 				node = node.left;
 			return node;
 		} else {
-			while(!node.parent.right.value.equals(node.value))
+			while(node.parent != null && node.parent.right == node)
 				node = node.parent;
-			return node;
+			return node.parent;
 		}
 	}
 	@Override
@@ -405,24 +545,112 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 		if(isEmpty())
 			throw new NodeNotFoundException("No node was found for the parameter");
 		else
-			return predecessorNode(node(root, value)).value;
+			return valueOf(predecessorNode(node(root, value)));
 	}
-	private Node predecessorNode(Node node) throws NodeNotFoundException {
-		Node left = node.left;
-		if(left != null) {
-			node = left;
+	/**
+	 * @return previous node in order or null if node is the first
+	 */
+	private Node predecessorNode(Node node) {
+		if(node.left != null) {
+			node = node.left;
 			while(node.right != null)
 				node = node.right;
 			return node;
 		} else {
-			while(!node.parent.left.value.equals(node.value))
+			while(node.parent != null && node.parent.left == node)
 				node = node.parent;
-			return node;
+			return node.parent;
 		}
 	}
+	@Override
+	public E floor(E value) {
+		checkNode(value);
+		return valueOf(highestBelow(value, true));
+	}
+	@Override
+	public E ceiling(E value) {
+		checkNode(value);
+		return valueOf(lowestAbove(value, true));
+	}
+	@Override
+	public E higher(E value) {
+		checkNode(value);
+		return valueOf(lowestAbove(value, false));
+	}
+	@Override
+	public E lower(E value) {
+		checkNode(value);
+		return valueOf(highestBelow(value, false));
+	}
+	/**
+	 * @return node of the smallest value greater than value, or equal to it if inclusive is true. null if there
+	 * is no such node
+	 */
+	private Node lowestAbove(E value, boolean inclusive) {
+		Node found = null;
+		Node node = root;
+		while(node != null) {
+			int comparison = value.compareTo(node.value);
+			if(comparison < 0 || (comparison == 0 && inclusive)) {
+				found = node;
+				node = node.left;
+			} else
+				node = node.right;
+		}
+		return found;
+	}
+	/**
+	 * @return node of the greatest value less than value, or equal to it if inclusive is true. null if there is
+	 * no such node
+	 */
+	private Node highestBelow(E value, boolean inclusive) {
+		Node found = null;
+		Node node = root;
+		while(node != null) {
+			int comparison = value.compareTo(node.value);
+			if(comparison > 0 || (comparison == 0 && inclusive)) {
+				found = node;
+				node = node.right;
+			} else
+				node = node.left;
+		}
+		return found;
+	}
+	private Node firstNode() {
+		Node node = root;
+		if(node != null)
+			while(node.left != null)
+				node = node.left;
+		return node;
+	}
+	private Node lastNode() {
+		Node node = root;
+		if(node != null)
+			while(node.right != null)
+				node = node.right;
+		return node;
+	}
+	private E valueOf(Node node) {
+		return node != null ? node.value : null;
+	}
+	@Override
+	public SortedSet<E> subTree(E fromElement, E toElement) {
+		checkNode(fromElement);
+		checkNode(toElement);
+		return new NodeView(fromElement, toElement);
+	}
+	@Override
+	public SortedSet<E> headTree(E toElement) {
+		checkNode(toElement);
+		return new NodeView(null, toElement);
+	}
+	@Override
+	public SortedSet<E> tailTree(E fromElement) {
+		checkNode(fromElement);
+		return new NodeView(fromElement, null);
+	}
 	private boolean remove(Node node) {
 		try {
-			
 			if(node.left != null && node.right != null)
 				deferDelete(node);
 			else
@@ -447,46 +675,41 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 				node = searchTree(root, o);
 			boolean remove = remove(node);
 			size--;
-			depth = recalculateDepth(root, 0);
+			depth = height(root);
 			return remove;
 		} catch (NodeNotFoundException e) {
 			return false;
 		}
 	}
 	private Node searchTree(Node node, Object o) {
-		if(node.left != null) {
-			Node nodeReturned = searchTree(node.left, o);
-			if(nodeReturned != null)
-				return nodeReturned;
-		}
-		if(node.right != null) {
-			Node nodeReturned = searchTree(node.right, o);
-			if(nodeReturned != null)
-				return nodeReturned;
+		ArrayDeque<Node> stack = new ArrayDeque<Node>();
+		stack.push(node);
+		while(!stack.isEmpty()) {
+			node = stack.pop();
+			if(o.equals(node.value))
+				return node;
+			if(node.right != null)
+				stack.push(node.right);
+			if(node.left != null)
+				stack.push(node.left);
 		}
-		if(o.equals(node.value))
-			return node;
-		else
-			return null;
+		return null;
 	}
 	private void deleteCaseLeaf(Node node) throws NodeNotFoundException {
 		if(node.left == null && node.right == null) {
-			if(node.parent.left != null && node.parent.left == node)
-				node.parent.left = null;
-			else
-				node.parent.right = null;
-			node = null;
+			if(node.color == COLOR.BLACK)
+				deleteCase1(node);//Rebalance while the node is still in place, it is detached afterwards
+			Node parent = node.parent;
+			replace(node, null);
+			updateNodes(parent);
 		} else
 			deleteCaseRedNode(node);
 	}
 	private void deleteCaseRedNode(Node node) throws NodeNotFoundException {
 		if(node.color == COLOR.RED) {
 			Node child = node.left != null ? node.left : node.right;
-			child.parent = node.parent;
-			if(node.parent.left != null && node.parent.left.value.equals(node.value))
-				node.parent.left = child;
-			else
-				node.parent.right = child;
+			replace(node, child);
+			updateNodes(child.parent);
 		} else
 			deleteCase0(node);
 	}
@@ -504,53 +727,60 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	}
 	//Assuming there is only one non-leaf children attached to node
 	private void deleteCase0(Node node) throws NodeNotFoundException {
-		if(node.color == COLOR.BLACK) {
-			Node child = node.left != null ? node.left : node.right;
+		Node child = node.left != null ? node.left : node.right;
+		replace(node, child);
+		if(child.color == COLOR.RED)
+			child.color = COLOR.BLACK;
+		else
+			deleteCase1(child);
+		updateNodes(child.parent);
+	}
+	/**
+	 * Puts child in place of node under the parent of node
+	 */
+	private void replace(Node node, Node child) {
+		if(child != null)
 			child.parent = node.parent;
-			if(node.parent.left != null && node.parent.left.value.equals(node.value))
-				node.parent.left = child;
-			else
-				node.parent.right = child;
-			if(child.color == COLOR.RED)
-				child.color = COLOR.BLACK;
-			else
-				deleteCase1(child);
-		}
+		if(node.parent == null)
+			root = child;
+		else if(node.parent.left == node)
+			node.parent.left = child;
+		else
+			node.parent.right = child;
+	}
+	private Node sibling(Node node) {
+		return node.parent.left == node ? node.parent.right : node.parent.left;
+	}
+	private boolean isBlack(Node node) {
+		return node == null || node.color == COLOR.BLACK;
 	}
 	private void deleteCase1(Node node) throws NodeNotFoundException {
-		if(!node.value.equals(root.value))
+		if(node.parent != null)
 			deleteCase2(node);
 	}
 	private void deleteCase2(Node node) throws NodeNotFoundException {
-		Node sibling = (node.parent.left != null && node.parent.left.value.equals(node.value)) ? 
-				node.parent.right 
-				: node.parent.left;
+		Node sibling = sibling(node);
 		if(sibling.color == COLOR.RED) {
 			node.parent.color = COLOR.RED;
-			sibling.color = COLOR.RED;
-			if(node.parent.left != null && node.value.equals(node.parent.left.value))
+			sibling.color = COLOR.BLACK;
+			if(node.parent.left == node)
 				rotateLeft(node.parent);
 			else
 				rotateRight(node.parent);
-		} else
-			deleteCase3(node, sibling, node.parent);
+		}
+		deleteCase3(node, sibling(node), node.parent);
 	}
 	private void deleteCase3(Node node, Node sibling, Node parent) throws NodeNotFoundException {
 		Node left = sibling.left;
 		Node right = sibling.right;
-		if(parent.color == COLOR.BLACK && sibling.color == COLOR.BLACK &&
-				(left == null || left.color == COLOR.BLACK) &&
-				(right == null || right.color == COLOR.BLACK)) {
+		if(parent.color == COLOR.BLACK && sibling.color == COLOR.BLACK && isBlack(left) && isBlack(right)) {
 			sibling.color = COLOR.RED;
 			deleteCase1(parent);
 		} else
 			deleteCase4(node, sibling, parent, left, right);
 	}
 	private void deleteCase4(Node node, Node sibling, Node parent, Node left, Node right) throws NodeNotFoundException {
-		if(parent.color == COLOR.RED &&
-				sibling.color == COLOR.BLACK &&
-				(left == null || left.color == COLOR.BLACK) &&
-				(right == null || right.color == COLOR.BLACK)) {
+		if(parent.color == COLOR.RED && sibling.color == COLOR.BLACK && isBlack(left) && isBlack(right)) {
 			sibling.color = COLOR.RED;
 			parent.color = COLOR.BLACK;
 		} else
@@ -558,30 +788,26 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	}
 	private void deleteCase5(Node node, Node sibling, Node parent, Node left, Node right) throws NodeNotFoundException {
 		if(sibling.color == COLOR.BLACK) {
-			if(parent.left != null && parent.left.value.equals(node.value) &&
-					(left.color == COLOR.RED) &&
-					(right == null || right.color == COLOR.BLACK)) {
+			if(parent.left == node && isBlack(right) && !isBlack(left)) {
 				sibling.color = COLOR.RED;
 				left.color = COLOR.BLACK;
 				rotateRight(sibling);
-			} else if(parent.right != null && parent.right.value.equals(node.value) &&
-					(left == null || left.color == COLOR.BLACK) &&
-					right.color == COLOR.RED) {
+			} else if(parent.right == node && isBlack(left) && !isBlack(right)) {
 				sibling.color = COLOR.RED;
 				right.color = COLOR.BLACK;
 				rotateLeft(sibling);
 			}
 		}
-		deleteCase6(node, sibling, parent, left, right);
+		deleteCase6(node, sibling(node), parent);
 	}
-	private void deleteCase6(Node node, Node sibling, Node parent, Node left, Node right) throws NodeNotFoundException {
+	private void deleteCase6(Node node, Node sibling, Node parent) throws NodeNotFoundException {
 		sibling.color = parent.color;
 		parent.color = COLOR.BLACK;
-		if(parent.left != null && node.value.equals(parent.left.value)) {
-			right.color = COLOR.BLACK;
+		if(parent.left == node) {
+			sibling.right.color = COLOR.BLACK;
 			rotateLeft(parent);
 		} else {
-			left.color = COLOR.BLACK;
+			sibling.left.color = COLOR.BLACK;
 			rotateRight(parent);
 		}
 	}
@@ -616,21 +842,14 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	}
 	@Override
 	public List<E> siblings(E e) throws NodeNotFoundException {
-		checkNode(e);
-		if(size == 0)
-			throw new NodeNotFoundException("No node was found for the object");
-		else {
-			Node parent = node(root, e).parent;
-			ArrayList<E> children = new ArrayList<E>(1);
-			if(parent != null) {
-				if(parent.left != null && parent.left.value.equals(e)) {
-					if(parent.right != null)
-						children.add(parent.right.value);
-				} else
-					children.add(parent.left.value);
-			}
-			return children;
+		Node node = nodeOf(e);
+		ArrayList<E> siblings = new ArrayList<E>(1);
+		if(node.parent != null) {
+			Node sibling = node.parent.left == node ? node.parent.right : node.parent.left;
+			if(sibling != null)
+				siblings.add(sibling.value);
 		}
+		return siblings;
 	}
 	@Override
 	public int size() {
@@ -638,11 +857,11 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	}
 	@Override
 	public Object[] toArray() {
-		return getCurrentList().toArray();
+		return new TreeHelper().toArray(this);
 	}
 	@Override
 	public <T> T[] toArray(T[] a) {
-		return getCurrentList().toArray(a);
+		return new TreeHelper().toArray(this, a);
 	}
 
 	private Node addChild(Node parentNode, E child) {
@@ -672,52 +891,112 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 	private List<E> getCurrentList() {
 		return inOrderTraversal();
 	}
-	private List<E> inOrderTraversal(Node node, ArrayList<E> list) {
-		if(node.left != null)
-			inOrderTraversal(node.left, list);
-		list.add(node.value);
-		if(node.right != null)
-			inOrderTraversal(node.right, list);
-		return list;
+	@Override
+	public Iterator<E> preOrderIterator() {
+		return new NodeIterator(TraversalIterator.Order.PRE);
 	}
-	private List<E> levelOrderTraversal(ArrayList<E> list, LinkedList<Node> queue) {
-		while(!queue.isEmpty()) {
-			list.add(queue.getFirst().value);
-			if(queue.getFirst().left != null)
-				queue.add(queue.getFirst().left);
-			if(queue.getFirst().right != null)
-				queue.add(queue.getFirst().right);
-			queue.remove();
-		}
-		return list;
+	@Override
+	public Iterator<E> inOrderIterator() {
+		return new NodeIterator(TraversalIterator.Order.IN);
 	}
-	private List<E> postOrderTraversal(Node node, ArrayList<E> list) {
-		if(node.left != null)
-			postOrderTraversal(node.left, list);
-		if(node.right != null)
-			postOrderTraversal(node.right, list);
-		list.add(node.value);
-		return list;
+	@Override
+	public Iterator<E> postOrderIterator() {
+		return new NodeIterator(TraversalIterator.Order.POST);
 	}
-	private List<E> preOrderTraversal(Node node, ArrayList<E> list) {
-		list.add(node.value);
-		if(node.left != null)
-			preOrderTraversal(node.left, list);
-		if(node.right != null)
-			preOrderTraversal(node.right, list);
-		return list;
+	@Override
+	public Iterator<E> levelOrderIterator() {
+		return new NodeIterator(TraversalIterator.Order.LEVEL);
 	}
-	private int recalculateDepth(Node node, int depth) {
-		int childDepth = depth + 1;
-		if(node.left == null && node.right == null)
-			return childDepth;
-		else {
-			if(node.left != null)
-				depth = Math.max(depth, recalculateDepth(node.left, childDepth));
-			if(node.right != null)
-				depth = Math.max(depth, recalculateDepth(node.right, childDepth));
+	@Override
+	public Iterator<E> descendingIterator() {
+		return new NodeView(null, null).descendingIterator();
+	}
+	/**
+	 * Spliterator splits at sub-tree boundaries and walks the tree in sorted order
+	 * @see java.util.Collection#spliterator()
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return new NodeSpliterator();
+	}
+	private class NodeIterator extends NodeTraversalIterator<E, Node> {
+		NodeIterator(TraversalIterator.Order order) {
+			super(order, root);
+		}
+		@Override
+		E element(Node node) {
+			return node.value;
+		}
+		@Override
+		int firstChild(Node node) {
+			return node.left != null ? 0 : nextChild(node, 0);
+		}
+		@Override
+		int nextChild(Node node, int cursor) {
+			return cursor == 0 && node.right != null ? 1 : -1;
+		}
+		@Override
+		Node child(Node node, int cursor) {
+			return cursor == 0 ? node.left : node.right;
+		}
+		@Override
+		int childrenBefore(Node node) {
+			return node.left != null ? 1 : 0;
+		}
+	}
+	private class NodeView extends SortedTreeView<E, Node> {
+		NodeView(E from, E to) {
+			super(from, to);
+		}
+		@Override
+		Node ceilingNode(E value) {
+			return value != null ? lowestAbove(value, true) : firstNode();
+		}
+		@Override
+		Node lowerNode(E value) {
+			return value != null ? highestBelow(value, false) : lastNode();
+		}
+		@Override
+		Node successor(Node node) {
+			return successorNode(node);
+		}
+		@Override
+		Node predecessor(Node node) {
+			return predecessorNode(node);
+		}
+		@Override
+		E element(Node node) {
+			return node.value;
+		}
+		@Override
+		SortedTreeView<E, Node> view(E from, E to) {
+			return new NodeView(from, to);
+		}
+	}
+	private class NodeSpliterator extends TreeSpliterator<E, Node> {
+		NodeSpliterator() {
+			super(root, size, Spliterator.SORTED);
+		}
+		@Override
+		E element(Node node) {
+			return node.value;
+		}
+		@Override
+		int firstChild(Node node) {
+			return node.left != null ? 0 : nextChild(node, 0);
+		}
+		@Override
+		int nextChild(Node node, int cursor) {
+			return cursor == 0 && node.right != null ? 1 : -1;
+		}
+		@Override
+		Node child(Node node, int cursor) {
+			return cursor == 0 ? node.left : node.right;
+		}
+		@Override
+		int childrenBefore(Node node) {
+			return node.left != null ? 1 : 0;
 		}
-		return depth;
 	}
 	@Override
 	public String toString() {
@@ -757,6 +1036,238 @@ public class BinaryRedBlackTree<E extends Comparable<E>> implements SortedTree<E
 				return null;
 		}
 	}
+	/**
+	 * Finds the element at the given position in sorted order in O(log n) using the number of nodes kept in every 
+	 * sub-tree
+	 * @param index position of the element in sorted order, starting at 0
+	 * @return element at index
+	 * @throws IndexOutOfBoundsException if index is negative or not less than size of the tree
+	 */
+	public E select(int index) {
+		if(index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("index found to be " + index + ".It should be between 0 and " + (size - 1));
+		Node node = root;
+		while(true) {
+			int left = count(node.left);
+			if(index < left)
+				node = node.left;
+			else if(index > left) {
+				index -= left + 1;
+				node = node.right;
+			} else
+				return node.value;
+		}
+	}
+	/**
+	 * @param value the value need not be present in the tree
+	 * @return number of elements smaller than value, which is the position of value in sorted order if it is present
+	 */
+	public int rank(E value) {
+		checkNode(value);
+		return countBelow(value, false);
+	}
+	/**
+	 * @return number of elements between from and to, both inclusive. 0 if from is greater than to
+	 */
+	public int countInRange(E from, E to) {
+		checkNode(from);
+		checkNode(to);
+		if(from.compareTo(to) > 0)
+			return 0;
+		else
+			return countBelow(to, true) - countBelow(from, false);
+	}
+	/**
+	 * @return number of elements smaller than value, including the one equal to value if inclusive is true
+	 */
+	private int countBelow(E value, boolean inclusive) {
+		int count = 0;
+		Node node = root;
+		while(node != null) {
+			int comparison = value.compareTo(node.value);
+			if(comparison > 0 || (comparison == 0 && inclusive)) {
+				count += count(node.left) + 1;
+				node = node.right;
+			} else
+				node = node.left;
+		}
+		return count;
+	}
+	/**
+	 * Splits the tree in two in O(log n). Nodes are moved to the new trees, which leaves this tree empty
+	 * @return two trees, the first with the nodes less than key and the second with the rest
+	 */
+	public List<BinaryRedBlackTree<E>> split(E key) {
+		checkNode(key);
+		int height = blackHeight();
+		BinaryRedBlackTree<E> tree = detach(root);
+		clear();
+		return split(tree, height, key, new int[2]);
+	}
+	/**
+	 * Takes the sub-tree apart at its root and splits the side holding key, joining the other side back on the way up.
+	 * Black heights are worked out from the parent's on the way down, so that no join has to walk a tree to find them
+	 * @param height black height of tree
+	 * @param heights receives the black heights of the two trees returned
+	 */
+	private static <E extends Comparable<E>> List<BinaryRedBlackTree<E>> split(BinaryRedBlackTree<E> tree, int height, E key, int[] heights) {
+		BinaryRedBlackTree<E>.Node node = tree.root;
+		if(node == null) {
+			heights[0] = 0;
+			heights[1] = 0;
+			return Arrays.asList(tree, new BinaryRedBlackTree<E>());
+		}
+		int leftHeight = node.left != null && node.left.color == COLOR.RED ? height : height - 1;
+		int rightHeight = node.right != null && node.right.color == COLOR.RED ? height : height - 1;
+		BinaryRedBlackTree<E> left = detach(node.left);
+		BinaryRedBlackTree<E> right = detach(node.right);
+		if(key.compareTo(node.value) <= 0) {
+			List<BinaryRedBlackTree<E>> parts = split(left, leftHeight, key, heights);
+			return Arrays.asList(parts.get(0), concatenate(parts.get(1), heights[1], node.value, right, rightHeight, heights, 1));
+		} else {
+			List<BinaryRedBlackTree<E>> parts = split(right, rightHeight, key, heights);
+			return Arrays.asList(concatenate(left, leftHeight, node.value, parts.get(0), heights[0], heights, 0), parts.get(1));
+		}
+	}
+	/**
+	 * @return tree made of the sub-tree under node. Its root is colored black, which keeps it a valid red-black tree
+	 */
+	private static <E extends Comparable<E>> BinaryRedBlackTree<E> detach(BinaryRedBlackTree<E>.Node node) {
+		BinaryRedBlackTree<E> tree = new BinaryRedBlackTree<E>();
+		if(node != null) {
+			node.parent = null;
+			node.color = COLOR.BLACK;
+			tree.root = node;
+			tree.size = node.count;
+			tree.depth = node.height;
+		}
+		return tree;
+	}
+	/**
+	 * Joins two trees with key between them in O(log n). Nodes are moved to the new tree, which leaves left and 
+	 * right empty
+	 * @param left tree whose nodes are all less than key
+	 * @param right tree whose nodes are all greater than key
+	 * @return tree with the nodes of left, key and the nodes of right
+	 * @throws IllegalArgumentException if the trees are the same or overlap key
+	 */
+	public static <E extends Comparable<E>> BinaryRedBlackTree<E> join(BinaryRedBlackTree<E> left, E key, BinaryRedBlackTree<E> right) {
+		if(key == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+		if(left == right)
+			throw new IllegalArgumentException("A tree can not be joined with itself");
+		if((!left.isEmpty() && left.lastNode().value.compareTo(key) >= 0) || (!right.isEmpty() && right.firstNode().value.compareTo(key) <= 0))
+			throw new IllegalArgumentException("Nodes of left should be less than key and nodes of right greater than key");
+		BinaryRedBlackTree<E> tree = concatenate(detach(left.root), left.blackHeight(), key, detach(right.root), right.blackHeight(), new int[1], 0);
+		left.clear();
+		right.clear();
+		return tree;
+	}
+	/**
+	 * Joins two trees in O(log n). The greatest node of left is taken out and used as the key of 
+	 * {@link #join(BinaryRedBlackTree, Comparable, BinaryRedBlackTree)}
+	 * @param left tree whose nodes are all less than the nodes of right
+	 * @return tree with the nodes of left and right
+	 */
+	public static <E extends Comparable<E>> BinaryRedBlackTree<E> join(BinaryRedBlackTree<E> left, BinaryRedBlackTree<E> right) {
+		if(left == right)
+			throw new IllegalArgumentException("A tree can not be joined with itself");
+		if(left.isEmpty()) {
+			BinaryRedBlackTree<E> tree = detach(right.root);
+			right.clear();
+			return tree;
+		}
+		E key = left.lastNode().value;
+		if(!right.isEmpty() && right.firstNode().value.compareTo(key) <= 0)
+			throw new IllegalArgumentException("Nodes of left should be less than nodes of right");
+		left.remove(key);
+		return join(left, key, right);
+	}
+	/**
+	 * Hangs the shorter tree and key, as a red node, from the side of the taller tree at the black node of equal 
+	 * black height and then mends the tree as after an insert. Both trees should have black roots. This takes time 
+	 * proportional to the difference of the black heights, as only the spine walked down is mended and updated
+	 * @param heights receives the black height of the new tree at index
+	 */
+	private static <E extends Comparable<E>> BinaryRedBlackTree<E> concatenate(BinaryRedBlackTree<E> left, int leftHeight, E key, BinaryRedBlackTree<E> right, int rightHeight, int[] heights, int index) {
+		BinaryRedBlackTree<E> tree = new BinaryRedBlackTree<E>();
+		BinaryRedBlackTree<E>.Node node = tree.new Node();
+		node.value = key;
+		try {
+			if(leftHeight == rightHeight) {
+				node.color = COLOR.BLACK;
+				tree.link(node, left.root, right.root);
+				tree.root = node;
+				heights[index] = leftHeight + 1;
+			} else if(leftHeight > rightHeight) {
+				BinaryRedBlackTree<E>.Node parent = null;
+				BinaryRedBlackTree<E>.Node spine = left.root;
+				for(int height = leftHeight; spine != null && (height > rightHeight || spine.color == COLOR.RED); spine = spine.right) {
+					if(spine.color == COLOR.BLACK)
+						height--;
+					parent = spine;
+				}
+				node.color = COLOR.RED;
+				tree.root = left.root;
+				tree.link(node, spine, right.root);
+				node.parent = parent;
+				parent.right = node;
+				heights[index] = leftHeight + tree.mendRoot(parent, node);
+			} else {
+				BinaryRedBlackTree<E>.Node parent = null;
+				BinaryRedBlackTree<E>.Node spine = right.root;
+				for(int height = rightHeight; spine != null && (height > leftHeight || spine.color == COLOR.RED); spine = spine.left) {
+					if(spine.color == COLOR.BLACK)
+						height--;
+					parent = spine;
+				}
+				node.color = COLOR.RED;
+				tree.root = right.root;
+				tree.link(node, left.root, spine);
+				node.parent = parent;
+				parent.left = node;
+				heights[index] = rightHeight + tree.mendRoot(parent, node);
+			}
+		} catch (NodeNotFoundException e) {
+			throw new IllegalStateException(e);//Mending only follows links of nodes present in the tree
+		}
+		tree.updateNodes(node);
+		tree.size = left.size + right.size + 1;
+		tree.depth = tree.root.height;
+		return tree;
+	}
+	/**
+	 * Mends the tree after child is hung from parent
+	 * @return 1 if the black height of the tree grew, which happens only when mending recolors both children of the
+	 * root from red to black, else 0
+	 */
+	private int mendRoot(Node parent, Node child) throws NodeNotFoundException {
+		Node top = root;
+		boolean redChildren = top.left != null && top.left.color == COLOR.RED && top.right != null && top.right.color == COLOR.RED;
+		mendTree(parent, child);
+		return root == top && redChildren && top.left.color == COLOR.BLACK ? 1 : 0;
+	}
+	/**
+	 * Makes left and right the children of node
+	 */
+	private void link(Node node, Node left, Node right) {
+		node.left = left;
+		node.right = right;
+		if(left != null)
+			left.parent = node;
+		if(right != null)
+			right.parent = node;
+	}
+	/**
+	 * @return number of black nodes on a path from the root down to a leaf
+	 */
+	private int blackHeight() {
+		int height = 0;
+		for(Node node = root; node != null; node = node.left)
+			if(node.color == COLOR.BLACK)
+				height++;
+		return height;
+	}
 	@SuppressWarnings("unchecked")
 	@Override
 	public boolean equals(Object o) {
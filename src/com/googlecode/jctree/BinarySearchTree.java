@@ -13,11 +13,15 @@
  */
 package com.googlecode.jctree;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * Implements traditional BST as left-right-parent links of a node. This gives log(n) complexity for operations unlike {@link ArrayListBinarySearchTree}.
@@ -34,6 +38,8 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 	}
 	private int size = 0;
 	private int depth = 0;
+	/** Number of nodes at every level of the tree, root being at level 0 */
+	private int[] levelCounts = new int[10];
 	private Node root;
 	/** 
 	 * A binary search tree determines parent of a child on its own and hence it is not possible to add the child to any given parent. Please use add(child)
@@ -54,12 +60,18 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 				addRoot(child);
 				return true;
 			} else {
-				Node parent = findParent(root, child);
-				if(parent != null) {
-					addChild(parent, child, parent.value.compareTo(child) > 0);
-					return true;
-				} else
-					return false;
+				Node parent = root;
+				for(int level = 1; ; level++) {
+					int comparison = child.compareTo(parent.value);
+					if(comparison == 0)
+						return false;//Such a node already exists
+					Node next = comparison > 0 ? parent.right : parent.left;
+					if(next == null) {
+						addChild(parent, child, comparison < 0, level);
+						return true;
+					}
+					parent = next;
+				}
 			}
 		} catch (NodeNotFoundException e) {
 			e.printStackTrace();
@@ -67,7 +79,10 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		}
 	}
 
-	private void addChild(Node parent, E child, boolean isLeft) throws NodeNotFoundException {
+	/**
+	 * @param level level of the new child, which the descent to parent has already counted
+	 */
+	private void addChild(Node parent, E child, boolean isLeft, int level) throws NodeNotFoundException {
 		checkNode(child);
 		Node childNode = new Node();
 		childNode.value = child;
@@ -77,15 +92,72 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		else
 			parent.right = childNode;
 		size++;
-		depth = recalculateDepth(root, 0);
+		addToLevel(level);
+	}
+	/**
+	 * @return number of links between node and the root
+	 */
+	private int level(Node node) {
+		int level = 0;
+		for(Node parent = node.parent; parent != null; parent = parent.parent)
+			level++;
+		return level;
+	}
+	/**
+	 * Nodes never move between levels as removal only detaches leaves, so depth can be kept from the number
+	 * of nodes at each level
+	 */
+	private void addToLevel(int level) {
+		if(level == levelCounts.length)
+			levelCounts = Arrays.copyOf(levelCounts, level * 2);
+		levelCounts[level]++;
+		depth = Math.max(depth, level + 1);
+	}
+	private void removeFromLevel(int level) {
+		levelCounts[level]--;
+		while(depth > 0 && levelCounts[depth - 1] == 0)
+			depth--;
 	}
 
+	/**
+	 * Adds the elements one at a time if there are fewer of them than nodes in the tree. Otherwise they are merged 
+	 * with the nodes of the tree, after sorting them unless they already are in ascending order, and the whole 
+	 * tree is built again perfectly balanced in O(n)
+	 * @see java.util.Collection#addAll(java.util.Collection)
+	 */
 	@Override
 	public boolean addAll(Collection<? extends E> c) {
-		boolean retVal = false;
-		for (Iterator<? extends E> iterator = c.iterator(); iterator.hasNext();)
-			retVal |= add(iterator.next());
-		return retVal;
+		if(c.size() < size) {
+			boolean retVal = false;
+			for (Iterator<? extends E> iterator = c.iterator(); iterator.hasNext();)
+				retVal |= add(iterator.next());
+			return retVal;
+		} else {
+			int oldSize = size;
+			Object[] values = new TreeHelper().sortedUnion(inOrderIterator(), size, c, false);
+			clear();
+			root = build(values, 0, values.length - 1, null, 0);
+			size = values.length;
+			return size != oldSize;
+		}
+	}
+	/**
+	 * Builds a balanced sub-tree out of the sorted values between from and to, both inclusive, with the middle 
+	 * value at its root. Recursion is only as deep as the tree built, which is O(log n)
+	 * @return root of the sub-tree or null if there are no values
+	 */
+	@SuppressWarnings("unchecked")
+	private Node build(Object[] values, int from, int to, Node parent, int level) {
+		if(from > to)
+			return null;
+		int middle = (from + to) >>> 1;
+		Node node = new Node();
+		node.value = (E) values[middle];
+		node.parent = parent;
+		addToLevel(level);
+		node.left = build(values, from, middle - 1, node, level + 1);
+		node.right = build(values, middle + 1, to, node, level + 1);
+		return node;
 	}
 	@Override
 	public boolean addAll(E parent, Collection<? extends E> c) {
@@ -97,21 +169,28 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 			return false;
 		}
 	}
+	/**
+	 * @return node holding e
+	 * @throws NodeNotFoundException if e is not found
+	 */
+	private Node nodeOf(E e) throws NodeNotFoundException {
+		checkNode(e);
+		if(isEmpty())
+			throw new NodeNotFoundException("No node was found for the parameter");
+		else
+			return node(root, e);
+	}
 	private Node node(Node parent, Comparable<E> child) throws NodeNotFoundException {
-		if(child.compareTo(parent.value) > 0) {
-			Node right = parent.right;
-			if(right != null)
-				return node(right, child);
-			else
-				throw new NodeNotFoundException("No node was found for object");
-		} else if(child.compareTo(parent.value) < 0) {
-			Node left = parent.left;
-			if(left != null)
-				return node(left, child);
+		while(parent != null) {
+			int comparison = child.compareTo(parent.value);
+			if(comparison > 0)
+				parent = parent.right;
+			else if(comparison < 0)
+				parent = parent.left;
 			else
-				throw new NodeNotFoundException("No node was found for object");
-		} else
-			return parent;
+				return parent;
+		}
+		throw new NodeNotFoundException("No node was found for object");
 	}
 	@Override
 	public List<E> children(E e) throws NodeNotFoundException {
@@ -129,10 +208,41 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		}
 	}
 	@Override
+	public int childCount(E parent) throws NodeNotFoundException {
+		Node node = nodeOf(parent);
+		return (node.left != null ? 1 : 0) + (node.right != null ? 1 : 0);
+	}
+	@Override
+	public E child(E parent, int index) throws NodeNotFoundException {
+		Node node = nodeOf(parent);
+		if(index < 0)
+			throw new IndexOutOfBoundsException("index found to be " + index + ".It cannot be negative");
+		else if(index == 0)
+			return valueOf(node.left != null ? node.left : node.right);
+		else if(index == 1 && node.left != null)
+			return valueOf(node.right);
+		else
+			return null;
+	}
+	@Override
+	public void forEachChild(E parent, Consumer<? super E> action) throws NodeNotFoundException {
+		Node node = nodeOf(parent);
+		if(node.left != null)
+			action.accept(node.left.value);
+		if(node.right != null)
+			action.accept(node.right.value);
+	}
+	@Override
+	public List<E> childrenView(E parent) throws NodeNotFoundException {
+		nodeOf(parent);
+		return new TreeHelper().childrenView(this, parent);
+	}
+	@Override
 	public void clear() {
 		root = null;
 		size = 0;
 		depth = 0;
+		Arrays.fill(levelCounts, 0);
 	}
 	@Override
 	@SuppressWarnings("unchecked")
@@ -141,6 +251,7 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		try {
 			clone = (BinarySearchTree<E>) super.clone();
 			clone.depth = this.depth;
+			clone.levelCounts = levelCounts.clone();
 			clone.root = new Node();
 			clone.size = this.size;
 			copy(clone.root, this.root);
@@ -149,25 +260,77 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		}
 		return clone;
 	}
-	//TODO change this implementation to an iterative one to avoid StackOverflow in large trees
+	/**
+	 * Copies the sub-tree under node into cloneNode. Pairs of nodes still to be copied are kept on an explicit
+	 * stack so that depth of the tree is not limited by the call stack
+	 */
 	private void copy(Node cloneNode, Node node) {
-		if(node.left != null) {
-			cloneNode.left = new Node();
-			cloneNode.left.parent = cloneNode;
-			copy(cloneNode.left, node.left);
-		}
-		cloneNode.value = node.value;
-		if(node.right != null) {
-			cloneNode.right = new Node();
-			cloneNode.right.parent = cloneNode;
-			copy(cloneNode.right, node.right);
+		ArrayDeque<Node> stack = new ArrayDeque<Node>();
+		stack.push(node);
+		stack.push(cloneNode);
+		while(!stack.isEmpty()) {
+			cloneNode = stack.pop();
+			node = stack.pop();
+			cloneNode.value = node.value;
+			if(node.left != null) {
+				cloneNode.left = new Node();
+				cloneNode.left.parent = cloneNode;
+				stack.push(node.left);
+				stack.push(cloneNode.left);
+			}
+			if(node.right != null) {
+				cloneNode.right = new Node();
+				cloneNode.right.parent = cloneNode;
+				stack.push(node.right);
+				stack.push(cloneNode.right);
+			}
 		}
 	}
 	@Override
 	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
 		checkNode(node1);
 		checkNode(node2);
-		return new TreeHelper().commonAncestor(this, node1, node2);
+		Node split = split(node1, node2);
+		pathLength(split, node1);
+		pathLength(split, node2);
+		return split.value;
+	}
+	@Override
+	public int distance(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		Node split = split(node1, node2);
+		return pathLength(split, node1) + pathLength(split, node2);
+	}
+	/**
+	 * @return the node at which the search paths of node1 and node2 part, which is their common ancestor when both
+	 * are present
+	 */
+	private Node split(E node1, E node2) throws NodeNotFoundException {
+		Node node = root;
+		while(node != null) {
+			int comparison1 = node1.compareTo(node.value);
+			int comparison2 = node2.compareTo(node.value);
+			if(comparison1 > 0 && comparison2 > 0)
+				node = node.right;
+			else if(comparison1 < 0 && comparison2 < 0)
+				node = node.left;
+			else
+				return node;
+		}
+		throw new NodeNotFoundException("No node was found for object");
+	}
+	/**
+	 * @return number of edges from node down to the node of value
+	 */
+	private int pathLength(Node node, E value) throws NodeNotFoundException {
+		for(int length = 0; node != null; length++) {
+			int comparison = value.compareTo(node.value);
+			if(comparison == 0)
+				return length;
+			node = comparison > 0 ? node.right : node.left;
+		}
+		throw new NodeNotFoundException("No node was found for object");
 	}
 	@SuppressWarnings("unchecked")
 	@Override
@@ -198,14 +361,11 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 	@Override
 	@Deprecated
 	public List<E> inorderOrderTraversal() {
-		return inOrderTraversal(root, new ArrayList<E>());
+		return inOrderTraversal();
 	}
 	@Override
 	public List<E> inOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return inOrderTraversal(root, new ArrayList<E>());
+		return new TreeHelper().toList(inOrderIterator(), size);
 	}
 	@Override
 	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
@@ -223,33 +383,15 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 	}
 	@Override
 	public Iterator<E> iterator() {
-		return getCurrentList().iterator();
+		return inOrderIterator();
 	}
 	@Override
 	public List<E> leaves() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return leaves(root, new ArrayList<E>());
-	}
-	private List<E> leaves(Node node, ArrayList<E> list) {
-		if(node.left != null)
-			leaves(node.left, list);
-		if(node.left == null && node.right == null)
-			list.add(node.value);
-		if(node.right != null)
-			leaves(node.right, list);
-		return list;
+		return new TreeHelper().toList(new NodeIterator(TraversalIterator.Order.LEAF), 10);
 	}
 	@Override
 	public List<E> levelOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else {
-			LinkedList<Node> queue = new LinkedList<Node>();
-			queue.add(root);
-			return levelOrderTraversal(new ArrayList<E>(), queue);
-		}
+		return new TreeHelper().toList(levelOrderIterator(), size);
 	}
 	@Override
 	public E parent(E e) throws NodeNotFoundException {
@@ -266,16 +408,10 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 	}
 	@Override
 	public List<E> postOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return postOrderTraversal(root, new ArrayList<E>());
+		return new TreeHelper().toList(postOrderIterator(), size);
 	}
 	public List<E> preOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return preOrderTraversal(root, new ArrayList<E>());
+		return new TreeHelper().toList(preOrderIterator(), size);
 	}
 	/**
 	 * Deletes node as mentioned in <a href="http://en.wikipedia.org/wiki/Binary_search_tree#Deletion">BST</a>.
@@ -288,70 +424,88 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		checkNode(o);
 		try {
 			Node node;
+			int level = 0;
 			if(isEmpty())
 				return false;
 			else if(o instanceof Comparable) {
-				node = node(root, (Comparable<E>) o);
-			} else
+				Comparable<E> value = (Comparable<E>) o;
+				int comparison;
+				for(node = root; node != null && (comparison = value.compareTo(node.value)) != 0; level++)
+					node = comparison > 0 ? node.right : node.left;
+			} else {
 				node = searchTree(root, o);
-			boolean remove = remove(node);
+				if(node != null)
+					level = level(node);//Searching by equals has walked the whole tree already
+			}
+			if(node == null)
+				return false;
+			boolean remove = remove(node, level);
 			size--;
-			depth = recalculateDepth(root, 0);
 			return remove;
 		} catch (NodeNotFoundException e) {
 			return false;
 		}
 	}
 	private Node searchTree(Node node, Object o) {
-		if(node.left != null) {
-			Node nodeReturned = searchTree(node.left, o);
-			if(nodeReturned != null)
-				return nodeReturned;
-		}
-		if(node.right != null) {
-			Node nodeReturned = searchTree(node.right, o);
-			if(nodeReturned != null)
-				return nodeReturned;
+		ArrayDeque<Node> stack = new ArrayDeque<Node>();
+		stack.push(node);
+		while(!stack.isEmpty()) {
+			node = stack.pop();
+			if(o.equals(node.value))
+				return node;
+			if(node.right != null)
+				stack.push(node.right);
+			if(node.left != null)
+				stack.push(node.left);
 		}
-		if(o.equals(node.value))
-			return node;
-		else
-			return null;
+		return null;
 	}
-	private boolean remove(Node node) throws NodeNotFoundException {
+	/**
+	 * @param level level of node, which is carried down to the leaf that is finally detached
+	 */
+	private boolean remove(Node node, int level) throws NodeNotFoundException {
 		int children = 0;
 		if(node.left != null)
 			children++;
 		if(node.right != null)
 			children++;
 		if(children == 0)
-			deleteCase1(node);
+			deleteCase1(node, level);
 		else if(children == 1)
-			deleteCase2(node);
+			deleteCase2(node, level);
 		else
-			deferDelete(node);
+			deferDelete(node, level);
 		return true;
 	}
-	private void deferDelete(Node node) throws NodeNotFoundException {
-		Node nodeToReplace;
-		if(Math.random() > 0.5)
-			nodeToReplace = successorNode(node);
-		else
-			nodeToReplace = predecessorNode(node);
-		node.value = nodeToReplace.value;
-		remove(nodeToReplace);
+	private void deferDelete(Node node, int level) throws NodeNotFoundException {
+		replaceValue(node, level, Math.random() <= 0.5);
 	}
-	private void deleteCase2(Node node) throws NodeNotFoundException {
-		Node child;
-		if(node.left != null)
-			child = node.left;
-		else
-			child = node.right;
-		node.value = child.value;
-		remove(child);
+	/**
+	 * Node has a single child, so its value is replaced by the closest value in that sub-tree. This keeps the 
+	 * order of the values and removal still ends at a leaf
+	 */
+	private void deleteCase2(Node node, int level) throws NodeNotFoundException {
+		replaceValue(node, level, node.left != null);
+	}
+	/**
+	 * Replaces the value of node by its predecessor if fromLeft is true or by its successor otherwise and removes
+	 * the node the value came from. Both lie in a sub-tree of node, so their level is counted on the way down
+	 */
+	private void replaceValue(Node node, int level, boolean fromLeft) throws NodeNotFoundException {
+		Node nodeToReplace = fromLeft ? node.left : node.right;
+		int replaceLevel = level + 1;
+		for(Node next = fromLeft ? nodeToReplace.right : nodeToReplace.left; next != null; next = fromLeft ? next.right : next.left) {
+			nodeToReplace = next;
+			replaceLevel++;
+		}
+		node.value = nodeToReplace.value;
+		remove(nodeToReplace, replaceLevel);
 	}
-	private void deleteCase1(Node node) {
-		if(node.parent.left == node)
+	private void deleteCase1(Node node, int level) {
+		removeFromLevel(level);
+		if(node.parent == null)
+			root = null;
+		else if(node.parent.left == node)
 			node.parent.left = null;
 		else
 			node.parent.right = null;
@@ -359,22 +513,25 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 	}
 	@Override
 	public E successor(E value) throws NodeNotFoundException {
+		checkNode(value);
 		if(isEmpty())
 			throw new NodeNotFoundException("No node was found for the parameter");
 		else
-			return successorNode(node(root, value)).value;
+			return valueOf(successorNode(node(root, value)));
 	}
-	private Node successorNode(Node node) throws NodeNotFoundException {
-		Node right = node.right;
-		if(right != null) {
-			node = right;
+	/**
+	 * @return next node in order or null if node is the last
+	 */
+	private Node successorNode(Node node) {
+		if(node.right != null) {
+			node = node.right;
 			while(node.left != null)
 				node = node.left;
 			return node;
 		} else {
-			while(!node.parent.right.value.equals(node.value))
+			while(node.parent != null && node.parent.right == node)
 				node = node.parent;
-			return node;
+			return node.parent;
 		}
 	}
 	@Override
@@ -383,20 +540,109 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		if(isEmpty())
 			throw new NodeNotFoundException("No node was found for the parameter");
 		else
-			return predecessorNode(node(root, value)).value;
+			return valueOf(predecessorNode(node(root, value)));
 	}
-	private Node predecessorNode(Node node) throws NodeNotFoundException {
-		Node left = node.left;
-		if(left != null) {
-			node = left;
+	/**
+	 * @return previous node in order or null if node is the first
+	 */
+	private Node predecessorNode(Node node) {
+		if(node.left != null) {
+			node = node.left;
 			while(node.right != null)
 				node = node.right;
 			return node;
 		} else {
-			while(!node.parent.left.value.equals(node.value))
+			while(node.parent != null && node.parent.left == node)
 				node = node.parent;
-			return node;
+			return node.parent;
+		}
+	}
+	@Override
+	public E floor(E value) {
+		checkNode(value);
+		return valueOf(highestBelow(value, true));
+	}
+	@Override
+	public E ceiling(E value) {
+		checkNode(value);
+		return valueOf(lowestAbove(value, true));
+	}
+	@Override
+	public E higher(E value) {
+		checkNode(value);
+		return valueOf(lowestAbove(value, false));
+	}
+	@Override
+	public E lower(E value) {
+		checkNode(value);
+		return valueOf(highestBelow(value, false));
+	}
+	/**
+	 * @return node of the smallest value greater than value, or equal to it if inclusive is true. null if there
+	 * is no such node
+	 */
+	private Node lowestAbove(E value, boolean inclusive) {
+		Node found = null;
+		Node node = root;
+		while(node != null) {
+			int comparison = value.compareTo(node.value);
+			if(comparison < 0 || (comparison == 0 && inclusive)) {
+				found = node;
+				node = node.left;
+			} else
+				node = node.right;
 		}
+		return found;
+	}
+	/**
+	 * @return node of the greatest value less than value, or equal to it if inclusive is true. null if there is
+	 * no such node
+	 */
+	private Node highestBelow(E value, boolean inclusive) {
+		Node found = null;
+		Node node = root;
+		while(node != null) {
+			int comparison = value.compareTo(node.value);
+			if(comparison > 0 || (comparison == 0 && inclusive)) {
+				found = node;
+				node = node.right;
+			} else
+				node = node.left;
+		}
+		return found;
+	}
+	private Node firstNode() {
+		Node node = root;
+		if(node != null)
+			while(node.left != null)
+				node = node.left;
+		return node;
+	}
+	private Node lastNode() {
+		Node node = root;
+		if(node != null)
+			while(node.right != null)
+				node = node.right;
+		return node;
+	}
+	private E valueOf(Node node) {
+		return node != null ? node.value : null;
+	}
+	@Override
+	public SortedSet<E> subTree(E fromElement, E toElement) {
+		checkNode(fromElement);
+		checkNode(toElement);
+		return new NodeView(fromElement, toElement);
+	}
+	@Override
+	public SortedSet<E> headTree(E toElement) {
+		checkNode(toElement);
+		return new NodeView(null, toElement);
+	}
+	@Override
+	public SortedSet<E> tailTree(E fromElement) {
+		checkNode(fromElement);
+		return new NodeView(fromElement, null);
 	}
 	@Override
 	public boolean removeAll(Collection<?> c) {
@@ -420,19 +666,14 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 	}
 	@Override
 	public List<E> siblings(E e) throws NodeNotFoundException {
-		checkNode(e);
-		if(isEmpty())
-			throw new NodeNotFoundException("No node was found for the object");
-		else {
-			E parent = parent(e);
-			if(parent != null) {
-				List<E> children = children(parent);
-				children.remove(e);
-				return children;
-			}
-			else
-				return new ArrayList<E>();
+		Node node = nodeOf(e);
+		ArrayList<E> siblings = new ArrayList<E>(1);
+		if(node.parent != null) {
+			Node sibling = node.parent.left == node ? node.parent.right : node.parent.left;
+			if(sibling != null)
+				siblings.add(sibling.value);
 		}
+		return siblings;
 	}
 	@Override
 	public int size() {
@@ -440,11 +681,11 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 	}
 	@Override
 	public Object[] toArray() {
-		return getCurrentList().toArray();
+		return new TreeHelper().toArray(this);
 	}
 	@Override
 	public <T> T[] toArray(T[] a) {
-		return getCurrentList().toArray(a);
+		return new TreeHelper().toArray(this, a);
 	}
 
 	private void addRoot(E root) {
@@ -452,7 +693,7 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 		rootNode.value = root;
 		this.root = rootNode;
 		size++;
-		depth++;
+		addToLevel(0);
 	}
 
 	private void checkNode(Object child) {
@@ -463,74 +704,118 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 	private List<E> getCurrentList() {
 		return inOrderTraversal();
 	}
-	private List<E> inOrderTraversal(Node node, ArrayList<E> list) {
-		if(node.left != null)
-			inOrderTraversal(node.left, list);
-		list.add(node.value);
-		if(node.right != null)
-			inOrderTraversal(node.right, list);
-		return list;
+	@Override
+	public Iterator<E> preOrderIterator() {
+		return new NodeIterator(TraversalIterator.Order.PRE);
 	}
-	private List<E> levelOrderTraversal(ArrayList<E> list, LinkedList<Node> queue) {
-		while(!queue.isEmpty()) {
-			list.add(queue.getFirst().value);
-			if(queue.getFirst().left != null)
-				queue.add(queue.getFirst().left);
-			if(queue.getFirst().right != null)
-				queue.add(queue.getFirst().right);
-			queue.remove();
-		}
-		return list;
+	@Override
+	public Iterator<E> inOrderIterator() {
+		return new NodeIterator(TraversalIterator.Order.IN);
 	}
-	private List<E> postOrderTraversal(Node node, ArrayList<E> list) {
-		if(node.left != null)
-			postOrderTraversal(node.left, list);
-		if(node.right != null)
-			postOrderTraversal(node.right, list);
-		list.add(node.value);
-		return list;
+	@Override
+	public Iterator<E> postOrderIterator() {
+		return new NodeIterator(TraversalIterator.Order.POST);
 	}
-	private List<E> preOrderTraversal(Node node, ArrayList<E> list) {
-		list.add(node.value);
-		if(node.left != null)
-			preOrderTraversal(node.left, list);
-		if(node.right != null)
-			preOrderTraversal(node.right, list);
-		return list;
+	@Override
+	public Iterator<E> levelOrderIterator() {
+		return new NodeIterator(TraversalIterator.Order.LEVEL);
 	}
-	private int recalculateDepth(Node node, int depth) {
-		int childDepth = depth + 1;
-		if(node.left == null && node.right == null)
-			return childDepth;
-		else {
-			if(node.left != null)
-				depth = Math.max(depth, recalculateDepth(node.left, childDepth));
-			if(node.right != null)
-				depth = Math.max(depth, recalculateDepth(node.right, childDepth));
+	@Override
+	public Iterator<E> descendingIterator() {
+		return new NodeView(null, null).descendingIterator();
+	}
+	/**
+	 * Spliterator splits at sub-tree boundaries and walks the tree in sorted order
+	 * @see java.util.Collection#spliterator()
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return new NodeSpliterator();
+	}
+	private class NodeIterator extends NodeTraversalIterator<E, Node> {
+		NodeIterator(TraversalIterator.Order order) {
+			super(order, root);
+		}
+		@Override
+		E element(Node node) {
+			return node.value;
+		}
+		@Override
+		int firstChild(Node node) {
+			return node.left != null ? 0 : nextChild(node, 0);
+		}
+		@Override
+		int nextChild(Node node, int cursor) {
+			return cursor == 0 && node.right != null ? 1 : -1;
+		}
+		@Override
+		Node child(Node node, int cursor) {
+			return cursor == 0 ? node.left : node.right;
+		}
+		@Override
+		int childrenBefore(Node node) {
+			return node.left != null ? 1 : 0;
+		}
+	}
+	private class NodeView extends SortedTreeView<E, Node> {
+		NodeView(E from, E to) {
+			super(from, to);
+		}
+		@Override
+		Node ceilingNode(E value) {
+			return value != null ? lowestAbove(value, true) : firstNode();
+		}
+		@Override
+		Node lowerNode(E value) {
+			return value != null ? highestBelow(value, false) : lastNode();
+		}
+		@Override
+		Node successor(Node node) {
+			return successorNode(node);
+		}
+		@Override
+		Node predecessor(Node node) {
+			return predecessorNode(node);
+		}
+		@Override
+		E element(Node node) {
+			return node.value;
+		}
+		@Override
+		SortedTreeView<E, Node> view(E from, E to) {
+			return new NodeView(from, to);
+		}
+	}
+	private class NodeSpliterator extends TreeSpliterator<E, Node> {
+		NodeSpliterator() {
+			super(root, size, Spliterator.SORTED);
+		}
+		@Override
+		E element(Node node) {
+			return node.value;
+		}
+		@Override
+		int firstChild(Node node) {
+			return node.left != null ? 0 : nextChild(node, 0);
+		}
+		@Override
+		int nextChild(Node node, int cursor) {
+			return cursor == 0 && node.right != null ? 1 : -1;
+		}
+		@Override
+		Node child(Node node, int cursor) {
+			return cursor == 0 ? node.left : node.right;
+		}
+		@Override
+		int childrenBefore(Node node) {
+			return node.left != null ? 1 : 0;
 		}
-		return depth;
 	}
 	@Override
 	public String toString() {
 		return getCurrentList().toString();
 	}
 
-	private Node findParent(Node parent, E child) throws NodeNotFoundException {
-		if(child.compareTo(parent.value) > 0) {
-			Node right = parent.right;
-			if(right != null)
-				return findParent(right, child);
-			else
-				return parent;
-		} else if(child.compareTo(parent.value) < 0) {
-			Node left = parent.left;
-			if(left != null)
-				return findParent(left, child);
-			else
-				return parent;
-		} else
-			return null;//Such a node already exists
-	}
 	/**
 	 * @param parent
 	 * @return the left child if present, or null otherwise
@@ -564,7 +849,7 @@ public class BinarySearchTree<E extends Comparable<E>> implements SortedTree<E>,
 	}
 	@Override
 	public int hashCode() {
-		return getCurrentList().hashCode();
+		return new TreeHelper().hashCode(this);
 	}
 	@SuppressWarnings("unchecked")
 	@Override
@@ -13,8 +13,6 @@
  */
 package com.googlecode.jctree;
 
-import java.util.List;
-
 /**
  * This tree allows addition of at most 2 children to a parent and maintains insertion order among children. The 
  * children are added sequentially i.e. the first child is added as left one and the next as right one. To control
@@ -34,11 +32,7 @@ public class BinaryTree<E> extends KAryTree<E> {
 	 */
 	public E left(E parent) throws NodeNotFoundException
 	{
-		List<E> children;
-		if((children = children(parent)).isEmpty())
-			return null;
-		else
-			return children.get(0);
+		return child(parent, 0);
 	}
 	/**
 	 * @param parent parent node
@@ -47,10 +41,6 @@ public class BinaryTree<E> extends KAryTree<E> {
 	 */
 	public E right(E parent) throws NodeNotFoundException
 	{
-		List<E> children;
-		if((children = children(parent)).isEmpty() || children.size() == 1)
-			return null;
-		else
-			return children.get(1);
+		return child(parent, 1);
 	}
 }
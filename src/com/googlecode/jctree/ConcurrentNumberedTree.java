@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+/**
+ * Thread safe view of a {@link NumberedTree}. See {@link ConcurrentTree}
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+class ConcurrentNumberedTree<E> extends ConcurrentTree<E> implements NumberedTree<E> {
+	private final NumberedTree<E> tree;
+
+	ConcurrentNumberedTree(NumberedTree<E> tree) {
+		super(tree);
+		this.tree = tree;
+	}
+	@Override
+	public boolean add(E parent, E child, int index) throws NodeNotFoundException {
+		long stamp = lock.writeLock();
+		try {
+			return tree.add(parent, child, index);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.TreeSet;
+
+/**
+ * Thread safe view of a {@link SortedTree}. See {@link ConcurrentTree}
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+class ConcurrentSortedTree<E extends Comparable<E>> extends ConcurrentTree<E> implements SortedTree<E> {
+	private final SortedTree<E> tree;
+
+	ConcurrentSortedTree(SortedTree<E> tree) {
+		super(tree);
+		this.tree = tree;
+	}
+	@Override
+	public E successor(E node) throws NodeNotFoundException {
+		long stamp = lock.readLock();
+		try {
+			return tree.successor(node);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public E predecessor(E node) throws NodeNotFoundException {
+		long stamp = lock.readLock();
+		try {
+			return tree.predecessor(node);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public E floor(E value) {
+		long stamp = lock.readLock();
+		try {
+			return tree.floor(value);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public E ceiling(E value) {
+		long stamp = lock.readLock();
+		try {
+			return tree.ceiling(value);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public E higher(E value) {
+		long stamp = lock.readLock();
+		try {
+			return tree.higher(value);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public E lower(E value) {
+		long stamp = lock.readLock();
+		try {
+			return tree.lower(value);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	/**
+	 * @return snapshot of the nodes in range, taken under the read lock. Unlike the view of the wrapped tree, it 
+	 * doesn't follow later changes
+	 */
+	@Override
+	public SortedSet<E> subTree(E fromElement, E toElement) {
+		long stamp = lock.readLock();
+		try {
+			return Collections.unmodifiableSortedSet(new TreeSet<E>(tree.subTree(fromElement, toElement)));
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	/**
+	 * @return snapshot of the nodes in range. See {@link #subTree(Comparable, Comparable)}
+	 */
+	@Override
+	public SortedSet<E> headTree(E toElement) {
+		long stamp = lock.readLock();
+		try {
+			return Collections.unmodifiableSortedSet(new TreeSet<E>(tree.headTree(toElement)));
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	/**
+	 * @return snapshot of the nodes in range. See {@link #subTree(Comparable, Comparable)}
+	 */
+	@Override
+	public SortedSet<E> tailTree(E fromElement) {
+		long stamp = lock.readLock();
+		try {
+			return Collections.unmodifiableSortedSet(new TreeSet<E>(tree.tailTree(fromElement)));
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public Iterator<E> descendingIterator() {
+		long stamp = lock.readLock();
+		try {
+			ArrayList<E> snapshot = new ArrayList<E>(tree.size());
+			for(Iterator<E> i = tree.descendingIterator(); i.hasNext();)
+				snapshot.add(i.next());
+			return Collections.unmodifiableCollection(snapshot).iterator();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	int spliteratorCharacteristics() {
+		return super.spliteratorCharacteristics() | Spliterator.SORTED;
+	}
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Thread safe view of a tree which guards every call with a {@link StampedLock}. Modifications take the write 
+ * lock and queries take the read lock, so that queries run in parallel. Size, which is only a field of the 
+ * wrapped tree, is first tried as an optimistic read and is repeated under the read lock if a write intervened.
+ * <br>
+ * Collections, iterators and spliterators returned are snapshots taken under the read lock and do not change
+ * with the tree. The wrapped tree should not be used directly afterwards.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+class ConcurrentTree<E> implements Tree<E> {
+	final StampedLock lock = new StampedLock();
+	private final Tree<E> tree;
+
+	ConcurrentTree(Tree<E> tree) {
+		if(tree == null)
+			throw new IllegalArgumentException("null tree can not be wrapped");
+		this.tree = tree;
+	}
+	@Override
+	public int size() {
+		long stamp = lock.tryOptimisticRead();
+		int size = tree.size();
+		if(lock.validate(stamp))
+			return size;
+		stamp = lock.readLock();
+		try {
+			return tree.size();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+	@Override
+	public boolean contains(Object o) {
+		long stamp = lock.readLock();
+		try {
+			return tree.contains(o);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public Iterator<E> iterator() {
+		return inOrderIterator();
+	}
+	@Override
+	public Object[] toArray() {
+		long stamp = lock.readLock();
+		try {
+			return tree.toArray();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		long stamp = lock.readLock();
+		try {
+			return tree.toArray(a);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public boolean add(E e) {
+		long stamp = lock.writeLock();
+		try {
+			return tree.add(e);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+	@Override
+	public boolean remove(Object o) {
+		long stamp = lock.writeLock();
+		try {
+			return tree.remove(o);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		long stamp = lock.readLock();
+		try {
+			return tree.containsAll(c);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		long stamp = lock.writeLock();
+		try {
+			return tree.addAll(c);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		long stamp = lock.writeLock();
+		try {
+			return tree.removeAll(c);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		long stamp = lock.writeLock();
+		try {
+			return tree.retainAll(c);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+	@Override
+	public void clear() {
+		long stamp = lock.writeLock();
+		try {
+			tree.clear();
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+	@SuppressWarnings("deprecation")
+	@Override
+	public boolean add(E parent, E child) throws NodeNotFoundException {
+		long stamp = lock.writeLock();
+		try {
+			return tree.add(parent, child);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+	@SuppressWarnings("deprecation")
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) throws NodeNotFoundException {
+		long stamp = lock.writeLock();
+		try {
+			return tree.addAll(parent, c);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+	@Override
+	public Collection<E> children(E e) throws NodeNotFoundException {
+		long stamp = lock.readLock();
+		try {
+			return new ArrayList<E>(tree.children(e));
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public int childCount(E parent) throws NodeNotFoundException {
+		long stamp = lock.readLock();
+		try {
+			return tree.childCount(parent);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public E child(E parent, int index) throws NodeNotFoundException {
+		long stamp = lock.readLock();
+		try {
+			return tree.child(parent, index);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	/**
+	 * Action is performed on a snapshot of the children outside the lock, so that it may modify the tree
+	 * @see com.googlecode.jctree.Tree#forEachChild(java.lang.Object, java.util.function.Consumer)
+	 */
+	@Override
+	public void forEachChild(E parent, Consumer<? super E> action) throws NodeNotFoundException {
+		for(E child : children(parent))
+			action.accept(child);
+	}
+	/**
+	 * @return unmodifiable snapshot of the children of parent
+	 * @see com.googlecode.jctree.Tree#childrenView(java.lang.Object)
+	 */
+	@Override
+	public List<E> childrenView(E parent) throws NodeNotFoundException {
+		return Collections.unmodifiableList(new ArrayList<E>(children(parent)));
+	}
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		long stamp = lock.readLock();
+		try {
+			return tree.commonAncestor(node1, node2);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public int distance(E node1, E node2) throws NodeNotFoundException {
+		long stamp = lock.readLock();
+		try {
+			return tree.distance(node1, node2);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public int depth() {
+		long stamp = lock.readLock();
+		try {
+			return tree.depth();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	@Deprecated
+	public Collection<E> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	@Override
+	public Collection<E> inOrderTraversal() {
+		long stamp = lock.readLock();
+		try {
+			return new ArrayList<E>(tree.inOrderTraversal());
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		long stamp = lock.readLock();
+		try {
+			return tree.isAncestor(node, child);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		long stamp = lock.readLock();
+		try {
+			return tree.isDescendant(parent, node);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public Collection<E> leaves() {
+		long stamp = lock.readLock();
+		try {
+			return new ArrayList<E>(tree.leaves());
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public Collection<E> levelOrderTraversal() {
+		long stamp = lock.readLock();
+		try {
+			return new ArrayList<E>(tree.levelOrderTraversal());
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		long stamp = lock.readLock();
+		try {
+			return tree.parent(e);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public Collection<E> postOrderTraversal() {
+		long stamp = lock.readLock();
+		try {
+			return new ArrayList<E>(tree.postOrderTraversal());
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public Collection<E> preOrderTraversal() {
+		long stamp = lock.readLock();
+		try {
+			return new ArrayList<E>(tree.preOrderTraversal());
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public Iterator<E> preOrderIterator() {
+		return Collections.unmodifiableCollection(preOrderTraversal()).iterator();
+	}
+	@Override
+	public Iterator<E> inOrderIterator() {
+		return Collections.unmodifiableCollection(inOrderTraversal()).iterator();
+	}
+	@Override
+	public Iterator<E> postOrderIterator() {
+		return Collections.unmodifiableCollection(postOrderTraversal()).iterator();
+	}
+	@Override
+	public Iterator<E> levelOrderIterator() {
+		return Collections.unmodifiableCollection(levelOrderTraversal()).iterator();
+	}
+	@Override
+	public E root() {
+		long stamp = lock.readLock();
+		try {
+			return tree.root();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	@Override
+	public Collection<E> siblings(E e) throws NodeNotFoundException {
+		long stamp = lock.readLock();
+		try {
+			return new ArrayList<E>(tree.siblings(e));
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+	/**
+	 * Spliterator is taken over a snapshot of the elements in the order of the iterator
+	 * @see java.util.Collection#spliterator()
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return Spliterators.spliterator(toArray(), spliteratorCharacteristics());
+	}
+	int spliteratorCharacteristics() {
+		return Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.NONNULL;
+	}
+	@Override
+	public String toString() {
+		long stamp = lock.readLock();
+		try {
+			return tree.toString();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+}
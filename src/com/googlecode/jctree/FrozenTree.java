@@ -0,0 +1,546 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Immutable copy of a tree made by {@link Trees#freeze(Tree)}, for trees which are built once and then only 
+ * queried. Elements are kept in one array in pre order, so that the sub-tree of every node is a contiguous range
+ * of the array which ends at the recorded end of the node. Children of every node are a contiguous range of an 
+ * int array of slots, as in a compressed sparse row matrix. Parents, depths and heights are kept in int arrays 
+ * and elements are found through an open addressing hash table of slots. Thus children, parent, 
+ * {@link #subtree(Object)}, isAncestor and isDescendant take O(1) after the element is looked up and common 
+ * ancestor takes O(depth).
+ * <br>
+ * Nothing is written after construction and all fields are final, so the tree can be shared between threads 
+ * without locking. Methods which modify the tree throw {@link UnsupportedOperationException}. Collections 
+ * returned by children and preOrderTraversal are read only views of the arrays.
+ * <br>
+ * Only the order of the children is copied, so in order traversal follows the rule of {@link Tree} even for a 
+ * binary tree e.g. a node with only a right child comes after it.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public final class FrozenTree<E> implements Tree<E> {
+	private final Object[] elements;
+	private final int[] parents;
+	/** Slot after the last descendant of every slot */
+	private final int[] ends;
+	/** Children of slot i are at children[childOffsets[i]] to children[childOffsets[i + 1] - 1] */
+	private final int[] childOffsets;
+	private final int[] children;
+	private final int[] depths;
+	/** Number of levels of the sub-tree under every slot */
+	private final int[] heights;
+	/** Slots of the elements by hash of the element, -1 for empty places */
+	private final int[] table;
+	/** Range of slots seen by this tree, which is a sub-tree of the frozen tree */
+	private final int from, to;
+
+	/**
+	 * Copies tree in pre order using root and children. Children still to be copied are kept on a stack with 
+	 * their parent and position among its children. The tree should not change while it is copied
+	 */
+	@SuppressWarnings("unchecked")
+	FrozenTree(Tree<E> tree) throws NodeNotFoundException {
+		if(tree == null)
+			throw new IllegalArgumentException("null tree can not be frozen");
+		int size = tree.size();
+		elements = new Object[size];
+		parents = new int[size];
+		ends = new int[size];
+		childOffsets = new int[size + 1];
+		children = new int[Math.max(size - 1, 0)];
+		depths = new int[size];
+		heights = new int[size];
+		table = new int[Integer.highestOneBit(Math.max(size, 1) * 2) * 2];
+		Arrays.fill(table, -1);
+		from = 0;
+		to = size;
+		Object[] stack = new Object[16];
+		int[] stackParents = new int[16];
+		int[] stackPositions = new int[16];
+		int top = -1;
+		if(tree.root() != null) {
+			stack[++top] = tree.root();
+			stackParents[top] = -1;
+		}
+		for(int slot = 0; top > -1; slot++) {
+			if(slot == size)
+				throw new IllegalStateException("Tree has more nodes than its size");
+			E element = (E) stack[top];
+			int parent = stackParents[top];
+			if(parent > -1)
+				children[childOffsets[parent] + stackPositions[top]] = slot;
+			stack[top--] = null;
+			elements[slot] = element;
+			parents[slot] = parent;
+			depths[slot] = parent > -1 ? depths[parent] + 1 : 0;
+			put(slot);
+			Object[] nodeChildren = tree.children(element).toArray();
+			childOffsets[slot + 1] = childOffsets[slot] + nodeChildren.length;
+			if(top + nodeChildren.length >= stack.length) {
+				int capacity = Math.max(stack.length * 2, top + nodeChildren.length + 1);
+				stack = Arrays.copyOf(stack, capacity);
+				stackParents = Arrays.copyOf(stackParents, capacity);
+				stackPositions = Arrays.copyOf(stackPositions, capacity);
+			}
+			for(int position = nodeChildren.length - 1; position > -1; position--) {
+				stack[++top] = nodeChildren[position];
+				stackParents[top] = slot;
+				stackPositions[top] = position;
+			}
+		}
+		for(int slot = size - 1; slot > -1; slot--) {
+			int childCount = childOffsets[slot + 1] - childOffsets[slot];
+			ends[slot] = childCount > 0 ? ends[children[childOffsets[slot + 1] - 1]] : slot + 1;
+			heights[slot]++;
+			if(parents[slot] > -1)
+				heights[parents[slot]] = Math.max(heights[parents[slot]], heights[slot]);
+		}
+		if(size > 0 && ends[0] != size)
+			throw new IllegalStateException("Tree has fewer nodes than its size");
+	}
+	/**
+	 * View of the sub-tree of frozen rooted at slot
+	 */
+	private FrozenTree(FrozenTree<E> frozen, int slot) {
+		elements = frozen.elements;
+		parents = frozen.parents;
+		ends = frozen.ends;
+		childOffsets = frozen.childOffsets;
+		children = frozen.children;
+		depths = frozen.depths;
+		heights = frozen.heights;
+		table = frozen.table;
+		from = slot;
+		to = frozen.ends[slot];
+	}
+	private static int hash(Object o) {
+		int h = o.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+	private void put(int slot) {
+		int mask = table.length - 1;
+		int i = hash(elements[slot]) & mask;
+		while(table[i] > -1)
+			i = (i + 1) & mask;
+		table[i] = slot;
+	}
+	/**
+	 * @return slot of o or -1 if it is not in this tree
+	 */
+	private int slot(Object o) {
+		if(o == null)
+			return -1;
+		int mask = table.length - 1;
+		for(int i = hash(o) & mask; table[i] > -1; i = (i + 1) & mask)
+			if(elements[table[i]].equals(o))
+				return table[i] >= from && table[i] < to ? table[i] : -1;
+		return -1;
+	}
+	private int slotOf(Object o) throws NodeNotFoundException {
+		checkNode(o);
+		int slot = slot(o);
+		if(slot < 0)
+			throw new NodeNotFoundException("No node was found for object");
+		return slot;
+	}
+	@SuppressWarnings("unchecked")
+	private E element(int slot) {
+		return (E) elements[slot];
+	}
+	/**
+	 * @return frozen sub-tree rooted at node. It shares the arrays of this tree, so this takes O(1)
+	 * @throws NodeNotFoundException if node is not found
+	 */
+	public FrozenTree<E> subtree(E node) throws NodeNotFoundException {
+		return new FrozenTree<E>(this, slotOf(node));
+	}
+	@Override
+	public int size() {
+		return to - from;
+	}
+	@Override
+	public boolean isEmpty() {
+		return to == from;
+	}
+	@Override
+	public boolean contains(Object o) {
+		return slot(o) > -1;
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
+	}
+	@Override
+	public Iterator<E> iterator() {
+		return inOrderIterator();
+	}
+	@Override
+	public Object[] toArray() {
+		return new TreeHelper().toArray(this);
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return new TreeHelper().toArray(this, a);
+	}
+	@Override
+	public boolean add(E e) {
+		throw new UnsupportedOperationException("A frozen tree can not be modified");
+	}
+	@Override
+	public boolean add(E parent, E child) {
+		throw new UnsupportedOperationException("A frozen tree can not be modified");
+	}
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		throw new UnsupportedOperationException("A frozen tree can not be modified");
+	}
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) {
+		throw new UnsupportedOperationException("A frozen tree can not be modified");
+	}
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("A frozen tree can not be modified");
+	}
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException("A frozen tree can not be modified");
+	}
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("A frozen tree can not be modified");
+	}
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("A frozen tree can not be modified");
+	}
+	@Override
+	public List<E> children(E e) throws NodeNotFoundException {
+		int slot = slotOf(e);
+		return new SlotList(children, childOffsets[slot], childOffsets[slot + 1]);
+	}
+	@Override
+	public int childCount(E parent) throws NodeNotFoundException {
+		int slot = slotOf(parent);
+		return childOffsets[slot + 1] - childOffsets[slot];
+	}
+	@Override
+	public E child(E parent, int index) throws NodeNotFoundException {
+		int slot = slotOf(parent);
+		if(index < 0)
+			throw new IndexOutOfBoundsException("index found to be " + index + ".It cannot be negative");
+		return index < childOffsets[slot + 1] - childOffsets[slot] ? element(children[childOffsets[slot] + index]) : null;
+	}
+	@Override
+	public void forEachChild(E parent, Consumer<? super E> action) throws NodeNotFoundException {
+		int slot = slotOf(parent);
+		for(int i = childOffsets[slot]; i < childOffsets[slot + 1]; i++)
+			action.accept(element(children[i]));
+	}
+	/**
+	 * Same as {@link #children(Object)} since the tree never changes
+	 * @see com.googlecode.jctree.Tree#childrenView(java.lang.Object)
+	 */
+	@Override
+	public List<E> childrenView(E parent) throws NodeNotFoundException {
+		return children(parent);
+	}
+	/**
+	 * Climbs from node1 until the sub-tree range of the ancestor holds node2
+	 */
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		return element(commonAncestor(slotOf(node1), slotOf(node2)));
+	}
+	private int commonAncestor(int slot1, int slot2) {
+		while(slot2 < slot1 || slot2 >= ends[slot1])
+			slot1 = parents[slot1];
+		return slot1;
+	}
+	@Override
+	public int distance(E node1, E node2) throws NodeNotFoundException {
+		int slot1 = slotOf(node1);
+		int slot2 = slotOf(node2);
+		return depths[slot1] + depths[slot2] - 2 * depths[commonAncestor(slot1, slot2)];
+	}
+	@Override
+	public int depth() {
+		return isEmpty() ? 0 : heights[from];
+	}
+	@Override
+	@Deprecated
+	public List<E> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	@Override
+	public List<E> inOrderTraversal() {
+		return new TreeHelper().toList(inOrderIterator(), size());
+	}
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		int childSlot = slotOf(child);
+		int slot = slot(node);
+		return slot > -1 && slot < childSlot && childSlot < ends[slot];
+	}
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		int parentSlot = slotOf(parent);
+		int slot = slot(node);
+		return slot > parentSlot && slot < ends[parentSlot];
+	}
+	@Override
+	public List<E> leaves() {
+		List<E> leaves = new ArrayList<E>();
+		for(int slot = from; slot < to; slot++)
+			if(ends[slot] == slot + 1)
+				leaves.add(element(slot));
+		return leaves;
+	}
+	@Override
+	public List<E> levelOrderTraversal() {
+		return new TreeHelper().toList(levelOrderIterator(), size());
+	}
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		int slot = slotOf(e);
+		return slot > from ? element(parents[slot]) : null;
+	}
+	@Override
+	public List<E> postOrderTraversal() {
+		return new TreeHelper().toList(postOrderIterator(), size());
+	}
+	@Override
+	public List<E> preOrderTraversal() {
+		return new SlotList(null, from, to);
+	}
+	@Override
+	public Iterator<E> preOrderIterator() {
+		return preOrderTraversal().iterator();
+	}
+	@Override
+	public Iterator<E> inOrderIterator() {
+		return new SlotIterator(TraversalIterator.Order.IN);
+	}
+	@Override
+	public Iterator<E> postOrderIterator() {
+		return new SlotIterator(TraversalIterator.Order.POST);
+	}
+	@Override
+	public Iterator<E> levelOrderIterator() {
+		return new SlotIterator(TraversalIterator.Order.LEVEL);
+	}
+	@Override
+	public E root() {
+		return isEmpty() ? null : element(from);
+	}
+	@Override
+	public List<E> siblings(E e) throws NodeNotFoundException {
+		int slot = slotOf(e);
+		List<E> siblings = new ArrayList<E>();
+		if(slot > from)
+			for(int i = childOffsets[parents[slot]]; i < childOffsets[parents[slot] + 1]; i++)
+				if(children[i] != slot)
+					siblings.add(element(children[i]));
+		return siblings;
+	}
+	/**
+	 * Spliterator splits at sub-tree boundaries and walks the tree in the order of {@link #iterator()}
+	 * @see java.util.Collection#spliterator()
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return new SlotTreeSpliterator<E>(isEmpty() ? -1 : from, size(), Spliterator.IMMUTABLE) {
+			@Override
+			E element(int slot) {
+				return FrozenTree.this.element(slot);
+			}
+			@Override
+			int firstChild(int slot) {
+				return FrozenTree.this.firstChild(slot);
+			}
+			@Override
+			int nextChild(int slot, int cursor) {
+				return FrozenTree.this.nextChild(slot, cursor);
+			}
+			@Override
+			int child(int slot, int cursor) {
+				return children[cursor];
+			}
+			@Override
+			int childrenBefore(int slot) {
+				return FrozenTree.this.childrenBefore(slot);
+			}
+		};
+	}
+	/**
+	 * Cursors move in O(1) as in pre order the first child of a slot follows it and the next sibling starts where the
+	 * sub-tree of the slot ends
+	 * @return cursor at the node of e
+	 * @throws NodeNotFoundException if e is not found
+	 */
+	public TreeCursor<E> cursor(E e) throws NodeNotFoundException {
+		return new Cursor(slotOf(e));
+	}
+	/**
+	 * @return place in children of the first child of slot or -1 if it has no children
+	 */
+	private int firstChild(int slot) {
+		return childOffsets[slot] < childOffsets[slot + 1] ? childOffsets[slot] : -1;
+	}
+	private int nextChild(int slot, int cursor) {
+		return cursor + 1 < childOffsets[slot + 1] ? cursor + 1 : -1;
+	}
+	private int childrenBefore(int slot) {
+		return (childOffsets[slot + 1] - childOffsets[slot] + 1) / 2;
+	}
+	private class Cursor implements TreeCursor<E> {
+		private int slot;
+
+		Cursor(int slot) {
+			this.slot = slot;
+		}
+		@Override
+		public E element() {
+			return FrozenTree.this.element(slot);
+		}
+		@Override
+		public boolean parent() {
+			if(slot > from) {
+				slot = parents[slot];
+				return true;
+			} else
+				return false;
+		}
+		@Override
+		public boolean firstChild() {
+			if(slot + 1 < ends[slot]) {
+				slot++;
+				return true;
+			} else
+				return false;
+		}
+		@Override
+		public boolean nextSibling() {
+			if(slot > from && ends[slot] < ends[parents[slot]]) {
+				slot = ends[slot];
+				return true;
+			} else
+				return false;
+		}
+		@Override
+		public int childCount() {
+			return childOffsets[slot + 1] - childOffsets[slot];
+		}
+		@Override
+		public TreeCursor<E> add(E child) {
+			throw new UnsupportedOperationException("A frozen tree can not be modified");
+		}
+		@Override
+		public TreeCursor<E> copy() {
+			return new Cursor(slot);
+		}
+	}
+	private class SlotIterator extends SlotTraversalIterator<E> {
+		SlotIterator(TraversalIterator.Order order) {
+			super(order, isEmpty() ? -1 : from);
+		}
+		@Override
+		E element(int slot) {
+			return FrozenTree.this.element(slot);
+		}
+		@Override
+		int firstChild(int slot) {
+			return FrozenTree.this.firstChild(slot);
+		}
+		@Override
+		int nextChild(int slot, int cursor) {
+			return FrozenTree.this.nextChild(slot, cursor);
+		}
+		@Override
+		int child(int slot, int cursor) {
+			return children[cursor];
+		}
+		@Override
+		int childrenBefore(int slot) {
+			return FrozenTree.this.childrenBefore(slot);
+		}
+	}
+	/**
+	 * Read only list of the elements of a range of slots, or of the slots found in a range of an int array
+	 */
+	private class SlotList extends AbstractList<E> implements RandomAccess {
+		private final int[] slots;
+		private final int from, to;
+
+		/**
+		 * @param slots array holding the slots or null if the range is a range of slots
+		 */
+		SlotList(int[] slots, int from, int to) {
+			this.slots = slots;
+			this.from = from;
+			this.to = to;
+		}
+		@Override
+		public E get(int index) {
+			if(index < 0 || index >= to - from)
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+			return element(slots != null ? slots[from + index] : from + index);
+		}
+		@Override
+		public int size() {
+			return to - from;
+		}
+	}
+	private void checkNode(Object child) {
+		if(child == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+	}
+	@Override
+	public String toString() {
+		return inOrderTraversal().toString();
+	}
+	@Override
+	public int hashCode() {
+		return new TreeHelper().hashCode(this);
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof FrozenTree) {
+			try {
+				return new TreeHelper().isEqual((FrozenTree<E>) o, this, ((FrozenTree<E>) o).root(), root());
+			} catch (NodeNotFoundException e) {
+				e.printStackTrace();
+				return false;
+			}
+		} else
+			return false;
+	}
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.Arrays;
+
+/**
+ * Sorted tree of non-negative ints, being the counterpart of {@link SortedTree} for int values. It is a red black
+ * tree kept in an int array of values whose left, right and parent slots and colors are kept by
+ * {@link RedBlackLinks} in int arrays and a bitset, so that no object is created per value. Slot 0 is a black sentinel which stands for every missing child. Slots of removed
+ * values are chained through their right links and reused by later additions.
+ * <br>
+ * -1 is returned wherever there is no such value. Nothing is allocated by queries and traversals, which copy values
+ * into arrays given by the caller. Parent and children are those of the underlying binary search tree.
+ * @author Gaurav Saxena
+ */
+public class IntSortedTree implements Cloneable {
+	private static final int NIL = RedBlackLinks.NIL;
+	private int[] values;
+	private RedBlackLinks links;
+	private int size = 0;
+
+	public IntSortedTree() {
+		this(16);
+	}
+	/**
+	 * @param initialCapacity number of values which are stored without growing
+	 */
+	public IntSortedTree(int initialCapacity) {
+		values = new int[initialCapacity + 1];
+		links = new RedBlackLinks(initialCapacity + 1);
+	}
+	/**
+	 * @return true if value was added and false if it is already present
+	 */
+	public boolean add(int value) {
+		checkValue(value);
+		int y = NIL, x = links.root();
+		while(x != NIL) {
+			y = x;
+			if(value < values[x])
+				x = links.left(x);
+			else if(value > values[x])
+				x = links.right(x);
+			else
+				return false;
+		}
+		int z = newSlot(value);
+		links.insert(z, y, y != NIL && value < values[y]);
+		size++;
+		return true;
+	}
+	/**
+	 * @return true if value was present
+	 */
+	public boolean remove(int value) {
+		int z = slotOf(value);
+		if(z == NIL)
+			return false;
+		links.remove(z);
+		size--;
+		return true;
+	}
+	public void clear() {
+		links.clear();
+		size = 0;
+	}
+	public boolean contains(int value) {
+		return slotOf(value) != NIL;
+	}
+	public int size() {
+		return size;
+	}
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	/**
+	 * @return number of levels in the tree, which are counted by a walk over the tree
+	 */
+	public int depth() {
+		return links.height();
+	}
+	/**
+	 * @return the root value or -1 if tree is empty
+	 */
+	public int root() {
+		return valueOf(links.root());
+	}
+	/**
+	 * @return parent of value or -1 if value is at the root
+	 * @throws NodeNotFoundException if value is not present in the tree
+	 */
+	public int parent(int value) throws NodeNotFoundException {
+		return valueOf(links.parent(checkedSlotOf(value)));
+	}
+	/**
+	 * @return the left child of value or -1 if it has none
+	 * @throws NodeNotFoundException if value is not present in the tree
+	 */
+	public int left(int value) throws NodeNotFoundException {
+		return valueOf(links.left(checkedSlotOf(value)));
+	}
+	/**
+	 * @return the right child of value or -1 if it has none
+	 * @throws NodeNotFoundException if value is not present in the tree
+	 */
+	public int right(int value) throws NodeNotFoundException {
+		return valueOf(links.right(checkedSlotOf(value)));
+	}
+	/**
+	 * Copies the children of value into out, left one first
+	 * @return number of children copied
+	 * @throws NodeNotFoundException if value is not present in the tree
+	 * @throws IllegalArgumentException if out can not hold all the children
+	 */
+	public int children(int value, int[] out) throws NodeNotFoundException {
+		int x = checkedSlotOf(value);
+		int count = (links.left(x) != NIL ? 1 : 0) + (links.right(x) != NIL ? 1 : 0);
+		checkCapacity(out, count);
+		count = 0;
+		if(links.left(x) != NIL)
+			out[count++] = values[links.left(x)];
+		if(links.right(x) != NIL)
+			out[count++] = values[links.right(x)];
+		return count;
+	}
+	/**
+	 * @return the least value or -1 if tree is empty
+	 */
+	public int first() {
+		return valueOf(links.minimum(links.root()));
+	}
+	/**
+	 * @return the greatest value or -1 if tree is empty
+	 */
+	public int last() {
+		return valueOf(links.maximum(links.root()));
+	}
+	/**
+	 * @return the next value in sorted order or -1 if value is the greatest
+	 * @throws NodeNotFoundException if value is not present in the tree
+	 */
+	public int successor(int value) throws NodeNotFoundException {
+		return valueOf(links.successor(checkedSlotOf(value)));
+	}
+	/**
+	 * @return the previous value in sorted order or -1 if value is the least
+	 * @throws NodeNotFoundException if value is not present in the tree
+	 */
+	public int predecessor(int value) throws NodeNotFoundException {
+		return valueOf(links.predecessor(checkedSlotOf(value)));
+	}
+	/**
+	 * @return the greatest value less than or equal to value, or -1 if there is none
+	 */
+	public int floor(int value) {
+		return below(value, true);
+	}
+	/**
+	 * @return the greatest value strictly less than value, or -1 if there is none
+	 */
+	public int lower(int value) {
+		return below(value, false);
+	}
+	/**
+	 * @return the least value greater than or equal to value, or -1 if there is none
+	 */
+	public int ceiling(int value) {
+		return above(value, true);
+	}
+	/**
+	 * @return the least value strictly greater than value, or -1 if there is none
+	 */
+	public int higher(int value) {
+		return above(value, false);
+	}
+	/**
+	 * Copies the values into out in sorted order
+	 * @return number of values copied i.e. size of the tree
+	 * @throws IllegalArgumentException if out can not hold all the values
+	 */
+	public int inOrderTraversal(int[] out) {
+		checkCapacity(out, size);
+		int count = 0;
+		for(int x = links.minimum(links.root()); x != NIL; x = links.successor(x))
+			out[count++] = values[x];
+		return count;
+	}
+	/**
+	 * Copies the values into out in pre order, following parent links back up instead of keeping a stack
+	 * @return number of values copied i.e. size of the tree
+	 * @throws IllegalArgumentException if out can not hold all the values
+	 */
+	public int preOrderTraversal(int[] out) {
+		checkCapacity(out, size);
+		int count = 0;
+		for(int x = links.root(); x != NIL; x = links.nextInPreOrder(x))
+			out[count++] = values[x];
+		return count;
+	}
+	@Override
+	public IntSortedTree clone() {
+		try {
+			IntSortedTree v = (IntSortedTree) super.clone();
+			v.links = links.clone();
+			v.values = Arrays.copyOf(values, v.links.capacity());
+			return v;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);//This should't happen because we are cloneable
+		}
+	}
+	/**
+	 * Trees are equal if they hold the same values, whatever their shape
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj)
+			return true;
+		if(!(obj instanceof IntSortedTree))
+			return false;
+		IntSortedTree other = (IntSortedTree) obj;
+		if(size != other.size)
+			return false;
+		for(int x = links.minimum(links.root()), y = other.links.minimum(other.links.root()); x != NIL;
+				x = links.successor(x), y = other.links.successor(y))
+			if(values[x] != other.values[y])
+				return false;
+		return true;
+	}
+	@Override
+	public int hashCode() {
+		int hashCode = 1;
+		for(int x = links.minimum(links.root()); x != NIL; x = links.successor(x))
+			hashCode = 31 * hashCode + values[x];
+		return hashCode;
+	}
+	@Override
+	public String toString() {
+		int[] sorted = new int[size];
+		inOrderTraversal(sorted);
+		return Arrays.toString(sorted);
+	}
+	private int slotOf(int value) {
+		int x = links.root();
+		while(x != NIL && values[x] != value)
+			x = value < values[x] ? links.left(x) : links.right(x);
+		return x;
+	}
+	private int checkedSlotOf(int value) throws NodeNotFoundException {
+		int x = slotOf(value);
+		if(x == NIL)
+			throw new NodeNotFoundException("No node was found for object");
+		return x;
+	}
+	private int valueOf(int slot) {
+		return slot != NIL ? values[slot] : -1;
+	}
+	private int above(int value, boolean inclusive) {
+		int found = -1;
+		for(int x = links.root(); x != NIL; ) {
+			if(value < values[x] || (inclusive && value == values[x])) {
+				found = values[x];
+				if(value == values[x])
+					break;
+				x = links.left(x);
+			} else
+				x = links.right(x);
+		}
+		return found;
+	}
+	private int below(int value, boolean inclusive) {
+		int found = -1;
+		for(int x = links.root(); x != NIL; ) {
+			if(value > values[x] || (inclusive && value == values[x])) {
+				found = values[x];
+				if(value == values[x])
+					break;
+				x = links.right(x);
+			} else
+				x = links.left(x);
+		}
+		return found;
+	}
+	/**
+	 * Stores value at a slot given by the links, growing the values to the capacity of the links
+	 * @return slot of the value
+	 */
+	private int newSlot(int value) {
+		int slot = links.newSlot();
+		if(slot >= values.length)
+			values = Arrays.copyOf(values, links.capacity());
+		values[slot] = value;
+		return slot;
+	}
+	private void checkValue(int value) {
+		if(value < 0)
+			throw new IllegalArgumentException("negative values are not allowed");
+	}
+	private void checkCapacity(int[] out, int count) {
+		if(out.length < count)
+			throw new IllegalArgumentException("array of length " + out.length + " can not hold " + count + " values");
+	}
+}
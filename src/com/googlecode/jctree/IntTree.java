@@ -0,0 +1,353 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.Arrays;
+
+/**
+ * General purpose tree of int node ids, for workloads which would otherwise use Tree&lt;Integer&gt; and pay for an 
+ * Integer per node, equals calls and a hashed index. The id of a node is its slot in the int links of the tree, so 
+ * membership is a bit of a bitset and parent and children are read straight from the links. Children are kept in
+ * insertion order under their respective parents.
+ * <br>
+ * Ids should be non-negative and dense, as storage grows to the greatest id added. -1 is returned wherever there is 
+ * no such node. Nothing is allocated by queries and traversals, which copy ids into arrays given by the caller.
+ * @author Gaurav Saxena
+ */
+public class IntTree implements Cloneable {
+	private NodeLinks links;
+	/** Bit i is set if node i is present */
+	private long[] present;
+	private int size = 0;
+	private int depth = 0;
+	private int root = -1;
+
+	public IntTree() {
+		this(10);
+	}
+	/**
+	 * @param initialCapacity number of ids which are stored without growing
+	 */
+	public IntTree(int initialCapacity) {
+		links = new NodeLinks(initialCapacity);
+		present = new long[(initialCapacity + 63) >>> 6];
+	}
+	/**
+	 * If tree is empty, it adds a root. In case tree is not empty, it will attempt to add parameter as a child of the root
+	 * @return true if node was added and false if it is already present
+	 */
+	public boolean add(int node) {
+		try {
+			if(isEmpty())
+				return add(-1, node);
+			else
+				return add(root, node);
+		} catch(NodeNotFoundException ex) {
+			throw new IllegalArgumentException(ex);//This should never happen as when tree is empty, we are adding the root and when it is not then we are adding to the root, which will always be present in a non-empty tree
+		}
+	}
+	/**
+	 * Adds child as the last child of parent
+	 * @param parent parent of child. Parent is allowed to be -1 only when there are no other nodes present in the tree. 
+	 * In that case, the child will be added as root
+	 * @return true if child was added and false if it is already present
+	 * @throws NodeNotFoundException if parent is not found
+	 */
+	public boolean add(int parent, int child) throws NodeNotFoundException {
+		checkNode(child);
+		if(parent == -1) {
+			if(isEmpty()) {
+				links.link(child, -1, 0);
+				setPresent(child);
+				root = child;
+				size = 1;
+				depth = 1;
+				return true;
+			} else
+				throw new IllegalArgumentException("parent cannot be -1 except for root node. The tree already has a root.");
+		}
+		checkPresent(parent);
+		if(contains(child))
+			return false;
+		links.link(child, parent, links.childCount(parent));
+		setPresent(child);
+		size++;
+		depth = Math.max(depth, level(child) + 1);
+		return true;
+	}
+	/**
+	 * Removes node and all its descendants
+	 * @return true if node was present
+	 */
+	public boolean remove(int node) {
+		if(!contains(node))
+			return false;
+		else if(node == root)
+			clear();
+		else {
+			links.unlink(node);
+			for(int slot : links.levelOrder(node)) {
+				present[slot >>> 6] &= ~(1L << slot);
+				links.release(slot);
+				size--;
+			}
+			depth = links.height(root);
+		}
+		return true;
+	}
+	public void clear() {
+		Arrays.fill(present, 0);
+		links.clear();
+		size = 0;
+		depth = 0;
+		root = -1;
+	}
+	public boolean contains(int node) {
+		return node >= 0 && (node >>> 6) < present.length && (present[node >>> 6] & (1L << node)) != 0;
+	}
+	public int size() {
+		return size;
+	}
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	/**
+	 * @return number of levels in the tree
+	 */
+	public int depth() {
+		return depth;
+	}
+	/**
+	 * @return the root node or -1 if tree is empty
+	 */
+	public int root() {
+		return root;
+	}
+	/**
+	 * @return parent of node or -1 if node is the root
+	 * @throws NodeNotFoundException if node is not found
+	 */
+	public int parent(int node) throws NodeNotFoundException {
+		checkPresent(node);
+		return links.parent(node);
+	}
+	/**
+	 * @throws NodeNotFoundException if parent is not found
+	 */
+	public int childCount(int parent) throws NodeNotFoundException {
+		checkPresent(parent);
+		return links.childCount(parent);
+	}
+	/**
+	 * @return the child present at index among the children of parent, or -1 if parent has index or fewer children
+	 * @throws NodeNotFoundException if parent is not found
+	 */
+	public int child(int parent, int index) throws NodeNotFoundException {
+		checkPresent(parent);
+		if(index < 0)
+			throw new IndexOutOfBoundsException("index found to be " + index + ".It cannot be negative");
+		return links.child(parent, index);
+	}
+	/**
+	 * @return first child of node or -1 if it has no children
+	 * @throws NodeNotFoundException if node is not found
+	 */
+	public int firstChild(int node) throws NodeNotFoundException {
+		checkPresent(node);
+		return links.firstChild(node);
+	}
+	/**
+	 * @return the child of the parent of node which comes after node, or -1 if node is the last child or the root
+	 * @throws NodeNotFoundException if node is not found
+	 */
+	public int nextSibling(int node) throws NodeNotFoundException {
+		checkPresent(node);
+		return links.nextSibling(node);
+	}
+	/**
+	 * Copies the children of parent into out in insertion order
+	 * @return number of children copied
+	 * @throws NodeNotFoundException if parent is not found
+	 * @throws IllegalArgumentException if out can not hold all the children
+	 */
+	public int children(int parent, int[] out) throws NodeNotFoundException {
+		checkPresent(parent);
+		checkCapacity(out, links.childCount(parent));
+		int count = 0;
+		for(int i = links.firstChild(parent); i > -1; i = links.nextSibling(i))
+			out[count++] = i;
+		return count;
+	}
+	/**
+	 * @return true if node is an ancestor of child
+	 * @throws NodeNotFoundException if child is not found
+	 */
+	public boolean isAncestor(int node, int child) throws NodeNotFoundException {
+		checkPresent(child);
+		for(int i = links.parent(child); i > -1; i = links.parent(i))
+			if(i == node)
+				return true;
+		return false;
+	}
+	/**
+	 * Climbs from the deeper node until both nodes are at the same level and then climbs from both
+	 * @throws NodeNotFoundException if either of the nodes is not found
+	 */
+	public int commonAncestor(int node1, int node2) throws NodeNotFoundException {
+		checkPresent(node1);
+		checkPresent(node2);
+		int level1 = level(node1), level2 = level(node2);
+		for(; level1 > level2; level1--)
+			node1 = links.parent(node1);
+		for(; level2 > level1; level2--)
+			node2 = links.parent(node2);
+		while(node1 != node2) {
+			node1 = links.parent(node1);
+			node2 = links.parent(node2);
+		}
+		return node1;
+	}
+	/**
+	 * Copies the nodes into out in pre order, following parent links back up instead of keeping a stack
+	 * @return number of nodes copied i.e. size of the tree
+	 * @throws IllegalArgumentException if out can not hold all the nodes
+	 */
+	public int preOrderTraversal(int[] out) {
+		checkCapacity(out, size);
+		int count = 0;
+		int node = root;
+		while(node > -1) {
+			out[count++] = node;
+			if(links.firstChild(node) > -1)
+				node = links.firstChild(node);
+			else {
+				while(node > -1 && links.nextSibling(node) == -1)
+					node = links.parent(node);
+				if(node > -1)
+					node = links.nextSibling(node);
+			}
+		}
+		return count;
+	}
+	/**
+	 * Copies the nodes into out in post order, following parent links back up instead of keeping a stack
+	 * @return number of nodes copied i.e. size of the tree
+	 * @throws IllegalArgumentException if out can not hold all the nodes
+	 */
+	public int postOrderTraversal(int[] out) {
+		checkCapacity(out, size);
+		int count = 0;
+		int node = root > -1 ? firstInPostOrder(root) : -1;
+		while(node > -1) {
+			out[count++] = node;
+			if(links.nextSibling(node) > -1)
+				node = firstInPostOrder(links.nextSibling(node));
+			else
+				node = links.parent(node);
+		}
+		return count;
+	}
+	/**
+	 * Copies the nodes into out in level order. Out itself serves as the queue of the traversal
+	 * @return number of nodes copied i.e. size of the tree
+	 * @throws IllegalArgumentException if out can not hold all the nodes
+	 */
+	public int levelOrderTraversal(int[] out) {
+		checkCapacity(out, size);
+		int tail = 0;
+		if(root > -1)
+			out[tail++] = root;
+		for(int head = 0; head < tail; head++)
+			for(int i = links.firstChild(out[head]); i > -1; i = links.nextSibling(i))
+				out[tail++] = i;
+		return tail;
+	}
+	@Override
+	public IntTree clone() {
+		try {
+			IntTree v = (IntTree) super.clone();
+			v.links = links.clone();
+			v.present = present.clone();
+			return v;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);//This should't happen because we are cloneable
+		}
+	}
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj)
+			return true;
+		if(!(obj instanceof IntTree))
+			return false;
+		IntTree other = (IntTree) obj;
+		if(size != other.size || root != other.root)
+			return false;
+		for(int i = 0; i < present.length || i < other.present.length; i++)
+			if((i < present.length ? present[i] : 0) != (i < other.present.length ? other.present[i] : 0))
+				return false;
+		for(int node = 0, len = present.length << 6; node < len; node++)
+			if(contains(node) && (links.parent(node) != other.links.parent(node) || links.nextSibling(node) != other.links.nextSibling(node)
+					|| links.firstChild(node) != other.links.firstChild(node)))
+				return false;
+		return true;
+	}
+	@Override
+	public int hashCode() {
+		int hashCode = 1;
+		for(int node = 0, len = present.length << 6; node < len; node++)
+			if(contains(node))
+				hashCode = 31 * hashCode + node * 31 + links.parent(node);
+		return hashCode;
+	}
+	@Override
+	public String toString() {
+		int[] nodes = new int[size];
+		levelOrderTraversal(nodes);
+		return Arrays.toString(nodes);
+	}
+	/**
+	 * @return first node of the sub-tree of node in post order, reached through first children
+	 */
+	private int firstInPostOrder(int node) {
+		while(links.firstChild(node) > -1)
+			node = links.firstChild(node);
+		return node;
+	}
+	/**
+	 * @return number of ancestors of node
+	 */
+	private int level(int node) {
+		int level = 0;
+		for(int i = links.parent(node); i > -1; i = links.parent(i))
+			level++;
+		return level;
+	}
+	private void setPresent(int node) {
+		if((node >>> 6) >= present.length)
+			present = Arrays.copyOf(present, Math.max((node >>> 6) + 1, present.length + (present.length >> 1) + 1));
+		present[node >>> 6] |= 1L << node;
+	}
+	private void checkNode(int node) {
+		if(node < 0)
+			throw new IllegalArgumentException("negative nodes are not allowed");
+	}
+	private void checkPresent(int node) throws NodeNotFoundException {
+		if(!contains(node))
+			throw new NodeNotFoundException("No node was found for object");
+	}
+	private void checkCapacity(int[] out, int count) {
+		if(out.length < count)
+			throw new IllegalArgumentException("array of length " + out.length + " can not hold " + count + " nodes");
+	}
+}
@@ -14,7 +14,6 @@
 package com.googlecode.jctree;
 
 import java.util.Collection;
-import java.util.List;
 
 
 /**
@@ -37,7 +36,7 @@ public class KAryTree<E> extends ArrayListTree<E> {
 			numberOfChildrenAllowed = k + 1;
 		else {
 			try {
-				numberOfChildrenAllowed = k - super.children(super.root()).size();
+				numberOfChildrenAllowed = k - super.childCount(super.root());
 			} catch (NodeNotFoundException e) {
 				//not possible
 			}
@@ -47,12 +46,14 @@ public class KAryTree<E> extends ArrayListTree<E> {
 		else
 			return super.add(child);
 	}
+	/**
+	 * Children are counted here so that both add(parent, child) and cursors are limited to k children
+	 * @see com.googlecode.jctree.ArrayListTree#addChild(int, java.lang.Object)
+	 */
 	@Override
-	public boolean add(E parent, E child) throws NodeNotFoundException {
-		if(parent == null) //if parent is null
-			return super.add(parent, child);//add root
-		else if (children(parent).size() < k)
-			return super.add(parent, child);
+	int addChild(int parentIndex, E child) {
+		if(childCountAt(parentIndex) < k)
+			return super.addChild(parentIndex, child);
 		else
 			throw new IndexOutOfBoundsException("Cannot add more than " + k +" children to a parent");
 	}
@@ -63,7 +64,7 @@ public class KAryTree<E> extends ArrayListTree<E> {
 			numberOfChildrenAllowed = k + 1;
 		else {
 			try {
-				numberOfChildrenAllowed = k - super.children(super.root()).size();
+				numberOfChildrenAllowed = k - super.childCount(super.root());
 			} catch (NodeNotFoundException e) {
 				//not possible
 			}
@@ -89,15 +90,13 @@ public class KAryTree<E> extends ArrayListTree<E> {
 	 * null otherwise
 	 * @throws NodeNotFoundException
 	 */
+	@Override
 	public E child(E parent, int index) throws NodeNotFoundException
 	{
-		List<E> children;
 		if(index > k)
 			throw new IndexOutOfBoundsException(index + " cannot be more than " + k);
-		else if(index > (children = children(parent)).size())
-			return null;
 		else
-			return children.get(index);
+			return super.child(parent, index);
 	}
 	@SuppressWarnings("unchecked")
 	@Override
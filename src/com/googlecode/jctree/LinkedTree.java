@@ -15,14 +15,19 @@ package com.googlecode.jctree;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * This is a general purpose tree where each node is free to have any number of children
  * This implementation of tree interface is done using {@link ArrayList}as underlying data structure. 
- * As a result, children are maintained in insertion order under their respective parents 
+ * As a result, children are maintained in insertion order under their respective parents.
+ * Entries are located through a {@link HashMap} from element to its entry and hence elements should have
+ * consistent equals and hashCode implementations
  * @author Gaurav Saxena
  *
  * @param <E>
@@ -31,6 +36,8 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 	private int size = 0;
 	private int depth = 0;
 	private Entry<E> root;
+	private volatile AncestorIndex<E> ancestorIndex;
+	private HashMap<E, Entry<E>> entryMap = new HashMap<E, Entry<E>>();
 	/* 
 	 * @see java.util.Collection#add(java.lang.Object)
 	 * If tree is empty, it adds a root. In case tree is not empty, it will attempt to add parameter as a child of the root
@@ -51,7 +58,9 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 		checkNode(child);
 		if(parent == null) {
 			if(isEmpty()) {
+				ancestorIndex = null;
 				root = new Entry<E>(child, null);
+				entryMap.put(child, root);
 				size++;
 				depth++;
 				return true;
@@ -59,41 +68,58 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 				throw new IllegalArgumentException("parent cannot be null except for root element");
 		}
 		Entry<E> parentEntry = getNode(parent);
-		Entry<E> childEntry = getNode(child);
-		if(parentEntry != null) {
-			if(childEntry == null) {
-				parentEntry.children.add(new Entry<E>(child, parentEntry));
-				size++;
-				int currentDepth = 1;
-				//TODO extract to a new method
-				while(parentEntry != null) {
-					currentDepth++;
-					parentEntry = parentEntry.parent;
-				}
-				depth = Math.max(currentDepth, depth);
-				return true;
-			} else {
-				if(childEntry.parent != null)
-					childEntry.parent.children.set(childEntry.parent.children.indexOf(childEntry), new Entry<E>(child, parentEntry));
-				else
-					root.element = child;
-				return false;
-			}
-		} else
+		if(parentEntry != null)
+			return addChild(parentEntry, child) != null;
+		else
 			throw new NodeNotFoundException("No node was found for parent object");
 	}
-	private Entry<E> getNode(Object node) {
-		if(!isEmpty()) {
-			LinkedList<Entry<E>> queue = new LinkedList<Entry<E>>();
-			queue.add(root);
-			while(!queue.isEmpty()) {
-				if(queue.getFirst().element.equals(node))
-					return queue.getFirst();
-				else for(Entry<E> i : queue.poll().children)
-					queue.add(i);
-			}
+	/**
+	 * Adds child as the last child of parentEntry. If child is already present in the tree, it is replaced and its
+	 * position is not changed
+	 * @return entry of child or null if it was already present
+	 */
+	private Entry<E> addChild(Entry<E> parentEntry, E child) {
+		Entry<E> childEntry = getNode(child);
+		if(childEntry == null) {
+			childEntry = new Entry<E>(child, parentEntry);
+			parentEntry.children.add(childEntry);
+			entryMap.put(child, childEntry);
+			indexLeaf(child, parentEntry.element);
+			size++;
+			int currentDepth = 1;
+			for(Entry<E> i = parentEntry; i != null; i = i.parent)
+				currentDepth++;
+			depth = Math.max(currentDepth, depth);
+			return childEntry;
+		} else {
+			ancestorIndex = null;
+			childEntry.element = child;
+			entryMap.remove(child);
+			entryMap.put(child, childEntry);
+			return null;
 		}
-		return null;
+	}
+	/**
+	 * @return cursor at the entry of e, which moves through the links between entries without looking elements up
+	 * @throws NodeNotFoundException if e is not found
+	 */
+	public TreeCursor<E> cursor(E e) throws NodeNotFoundException {
+		return new EntryCursor(entryOf(e));
+	}
+	private Entry<E> getNode(Object node) {
+		return entryMap.get(node);
+	}
+	/**
+	 * @return entry of e
+	 * @throws NodeNotFoundException if e is not found
+	 */
+	private Entry<E> entryOf(E e) throws NodeNotFoundException {
+		checkNode(e);
+		Entry<E> node = getNode(e);
+		if(node != null)
+			return node;
+		else
+			throw new NodeNotFoundException("No node was found for object");
 	}
 	protected int getChildAddPosition(List<E> children, E child) {
 		return children.size();
@@ -125,8 +151,31 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 			throw new NodeNotFoundException("No node was found for object");
 	}
 	@Override
+	public int childCount(E parent) throws NodeNotFoundException {
+		return entryOf(parent).children.size();
+	}
+	@Override
+	public E child(E parent, int index) throws NodeNotFoundException {
+		List<Entry<E>> children = entryOf(parent).children;
+		if(index < 0)
+			throw new IndexOutOfBoundsException("index found to be " + index + ".It cannot be negative");
+		return index < children.size() ? children.get(index).element : null;
+	}
+	@Override
+	public void forEachChild(E parent, Consumer<? super E> action) throws NodeNotFoundException {
+		for(Entry<E> i : entryOf(parent).children)
+			action.accept(i.element);
+	}
+	@Override
+	public List<E> childrenView(E parent) throws NodeNotFoundException {
+		entryOf(parent);
+		return new TreeHelper().childrenView(this, parent);
+	}
+	@Override
 	public void clear() {
+		ancestorIndex = null;
 		root = null;
+		entryMap.clear();
 		size = 0;
 		depth = 0;
 	}
@@ -136,7 +185,10 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 	    LinkedTree<E> v = null;
 		try {
 			v = (LinkedTree<E>) super.clone();
-			makeTree(v);
+			v.entryMap = new HashMap<E, Entry<E>>();
+			v.ancestorIndex = null;
+			if(root != null)
+				makeTree(v);
 		} catch (CloneNotSupportedException e) {
 			//This should't happen because we are cloneable
 		}
@@ -148,53 +200,42 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 		queue.add(root);
 		newQueue.add(new Entry<E>(root.element, null));
 		v.root = newQueue.getFirst();
+		v.entryMap.put(v.root.element, v.root);
 		while(!queue.isEmpty()) {
 			Entry<E> parent = newQueue.poll();
 			for(Entry<E> i : queue.poll().children) {
 				queue.add(i);
-				parent.children.add(new Entry<E>(i.element, parent));
+				Entry<E> child = new Entry<E>(i.element, parent);
+				parent.children.add(child);
+				v.entryMap.put(child.element, child);
 			}
 			newQueue.addAll(parent.children);
 		}
 	}
 	@Override
 	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
-		int height1 = 0;
-		E e1 = node1; 
-		while(e1 != null) {
-			height1++;
-			e1 = parent(e1);
-		}
-		int height2 = 0;
-		E e2 = node2; 
-		while(e2 != null) {
-			height2++;
-			e2 = parent(e2);
-		}
-		if(height1 > height2) {
-			while(height1 - height2 > 0) {
-				node1 = parent(node1);
-				height1--;
-			}
-		} else	{
-			while(height2 - height1 > 0) {
-				node2 = parent(node2);
-				height2--;
-			}
-		}
-		while(node1 != null && !node1.equals(node2)) {
-			node1 = parent(node1);
-			node2 = parent(node2);
-		}
-		return node1;
+		checkNode(node1);
+		checkNode(node2);
+		if(contains(node1) && contains(node2))
+			return ancestorIndex().commonAncestor(node1, node2);
+		else
+			throw new NodeNotFoundException("No node was found for object");
+	}
+	@Override
+	public int distance(E node1, E node2) throws NodeNotFoundException {
+		checkNode(node1);
+		checkNode(node2);
+		if(contains(node1) && contains(node2))
+			return ancestorIndex().distance(node1, node2);
+		else
+			throw new NodeNotFoundException("No node was found for object");
 	}
-	@SuppressWarnings("unchecked")
 	@Override
 	public boolean contains(Object o) {
 		if(o == null)
 			return false;
 		else
-			return getNode((E) o) != null;
+			return entryMap.containsKey(o);
 	}
 	@Override
 	public boolean containsAll(Collection<?> c) {
@@ -210,41 +251,24 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 	@Override
 	@Deprecated
 	public List<E> inorderOrderTraversal() {
-		return inOrderTraversal(root);
+		return inOrderTraversal();
 	}
 	@Override
 	public List<E> inOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return inOrderTraversal(root);
+		return new TreeHelper().toList(inOrderIterator(), size);
 	}
 	@Override
 	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
-		child = parent(child);
-		while(child != null) {
-			if(child.equals(node))
-				return true;
-			else
-				child = parent(child);
-		}
-		return false;
+		checkNode(child);
+		if(contains(child))
+			return contains(node) && ancestorIndex().isAncestor(node, child);
+		else
+			throw new NodeNotFoundException("No node was found for object");
 	}
 	@Override
 	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
 		checkNode(node);
-		Entry<E> nodeEntry = getNode(node);
-		if(nodeEntry != null) {
-			E child = parent(node);
-			while(child != null) {
-				if(child.equals(parent))
-					return true;
-				else
-					child = parent(child);
-			}
-			return false;
-		} else
-			throw new NodeNotFoundException("No node was found for object");
+		return isAncestor(parent, node);
 	}
 	@Override
 	public boolean isEmpty() {
@@ -252,39 +276,15 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 	}
 	@Override
 	public Iterator<E> iterator() {
-		return getCurrentList().iterator();
+		return inOrderIterator();
 	}
 	@Override
 	public List<E> leaves() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return leaves(root);
-	}
-	private List<E> leaves(Entry<E> node) {
-		List<Entry<E>> children = node.children;
-		List<E> list = new ArrayList<E>();
-		if(children.size() > 0) {
-			int i = 0;
-			for(int len = (int)Math.ceil((double)children.size() / 2); i < len; i++)
-				list.addAll(leaves(node.children.get(i)));
-			if(node.children.isEmpty())
-				list.add(node.element);
-			for(int len = children.size(); i < len; i++)
-				list.addAll(leaves(node.children.get(i)));
-		} else if(node.children.isEmpty())
-			list.add(node.element);
-		return list;
+		return new TreeHelper().toList(new EntryIterator(TraversalIterator.Order.LEAF), 10);
 	}
 	@Override
 	public List<E> levelOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else {
-			LinkedList<Entry<E>> queue = new LinkedList<Entry<E>>();
-			queue.add(root);
-			return levelOrderTraversal(queue);
-		}
+		return new TreeHelper().toList(levelOrderIterator(), size);
 	}
 	@Override
 	public E parent(E e) throws NodeNotFoundException {
@@ -300,18 +300,11 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 	}
 	@Override
 	public List<E> postOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-			
-		else
-			return postOrderTraversal(root);
+		return new TreeHelper().toList(postOrderIterator(), size);
 	}
 	@Override
 	public List<E> preOrderTraversal() {
-		if(isEmpty())
-			return new ArrayList<E>();
-		else
-			return preOrderTraversal(root);
+		return new TreeHelper().toList(preOrderIterator(), size);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -323,27 +316,50 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 			boolean isRemoved; 
 			if(node.equals(root)) {
 				root = null;
+				entryMap.clear();
 				isRemoved = true;
 				depth = 0;
 				size = 0;
 			} else {
 				isRemoved = node.parent.children.remove(node);
-				size = 0;
-				depth = 0;
-				recalculateDepthAndSize(root, 0);
+				size -= removeEntries(node);
+				depth = recalculateDepth();
 			}
 			return isRemoved;
 		} else
 			return false;
 	}
 
-	private int recalculateDepthAndSize(Entry<E> node, int currentDepth) {
-		int childDepth = currentDepth + 1;
-		size++;
-		if(node.children.isEmpty())
-			return childDepth;
-		else for(Entry<E> i : node.children)
-			depth = Math.max(depth, recalculateDepthAndSize(i, childDepth));
+	/**
+	 * @return number of entries removed
+	 */
+	private int removeEntries(Entry<E> node) {
+		LinkedList<Entry<E>> queue = new LinkedList<Entry<E>>();
+		queue.add(node);
+		int count = 0;
+		while(!queue.isEmpty()) {
+			Entry<E> entry = queue.poll();
+			entryMap.remove(entry.element);
+			entry.parent = null;
+			queue.addAll(entry.children);
+			count++;
+		}
+		return count;
+	}
+	/**
+	 * @return number of levels in the tree, which are walked one at a time
+	 */
+	private int recalculateDepth() {
+		int depth = 0;
+		List<Entry<E>> level = new ArrayList<Entry<E>>();
+		level.add(root);
+		while(!level.isEmpty()) {
+			depth++;
+			List<Entry<E>> nextLevel = new ArrayList<Entry<E>>();
+			for(Entry<E> i : level)
+				nextLevel.addAll(i.children);
+			level = nextLevel;
+		}
 		return depth;
 	}
 	@Override
@@ -366,12 +382,13 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 	}
 	@Override
 	public List<E> siblings(E e) throws NodeNotFoundException {
-		checkNode(e);
-		E parent = parent(e);
-		if(parent != null) {
-			List<E> children = children(parent);
-			children.remove(e);
-			return children;
+		Entry<E> node = entryOf(e);
+		if(node.parent != null) {
+			ArrayList<E> siblings = new ArrayList<E>(node.parent.children.size() - 1);
+			for(Entry<E> i : node.parent.children)
+				if(i != node)
+					siblings.add(i.element);
+			return siblings;
 		} else
 			return new ArrayList<E>();
 	}
@@ -383,14 +400,42 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 
 	@Override
 	public Object[] toArray() {
-		return getCurrentList().toArray();
+		return new TreeHelper().toArray(this);
 	}
 
 	@Override
 	public <T> T[] toArray(T[] a) {
-		return getCurrentList().toArray(a);
+		return new TreeHelper().toArray(this, a);
 	}
 
+	/**
+	 * @return index of the ancestors of the nodes, which is built again once it has fallen too far behind the tree
+	 */
+	private AncestorIndex<E> ancestorIndex() {
+		AncestorIndex<E> index = ancestorIndex;
+		if(index == null || index.isStale(size)) {
+			index = new AncestorIndex<E>(size);
+			if(root != null) {
+				LinkedList<Entry<E>> queue = new LinkedList<Entry<E>>();
+				queue.add(root);
+				while(!queue.isEmpty()) {
+					Entry<E> entry = queue.poll();
+					index.add(entry.element, entry.parent != null ? entry.parent.element : null);
+					queue.addAll(entry.children);
+				}
+			}
+			ancestorIndex = index.build();
+		}
+		return index;
+	}
+	/**
+	 * Adds a new leaf to the index of ancestors if there is one
+	 */
+	private void indexLeaf(E child, E parent) {
+		AncestorIndex<E> index = ancestorIndex;
+		if(index != null)
+			index.add(child, parent);
+	}
 	private void checkNode(Object child) {
 		if(child == null)
 			throw new IllegalArgumentException("null nodes are not allowed");
@@ -398,47 +443,88 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 	private List<E> getCurrentList() {
 		return inOrderTraversal();
 	}
-	private List<E> inOrderTraversal(Entry<E> node) {
-		List<Entry<E>> children = node.children;
-		List<E> list = new ArrayList<E>();
-		if(children.size() > 0) {
-			int i = 0;
-			for(int len = (int)Math.ceil((double)children.size() / 2); i < len; i++)
-				list.addAll(inOrderTraversal(node.children.get(i)));
-			list.add(node.element);
-			for(int len = children.size(); i < len; i++)
-				list.addAll(inOrderTraversal(node.children.get(i)));
-		} else
-			list.add(node.element);
-		return list;
+	@Override
+	public Iterator<E> preOrderIterator() {
+		return new EntryIterator(TraversalIterator.Order.PRE);
 	}
-	private List<E> levelOrderTraversal( LinkedList<Entry<E>> queue) {
-		ArrayList<E> list = new ArrayList<E>();
-		while(!queue.isEmpty()) {
-			for(Entry<E> i : queue.getFirst().children)
-				queue.add(i);
-			list.add(queue.poll().element);
-		}
-		return list;
+	@Override
+	public Iterator<E> inOrderIterator() {
+		return new EntryIterator(TraversalIterator.Order.IN);
+	}
+	@Override
+	public Iterator<E> postOrderIterator() {
+		return new EntryIterator(TraversalIterator.Order.POST);
 	}
-	private List<E> postOrderTraversal(Entry<E> node) {
-		ArrayList<E> list = new ArrayList<E>();
-		for(Entry<E> i : node.children)
-			list.addAll(postOrderTraversal(i));
-		list.add(node.element);
-		return list;
+	@Override
+	public Iterator<E> levelOrderIterator() {
+		return new EntryIterator(TraversalIterator.Order.LEVEL);
+	}
+	/**
+	 * Spliterator splits at sub-tree boundaries and walks the tree in the order of its iterator
+	 * @see java.util.Collection#spliterator()
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return new EntrySpliterator();
+	}
+	private class EntryIterator extends NodeTraversalIterator<E, Entry<E>> {
+		EntryIterator(TraversalIterator.Order order) {
+			super(order, root);
+		}
+		@Override
+		E element(Entry<E> node) {
+			return node.element;
+		}
+		@Override
+		int firstChild(Entry<E> node) {
+			return node.children.isEmpty() ? -1 : 0;
+		}
+		@Override
+		int nextChild(Entry<E> node, int cursor) {
+			return cursor + 1 < node.children.size() ? cursor + 1 : -1;
+		}
+		@Override
+		Entry<E> child(Entry<E> node, int cursor) {
+			return node.children.get(cursor);
+		}
+		@Override
+		int childrenBefore(Entry<E> node) {
+			return (node.children.size() + 1) / 2;
+		}
 	}
-	private List<E> preOrderTraversal(Entry<E> node) {
-		ArrayList<E> list = new ArrayList<E>();
-		list.add(node.element);
-		for(Entry<E> i : node.children)
-			list.addAll(preOrderTraversal(i));
-		return list;
+	private class EntrySpliterator extends TreeSpliterator<E, Entry<E>> {
+		EntrySpliterator() {
+			super(root, size, 0);
+		}
+		@Override
+		E element(Entry<E> node) {
+			return node.element;
+		}
+		@Override
+		int firstChild(Entry<E> node) {
+			return node.children.isEmpty() ? -1 : 0;
+		}
+		@Override
+		int nextChild(Entry<E> node, int cursor) {
+			return cursor + 1 < node.children.size() ? cursor + 1 : -1;
+		}
+		@Override
+		Entry<E> child(Entry<E> node, int cursor) {
+			return node.children.get(cursor);
+		}
+		@Override
+		int childrenBefore(Entry<E> node) {
+			return (node.children.size() + 1) / 2;
+		}
 	}
 	@Override
 	public String toString() {
 		return getCurrentList().toString();
 	}
+	@Override
+	public int hashCode() {
+		return new TreeHelper().hashCode(this);
+	}
 	@SuppressWarnings("unchecked")
 	@Override
 	public boolean equals(Object o) {
@@ -452,6 +538,88 @@ public class LinkedTree<E> implements Tree<E>, Cloneable{
 		} else
 			return false;
 	}
+	/**
+	 * Cursor which keeps its entry and the position of the entry among the children of its parent, so that next 
+	 * sibling is found without searching unless siblings before it were removed. Entries of removed nodes lose their
+	 * parent and emptying the tree replaces the root entry, which is how a removed node is detected
+	 */
+	private class EntryCursor implements TreeCursor<E> {
+		private final Entry<E> rootEntry = root;
+		private Entry<E> entry;
+		private int position = -1;
+
+		EntryCursor(Entry<E> entry) {
+			this.entry = entry;
+		}
+		@Override
+		public E element() {
+			return entry().element;
+		}
+		@Override
+		public boolean parent() {
+			Entry<E> parent = entry().parent;
+			if(parent != null) {
+				entry = parent;
+				position = -1;
+				return true;
+			} else
+				return false;
+		}
+		@Override
+		public boolean firstChild() {
+			List<Entry<E>> children = entry().children;
+			if(!children.isEmpty()) {
+				entry = children.get(0);
+				position = 0;
+				return true;
+			} else
+				return false;
+		}
+		@Override
+		public boolean nextSibling() {
+			Entry<E> parent = entry().parent;
+			if(parent != null) {
+				List<Entry<E>> siblings = parent.children;
+				if(position < 0 || position >= siblings.size() || siblings.get(position) != entry)
+					position = siblings.indexOf(entry);
+				if(position + 1 < siblings.size()) {
+					entry = siblings.get(++position);
+					return true;
+				}
+			}
+			return false;
+		}
+		@Override
+		public int childCount() {
+			return entry().children.size();
+		}
+		@Override
+		public TreeCursor<E> add(E child) {
+			checkNode(child);
+			Entry<E> parent = entry();
+			Entry<E> childEntry = addChild(parent, child);
+			if(childEntry != null) {
+				EntryCursor cursor = new EntryCursor(childEntry);
+				cursor.position = parent.children.size() - 1;
+				return cursor;
+			} else
+				return null;
+		}
+		@Override
+		public TreeCursor<E> copy() {
+			EntryCursor cursor = new EntryCursor(entry());
+			cursor.position = position;
+			return cursor;
+		}
+		/**
+		 * @return entry of the cursor after checking that it is still in the tree
+		 */
+		private Entry<E> entry() {
+			if(rootEntry != root || (entry.parent == null && entry != root))
+				throw new IllegalStateException("Node of the cursor was removed from the tree");
+			return entry;
+		}
+	}
 	private static class Entry<E> {
 		E element;
 		Entry<E> parent;
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+
+/**
+ * Links between the nodes of array backed trees. Nodes are identified by their slot i.e. their index in the
+ * list of elements of the tree and every link is kept in an int array indexed by slot. Children of a node
+ * form a doubly linked list in insertion order which runs from its first child to its last child through next
+ * and previous sibling links, so that a child is appended or unlinked in O(1). -1 is used wherever there is no
+ * such node. Released slots are chained through their next sibling links and are handed out again by add 
+ * before any new slot is created.
+ * @author Gaurav Saxena
+ */
+class NodeLinks implements Cloneable {
+	private int[] parent;
+	private int[] firstChild;
+	private int[] lastChild;
+	private int[] nextSibling;
+	private int[] prevSibling;
+	private int[] childCount;
+	private int slots = 0;
+	private int freeSlot = -1;
+
+	NodeLinks(int initialCapacity) {
+		parent = new int[initialCapacity];
+		firstChild = new int[initialCapacity];
+		lastChild = new int[initialCapacity];
+		nextSibling = new int[initialCapacity];
+		prevSibling = new int[initialCapacity];
+		childCount = new int[initialCapacity];
+	}
+	/**
+	 * Creates a new slot as the last child of parentSlot. A released slot is reused if there is one
+	 * @param parentSlot parent of the new slot or -1 if a root is being added
+	 * @return the new slot
+	 */
+	int add(int parentSlot) {
+		return add(parentSlot, parentSlot > -1 ? childCount[parentSlot] : 0);
+	}
+	/**
+	 * Creates a new slot at the given position among the children of parentSlot
+	 * @param parentSlot parent of the new slot or -1 if a root is being added
+	 * @param position between 0 and number of children of parentSlot
+	 * @return the new slot
+	 */
+	int add(int parentSlot, int position) {
+		int slot;
+		if(freeSlot > -1) {
+			slot = freeSlot;
+			freeSlot = nextSibling[slot];
+		} else
+			slot = slots;
+		link(slot, parentSlot, position);
+		return slot;
+	}
+	/**
+	 * Makes slot a child of parentSlot at the given position. This is for trees which choose slots on their own
+	 * and hence slot should neither be in use nor be one of the released slots. Adding a first or last child takes 
+	 * O(1) while other positions are found by walking from the nearer end of the children
+	 * @param parentSlot parent of slot or -1 if a root is being added
+	 * @param position between 0 and number of children of parentSlot
+	 */
+	void link(int slot, int parentSlot, int position) {
+		ensureCapacity(slot + 1);
+		slots = Math.max(slots, slot + 1);
+		parent[slot] = parentSlot;
+		firstChild[slot] = -1;
+		lastChild[slot] = -1;
+		nextSibling[slot] = -1;
+		prevSibling[slot] = -1;
+		childCount[slot] = 0;
+		if(parentSlot > -1) {
+			int next = position < childCount[parentSlot] ? child(parentSlot, position) : -1;
+			int previous = next > -1 ? prevSibling[next] : lastChild[parentSlot];
+			nextSibling[slot] = next;
+			prevSibling[slot] = previous;
+			if(previous > -1)
+				nextSibling[previous] = slot;
+			else
+				firstChild[parentSlot] = slot;
+			if(next > -1)
+				prevSibling[next] = slot;
+			else
+				lastChild[parentSlot] = slot;
+			childCount[parentSlot]++;
+		}
+	}
+	/**
+	 * Detaches slot from the children of its parent in O(1). Links to its own children are not changed.
+	 */
+	void unlink(int slot) {
+		int parentSlot = parent[slot];
+		if(parentSlot > -1) {
+			int next = nextSibling[slot];
+			int previous = prevSibling[slot];
+			if(previous > -1)
+				nextSibling[previous] = next;
+			else
+				firstChild[parentSlot] = next;
+			if(next > -1)
+				prevSibling[next] = previous;
+			else
+				lastChild[parentSlot] = previous;
+			childCount[parentSlot]--;
+		}
+		parent[slot] = -1;
+		nextSibling[slot] = -1;
+		prevSibling[slot] = -1;
+	}
+	/**
+	 * Marks slot as unused by removing all its links and makes it available to add. Its children should be
+	 * released separately
+	 */
+	void release(int slot) {
+		parent[slot] = -1;
+		firstChild[slot] = -1;
+		lastChild[slot] = -1;
+		prevSibling[slot] = -1;
+		nextSibling[slot] = freeSlot;
+		childCount[slot] = 0;
+		freeSlot = slot;
+	}
+	int parent(int slot) {
+		return parent[slot];
+	}
+	int firstChild(int slot) {
+		return firstChild[slot];
+	}
+	int nextSibling(int slot) {
+		return nextSibling[slot];
+	}
+	int childCount(int slot) {
+		return childCount[slot];
+	}
+	/**
+	 * @return child at position among the children of slot or -1 if slot has fewer children. Children are walked
+	 * from the end nearer to position
+	 */
+	int child(int slot, int position) {
+		if(position >= childCount[slot])
+			return -1;
+		int child;
+		if(position < childCount[slot] >> 1) {
+			child = firstChild[slot];
+			for(int i = 0; i < position; i++)
+				child = nextSibling[child];
+		} else {
+			child = lastChild[slot];
+			for(int i = childCount[slot] - 1; i > position; i--)
+				child = prevSibling[child];
+		}
+		return child;
+	}
+	/**
+	 * @return slots of the sub-tree rooted at slot in level order
+	 */
+	int[] levelOrder(int slot) {
+		int[] queue = new int[8];
+		int tail = 0;
+		queue[tail++] = slot;
+		for(int head = 0; head < tail; head++)
+			for(int i = firstChild[queue[head]]; i > -1; i = nextSibling[i]) {
+				if(tail == queue.length)
+					queue = Arrays.copyOf(queue, tail << 1);
+				queue[tail++] = i;
+			}
+		return Arrays.copyOf(queue, tail);
+	}
+	/**
+	 * @return number of levels in the sub-tree rooted at slot
+	 */
+	int height(int slot) {
+		int[] queue = levelOrder(slot);
+		int height = 0;
+		for(int head = 0, levelEnd = 1, nextLevelEnd = 1; head < queue.length; head++) {
+			nextLevelEnd += childCount[queue[head]];
+			if(head + 1 == levelEnd) {
+				height++;
+				levelEnd = nextLevelEnd;
+			}
+		}
+		return height;
+	}
+	/**
+	 * @return number of slots in use including the released ones
+	 */
+	int slots() {
+		return slots;
+	}
+	void clear() {
+		slots = 0;
+		freeSlot = -1;
+	}
+	/**
+	 * Renumbers the live slots reachable from rootSlot in level order, so that they occupy slots 0 to count - 1
+	 * and no released slot is left.
+	 * @param rootSlot slot of the root
+	 * @param count number of live slots
+	 * @return old slot of every new slot i.e. the element at old slot order[i] now belongs to slot i
+	 */
+	int[] compact(int rootSlot, int count) {
+		int[] order = new int[count];
+		int[] newSlot = new int[slots];
+		int tail = 0;
+		if(count > 0)
+			order[tail++] = rootSlot;
+		for(int head = 0; head < tail; head++) {
+			newSlot[order[head]] = head;
+			for(int i = firstChild[order[head]]; i > -1; i = nextSibling[i])
+				order[tail++] = i;
+		}
+		int[] newParent = new int[parent.length];
+		int[] newFirstChild = new int[parent.length];
+		int[] newLastChild = new int[parent.length];
+		int[] newNextSibling = new int[parent.length];
+		int[] newPrevSibling = new int[parent.length];
+		int[] newChildCount = new int[parent.length];
+		for(int i = 0; i < count; i++) {
+			int slot = order[i];
+			newParent[i] = parent[slot] > -1 ? newSlot[parent[slot]] : -1;
+			newFirstChild[i] = firstChild[slot] > -1 ? newSlot[firstChild[slot]] : -1;
+			newLastChild[i] = lastChild[slot] > -1 ? newSlot[lastChild[slot]] : -1;
+			newNextSibling[i] = nextSibling[slot] > -1 ? newSlot[nextSibling[slot]] : -1;
+			newPrevSibling[i] = prevSibling[slot] > -1 ? newSlot[prevSibling[slot]] : -1;
+			newChildCount[i] = childCount[slot];
+		}
+		parent = newParent;
+		firstChild = newFirstChild;
+		lastChild = newLastChild;
+		nextSibling = newNextSibling;
+		prevSibling = newPrevSibling;
+		childCount = newChildCount;
+		slots = count;
+		freeSlot = -1;
+		return order;
+	}
+	/**
+	 * Shrinks the capacity of the link arrays to the number of slots in use
+	 */
+	void trimToSize() {
+		parent = Arrays.copyOf(parent, slots);
+		firstChild = Arrays.copyOf(firstChild, slots);
+		lastChild = Arrays.copyOf(lastChild, slots);
+		nextSibling = Arrays.copyOf(nextSibling, slots);
+		prevSibling = Arrays.copyOf(prevSibling, slots);
+		childCount = Arrays.copyOf(childCount, slots);
+	}
+	/**
+	 * @param elements elements of the tree indexed by slot
+	 * @return iterator over the elements of the slots under rootSlot. In order publishes a slot after the first
+	 * half of its children, rounded up
+	 */
+	<E> Iterator<E> iterator(TraversalIterator.Order order, final List<E> elements, int rootSlot) {
+		return new SlotTraversalIterator<E>(order, rootSlot) {
+			@Override
+			E element(int slot) {
+				return elements.get(slot);
+			}
+			@Override
+			int firstChild(int slot) {
+				return firstChild[slot];
+			}
+			@Override
+			int nextChild(int slot, int cursor) {
+				return nextSibling[cursor];
+			}
+			@Override
+			int child(int slot, int cursor) {
+				return cursor;
+			}
+			@Override
+			int childrenBefore(int slot) {
+				return (childCount[slot] + 1) / 2;
+			}
+		};
+	}
+	/**
+	 * @param elements elements of the tree indexed by slot
+	 * @return spliterator over the elements of the slots under rootSlot in the order of {@link #iterator}
+	 */
+	<E> Spliterator<E> spliterator(final List<E> elements, int rootSlot, int size) {
+		return new SlotTreeSpliterator<E>(rootSlot, size, 0) {
+			@Override
+			E element(int slot) {
+				return elements.get(slot);
+			}
+			@Override
+			int firstChild(int slot) {
+				return firstChild[slot];
+			}
+			@Override
+			int nextChild(int slot, int cursor) {
+				return nextSibling[cursor];
+			}
+			@Override
+			int child(int slot, int cursor) {
+				return cursor;
+			}
+			@Override
+			int childrenBefore(int slot) {
+				return (childCount[slot] + 1) / 2;
+			}
+		};
+	}
+	private void ensureCapacity(int capacity) {
+		if(capacity > parent.length) {
+			int newCapacity = Math.max(capacity, parent.length + (parent.length >> 1) + 1);
+			parent = Arrays.copyOf(parent, newCapacity);
+			firstChild = Arrays.copyOf(firstChild, newCapacity);
+			lastChild = Arrays.copyOf(lastChild, newCapacity);
+			nextSibling = Arrays.copyOf(nextSibling, newCapacity);
+			prevSibling = Arrays.copyOf(prevSibling, newCapacity);
+			childCount = Arrays.copyOf(childCount, newCapacity);
+		}
+	}
+	@Override
+	public NodeLinks clone() {
+		try {
+			NodeLinks v = (NodeLinks) super.clone();
+			v.parent = Arrays.copyOf(parent, slots);
+			v.firstChild = Arrays.copyOf(firstChild, slots);
+			v.lastChild = Arrays.copyOf(lastChild, slots);
+			v.nextSibling = Arrays.copyOf(nextSibling, slots);
+			v.prevSibling = Arrays.copyOf(prevSibling, slots);
+			v.childCount = Arrays.copyOf(childCount, slots);
+			return v;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);//This should't happen because we are cloneable
+		}
+	}
+}
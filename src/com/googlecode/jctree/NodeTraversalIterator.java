@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * {@link TraversalIterator} for trees made of linked node objects. Children of a node are reached through int
+ * cursors which are defined by the sub-classes, -1 meaning there are no more children.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ * @param <N> node type of the tree
+ */
+abstract class NodeTraversalIterator<E, N> extends TraversalIterator<E> {
+	private Object[] nodes;
+	private int[] cursors;
+	private int[] steps;
+	private int top = -1;
+	private ArrayDeque<N> queue;
+
+	/**
+	 * @param root root node or null if the tree is empty
+	 */
+	NodeTraversalIterator(Order order, N root) {
+		super(order);
+		if(order == Order.LEVEL) {
+			queue = new ArrayDeque<N>();
+			if(root != null)
+				queue.add(root);
+		} else {
+			nodes = new Object[16];
+			cursors = new int[16];
+			steps = new int[16];
+			if(root != null)
+				push(root);
+		}
+	}
+	abstract E element(N node);
+	/**
+	 * @return cursor of the first child of node or -1 if it has no children
+	 */
+	abstract int firstChild(N node);
+	/**
+	 * @return cursor of the child of node which comes after the one at cursor or -1 if there is none
+	 */
+	abstract int nextChild(N node, int cursor);
+	abstract N child(N node, int cursor);
+	abstract int childrenBefore(N node);
+
+	private void push(N node) {
+		if(++top == nodes.length) {
+			nodes = Arrays.copyOf(nodes, top * 2);
+			cursors = Arrays.copyOf(cursors, top * 2);
+			steps = Arrays.copyOf(steps, top * 2);
+		}
+		nodes[top] = node;
+		cursors[top] = firstChild(node);
+		steps[top] = 0;
+	}
+	@SuppressWarnings("unchecked")
+	private N topNode() {
+		return (N) nodes[top];
+	}
+	@Override
+	boolean isStackEmpty() {
+		return top < 0;
+	}
+	@Override
+	E element() {
+		return element(topNode());
+	}
+	@Override
+	int nextStep() {
+		return steps[top]++;
+	}
+	@Override
+	int childrenBefore() {
+		return childrenBefore(topNode());
+	}
+	@Override
+	boolean pushNextChild() {
+		N node = topNode();
+		int cursor = cursors[top];
+		if(cursor < 0)
+			return false;
+		cursors[top] = nextChild(node, cursor);
+		push(child(node, cursor));
+		return true;
+	}
+	@Override
+	void pop() {
+		nodes[top--] = null;
+	}
+	@Override
+	E poll() {
+		N node = queue.poll();
+		if(node == null)
+			return null;
+		for(int cursor = firstChild(node); cursor > -1; cursor = nextChild(node, cursor))
+			queue.add(child(node, cursor));
+		return element(node);
+	}
+}
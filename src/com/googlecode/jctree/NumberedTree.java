@@ -42,5 +42,6 @@ public interface NumberedTree<E> extends Tree<E>{
 	 * this index 
 	 * @throws NodeNotFoundException
 	 */
+	@Override
 	public E child(E parent, int index) throws NodeNotFoundException;
 }
@@ -0,0 +1,437 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.Arrays;
+
+/**
+ * Left, right and parent links and colors of the nodes of a red black tree whose nodes are slots in arrays, as used
+ * by {@link ArrayRedBlackTree} and {@link IntSortedTree}. Links are kept in three parallel int arrays indexed by
+ * slot and colors as bits of a long array, while the trees keep the values of the slots in arrays of their own and
+ * do the comparisons. Insertion and removal rebalance the links as given in Introduction to Algorithms by Cormen et
+ * al.
+ * <br>
+ * Slot 0 is a black sentinel which stands for every missing child. Released slots are chained through their right
+ * links and are handed out again by {@link #newSlot()} before any new slot is used.
+ * @author Gaurav Saxena
+ */
+class RedBlackLinks implements Cloneable {
+	static final int NIL = 0;
+	private int[] left;
+	private int[] right;
+	private int[] parent;
+	/** Bit i is set if slot i is red */
+	private long[] red;
+	private int root = NIL;
+	/** Slot after the greatest slot ever used */
+	private int slots = 1;
+	private int freeSlot = NIL;
+
+	/**
+	 * @param capacity number of slots, the sentinel included, which are kept without growing the arrays
+	 */
+	RedBlackLinks(int capacity) {
+		left = new int[capacity];
+		right = new int[capacity];
+		parent = new int[capacity];
+		red = new long[(capacity + 63) >>> 6];
+	}
+	int root() {
+		return root;
+	}
+	int left(int slot) {
+		return left[slot];
+	}
+	int right(int slot) {
+		return right[slot];
+	}
+	int parent(int slot) {
+		return parent[slot];
+	}
+	/**
+	 * @return slot after the greatest slot ever used
+	 */
+	int slots() {
+		return slots;
+	}
+	/**
+	 * @return number of slots which are kept without growing the arrays. Trees grow the arrays of their values to it
+	 */
+	int capacity() {
+		return left.length;
+	}
+	/**
+	 * @return a slot released by an earlier remove if there is one or the next unused slot otherwise, with no
+	 * children
+	 */
+	int newSlot() {
+		int slot;
+		if(freeSlot != NIL) {
+			slot = freeSlot;
+			freeSlot = right[slot];
+		} else {
+			ensureCapacity(slots + 1);
+			slot = slots++;
+		}
+		left[slot] = NIL;
+		right[slot] = NIL;
+		return slot;
+	}
+	/**
+	 * Links slot below parentSlot, or at the root if parentSlot is the sentinel, without any rebalancing. This is
+	 * how trees whose colors are already known are built
+	 */
+	void link(int slot, int parentSlot, boolean isLeft, boolean isRed) {
+		parent[slot] = parentSlot;
+		if(parentSlot == NIL)
+			root = slot;
+		else if(isLeft)
+			left[parentSlot] = slot;
+		else
+			right[parentSlot] = slot;
+		setRed(slot, isRed);
+	}
+	/**
+	 * Links slot as a red leaf below parentSlot and recolors and rotates the nodes above it
+	 */
+	void insert(int slot, int parentSlot, boolean isLeft) {
+		link(slot, parentSlot, isLeft, true);
+		insertFixup(slot);
+	}
+	/**
+	 * Unlinks slot and releases it. A slot with two children is replaced by its successor, which is moved into its
+	 * place rather than copied, so that the other slots keep their values
+	 */
+	void remove(int z) {
+		int y = z, x;
+		boolean yRed = isRed(y);
+		if(left[z] == NIL) {
+			x = right[z];
+			transplant(z, right[z]);
+		} else if(right[z] == NIL) {
+			x = left[z];
+			transplant(z, left[z]);
+		} else {
+			y = minimum(right[z]);
+			yRed = isRed(y);
+			x = right[y];
+			if(parent[y] == z)
+				parent[x] = y;
+			else {
+				transplant(y, right[y]);
+				right[y] = right[z];
+				parent[right[y]] = y;
+			}
+			transplant(z, y);
+			left[y] = left[z];
+			parent[left[y]] = y;
+			setRed(y, isRed(z));
+		}
+		if(!yRed)
+			deleteFixup(x);
+		parent[NIL] = NIL;
+		setRed(z, false);
+		right[z] = freeSlot;
+		freeSlot = z;
+	}
+	void clear() {
+		Arrays.fill(red, 0);
+		root = NIL;
+		slots = 1;
+		freeSlot = NIL;
+	}
+	/**
+	 * @return slot of the leftmost node below slot or the sentinel if slot is the sentinel
+	 */
+	int minimum(int slot) {
+		if(slot != NIL)
+			while(left[slot] != NIL)
+				slot = left[slot];
+		return slot;
+	}
+	/**
+	 * @return slot of the rightmost node below slot or the sentinel if slot is the sentinel
+	 */
+	int maximum(int slot) {
+		if(slot != NIL)
+			while(right[slot] != NIL)
+				slot = right[slot];
+		return slot;
+	}
+	/**
+	 * @return slot of the next node in order or the sentinel if slot is the last
+	 */
+	int successor(int slot) {
+		if(right[slot] != NIL)
+			return minimum(right[slot]);
+		while(parent[slot] != NIL && right[parent[slot]] == slot)
+			slot = parent[slot];
+		return parent[slot];
+	}
+	/**
+	 * @return slot of the previous node in order or the sentinel if slot is the first
+	 */
+	int predecessor(int slot) {
+		if(left[slot] != NIL)
+			return maximum(left[slot]);
+		while(parent[slot] != NIL && left[parent[slot]] == slot)
+			slot = parent[slot];
+		return parent[slot];
+	}
+	/**
+	 * @return slot which follows slot in pre order, found by climbing back up through the parent links, or the
+	 * sentinel if slot is the last
+	 */
+	int nextInPreOrder(int slot) {
+		if(left[slot] != NIL)
+			return left[slot];
+		else if(right[slot] != NIL)
+			return right[slot];
+		while(slot != NIL && (right[parent[slot]] == slot || right[parent[slot]] == NIL))
+			slot = parent[slot];
+		return slot != NIL ? right[parent[slot]] : NIL;
+	}
+	/**
+	 * @return number of levels in the tree, counted by a walk which climbs back up through the parent links
+	 */
+	int height() {
+		int height = 0;
+		for(int slot = root, level = 1; slot != NIL; ) {
+			height = Math.max(height, level);
+			if(left[slot] != NIL) {
+				slot = left[slot];
+				level++;
+			} else if(right[slot] != NIL) {
+				slot = right[slot];
+				level++;
+			} else {
+				while(slot != NIL && (right[parent[slot]] == slot || right[parent[slot]] == NIL)) {
+					slot = parent[slot];
+					level--;
+				}
+				slot = slot != NIL ? right[parent[slot]] : NIL;
+			}
+		}
+		return height;
+	}
+	/**
+	 * Moves the nodes to the front of the arrays in level order, so that released slots are no longer kept
+	 * @return slots the nodes were at before, indexed by their new slot
+	 */
+	int[] compact() {
+		int[] order = new int[slots];
+		int[] newSlot = new int[slots];
+		int tail = 1;
+		if(root != NIL)
+			order[tail++] = root;
+		for(int head = 1; head < tail; head++) {
+			int slot = order[head];
+			newSlot[slot] = head;
+			if(left[slot] != NIL)
+				order[tail++] = left[slot];
+			if(right[slot] != NIL)
+				order[tail++] = right[slot];
+		}
+		int[] compactLeft = new int[left.length];
+		int[] compactRight = new int[right.length];
+		int[] compactParent = new int[parent.length];
+		long[] compactRed = new long[red.length];
+		for(int i = 1; i < tail; i++) {
+			int slot = order[i];
+			compactLeft[i] = newSlot[left[slot]];
+			compactRight[i] = newSlot[right[slot]];
+			compactParent[i] = newSlot[parent[slot]];
+			if(isRed(slot))
+				compactRed[i >>> 6] |= 1L << i;
+		}
+		left = compactLeft;
+		right = compactRight;
+		parent = compactParent;
+		red = compactRed;
+		root = tail > 1 ? 1 : NIL;
+		slots = tail;
+		freeSlot = NIL;
+		return order;
+	}
+	/**
+	 * Trims the capacity of the arrays to the slots in use, released ones included
+	 */
+	void trimToSize() {
+		left = Arrays.copyOf(left, slots);
+		right = Arrays.copyOf(right, slots);
+		parent = Arrays.copyOf(parent, slots);
+		red = Arrays.copyOf(red, (slots + 63) >>> 6);
+	}
+	void ensureCapacity(int capacity) {
+		if(capacity > left.length) {
+			int newCapacity = Math.max(capacity, left.length + (left.length >> 1) + 1);
+			left = Arrays.copyOf(left, newCapacity);
+			right = Arrays.copyOf(right, newCapacity);
+			parent = Arrays.copyOf(parent, newCapacity);
+			if((newCapacity + 63) >>> 6 > red.length)
+				red = Arrays.copyOf(red, (newCapacity + 63) >>> 6);
+		}
+	}
+	@Override
+	public RedBlackLinks clone() {
+		try {
+			RedBlackLinks v = (RedBlackLinks) super.clone();
+			v.left = Arrays.copyOf(left, slots);
+			v.right = Arrays.copyOf(right, slots);
+			v.parent = Arrays.copyOf(parent, slots);
+			v.red = Arrays.copyOf(red, (slots + 63) >>> 6);
+			return v;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);//This should't happen because we are cloneable
+		}
+	}
+	private void insertFixup(int z) {
+		while(isRed(parent[z])) {
+			int zp = parent[z], zpp = parent[zp];
+			if(zp == left[zpp]) {
+				int y = right[zpp];
+				if(isRed(y)) {
+					setRed(zp, false);
+					setRed(y, false);
+					setRed(zpp, true);
+					z = zpp;
+				} else {
+					if(z == right[zp]) {
+						z = zp;
+						rotateLeft(z);
+						zp = parent[z];
+					}
+					setRed(zp, false);
+					setRed(zpp, true);
+					rotateRight(zpp);
+				}
+			} else {
+				int y = left[zpp];
+				if(isRed(y)) {
+					setRed(zp, false);
+					setRed(y, false);
+					setRed(zpp, true);
+					z = zpp;
+				} else {
+					if(z == left[zp]) {
+						z = zp;
+						rotateRight(z);
+						zp = parent[z];
+					}
+					setRed(zp, false);
+					setRed(zpp, true);
+					rotateLeft(zpp);
+				}
+			}
+		}
+		setRed(root, false);
+	}
+	private void deleteFixup(int x) {
+		while(x != root && !isRed(x)) {
+			int xp = parent[x];
+			if(x == left[xp]) {
+				int w = right[xp];
+				if(isRed(w)) {
+					setRed(w, false);
+					setRed(xp, true);
+					rotateLeft(xp);
+					w = right[xp];
+				}
+				if(!isRed(left[w]) && !isRed(right[w])) {
+					setRed(w, true);
+					x = xp;
+				} else {
+					if(!isRed(right[w])) {
+						setRed(left[w], false);
+						setRed(w, true);
+						rotateRight(w);
+						w = right[xp];
+					}
+					setRed(w, isRed(xp));
+					setRed(xp, false);
+					setRed(right[w], false);
+					rotateLeft(xp);
+					x = root;
+				}
+			} else {
+				int w = left[xp];
+				if(isRed(w)) {
+					setRed(w, false);
+					setRed(xp, true);
+					rotateRight(xp);
+					w = left[xp];
+				}
+				if(!isRed(right[w]) && !isRed(left[w])) {
+					setRed(w, true);
+					x = xp;
+				} else {
+					if(!isRed(left[w])) {
+						setRed(right[w], false);
+						setRed(w, true);
+						rotateLeft(w);
+						w = left[xp];
+					}
+					setRed(w, isRed(xp));
+					setRed(xp, false);
+					setRed(left[w], false);
+					rotateRight(xp);
+					x = root;
+				}
+			}
+		}
+		setRed(x, false);
+	}
+	//http://upload.wikimedia.org/wikipedia/commons/2/23/Tree_rotation.png
+	private void rotateLeft(int x) {
+		int y = right[x];
+		right[x] = left[y];
+		if(left[y] != NIL)
+			parent[left[y]] = x;
+		transplant(x, y);
+		left[y] = x;
+		parent[x] = y;
+	}
+	//http://upload.wikimedia.org/wikipedia/commons/2/23/Tree_rotation.png
+	private void rotateRight(int x) {
+		int y = left[x];
+		left[x] = right[y];
+		if(right[y] != NIL)
+			parent[right[y]] = x;
+		transplant(x, y);
+		right[y] = x;
+		parent[x] = y;
+	}
+	/**
+	 * Puts v at the place of u under the parent of u. v may be the sentinel, whose parent is then set for deleteFixup
+	 */
+	private void transplant(int u, int v) {
+		int p = parent[u];
+		if(p == NIL)
+			root = v;
+		else if(u == left[p])
+			left[p] = v;
+		else
+			right[p] = v;
+		parent[v] = p;
+	}
+	private boolean isRed(int slot) {
+		return (red[slot >>> 6] & (1L << slot)) != 0;
+	}
+	private void setRed(int slot, boolean isRed) {
+		if(isRed)
+			red[slot >>> 6] |= 1L << slot;
+		else
+			red[slot >>> 6] &= ~(1L << slot);
+	}
+}
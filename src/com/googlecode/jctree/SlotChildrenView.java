@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Unmodifiable live view of the children of a node for trees whose nodes are kept in slots of arrays. As in
+ * {@link SlotCursor} the view remembers the slot and the element of the parent, and looks the parent up again only
+ * if the slot no longer holds it. Iteration follows the children of the slot one after the other, whereas get walks
+ * to the position it is asked for. The view is empty once the parent is no longer present in the tree.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+abstract class SlotChildrenView<E> extends AbstractList<E> {
+	private final E parent;
+	private int slot;
+
+	SlotChildrenView(int slot, E parent) {
+		this.slot = slot;
+		this.parent = parent;
+	}
+	/**
+	 * @return slot of element or -1 if it is not present
+	 */
+	abstract int slotOf(E element);
+	/**
+	 * @return element present at slot or null if the slot is not in use
+	 */
+	abstract E element(int slot);
+	abstract int childCount(int slot);
+	/**
+	 * @return slot of the child of slot at position index or -1 if there is none
+	 */
+	abstract int childAt(int slot, int index);
+	/**
+	 * @return cursor at the first child of slot or -1 if there are no children
+	 */
+	abstract int firstChild(int slot);
+	/**
+	 * @return cursor at the child of slot which follows cursor or -1 if there is none
+	 */
+	abstract int nextChild(int slot, int cursor);
+	/**
+	 * @return slot of the child of slot at cursor
+	 */
+	abstract int child(int slot, int cursor);
+
+	@Override
+	public E get(int index) {
+		int parentSlot = slot();
+		int child = parentSlot > -1 && index > -1 ? childAt(parentSlot, index) : -1;
+		if(child > -1)
+			return element(child);
+		else
+			throw new IndexOutOfBoundsException("index found to be " + index + ".It should be between 0 and " + (size() - 1));
+	}
+	@Override
+	public int size() {
+		int parentSlot = slot();
+		return parentSlot > -1 ? childCount(parentSlot) : 0;
+	}
+	@Override
+	public Iterator<E> iterator() {
+		final int parentSlot = slot();
+		return new Iterator<E>() {
+			private int cursor = parentSlot > -1 ? firstChild(parentSlot) : -1;
+			@Override
+			public boolean hasNext() {
+				return cursor > -1;
+			}
+			@Override
+			public E next() {
+				if(cursor < 0)
+					throw new NoSuchElementException();
+				E child = element(child(parentSlot, cursor));
+				cursor = nextChild(parentSlot, cursor);
+				return child;
+			}
+		};
+	}
+	@Override
+	public void forEach(Consumer<? super E> action) {
+		int parentSlot = slot();
+		if(parentSlot > -1)
+			for(int cursor = firstChild(parentSlot); cursor > -1; cursor = nextChild(parentSlot, cursor))
+				action.accept(element(child(parentSlot, cursor)));
+	}
+	/**
+	 * @return slot of the parent, or -1 if it was removed from the tree
+	 */
+	private int slot() {
+		E current = slot > -1 ? element(slot) : null;
+		if(current != parent && (current == null || !current.equals(parent)))
+			slot = slotOf(parent);
+		return slot;
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+/**
+ * {@link TreeCursor} for trees whose nodes are kept in slots of arrays. Besides its slot the cursor 
+ * remembers the element it is at, so that a removed node is detected even after its slot has been handed out again.
+ * Elements are compared by identity first and by equals only if the element of the slot was replaced.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+abstract class SlotCursor<E> implements TreeCursor<E>, Cloneable {
+	private int slot;
+	private E element;
+
+	SlotCursor(int slot, E element) {
+		this.slot = slot;
+		this.element = element;
+	}
+	/**
+	 * @return parent of slot or -1 if slot is the root
+	 */
+	abstract int parent(int slot);
+	/**
+	 * @return first child of slot or -1 if it has no children
+	 */
+	abstract int firstChild(int slot);
+	/**
+	 * @return child of the parent of slot which follows slot or -1 if there is none
+	 */
+	abstract int nextSibling(int slot);
+	abstract int childCount(int slot);
+	/**
+	 * @return element present at slot or null if the slot is not in use
+	 */
+	abstract E element(int slot);
+	/**
+	 * Adds child as the last child of parentSlot
+	 * @return slot of child or -1 if it was already present
+	 */
+	abstract int add(int parentSlot, E child);
+
+	@Override
+	public E element() {
+		slot();
+		return element;
+	}
+	@Override
+	public boolean parent() {
+		return moveTo(parent(slot()));
+	}
+	@Override
+	public boolean firstChild() {
+		return moveTo(firstChild(slot()));
+	}
+	@Override
+	public boolean nextSibling() {
+		return moveTo(nextSibling(slot()));
+	}
+	@Override
+	public int childCount() {
+		return childCount(slot());
+	}
+	@Override
+	public TreeCursor<E> add(E child) {
+		int childSlot = add(slot(), child);
+		if(childSlot > -1) {
+			SlotCursor<E> cursor = copy();
+			cursor.moveTo(childSlot);
+			return cursor;
+		} else
+			return null;
+	}
+	@Override
+	@SuppressWarnings("unchecked")
+	public SlotCursor<E> copy() {
+		slot();
+		try {
+			return (SlotCursor<E>) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);//This should't happen because we are cloneable
+		}
+	}
+	/**
+	 * @return slot of the cursor after checking that its node is still in the tree
+	 */
+	private int slot() {
+		E current = element(slot);
+		if(current != element) {
+			if(current == null || !current.equals(element))
+				throw new IllegalStateException("Node of the cursor was removed from the tree");
+			element = current;
+		}
+		return slot;
+	}
+	private boolean moveTo(int target) {
+		if(target > -1) {
+			slot = target;
+			element = element(target);
+			return true;
+		} else
+			return false;
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.Arrays;
+
+/**
+ * {@link TraversalIterator} for trees whose nodes are identified by int slots. Frames and the level order 
+ * queue are kept in int arrays. Children of a slot are reached through cursors which are defined by the 
+ * sub-classes, -1 meaning there are no more children.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+abstract class SlotTraversalIterator<E> extends TraversalIterator<E> {
+	private int[] slots;
+	private int[] cursors;
+	private int[] steps;
+	private int top = -1;
+	private int head = 0, tail = 0;
+
+	/**
+	 * @param rootSlot slot of the root or -1 if the tree is empty
+	 */
+	SlotTraversalIterator(Order order, int rootSlot) {
+		super(order);
+		slots = new int[16];
+		if(order != Order.LEVEL) {
+			cursors = new int[16];
+			steps = new int[16];
+		}
+		if(rootSlot > -1) {
+			if(order == Order.LEVEL)
+				slots[tail++] = rootSlot;
+			else
+				push(rootSlot);
+		}
+	}
+	abstract E element(int slot);
+	/**
+	 * @return cursor of the first child of slot or -1 if it has no children
+	 */
+	abstract int firstChild(int slot);
+	/**
+	 * @return cursor of the child of slot which comes after the one at cursor or -1 if there is none
+	 */
+	abstract int nextChild(int slot, int cursor);
+	/**
+	 * @return slot of the child of slot at cursor
+	 */
+	abstract int child(int slot, int cursor);
+	abstract int childrenBefore(int slot);
+
+	private void push(int slot) {
+		if(++top == slots.length) {
+			slots = Arrays.copyOf(slots, top * 2);
+			cursors = Arrays.copyOf(cursors, top * 2);
+			steps = Arrays.copyOf(steps, top * 2);
+		}
+		slots[top] = slot;
+		cursors[top] = firstChild(slot);
+		steps[top] = 0;
+	}
+	@Override
+	boolean isStackEmpty() {
+		return top < 0;
+	}
+	@Override
+	E element() {
+		return element(slots[top]);
+	}
+	@Override
+	int nextStep() {
+		return steps[top]++;
+	}
+	@Override
+	int childrenBefore() {
+		return childrenBefore(slots[top]);
+	}
+	@Override
+	boolean pushNextChild() {
+		int slot = slots[top];
+		int cursor = cursors[top];
+		if(cursor < 0)
+			return false;
+		cursors[top] = nextChild(slot, cursor);
+		push(child(slot, cursor));
+		return true;
+	}
+	@Override
+	void pop() {
+		top--;
+	}
+	/**
+	 * The queue is a ring over slots whose length is always a power of two
+	 */
+	@Override
+	E poll() {
+		if(head == tail)
+			return null;
+		int slot = slots[head];
+		head = (head + 1) & (slots.length - 1);
+		for(int cursor = firstChild(slot); cursor > -1; cursor = nextChild(slot, cursor))
+			enqueue(child(slot, cursor));
+		return element(slot);
+	}
+	private void enqueue(int slot) {
+		slots[tail] = slot;
+		tail = (tail + 1) & (slots.length - 1);
+		if(tail == head) {
+			int[] queue = new int[slots.length * 2];
+			int length = slots.length - head;
+			System.arraycopy(slots, head, queue, 0, length);
+			System.arraycopy(slots, 0, queue, length, head);
+			head = 0;
+			tail = slots.length;
+			slots = queue;
+		}
+	}
+}
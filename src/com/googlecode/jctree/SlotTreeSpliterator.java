@@ -0,0 +1,163 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * {@link TreeSpliterator} for trees whose nodes are identified by int slots. Pending sub-trees and the children of
+ * the slot being opened are kept in int arrays, so that no slot is boxed while traversing.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+abstract class SlotTreeSpliterator<E> implements Spliterator<E>, Cloneable {
+	private int[] slots = new int[16];
+	private boolean[] isOpened = new boolean[16];
+	private int top = -1;
+	private long estimatedSize;
+	private int characteristics;
+	private int[] children = new int[8];
+
+	/**
+	 * @param rootSlot slot of the root or -1 if the tree is empty
+	 * @param size number of nodes in the tree
+	 * @param characteristics characteristics in addition to SIZED, DISTINCT, ORDERED and NONNULL
+	 */
+	SlotTreeSpliterator(int rootSlot, long size, int characteristics) {
+		if(rootSlot > -1)
+			push(rootSlot, false);
+		this.estimatedSize = size;
+		this.characteristics = characteristics | SIZED | DISTINCT | ORDERED | NONNULL;
+	}
+	abstract E element(int slot);
+	/**
+	 * @return cursor of the first child of slot or -1 if it has no children
+	 */
+	abstract int firstChild(int slot);
+	/**
+	 * @return cursor of the child of slot which comes after the one at cursor or -1 if there is none
+	 */
+	abstract int nextChild(int slot, int cursor);
+	/**
+	 * @return slot of the child of slot at cursor
+	 */
+	abstract int child(int slot, int cursor);
+	/**
+	 * @return number of children which come before slot in order
+	 */
+	abstract int childrenBefore(int slot);
+
+	@Override
+	public boolean tryAdvance(Consumer<? super E> action) {
+		int slot = next();
+		if(slot < 0)
+			return false;
+		action.accept(element(slot));
+		return true;
+	}
+	@Override
+	public void forEachRemaining(Consumer<? super E> action) {
+		for(int slot = next(); slot > -1; slot = next())
+			action.accept(element(slot));
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public Spliterator<E> trySplit() {
+		if(top == 0 && !isOpened[0])
+			open(pop());
+		if(top < 1)
+			return null;
+		int half = (top + 1) / 2;
+		SlotTreeSpliterator<E> prefix;
+		try {
+			prefix = (SlotTreeSpliterator<E>) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);//This should't happen because we are cloneable
+		}
+		int from = top + 1 - half;
+		prefix.slots = Arrays.copyOfRange(slots, from, from + Math.max(half, 16));
+		prefix.isOpened = Arrays.copyOfRange(isOpened, from, from + Math.max(half, 16));
+		prefix.top = half - 1;
+		prefix.children = new int[8];
+		top = from - 1;
+		prefix.estimatedSize = estimatedSize / 2;
+		estimatedSize -= prefix.estimatedSize;
+		characteristics &= ~SIZED;
+		prefix.characteristics = characteristics;
+		return prefix;
+	}
+	@Override
+	public long estimateSize() {
+		return estimatedSize;
+	}
+	@Override
+	public int characteristics() {
+		return characteristics;
+	}
+	@Override
+	public Comparator<? super E> getComparator() {
+		if(hasCharacteristics(SORTED))
+			return null;
+		else
+			throw new IllegalStateException();
+	}
+	/**
+	 * @return next slot in order or -1 if the traversal is over
+	 */
+	private int next() {
+		while(top > -1) {
+			boolean isSlotOpened = isOpened[top];
+			int slot = pop();
+			if(isSlotOpened) {
+				if(estimatedSize > 0)
+					estimatedSize--;
+				return slot;
+			} else
+				open(slot);
+		}
+		return -1;
+	}
+	/**
+	 * Replaces the sub-tree rooted at slot by its children and slot itself, in order
+	 */
+	private void open(int slot) {
+		int count = 0;
+		for(int cursor = firstChild(slot); cursor > -1; cursor = nextChild(slot, cursor)) {
+			if(count == children.length)
+				children = Arrays.copyOf(children, count * 2);
+			children[count++] = child(slot, cursor);
+		}
+		int before = childrenBefore(slot);
+		for(int i = count - 1; i >= before; i--)
+			push(children[i], false);
+		push(slot, true);
+		for(int i = before - 1; i >= 0; i--)
+			push(children[i], false);
+	}
+	private void push(int slot, boolean isSlotOpened) {
+		if(++top == slots.length) {
+			slots = Arrays.copyOf(slots, top * 2);
+			isOpened = Arrays.copyOf(isOpened, top * 2);
+		}
+		slots[top] = slot;
+		isOpened[top] = isSlotOpened;
+	}
+	private int pop() {
+		return slots[top--];
+	}
+}
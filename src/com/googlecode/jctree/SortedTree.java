@@ -13,15 +13,98 @@
  */
 package com.googlecode.jctree;
 
+import java.util.Iterator;
+import java.util.SortedSet;
+
 /**
  * Trees of this type keep nodes sorted e.g. BST etc.
+ * <br>
+ * Default methods walk {@link #inOrderIterator()}, which returns the nodes of a sorted tree in sorted order, and
+ * hence take linear time. The bundled trees override them with searches of the tree.
  * @author Gaurav Saxena
  * @param <E>
  */
 public interface SortedTree<E extends Comparable<E>> extends Tree<E> {
 
+	/**
+	 * @return the next node in sorted order or null if node is the greatest
+	 * @throws NodeNotFoundException if node is not present in the tree
+	 */
 	E successor(E node) throws NodeNotFoundException;
 
+	/**
+	 * @return the previous node in sorted order or null if node is the smallest
+	 * @throws NodeNotFoundException if node is not present in the tree
+	 */
 	E predecessor(E node) throws NodeNotFoundException;
 
+	/**
+	 * @param value need not be present in the tree
+	 * @return the greatest node less than or equal to value, or null if there is none
+	 */
+	default E floor(E value) {
+		return new TreeHelper().highestBelow(inOrderIterator(), value, true);
+	}
+
+	/**
+	 * @param value need not be present in the tree
+	 * @return the smallest node greater than or equal to value, or null if there is none
+	 */
+	default E ceiling(E value) {
+		return new TreeHelper().lowestAbove(inOrderIterator(), value, true);
+	}
+
+	/**
+	 * @param value need not be present in the tree
+	 * @return the smallest node strictly greater than value, or null if there is none
+	 */
+	default E higher(E value) {
+		return new TreeHelper().lowestAbove(inOrderIterator(), value, false);
+	}
+
+	/**
+	 * @param value need not be present in the tree
+	 * @return the greatest node strictly less than value, or null if there is none
+	 */
+	default E lower(E value) {
+		return new TreeHelper().highestBelow(inOrderIterator(), value, false);
+	}
+
+	/**
+	 * @return read only view of the nodes from fromElement, inclusive, to toElement, exclusive. The view reads the
+	 * tree lazily and reflects later changes
+	 * @throws IllegalArgumentException if fromElement is greater than toElement
+	 */
+	default SortedSet<E> subTree(E fromElement, E toElement) {
+		if(fromElement == null || toElement == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+		return new TreeHelper().sortedView(this, fromElement, toElement);
+	}
+
+	/**
+	 * @return read only view of the nodes less than toElement. See {@link #subTree(Comparable, Comparable)}
+	 */
+	default SortedSet<E> headTree(E toElement) {
+		if(toElement == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+		return new TreeHelper().sortedView(this, null, toElement);
+	}
+
+	/**
+	 * @return read only view of the nodes greater than or equal to fromElement. See 
+	 * {@link #subTree(Comparable, Comparable)}
+	 */
+	default SortedSet<E> tailTree(E fromElement) {
+		if(fromElement == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+		return new TreeHelper().sortedView(this, fromElement, null);
+	}
+
+	/**
+	 * @return iterator over the nodes in descending sorted order
+	 */
+	default Iterator<E> descendingIterator() {
+		return new TreeHelper().descendingIterator(inOrderTraversal());
+	}
+
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+/**
+ * Read only view of the elements of a sorted tree which lie between two bounds. The view doesn't copy anything, 
+ * every call reads the tree, so changes to the tree show up in the view. Iteration searches for the first 
+ * element in range once and then steps from node to node in order, so that walking k elements costs 
+ * O(log n + k) on a balanced tree. Size is counted by walking the view.
+ * <br>
+ * Behavior of an iterator is undefined if the tree is structurally modified while it is in use.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ * @param <N> node type of the tree
+ */
+abstract class SortedTreeView<E extends Comparable<E>, N> extends AbstractSet<E> implements SortedSet<E> {
+	/** Lowest element of the view, inclusive, or null if there is no lower bound */
+	final E from;
+	/** Element above the view, exclusive, or null if there is no upper bound */
+	final E to;
+
+	SortedTreeView(E from, E to) {
+		if(from != null && to != null && from.compareTo(to) > 0)
+			throw new IllegalArgumentException("from is greater than to");
+		this.from = from;
+		this.to = to;
+	}
+	/**
+	 * @return node of the smallest element greater than or equal to value, the first node if value is null or 
+	 * null if there is no such node
+	 */
+	abstract N ceilingNode(E value);
+	/**
+	 * @return node of the greatest element less than value, the last node if value is null or null if there is
+	 * no such node
+	 */
+	abstract N lowerNode(E value);
+	/**
+	 * @return next node in order or null if node is the last
+	 */
+	abstract N successor(N node);
+	/**
+	 * @return previous node in order or null if node is the first
+	 */
+	abstract N predecessor(N node);
+	abstract E element(N node);
+	/**
+	 * @return view of the same tree with the given bounds
+	 */
+	abstract SortedTreeView<E, N> view(E from, E to);
+
+	@Override
+	public Iterator<E> iterator() {
+		return new ViewIterator(ceilingNode(from), false);
+	}
+	/**
+	 * @return iterator over the elements of the view in descending order
+	 */
+	public Iterator<E> descendingIterator() {
+		return new ViewIterator(lowerNode(to), true);
+	}
+	@Override
+	public int size() {
+		int size = 0;
+		for(Iterator<E> i = iterator(); i.hasNext(); i.next())
+			size++;
+		return size;
+	}
+	@Override
+	public boolean isEmpty() {
+		return !iterator().hasNext();
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean contains(Object o) {
+		if(o == null || !inRange((E) o))
+			return false;
+		N node = ceilingNode((E) o);
+		return node != null && element(node).compareTo((E) o) == 0;
+	}
+	/**
+	 * @return null as elements are kept in their natural order
+	 */
+	@Override
+	public Comparator<? super E> comparator() {
+		return null;
+	}
+	@Override
+	public E first() {
+		Iterator<E> i = iterator();
+		if(i.hasNext())
+			return i.next();
+		else
+			throw new NoSuchElementException();
+	}
+	@Override
+	public E last() {
+		Iterator<E> i = descendingIterator();
+		if(i.hasNext())
+			return i.next();
+		else
+			throw new NoSuchElementException();
+	}
+	@Override
+	public SortedSet<E> subSet(E fromElement, E toElement) {
+		checkBound(fromElement);
+		checkBound(toElement);
+		return view(fromElement, toElement);
+	}
+	@Override
+	public SortedSet<E> headSet(E toElement) {
+		checkBound(toElement);
+		return view(from, toElement);
+	}
+	@Override
+	public SortedSet<E> tailSet(E fromElement) {
+		checkBound(fromElement);
+		return view(fromElement, to);
+	}
+	private boolean inRange(E value) {
+		return (from == null || value.compareTo(from) >= 0) && (to == null || value.compareTo(to) < 0);
+	}
+	private void checkBound(E value) {
+		if(value == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+		if((from != null && value.compareTo(from) < 0) || (to != null && value.compareTo(to) > 0))
+			throw new IllegalArgumentException("bound is outside the range of the view");
+	}
+	private class ViewIterator implements Iterator<E> {
+		private N next;
+		private final boolean isDescending;
+
+		ViewIterator(N first, boolean isDescending) {
+			this.isDescending = isDescending;
+			next = first != null && inRange(element(first)) ? first : null;
+		}
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+		@Override
+		public E next() {
+			if(next == null)
+				throw new NoSuchElementException();
+			E element = element(next);
+			next = isDescending ? predecessor(next) : successor(next);
+			if(next != null && !inRange(element(next)))
+				next = null;
+			return element;
+		}
+	}
+}
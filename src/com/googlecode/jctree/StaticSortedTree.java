@@ -0,0 +1,584 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Immutable sorted tree for keys which are put together once and then only searched, made by 
+ * {@link Trees#staticSortedTree(SortedTree)} or {@link Trees#staticSortedTree(Comparable[])}. Keys are kept in 
+ * one array in level order of a complete binary search tree, which is known as the Eytzinger layout: the root is 
+ * at slot 1 and the children of slot k are at slots 2k and 2k + 1. No links are kept, parent, children, left and 
+ * right are found by index arithmetic.
+ * <br>
+ * A search always descends to the bottom of the tree and the comparison at every level only picks the next slot,
+ * so there is no early exit to predict. The top levels share a few cache lines and the sixteen slots four levels 
+ * below slot k lie together at 16k to 16k + 15, so a descent reads memory in an order which the hardware can 
+ * fetch ahead of time, unlike the scattered nodes of {@link BinaryRedBlackTree}. The slot found is read from the 
+ * bits of the slot where the descent ends, as its trailing ones or zeros record the last turns of the search.
+ * <br>
+ * Nothing is written after construction, so the tree can be shared between threads without locking. Methods which
+ * modify the tree throw {@link UnsupportedOperationException}.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public final class StaticSortedTree<E extends Comparable<E>> implements SortedTree<E> {
+	/** Keys in level order starting at slot 1. Slot 0 is not used, so that it can stand for no slot */
+	private final Object[] keys;
+	private final int size;
+
+	/**
+	 * @param sorted keys in strictly ascending order. The array is copied
+	 * @throws IllegalArgumentException if sorted has a null or is not in strictly ascending order
+	 */
+	@SuppressWarnings("unchecked")
+	StaticSortedTree(Object[] sorted) {
+		for(int i = 0; i < sorted.length; i++) {
+			if(sorted[i] == null)
+				throw new IllegalArgumentException("null nodes are not allowed");
+			if(i > 0 && ((E) sorted[i - 1]).compareTo((E) sorted[i]) >= 0)
+				throw new IllegalArgumentException("Keys should be in strictly ascending order");
+		}
+		size = sorted.length;
+		keys = new Object[size + 1];
+		fill(sorted, 0, 1);
+	}
+	/**
+	 * Puts the sorted keys from position on into the sub-tree under slot in order. Recursion is only as deep as 
+	 * the tree, which is O(log n)
+	 * @return position of the first key which is not used
+	 */
+	private int fill(Object[] sorted, int position, int slot) {
+		if(slot > size)
+			return position;
+		position = fill(sorted, position, 2 * slot);
+		keys[slot] = sorted[position++];
+		return fill(sorted, position, 2 * slot + 1);
+	}
+	@SuppressWarnings("unchecked")
+	private E key(int slot) {
+		return (E) keys[slot];
+	}
+	private E valueOf(int slot) {
+		return slot > 0 ? key(slot) : null;
+	}
+	/**
+	 * @return slot of the smallest key greater than value, or equal to it if inclusive is true. 0 if there is none
+	 */
+	private int lowestAbove(E value, boolean inclusive) {
+		int bound = inclusive ? 0 : 1;
+		int slot = 1;
+		while(slot <= size)
+			slot = 2 * slot + (key(slot).compareTo(value) < bound ? 1 : 0);
+		return slot >> (Integer.numberOfTrailingZeros(~slot) + 1);
+	}
+	/**
+	 * @return slot of the greatest key less than value, or equal to it if inclusive is true. 0 if there is none
+	 */
+	private int highestBelow(E value, boolean inclusive) {
+		int bound = inclusive ? 0 : -1;
+		int slot = 1;
+		while(slot <= size)
+			slot = 2 * slot + (key(slot).compareTo(value) > bound ? 0 : 1);
+		return slot >> (Integer.numberOfTrailingZeros(slot) + 1);
+	}
+	/**
+	 * @return slot of value or 0 if it is not present
+	 */
+	private int slotOf(E value) {
+		int slot = lowestAbove(value, true);
+		return slot > 0 && key(slot).compareTo(value) == 0 ? slot : 0;
+	}
+	private int indexOf(E node) throws NodeNotFoundException {
+		checkNode(node);
+		int slot = slotOf(node);
+		if(slot > 0)
+			return slot;
+		else
+			throw new NodeNotFoundException("No node was found for object");
+	}
+	private boolean hasLeft(int slot) {
+		return slot <= size >> 1;
+	}
+	private boolean hasRight(int slot) {
+		return slot <= (size - 1) >> 1;
+	}
+	/**
+	 * @return number of edges from the root down to slot
+	 */
+	private int level(int slot) {
+		return 31 - Integer.numberOfLeadingZeros(slot);
+	}
+	/**
+	 * @return slot of the left most node under slot or 0 if slot is 0
+	 */
+	private int minimum(int slot) {
+		if(slot > 0)
+			while(hasLeft(slot))
+				slot = 2 * slot;
+		return slot;
+	}
+	/**
+	 * @return slot of the right most node under slot or 0 if slot is 0
+	 */
+	private int maximum(int slot) {
+		if(slot > 0)
+			while(hasRight(slot))
+				slot = 2 * slot + 1;
+		return slot;
+	}
+	/**
+	 * @return slot of the next key in order or 0 if slot is the last. Without a right child it climbs past the 
+	 * ancestors of which it is in the right sub-tree, which are the trailing ones of slot
+	 */
+	private int successorSlot(int slot) {
+		if(hasRight(slot))
+			return minimum(2 * slot + 1);
+		else
+			return slot >> (Integer.numberOfTrailingZeros(~slot) + 1);
+	}
+	/**
+	 * @return slot of the previous key in order or 0 if slot is the first
+	 */
+	private int predecessorSlot(int slot) {
+		if(hasLeft(slot))
+			return maximum(2 * slot);
+		else
+			return slot >> (Integer.numberOfTrailingZeros(slot) + 1);
+	}
+	private int childCount(int slot) {
+		return (hasLeft(slot) ? 1 : 0) + (hasRight(slot) ? 1 : 0);
+	}
+	/**
+	 * Shifts the deeper slot up to the level of the other one and then drops the bits after the common prefix
+	 */
+	private int commonAncestor(int slot1, int slot2) {
+		int level1 = level(slot1), level2 = level(slot2);
+		if(level1 > level2)
+			slot1 >>= level1 - level2;
+		else
+			slot2 >>= level2 - level1;
+		return slot1 >> (32 - Integer.numberOfLeadingZeros(slot1 ^ slot2));
+	}
+	/**
+	 * @return true if ancestor is above slot on the path from the root
+	 */
+	private boolean isAbove(int ancestor, int slot) {
+		return ancestor > 0 && level(ancestor) < level(slot) && slot >> (level(slot) - level(ancestor)) == ancestor;
+	}
+	@Override
+	public int size() {
+		return size;
+	}
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean contains(Object o) {
+		if(o == null || size == 0)
+			return false;
+		else if(o instanceof Comparable)
+			return slotOf((E) o) > 0;
+		else {
+			for(int slot = 1; slot <= size; slot++)
+				if(o.equals(keys[slot]))
+					return true;
+			return false;
+		}
+	}
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		for(Object i : c)
+			if(!contains(i))
+				return false;
+		return true;
+	}
+	@Override
+	public Iterator<E> iterator() {
+		return inOrderIterator();
+	}
+	@Override
+	public Object[] toArray() {
+		return new TreeHelper().toArray(this);
+	}
+	@Override
+	public <T> T[] toArray(T[] a) {
+		return new TreeHelper().toArray(this, a);
+	}
+	@Override
+	public boolean add(E e) {
+		throw new UnsupportedOperationException("A static sorted tree can not be modified");
+	}
+	@Override
+	public boolean add(E parent, E child) {
+		throw new UnsupportedOperationException("A static sorted tree can not be modified");
+	}
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		throw new UnsupportedOperationException("A static sorted tree can not be modified");
+	}
+	@Override
+	public boolean addAll(E parent, Collection<? extends E> c) {
+		throw new UnsupportedOperationException("A static sorted tree can not be modified");
+	}
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("A static sorted tree can not be modified");
+	}
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException("A static sorted tree can not be modified");
+	}
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException("A static sorted tree can not be modified");
+	}
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("A static sorted tree can not be modified");
+	}
+	@Override
+	public E successor(E node) throws NodeNotFoundException {
+		return valueOf(successorSlot(indexOf(node)));
+	}
+	@Override
+	public E predecessor(E node) throws NodeNotFoundException {
+		return valueOf(predecessorSlot(indexOf(node)));
+	}
+	@Override
+	public E floor(E value) {
+		checkNode(value);
+		return valueOf(highestBelow(value, true));
+	}
+	@Override
+	public E ceiling(E value) {
+		checkNode(value);
+		return valueOf(lowestAbove(value, true));
+	}
+	@Override
+	public E higher(E value) {
+		checkNode(value);
+		return valueOf(lowestAbove(value, false));
+	}
+	@Override
+	public E lower(E value) {
+		checkNode(value);
+		return valueOf(highestBelow(value, false));
+	}
+	@Override
+	public SortedSet<E> subTree(E fromElement, E toElement) {
+		checkNode(fromElement);
+		checkNode(toElement);
+		return new SlotView(fromElement, toElement);
+	}
+	@Override
+	public SortedSet<E> headTree(E toElement) {
+		checkNode(toElement);
+		return new SlotView(null, toElement);
+	}
+	@Override
+	public SortedSet<E> tailTree(E fromElement) {
+		checkNode(fromElement);
+		return new SlotView(fromElement, null);
+	}
+	@Override
+	public Iterator<E> descendingIterator() {
+		return new SlotView(null, null).descendingIterator();
+	}
+	@Override
+	public List<E> children(E e) throws NodeNotFoundException {
+		int slot = indexOf(e);
+		return new SlotList(2 * slot, 2 * slot + childCount(slot));
+	}
+	@Override
+	public int childCount(E parent) throws NodeNotFoundException {
+		return childCount(indexOf(parent));
+	}
+	/**
+	 * A node of a complete tree has a left child whenever it has a right child, so index 0 is the left child and
+	 * index 1 the right child
+	 * @see com.googlecode.jctree.Tree#child(java.lang.Object, int)
+	 */
+	@Override
+	public E child(E parent, int index) throws NodeNotFoundException {
+		int slot = indexOf(parent);
+		if(index < 0)
+			throw new IndexOutOfBoundsException("index found to be " + index + ".It cannot be negative");
+		return index < childCount(slot) ? key(2 * slot + index) : null;
+	}
+	@Override
+	public void forEachChild(E parent, Consumer<? super E> action) throws NodeNotFoundException {
+		int slot = indexOf(parent);
+		for(int i = 2 * slot, end = i + childCount(slot); i < end; i++)
+			action.accept(key(i));
+	}
+	/**
+	 * Same as {@link #children(Comparable)} since the tree never changes
+	 * @see com.googlecode.jctree.Tree#childrenView(java.lang.Object)
+	 */
+	@Override
+	public List<E> childrenView(E parent) throws NodeNotFoundException {
+		return children(parent);
+	}
+	/**
+	 * @param parent
+	 * @return the left child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E left(E parent) throws NodeNotFoundException {
+		int slot = indexOf(parent);
+		return hasLeft(slot) ? key(2 * slot) : null;
+	}
+	/**
+	 * @param parent
+	 * @return the right child if present, or null otherwise
+	 * @throws NodeNotFoundException
+	 */
+	public E right(E parent) throws NodeNotFoundException {
+		int slot = indexOf(parent);
+		return hasRight(slot) ? key(2 * slot + 1) : null;
+	}
+	@Override
+	public E parent(E e) throws NodeNotFoundException {
+		return valueOf(indexOf(e) >> 1);
+	}
+	@Override
+	public List<E> siblings(E e) throws NodeNotFoundException {
+		int slot = indexOf(e);
+		List<E> siblings = new ArrayList<E>(1);
+		if(slot > 1 && (slot ^ 1) <= size)
+			siblings.add(key(slot ^ 1));
+		return siblings;
+	}
+	@Override
+	public E commonAncestor(E node1, E node2) throws NodeNotFoundException {
+		return key(commonAncestor(indexOf(node1), indexOf(node2)));
+	}
+	@Override
+	public int distance(E node1, E node2) throws NodeNotFoundException {
+		int slot1 = indexOf(node1);
+		int slot2 = indexOf(node2);
+		return level(slot1) + level(slot2) - 2 * level(commonAncestor(slot1, slot2));
+	}
+	@Override
+	public boolean isAncestor(E node, E child) throws NodeNotFoundException {
+		int childSlot = indexOf(child);
+		return node != null && isAbove(slotOf(node), childSlot);
+	}
+	@Override
+	public boolean isDescendant(E parent, E node) throws NodeNotFoundException {
+		int parentSlot = indexOf(parent);
+		return node != null && isAbove(parentSlot, slotOf(node));
+	}
+	/**
+	 * @return number of levels, which is fixed by the size as the tree is complete
+	 * @see com.googlecode.jctree.Tree#depth()
+	 */
+	@Override
+	public int depth() {
+		return 32 - Integer.numberOfLeadingZeros(size);
+	}
+	@Override
+	public E root() {
+		return valueOf(size > 0 ? 1 : 0);
+	}
+	@Override
+	public List<E> leaves() {
+		return new TreeHelper().toList(new SlotIterator(TraversalIterator.Order.LEAF), (size + 1) / 2);
+	}
+	@Override
+	@Deprecated
+	public List<E> inorderOrderTraversal() {
+		return inOrderTraversal();
+	}
+	@Override
+	public List<E> inOrderTraversal() {
+		return new TreeHelper().toList(inOrderIterator(), size);
+	}
+	/**
+	 * @return read only view of the array of keys, which is in level order
+	 * @see com.googlecode.jctree.Tree#levelOrderTraversal()
+	 */
+	@Override
+	public List<E> levelOrderTraversal() {
+		return new SlotList(1, size + 1);
+	}
+	@Override
+	public List<E> postOrderTraversal() {
+		return new TreeHelper().toList(postOrderIterator(), size);
+	}
+	@Override
+	public List<E> preOrderTraversal() {
+		return new TreeHelper().toList(preOrderIterator(), size);
+	}
+	@Override
+	public Iterator<E> preOrderIterator() {
+		return new SlotIterator(TraversalIterator.Order.PRE);
+	}
+	@Override
+	public Iterator<E> inOrderIterator() {
+		return new SlotIterator(TraversalIterator.Order.IN);
+	}
+	@Override
+	public Iterator<E> postOrderIterator() {
+		return new SlotIterator(TraversalIterator.Order.POST);
+	}
+	@Override
+	public Iterator<E> levelOrderIterator() {
+		return levelOrderTraversal().iterator();
+	}
+	/**
+	 * Spliterator splits at sub-tree boundaries and walks the tree in sorted order
+	 * @see java.util.Collection#spliterator()
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return new SlotTreeSpliterator<E>(size > 0 ? 1 : -1, size, Spliterator.SORTED | Spliterator.IMMUTABLE) {
+			@Override
+			E element(int slot) {
+				return key(slot);
+			}
+			@Override
+			int firstChild(int slot) {
+				return hasLeft(slot) ? 0 : -1;
+			}
+			@Override
+			int nextChild(int slot, int cursor) {
+				return cursor == 0 && hasRight(slot) ? 1 : -1;
+			}
+			@Override
+			int child(int slot, int cursor) {
+				return 2 * slot + cursor;
+			}
+			@Override
+			int childrenBefore(int slot) {
+				return hasLeft(slot) ? 1 : 0;
+			}
+		};
+	}
+	private class SlotIterator extends SlotTraversalIterator<E> {
+		SlotIterator(TraversalIterator.Order order) {
+			super(order, size > 0 ? 1 : -1);
+		}
+		@Override
+		E element(int slot) {
+			return key(slot);
+		}
+		@Override
+		int firstChild(int slot) {
+			return hasLeft(slot) ? 0 : -1;
+		}
+		@Override
+		int nextChild(int slot, int cursor) {
+			return cursor == 0 && hasRight(slot) ? 1 : -1;
+		}
+		@Override
+		int child(int slot, int cursor) {
+			return 2 * slot + cursor;
+		}
+		@Override
+		int childrenBefore(int slot) {
+			return hasLeft(slot) ? 1 : 0;
+		}
+	}
+	private class SlotView extends SortedTreeView<E, Integer> {
+		SlotView(E from, E to) {
+			super(from, to);
+		}
+		@Override
+		Integer ceilingNode(E value) {
+			return slot(value != null ? lowestAbove(value, true) : minimum(size > 0 ? 1 : 0));
+		}
+		@Override
+		Integer lowerNode(E value) {
+			return slot(value != null ? highestBelow(value, false) : maximum(size > 0 ? 1 : 0));
+		}
+		@Override
+		Integer successor(Integer slot) {
+			return slot(successorSlot(slot));
+		}
+		@Override
+		Integer predecessor(Integer slot) {
+			return slot(predecessorSlot(slot));
+		}
+		@Override
+		E element(Integer slot) {
+			return key(slot);
+		}
+		@Override
+		SortedTreeView<E, Integer> view(E from, E to) {
+			return new SlotView(from, to);
+		}
+		private Integer slot(int slot) {
+			return slot > 0 ? slot : null;
+		}
+	}
+	/**
+	 * Read only list of the keys of a range of slots
+	 */
+	private class SlotList extends AbstractList<E> implements RandomAccess {
+		private final int from, to;
+
+		SlotList(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+		@Override
+		public E get(int index) {
+			if(index < 0 || index >= to - from)
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+			return key(from + index);
+		}
+		@Override
+		public int size() {
+			return to - from;
+		}
+	}
+	private void checkNode(Object child) {
+		if(child == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+	}
+	@Override
+	public String toString() {
+		return inOrderTraversal().toString();
+	}
+	@Override
+	public int hashCode() {
+		return new TreeHelper().hashCode(this);
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean equals(Object o) {
+		if(o != null && o instanceof StaticSortedTree) {
+			try {
+				return new TreeHelper().isEqual((StaticSortedTree<E>) o, this, ((StaticSortedTree<E>) o).root(), root());
+			} catch (NodeNotFoundException e) {
+				e.printStackTrace();
+				return false;
+			}
+		} else
+			return false;
+	}
+}
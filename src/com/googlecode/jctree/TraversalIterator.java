@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator which walks a tree lazily in pre, in, post or level order or over its leaves only, from left to 
+ * right. Depth first orders keep only the path 
+ * from the root to the current node on a stack of frames and level order keeps only the nodes waiting in its 
+ * queue. Sub-classes store the frames and know how to move from a node to its children.
+ * <br>
+ * Iterators do not support remove and their behavior is undefined if the tree is structurally modified 
+ * while iterating.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+abstract class TraversalIterator<E> implements Iterator<E> {
+	enum Order {PRE, IN, POST, LEVEL, LEAF}
+	final Order order;
+	private E next;
+	private boolean isNextFetched = false;
+
+	TraversalIterator(Order order) {
+		this.order = order;
+	}
+	@Override
+	public boolean hasNext() {
+		if(!isNextFetched) {
+			next = order == Order.LEVEL ? poll() : advance();
+			isNextFetched = true;
+		}
+		return next != null;
+	}
+	@Override
+	public E next() {
+		if(!hasNext())
+			throw new NoSuchElementException();
+		isNextFetched = false;
+		return next;
+	}
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("Tree iterators do not support remove");
+	}
+	/**
+	 * Every frame is looked at once per step. Pre order publishes its node at the first step, in order publishes
+	 * it after the children which precede it and post order publishes it when it is popped. Any other step 
+	 * pushes the next child of the frame. A frame which can not push any child at its first step is a leaf.
+	 * @return next element in depth first order or null if there are no more elements
+	 */
+	private E advance() {
+		while(!isStackEmpty()) {
+			int step = nextStep();
+			if(order == Order.PRE && step == 0 || order == Order.IN && step == childrenBefore())
+				return element();
+			else if(!pushNextChild()) {
+				E element = element();
+				pop();
+				if(order == Order.POST || order == Order.LEAF && step == 0)
+					return element;
+			}
+		}
+		return null;
+	}
+	abstract boolean isStackEmpty();
+	/**
+	 * @return element of the node on top of the stack
+	 */
+	abstract E element();
+	/**
+	 * @return number of steps already taken by the frame on top of the stack. The count is incremented
+	 */
+	abstract int nextStep();
+	/**
+	 * @return number of children of the node on top of the stack which come before it in in order
+	 */
+	abstract int childrenBefore();
+	/**
+	 * Pushes the next unvisited child of the node on top of the stack
+	 * @return false if all the children have already been pushed
+	 */
+	abstract boolean pushNextChild();
+	abstract void pop();
+	/**
+	 * Takes the next node out of the level order queue and puts its children in the queue
+	 * @return element of the node or null if the queue is empty
+	 */
+	abstract E poll();
+}
@@ -14,6 +14,9 @@
 package com.googlecode.jctree;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * The tree is a general interface for all tree types and their implementations. It extends {@link Collection}
@@ -27,6 +30,11 @@ import java.util.Collection;
  * in the tree are guaranteed to be unique. 
  * <br>
  * Null elements are not allowed in the tree.
+ * <br>
+ * Iterators returned by the bundled trees walk them lazily and do not copy their elements. They do not support 
+ * remove.
+ * Spliterators of the implementations split at sub-tree boundaries, so that parallel streams of the tree work 
+ * on disjoint sub-trees.
  * @author Gaurav Saxena
  *
  * @param <E> object type contained in the tree
@@ -60,6 +68,52 @@ public interface Tree<E> extends Collection<E>{
 	 * @throws NodeNotFoundException if e is not found
 	 */
 	public Collection<E> children(E e) throws NodeNotFoundException;
+	/**
+	 * @param parent parent object
+	 * @return number of children of parent, without creating the collection of children. The default counts
+	 * the collection returned by {@link #children(Object)}
+	 * @throws NodeNotFoundException if parent is not found
+	 */
+	public default int childCount(E parent) throws NodeNotFoundException {
+		return children(parent).size();
+	}
+	/**
+	 * Children are numbered in the order in which {@link #children(Object)} returns them. {@link NumberedTree}s 
+	 * number them by the index at which they were added instead. The default walks {@link #children(Object)}
+	 * @param parent parent object
+	 * @param index index of the child
+	 * @return the child of parent at index or null if there is no child at this index
+	 * @throws NodeNotFoundException if parent is not found
+	 * @throws IndexOutOfBoundsException if index is negative
+	 */
+	public default E child(E parent, int index) throws NodeNotFoundException {
+		if(index < 0)
+			throw new IndexOutOfBoundsException("index found to be " + index + ".It should not be negative");
+		Iterator<E> children = children(parent).iterator();
+		for(int i = 0; i < index && children.hasNext(); i++)
+			children.next();
+		return children.hasNext() ? children.next() : null;
+	}
+	/**
+	 * Performs action for every child of parent in the order of {@link #children(Object)} without creating
+	 * the collection of children. The default iterates over {@link #children(Object)}
+	 * @param parent parent object
+	 * @param action action to be performed for each child
+	 * @throws NodeNotFoundException if parent is not found
+	 */
+	public default void forEachChild(E parent, Consumer<? super E> action) throws NodeNotFoundException {
+		children(parent).forEach(action);
+	}
+	/**
+	 * @param parent parent object
+	 * @return unmodifiable view of the children of parent in the order of {@link #children(Object)}. The view reads
+	 * the tree on every access and hence reflects later changes to it. It is empty once parent is removed
+	 * @throws NodeNotFoundException if parent is not found
+	 */
+	public default List<E> childrenView(E parent) throws NodeNotFoundException {
+		childCount(parent);
+		return new TreeHelper().childrenView(this, parent);
+	}
 	/**
 	 * Finds the common ancestor of node1 and node2
 	 * @param node1
@@ -68,6 +122,23 @@ public interface Tree<E> extends Collection<E>{
 	 * @throws NodeNotFoundException 
 	 */
 	public E commonAncestor(E node1, E node2) throws NodeNotFoundException;
+	/**
+	 * Finds the length of the path between two nodes
+	 * @param node1
+	 * @param node2
+	 * @return number of edges on the path from node1 to node2 through their common ancestor. The default climbs
+	 * from both nodes to the node returned by {@link #commonAncestor(Object, Object)}
+	 * @throws NodeNotFoundException if either node is not found in the tree
+	 */
+	public default int distance(E node1, E node2) throws NodeNotFoundException {
+		E ancestor = commonAncestor(node1, node2);
+		int distance = 0;
+		for(E node = node1; !node.equals(ancestor); node = parent(node))
+			distance++;
+		for(E node = node2; !node.equals(ancestor); node = parent(node))
+			distance++;
+		return distance;
+	}
 	/**
 	 * @return depth of the tree i.e. the length of the path which has maximum number of nodes
 	 */
@@ -128,6 +199,34 @@ public interface Tree<E> extends Collection<E>{
 	 * @return collection of children arranged as preOrderTraversal of underlying tree
 	 */
 	public Collection<E> preOrderTraversal();
+	/**
+	 * @return iterator in the order of {@link #preOrderTraversal()}. The default iterates over that collection, 
+	 * whereas the bundled trees walk the tree lazily
+	 */
+	public default Iterator<E> preOrderIterator() {
+		return preOrderTraversal().iterator();
+	}
+	/**
+	 * @return iterator in the order of {@link #inOrderTraversal()}. The default iterates over that collection, 
+	 * whereas the bundled trees walk the tree lazily
+	 */
+	public default Iterator<E> inOrderIterator() {
+		return inOrderTraversal().iterator();
+	}
+	/**
+	 * @return iterator in the order of {@link #postOrderTraversal()}. The default iterates over that collection, 
+	 * whereas the bundled trees walk the tree lazily
+	 */
+	public default Iterator<E> postOrderIterator() {
+		return postOrderTraversal().iterator();
+	}
+	/**
+	 * @return iterator in the order of {@link #levelOrderTraversal()}. The default iterates over that collection, 
+	 * whereas the bundled trees walk the tree lazily
+	 */
+	public default Iterator<E> levelOrderIterator() {
+		return levelOrderTraversal().iterator();
+	}
 	/**
 	 * @return the root node or null if tree is empty
 	 */
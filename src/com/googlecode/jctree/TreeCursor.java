@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+/**
+ * Handle to a node of a tree which moves between nodes without looking elements up. Methods of {@link Tree} take 
+ * an element and have to find its node on every call, whereas a cursor keeps the node it is at, so that walking a
+ * path costs a link per step. Moves return false and leave the cursor where it is when there is no such node.
+ * <br>
+ * Cursors are obtained from cursor(E) of the implementations which support them. Once the node of a cursor is
+ * removed from the tree, the cursor throws {@link IllegalStateException}.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ */
+public interface TreeCursor<E> {
+	/**
+	 * @return element of the node the cursor is at
+	 */
+	E element();
+	/**
+	 * Moves the cursor to the parent of its node
+	 * @return false if the node is the root
+	 */
+	boolean parent();
+	/**
+	 * Moves the cursor to the first child of its node
+	 * @return false if the node has no children
+	 */
+	boolean firstChild();
+	/**
+	 * Moves the cursor to the next child of the parent of its node
+	 * @return false if the node is the last child or the root
+	 */
+	boolean nextSibling();
+	/**
+	 * @return number of children of the node the cursor is at
+	 */
+	int childCount();
+	/**
+	 * Adds child as the last child of the node the cursor is at. The cursor itself does not move
+	 * @param child object to be added
+	 * @return cursor at the new child or null if child was already present in the tree, in which case it is 
+	 * replaced as by {@link Tree#add(Object, Object)}
+	 * @throws UnsupportedOperationException if the tree can not be modified through a cursor
+	 */
+	TreeCursor<E> add(E child);
+	/**
+	 * @return a new cursor at the same node, which moves independently of this one
+	 */
+	TreeCursor<E> copy();
+}
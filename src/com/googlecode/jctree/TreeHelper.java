@@ -13,27 +13,49 @@
  */
 package com.googlecode.jctree;
 
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.SortedSet;
+import java.util.function.Consumer;
 
 class TreeHelper {
+	/**
+	 * Compares the sub-trees rooted at testNode and thisNode. Pairs of nodes waiting to be compared are kept on
+	 * explicit stacks so that depth of the trees is not limited by the call stack
+	 */
 	public <E, F> boolean isEqual(Tree<E> testTree, Tree<F> thisTree, E testNode, F thisNode) throws NodeNotFoundException {
-		if((thisNode == null && testNode == null))
-			return true;
-		else if(thisNode != null && testNode != null && thisNode.equals(testNode)) {
+		if(thisNode == null || testNode == null)
+			return thisNode == null && testNode == null;
+		ArrayDeque<E> testNodes = new ArrayDeque<E>();
+		ArrayDeque<F> thisNodes = new ArrayDeque<F>();
+		testNodes.push(testNode);
+		thisNodes.push(thisNode);
+		while(!testNodes.isEmpty()) {
+			testNode = testNodes.pop();
+			thisNode = thisNodes.pop();
+			if(!thisNode.equals(testNode))
+				return false;
 			Collection<E> testChildren = testTree.children(testNode);
 			Collection<F> thisChildren = thisTree.children(thisNode);
 			if(testChildren.equals(thisChildren)) {
 				Iterator<E> i = testChildren.iterator();
 				Iterator<F> j = thisChildren.iterator();
-				for(; i.hasNext() && j.hasNext();)
-					if(!isEqual(testTree, thisTree, i.next(), j.next()))
-						return false;
-				return true;
+				for(; i.hasNext() && j.hasNext();) {
+					testNodes.push(i.next());
+					thisNodes.push(j.next());
+				}
 			} else
 				return false;
-		} else
-			return false;
+		}
+		return true;
 	}
 	//node cannot be false for this implementation
 	public <E> boolean isAncestor(Tree<E> tree, E node, E child) throws NodeNotFoundException {
@@ -64,34 +86,224 @@ class TreeHelper {
 		} else
 			throw new NodeNotFoundException("parent node not found in the tree");
 	}
-	public <E> E commonAncestor(Tree<E> tree, E node1, E node2) throws NodeNotFoundException {
-		int height1 = 0;
-		E e1 = node1; 
-		while(e1 != null) {
-			height1++;
-			e1 = tree.parent(e1);
+	/**
+	 * @return list of the elements returned by iterator
+	 */
+	public <E> List<E> toList(Iterator<E> iterator, int size) {
+		List<E> list = new ArrayList<E>(size);
+		while(iterator.hasNext())
+			list.add(iterator.next());
+		return list;
+	}
+	public <E> Object[] toArray(Tree<E> tree) {
+		Object[] array = new Object[tree.size()];
+		int i = 0;
+		for(E e : tree)
+			array[i++] = e;
+		return array;
+	}
+	@SuppressWarnings("unchecked")
+	public <E, T> T[] toArray(Tree<E> tree, T[] a) {
+		int size = tree.size();
+		T[] array = a.length >= size ? a : (T[]) Array.newInstance(a.getClass().getComponentType(), size);
+		int i = 0;
+		for(E e : tree)
+			array[i++] = (T) e;
+		if(array.length > size)
+			array[size] = null;
+		return array;
+	}
+	/**
+	 * @param sorted elements in ascending order
+	 * @return the smallest element greater than value, or equal to it if inclusive is true. null if there is none
+	 */
+	public <E extends Comparable<E>> E lowestAbove(Iterator<E> sorted, E value, boolean inclusive) {
+		if(value == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+		while(sorted.hasNext()) {
+			E element = sorted.next();
+			int comparison = element.compareTo(value);
+			if(comparison > 0 || (comparison == 0 && inclusive))
+				return element;
+		}
+		return null;
+	}
+	/**
+	 * @param sorted elements in ascending order
+	 * @return the greatest element less than value, or equal to it if inclusive is true. null if there is none
+	 */
+	public <E extends Comparable<E>> E highestBelow(Iterator<E> sorted, E value, boolean inclusive) {
+		if(value == null)
+			throw new IllegalArgumentException("null nodes are not allowed");
+		E below = null;
+		while(sorted.hasNext()) {
+			E element = sorted.next();
+			int comparison = element.compareTo(value);
+			if(comparison > 0 || (comparison == 0 && !inclusive))
+				break;
+			below = element;
+		}
+		return below;
+	}
+	/**
+	 * @return iterator over a copy of elements in reverse order
+	 */
+	public <E> Iterator<E> descendingIterator(Collection<E> elements) {
+		final ListIterator<E> copy = new ArrayList<E>(elements).listIterator(elements.size());
+		return new Iterator<E>() {
+			@Override
+			public boolean hasNext() {
+				return copy.hasPrevious();
+			}
+			@Override
+			public E next() {
+				return copy.previous();
+			}
+		};
+	}
+	/**
+	 * @param from lowest element of the view, inclusive, or null if there is no lower bound
+	 * @param to element above the view, exclusive, or null if there is no upper bound
+	 * @return read only view of the elements of tree between from and to, which steps through the tree by 
+	 * ceiling, lower, higher and the in order iterator of tree
+	 */
+	public <E extends Comparable<E>> SortedSet<E> sortedView(SortedTree<E> tree, E from, E to) {
+		return new ElementView<E>(tree, from, to);
+	}
+	/**
+	 * Merges values with the elements of a sorted tree. Values are sorted first, in parallel for large collections,
+	 * unless they already are in ascending order. Only one of equal elements is kept
+	 * @param elements elements of the tree in ascending order
+	 * @param size number of elements of the tree
+	 * @param preferNew whether a later value replaces an equal element kept before it, as add does in trees which 
+	 * replace the present element
+	 * @return elements and values in ascending order
+	 * @throws IllegalArgumentException if values has a null
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends Comparable<E>> Object[] sortedUnion(Iterator<E> elements, int size, Collection<? extends E> values, boolean preferNew) {
+		E[] added = (E[]) values.toArray(new Comparable<?>[values.size()]);
+		boolean isSorted = true;
+		for(int i = 0; i < added.length; i++) {
+			if(added[i] == null)
+				throw new IllegalArgumentException("null nodes are not allowed");
+			if(i > 0 && isSorted && added[i - 1].compareTo(added[i]) > 0)
+				isSorted = false;
 		}
-		int height2 = 0;
-		E e2 = node2; 
-		while(e2 != null) {
-			height2++;
-			e2 = tree.parent(e2);
+		if(!isSorted)
+			Arrays.parallelSort(added);
+		Object[] union = new Object[size + added.length];
+		int length = 0;
+		E element = elements.hasNext() ? elements.next() : null;
+		for(int i = 0; i < added.length || element != null;) {
+			E next;
+			if(element != null && (i == added.length || element.compareTo(added[i]) <= 0)) {
+				next = element;
+				element = elements.hasNext() ? elements.next() : null;
+			} else
+				next = added[i++];
+			if(length > 0 && ((E) union[length - 1]).compareTo(next) == 0) {
+				if(preferNew)
+					union[length - 1] = next;
+			} else
+				union[length++] = next;
 		}
-		if(height1 > height2) {
-			while(height1 - height2 > 0) {
-				node1 = tree.parent(node1);
-				height1--;
+		return Arrays.copyOf(union, length);
+	}
+	/**
+	 * @return unmodifiable view of the children of parent which reads them through childCount and child of tree on
+	 * every positional access. Iteration reads the children once through children and forEachChild instead, as
+	 * child may have to walk to its position. The view is empty once parent is no longer present in tree
+	 */
+	public <E> List<E> childrenView(final Tree<E> tree, final E parent) {
+		return new AbstractList<E>() {
+			@Override
+			public E get(int index) {
+				try {
+					E child = tree.child(parent, index);
+					if(child != null)
+						return child;
+				} catch(NodeNotFoundException e) {
+					//parent was removed and hence there are no children
+				}
+				throw new IndexOutOfBoundsException("index found to be " + index + ".It should be between 0 and " + (size() - 1));
 			}
-		} else {
-			while(height2 - height1 > 0) {
-				node2 = tree.parent(node2);
-				height2--;
+			@Override
+			public int size() {
+				try {
+					return tree.childCount(parent);
+				} catch(NodeNotFoundException e) {
+					return 0;
+				}
+			}
+			@Override
+			public Iterator<E> iterator() {
+				try {
+					return Collections.unmodifiableCollection(tree.children(parent)).iterator();
+				} catch(NodeNotFoundException e) {
+					return Collections.<E>emptyList().iterator();
+				}
+			}
+			@Override
+			public void forEach(Consumer<? super E> action) {
+				try {
+					tree.forEachChild(parent, action);
+				} catch(NodeNotFoundException e) {
+					//parent was removed and hence there are no children
+				}
 			}
+		};
+	}
+	/**
+	 * @return hash code of the list of elements of the tree in the order of its iterator
+	 */
+	public <E> int hashCode(Tree<E> tree) {
+		int hashCode = 1;
+		for(E e : tree)
+			hashCode = 31 * hashCode + e.hashCode();
+		return hashCode;
+	}
+	/**
+	 * {@link SortedTreeView} whose nodes are the elements of the tree themselves
+	 */
+	private static class ElementView<E extends Comparable<E>> extends SortedTreeView<E, E> {
+		private final SortedTree<E> tree;
+
+		ElementView(SortedTree<E> tree, E from, E to) {
+			super(from, to);
+			this.tree = tree;
+		}
+		@Override
+		E ceilingNode(E value) {
+			if(value != null)
+				return tree.ceiling(value);
+			Iterator<E> i = tree.inOrderIterator();
+			return i.hasNext() ? i.next() : null;
+		}
+		@Override
+		E lowerNode(E value) {
+			if(value != null)
+				return tree.lower(value);
+			E last = null;
+			for(Iterator<E> i = tree.inOrderIterator(); i.hasNext();)
+				last = i.next();
+			return last;
+		}
+		@Override
+		E successor(E node) {
+			return tree.higher(node);
+		}
+		@Override
+		E predecessor(E node) {
+			return tree.lower(node);
+		}
+		@Override
+		E element(E node) {
+			return node;
 		}
-		while(node1 != null && !node1.equals(node2)) {
-			node1 = tree.parent(node1);
-			node2 = tree.parent(node2);
+		@Override
+		SortedTreeView<E, E> view(E from, E to) {
+			return new ElementView<E>(tree, from, to);
 		}
-		return node1;
 	}
 }
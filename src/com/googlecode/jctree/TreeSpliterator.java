@@ -0,0 +1,168 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator which walks a tree in the same order as its iterator i.e. in order. Pending sub-trees are kept 
+ * on a stack with the next one on top. A split hands over the upper half of the stack, so that every part 
+ * covers whole sub-trees. A single pending sub-tree is opened into its children and its root before it is 
+ * split.
+ * <br>
+ * Size is exact until the first split, after which parts only report an estimate. Behavior is undefined if the
+ * tree is structurally modified while traversing.
+ * @author Gaurav Saxena
+ *
+ * @param <E>
+ * @param <N> node type of the tree
+ */
+abstract class TreeSpliterator<E, N> implements Spliterator<E>, Cloneable {
+	private Object[] nodes = new Object[16];
+	private boolean[] isOpened = new boolean[16];
+	private int top = -1;
+	private long estimatedSize;
+	private int characteristics;
+	private ArrayList<N> children = new ArrayList<N>();
+
+	/**
+	 * @param root root node or null if the tree is empty
+	 * @param size number of nodes in the tree
+	 * @param characteristics characteristics in addition to SIZED, DISTINCT, ORDERED and NONNULL
+	 */
+	TreeSpliterator(N root, long size, int characteristics) {
+		if(root != null)
+			push(root, false);
+		this.estimatedSize = size;
+		this.characteristics = characteristics | SIZED | DISTINCT | ORDERED | NONNULL;
+	}
+	abstract E element(N node);
+	/**
+	 * @return cursor of the first child of node or -1 if it has no children
+	 */
+	abstract int firstChild(N node);
+	/**
+	 * @return cursor of the child of node which comes after the one at cursor or -1 if there is none
+	 */
+	abstract int nextChild(N node, int cursor);
+	abstract N child(N node, int cursor);
+	/**
+	 * @return number of children which come before node in order
+	 */
+	abstract int childrenBefore(N node);
+
+	@Override
+	public boolean tryAdvance(Consumer<? super E> action) {
+		N node = next();
+		if(node == null)
+			return false;
+		action.accept(element(node));
+		return true;
+	}
+	@Override
+	public void forEachRemaining(Consumer<? super E> action) {
+		for(N node = next(); node != null; node = next())
+			action.accept(element(node));
+	}
+	@SuppressWarnings("unchecked")
+	@Override
+	public Spliterator<E> trySplit() {
+		if(top == 0 && !isOpened[0])
+			open((N) pop());
+		if(top < 1)
+			return null;
+		int half = (top + 1) / 2;
+		TreeSpliterator<E, N> prefix;
+		try {
+			prefix = (TreeSpliterator<E, N>) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);//This should't happen because we are cloneable
+		}
+		int from = top + 1 - half;
+		prefix.nodes = Arrays.copyOfRange(nodes, from, from + Math.max(half, 16));
+		prefix.isOpened = Arrays.copyOfRange(isOpened, from, from + Math.max(half, 16));
+		prefix.top = half - 1;
+		prefix.children = new ArrayList<N>();
+		Arrays.fill(nodes, from, top + 1, null);
+		top = from - 1;
+		prefix.estimatedSize = estimatedSize / 2;
+		estimatedSize -= prefix.estimatedSize;
+		characteristics &= ~SIZED;
+		prefix.characteristics = characteristics;
+		return prefix;
+	}
+	@Override
+	public long estimateSize() {
+		return estimatedSize;
+	}
+	@Override
+	public int characteristics() {
+		return characteristics;
+	}
+	@Override
+	public Comparator<? super E> getComparator() {
+		if(hasCharacteristics(SORTED))
+			return null;
+		else
+			throw new IllegalStateException();
+	}
+	/**
+	 * @return next node in order or null if the traversal is over
+	 */
+	@SuppressWarnings("unchecked")
+	private N next() {
+		while(top > -1) {
+			boolean isNodeOpened = isOpened[top];
+			N node = (N) pop();
+			if(isNodeOpened) {
+				if(estimatedSize > 0)
+					estimatedSize--;
+				return node;
+			} else
+				open(node);
+		}
+		return null;
+	}
+	/**
+	 * Replaces the sub-tree rooted at node by its children and node itself, in order
+	 */
+	private void open(N node) {
+		children.clear();
+		for(int cursor = firstChild(node); cursor > -1; cursor = nextChild(node, cursor))
+			children.add(child(node, cursor));
+		int before = childrenBefore(node);
+		for(int i = children.size() - 1; i >= before; i--)
+			push(children.get(i), false);
+		push(node, true);
+		for(int i = before - 1; i >= 0; i--)
+			push(children.get(i), false);
+	}
+	private void push(N node, boolean isNodeOpened) {
+		if(++top == nodes.length) {
+			nodes = Arrays.copyOf(nodes, top * 2);
+			isOpened = Arrays.copyOf(isOpened, top * 2);
+		}
+		nodes[top] = node;
+		isOpened[top] = isNodeOpened;
+	}
+	private Object pop() {
+		Object node = nodes[top];
+		nodes[top--] = null;
+		return node;
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+/**
+ * Static factories which wrap trees
+ * @author Gaurav Saxena
+ */
+public final class Trees {
+	private Trees() {
+	}
+	/**
+	 * Wraps tree so that it can be shared between threads. Modifications are exclusive while queries run in 
+	 * parallel with each other. Collections and iterators returned are snapshots of the tree taken when they were
+	 * asked for. 
+	 * <br>
+	 * The tree passed should not be used directly after it has been wrapped.
+	 * @param tree tree to wrap
+	 * @return thread safe view of tree
+	 */
+	public static <E> Tree<E> concurrentTree(Tree<E> tree) {
+		return new ConcurrentTree<E>(tree);
+	}
+	/**
+	 * @see #concurrentTree(Tree)
+	 */
+	public static <E extends Comparable<E>> SortedTree<E> concurrentSortedTree(SortedTree<E> tree) {
+		return new ConcurrentSortedTree<E>(tree);
+	}
+	/**
+	 * @see #concurrentTree(Tree)
+	 */
+	public static <E> NumberedTree<E> concurrentNumberedTree(NumberedTree<E> tree) {
+		return new ConcurrentNumberedTree<E>(tree);
+	}
+	/**
+	 * Copies tree into an immutable tree laid out in flat arrays, which answers queries without locking and can be
+	 * shared between threads. The copy keeps the children of every node in the order tree returns them.
+	 * <br>
+	 * The tree passed is not changed and should not be modified while it is copied.
+	 * @param tree tree to copy
+	 * @return frozen copy of tree
+	 * @throws NodeNotFoundException if tree returns a child which it then does not find
+	 */
+	public static <E> FrozenTree<E> freeze(Tree<E> tree) throws NodeNotFoundException {
+		return new FrozenTree<E>(tree);
+	}
+	/**
+	 * Copies the nodes of tree into an immutable tree kept in one array in the Eytzinger layout, which is searched 
+	 * with fewer cache misses than trees of linked nodes.
+	 * <br>
+	 * The tree passed is not changed and should not be modified while it is copied.
+	 * @param tree tree to copy
+	 * @return static copy of tree
+	 * @throws IllegalArgumentException if tree does not iterate its nodes in strictly ascending order
+	 */
+	public static <E extends Comparable<E>> StaticSortedTree<E> staticSortedTree(SortedTree<E> tree) {
+		if(tree == null)
+			throw new IllegalArgumentException("null tree can not be copied");
+		return new StaticSortedTree<E>(tree.toArray());
+	}
+	/**
+	 * @param sorted keys in strictly ascending order. The array is copied
+	 * @return static tree of the keys
+	 * @throws IllegalArgumentException if sorted has a null or is not in strictly ascending order
+	 * @see #staticSortedTree(SortedTree)
+	 */
+	public static <E extends Comparable<E>> StaticSortedTree<E> staticSortedTree(E[] sorted) {
+		if(sorted == null)
+			throw new IllegalArgumentException("null array can not be copied");
+		return new StaticSortedTree<E>(sorted);
+	}
+}
@@ -13,8 +13,13 @@
  */
 package com.googlecode.jctree;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -225,6 +230,49 @@ public class ArrayListTreeTest {
 	  }
   }
   
+  @Test(dataProvider = "getTree")
+  public void isAncestorAfterChanges(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(true, tree.isAncestor("C1", "C1-2-1"));
+		  tree.add("C1-2-1", "C1-2-1-1");
+		  tree.add("C2-2", "C2-2-1");
+		  Assert.assertEquals(true, tree.isAncestor("C1", "C1-2-1-1"));
+		  Assert.assertEquals(true, tree.isAncestor("C1-2-1", "C1-2-1-1"));
+		  Assert.assertEquals(false, tree.isAncestor("C1-2-1-1", "C1-2-1"));
+		  Assert.assertEquals(false, tree.isAncestor("C2", "C1-2-1-1"));
+		  Assert.assertEquals(true, tree.isDescendant("C2", "C2-2-1"));
+		  Assert.assertEquals("C1-2", tree.commonAncestor("C1-2-1-1", "C1-2"));
+		  Assert.assertEquals(6, tree.distance("C1-2-1-1", "C2-2"));
+		  tree.remove("C1-2");
+		  tree.add("C2-2-1", "C1-2-1");
+		  Assert.assertEquals(false, tree.isAncestor("C1", "C1-2-1"));
+		  Assert.assertEquals(true, tree.isAncestor("C2", "C1-2-1"));
+		  Assert.assertEquals(false, tree.isAncestor("C1-2", "C2-2"));
+		  Assert.assertEquals(3, tree.distance("C1-2-1", "C2"));
+		  try {
+			  tree.isAncestor("C1", "C1-2-1-1");
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed
+		  }
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void isAncestorAfterClone(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(true, tree.isAncestor("C1", "C1-2-1"));
+		  @SuppressWarnings("unchecked")
+		  ArrayListTree<String> clone = (ArrayListTree<String>) tree.clone();
+		  clone.add("C1", "X");
+		  tree.add("C2", "X");
+		  Assert.assertEquals(true, clone.isAncestor("C1", "X"));
+		  Assert.assertEquals(false, clone.isAncestor("C2", "X"));
+		  Assert.assertEquals("C1", clone.commonAncestor("C1", "X"));
+		  Assert.assertEquals(true, tree.isAncestor("C2", "X"));
+		  Assert.assertEquals(false, tree.isAncestor("C1", "X"));
+		  Assert.assertEquals("C2", tree.commonAncestor("C2", "X"));
+	  }
+  }
   @Test(dataProvider = "getTree")
   public void isDescendant(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
 	  if(testCaseNumber == 1) {
@@ -567,4 +615,332 @@ public class ArrayListTreeTest {
 	  		break;
 	  }
   }
+  @Test(dataProvider = "getTree")
+  public void removeAndAddAgain(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		tree.add("Root1");
+	  		Assert.assertEquals(true, tree.remove("Root1"));
+	  		Assert.assertEquals(false, tree.contains("Root1"));
+	  		Assert.assertEquals(true, tree.add("Root1"));
+	  		Assert.assertEquals("Root1", tree.root());
+	  		break;
+	  	case 1:
+	  		@SuppressWarnings("unchecked")
+			ArrayListTree<String> clone = (ArrayListTree<String>) tree.clone();
+	  		tree.remove("C1-1");
+	  		Assert.assertEquals(false, tree.contains("C1-1"));
+	  		Assert.assertEquals(false, tree.contains("C1-1-2"));
+	  		Assert.assertEquals(true, clone.contains("C1-1-2"));
+	  		Assert.assertEquals("C1-1", clone.parent("C1-1-2"));
+	  		Assert.assertEquals(true, tree.add("C2-2", "C1-1-2"));
+	  		Assert.assertEquals("C2-2", tree.parent("C1-1-2"));
+	  		Assert.assertEquals(false, tree.add("C1", "C1-2"));
+	  		Assert.assertEquals(tree.children("C1").toArray(new String[0]), new String[]{"C1-2","C1-3"});
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void compact(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		tree.compact();
+	  		tree.trimToSize();
+	  		Assert.assertEquals(0, tree.size());
+	  		Assert.assertEquals(true, tree.add("Root1"));
+	  		Assert.assertEquals("Root1", tree.root());
+	  		break;
+	  	case 1:
+	  		tree.remove("C1-1");
+	  		Assert.assertEquals(true, tree.add("C2-2", "C2-2-1"));
+	  		Assert.assertEquals(true, tree.add("C2-2", "C2-2-2"));
+	  		Assert.assertEquals(true, tree.add("C2-2", "C2-2-3"));
+	  		tree.remove("C1-3");
+	  		List<String> preOrder = tree.preOrderTraversal();
+	  		tree.compact();
+	  		Assert.assertEquals(preOrder, tree.preOrderTraversal());
+	  		Assert.assertEquals(4, tree.depth());
+	  		Assert.assertEquals("C2-2", tree.parent("C2-2-3"));
+	  		Assert.assertEquals(true, tree.add("C1", "C1-1"));
+	  		Assert.assertEquals(tree.children("C1").toArray(new String[0]), new String[]{"C1-2","C1-1"});
+	  		tree.remove("C1-1");
+	  		tree.remove("C2-2");
+	  		tree.add("C1", "C1-3");
+	  		tree.add("C1", "C1-1");
+	  		tree.add("C1-1", "C1-1-1");
+	  		tree.add("C1-1", "C1-1-2");
+	  		tree.trimToSize();
+	  		Assert.assertEquals(true, tree.add("C2", "C2-2"));
+	  		Assert.assertEquals(13, tree.size());
+	  		Assert.assertEquals(tree.levelOrderTraversal().toArray(new String[0]), new String[]{"Root1", "C1", "C2", "C1-2", "C1-3", "C1-1", "C2-1", "C2-2", "C1-2-1", "C1-1-1", "C1-1-2", "C2-1-1", "C2-1-2"});
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void iterators(int testCaseNumber, ArrayListTree<String> tree) {
+	  Assert.assertEquals(toList(tree.preOrderIterator()), tree.preOrderTraversal());
+	  Assert.assertEquals(toList(tree.inOrderIterator()), tree.inOrderTraversal());
+	  Assert.assertEquals(toList(tree.postOrderIterator()), tree.postOrderTraversal());
+	  Assert.assertEquals(toList(tree.levelOrderIterator()), tree.levelOrderTraversal());
+	  Assert.assertEquals(toList(tree.iterator()), tree.inOrderTraversal());
+	  Assert.assertEquals(tree.toArray(), tree.inOrderTraversal().toArray());
+	  Assert.assertEquals(tree.toArray(new String[tree.size() + 1])[tree.size()], null);
+	  Iterator<String> iterator = tree.preOrderIterator();
+	  if(testCaseNumber == 1)
+		  Assert.assertEquals(iterator.next(), tree.root());
+	  else {
+		  Assert.assertEquals(iterator.hasNext(), false);
+		  try {
+			  iterator.next();
+			  Assert.assertEquals(false, true);
+		  } catch (NoSuchElementException e) {
+			  //passed
+		  }
+	  }
+	  try {
+		  iterator.remove();
+		  Assert.assertEquals(false, true);
+	  } catch (UnsupportedOperationException e) {
+		  //passed
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void spliterator(int testCaseNumber, ArrayListTree<String> tree) {
+	  List<String> inOrder = tree.inOrderTraversal();
+	  Assert.assertEquals(tree.stream().collect(Collectors.toList()), inOrder);
+	  Assert.assertEquals(tree.parallelStream().collect(Collectors.toList()), inOrder);
+	  Spliterator<String> spliterator = tree.spliterator();
+	  Assert.assertEquals(spliterator.getExactSizeIfKnown(), tree.size());
+	  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.DISTINCT | Spliterator.ORDERED), true);
+	  List<String> list = new ArrayList<String>();
+	  Spliterator<String> prefix = spliterator.trySplit();
+	  if(testCaseNumber == 1) {
+		  prefix.forEachRemaining(list::add);
+		  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.SIZED), false);
+	  } else
+		  Assert.assertEquals(prefix, null);
+	  while(spliterator.tryAdvance(list::add));
+	  Assert.assertEquals(list, inOrder);
+  }
+  @Test(dataProvider = "getTree")
+  public void distance(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  for(String i : tree)
+		  for(String j : tree) {
+			  List<String> ancestors = new ArrayList<String>();
+			  for(String k = i; k != null; k = tree.parent(k))
+				  ancestors.add(k);
+			  String ancestor = j;
+			  while(!ancestors.contains(ancestor))
+				  ancestor = tree.parent(ancestor);
+			  Assert.assertEquals(tree.commonAncestor(i, j), ancestor);
+			  Assert.assertEquals(tree.distance(i, j), level(tree, i) + level(tree, j) - 2 * level(tree, ancestor));
+		  }
+	  if(testCaseNumber == 1) {
+		  String leaf = tree.leaves().get(0);
+		  Assert.assertEquals(tree.distance(tree.root(), leaf), level(tree, leaf));
+		  tree.remove(leaf);
+		  try {
+			  tree.distance(tree.root(), leaf);
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed
+		  }
+	  }
+  }
+  private int level(ArrayListTree<String> tree, String node) throws NodeNotFoundException {
+	  int level = 0;
+	  for(String i = tree.parent(node); i != null; i = tree.parent(i))
+		  level++;
+	  return level;
+  }
+  private List<String> toList(Iterator<String> iterator) {
+	  List<String> list = new ArrayList<String>();
+	  while(iterator.hasNext())
+		  list.add(iterator.next());
+	  return list;
+  }
+  @Test
+  public void deepTree() throws NodeNotFoundException {
+	  ArrayListTree<Integer> tree = new ArrayListTree<Integer>();
+	  tree.add(0);
+	  for(int i = 1; i < 20000; i++)
+		  tree.add(i - 1, i);
+	  Assert.assertEquals(20000, tree.depth());
+	  Assert.assertEquals(20000, tree.preOrderTraversal().size());
+	  Assert.assertEquals(19999, tree.postOrderTraversal().get(0).intValue());
+	  Assert.assertEquals(19999, tree.inOrderTraversal().get(0).intValue());
+	  Assert.assertEquals(Arrays.asList(19999), tree.leaves());
+	  Assert.assertEquals(tree.clone(), tree);
+	  Assert.assertEquals(tree.clone().hashCode(), tree.hashCode());
+	  tree.remove(10000);
+	  Assert.assertEquals(10000, tree.size());
+	  Assert.assertEquals(10000, tree.depth());
+	  tree.remove(1);
+	  Assert.assertEquals(1, tree.size());
+	  Assert.assertEquals(1, tree.depth());
+  }
+
+  @Test
+  public void wideTree() throws NodeNotFoundException {
+	  ArrayListTree<Integer> tree = new ArrayListTree<Integer>();
+	  tree.add(0);
+	  List<Integer> expected = new ArrayList<Integer>();
+	  for(int i = 1; i < 20000; i++) {
+		  tree.add(0, i);
+		  expected.add(i);
+	  }
+	  Assert.assertEquals(tree.childCount(0), 19999);
+	  Assert.assertEquals(tree.child(0, 0).intValue(), 1);
+	  Assert.assertEquals(tree.child(0, 19998).intValue(), 19999);
+	  Assert.assertEquals(tree.child(0, 15000).intValue(), 15001);
+	  for(int i = 1; i < 20000; i += 3) {
+		  tree.remove(i);
+		  expected.remove(Integer.valueOf(i));
+	  }
+	  tree.remove(19999);
+	  expected.remove(Integer.valueOf(19999));
+	  Assert.assertEquals(tree.children(0), expected);
+	  Assert.assertEquals(tree.child(0, expected.size() - 1), expected.get(expected.size() - 1));
+	  Assert.assertEquals(tree.siblings(2).size(), expected.size() - 1);
+	  tree.add(0, 1);
+	  expected.add(1);
+	  Assert.assertEquals(tree.children(0), expected);
+	  tree.compact();
+	  Assert.assertEquals(tree.children(0), expected);
+	  Assert.assertEquals(tree.parent(1).intValue(), 0);
+	  Assert.assertEquals(tree.leaves(), expected);
+  }
+
+  @Test(dataProvider = "getTree")
+  public void childAccess(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  		  tree.childCount("Not present");
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (NodeNotFoundException e) {
+	  		  //passed
+	  	    }
+	  		try {
+	  		  tree.childrenView(null);
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (IllegalArgumentException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.childCount("C1"), 3);
+	  		Assert.assertEquals(tree.childCount("C1-3"), 0);
+	  		Assert.assertEquals(tree.child("C1", 1), "C1-2");
+	  		Assert.assertEquals(tree.child("C1", 3), null);
+	  		try {
+	  		  tree.child("C1", -1);
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (IndexOutOfBoundsException e) {
+	  		  //passed
+	  	    }
+	  		List<String> visited = new ArrayList<String>();
+	  		tree.forEachChild("C1", visited::add);
+	  		Assert.assertEquals(visited, tree.children("C1"));
+	  		List<String> view = tree.childrenView("C1");
+	  		Assert.assertEquals(view, Arrays.asList("C1-1", "C1-2", "C1-3"));
+	  		try {
+	  		  view.add("C1-4");
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (UnsupportedOperationException e) {
+	  		  //passed
+	  	    }
+	  		tree.remove("C1-2");
+	  		tree.add("C1", "C1-4");
+	  		Assert.assertEquals(view, Arrays.asList("C1-1", "C1-3", "C1-4"));
+	  		Assert.assertEquals(tree.siblings("C1-3").toArray(new String[0]), new String[]{"C1-1", "C1-4"});
+	  		tree.remove("C1");
+	  		Assert.assertEquals(view.isEmpty(), true);
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void childrenViewAfterCompact(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 1:
+	  		List<String> view = tree.childrenView("C2");
+	  		tree.remove("C1");
+	  		tree.compact();
+	  		tree.add("C2", "C2-3");
+	  		List<String> visited = new ArrayList<String>();
+	  		view.forEach(visited::add);
+	  		Assert.assertEquals(visited, Arrays.asList("C2-1", "C2-2", "C2-3"));
+	  		Assert.assertEquals(new ArrayList<String>(view), visited);
+	  		Assert.assertEquals(view.get(2), "C2-3");
+	  		tree.remove("C2");
+	  		Assert.assertEquals(view.iterator().hasNext(), false);
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void cursor(int testCaseNumber, ArrayListTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  		  tree.cursor("Not present");
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (NodeNotFoundException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  	case 1:
+	  		TreeCursor<String> cursor = tree.cursor("Root1");
+	  		Assert.assertEquals(cursor.element(), "Root1");
+	  		Assert.assertEquals(cursor.parent(), false);
+	  		Assert.assertEquals(cursor.nextSibling(), false);
+	  		Assert.assertEquals(cursor.childCount(), 2);
+	  		Assert.assertEquals(cursor.firstChild(), true);
+	  		Assert.assertEquals(cursor.element(), "C1");
+	  		Assert.assertEquals(cursor.nextSibling(), true);
+	  		Assert.assertEquals(cursor.element(), "C2");
+	  		Assert.assertEquals(cursor.nextSibling(), false);
+	  		Assert.assertEquals(cursor.firstChild(), true);
+	  		Assert.assertEquals(cursor.nextSibling(), true);
+	  		Assert.assertEquals(cursor.element(), "C2-2");
+	  		Assert.assertEquals(cursor.firstChild(), false);
+	  		Assert.assertEquals(cursor.parent(), true);
+	  		Assert.assertEquals(cursor.element(), "C2");
+	  		TreeCursor<String> copy = cursor.copy();
+	  		copy.parent();
+	  		copy.firstChild();
+	  		Assert.assertEquals(cursor.element(), "C2");
+	  		Assert.assertEquals(copy.element(), "C1");
+	  		TreeCursor<String> added = copy.add("C1-4");
+	  		Assert.assertEquals(added.element(), "C1-4");
+	  		Assert.assertEquals(copy.element(), "C1");
+	  		Assert.assertEquals(tree.parent("C1-4"), "C1");
+	  		Assert.assertEquals(tree.children("C1"), Arrays.asList("C1-1", "C1-2", "C1-3", "C1-4"));
+	  		Assert.assertEquals(added.add("C1-4-1").parent(), true);
+	  		Assert.assertEquals(tree.depth(), 4);
+	  		Assert.assertEquals(copy.add("C2"), null);
+	  		TreeCursor<String> removed = tree.cursor("C1-1");
+	  		tree.remove("C1-1");
+	  		tree.add("C2", "New");
+	  		try {
+	  		  removed.element();
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (IllegalStateException e) {
+	  		  //passed
+	  	    }
+	  		Assert.assertEquals(copy.firstChild(), true);
+	  		Assert.assertEquals(copy.element(), "C1-2");
+	  		Assert.assertEquals(copy.nextSibling(), true);
+	  		Assert.assertEquals(copy.element(), "C1-3");
+	  		tree.clear();
+	  		try {
+	  		  cursor.firstChild();
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (IllegalStateException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  }
+  }
 }
@@ -0,0 +1,925 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.googlecode.jctree.ArrayRedBlackTree;
+import com.googlecode.jctree.NodeNotFoundException;
+
+public class ArrayRedBlackTreeTest {
+	@DataProvider
+	public Object[][] getTree() {
+		ArrayRedBlackTree<String> binarySearchTree = new ArrayRedBlackTree<String>();
+		binarySearchTree.add("C6");
+		binarySearchTree.add("C3");
+		binarySearchTree.add("C9");
+		binarySearchTree.add("C1");
+		binarySearchTree.add("C4");
+		binarySearchTree.add("C7");
+		binarySearchTree.add("CB");
+		binarySearchTree.add("C2");
+		binarySearchTree.add("C5");
+		binarySearchTree.add("C8");
+		binarySearchTree.add("CA");
+		binarySearchTree.add("CC");
+		/*
+								     C6
+							   ______|______
+							  |	            |
+							  C3            C9
+					    ______|__       ____|______
+					   |	     |     |           |
+					  C1        C4      C7          CB
+			           |____     |__    |__      ___|___
+			                |       |      |    |       |
+			                C2      C5     C8   CA      CC
+		 */
+		return new Object[][]{{0, new ArrayRedBlackTree<String>()},{1, binarySearchTree}};
+	  }
+
+  @Test(dataProvider = "getTree")
+  public void addE(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	int initialSize = tree.size();
+    Assert.assertEquals(true, tree.add("C1.5"));
+    Assert.assertEquals(initialSize, tree.size() - 1);
+    Assert.assertEquals(true, tree.contains("C1.5"));
+    switch(testCaseNumber) {
+    	case 0:
+    		Assert.assertEquals("C1.5", tree.root());
+    		Assert.assertEquals(false, tree.add("C1.5"));
+    		break;
+    	case 1:
+    		Assert.assertEquals("C1", tree.left("C1.5"));//C1 -> C2 -> C1.5 is rotated to keep red nodes apart
+    		Assert.assertEquals("C2", tree.right("C1.5"));
+    		Assert.assertEquals(true, tree.add("C0.5"));
+    		Assert.assertEquals("C0.5", tree.left("C1"));
+    		Assert.assertEquals(true, tree.add("CD"));
+    		Assert.assertEquals("CD", tree.right("CC"));
+    		Assert.assertEquals(false, tree.add("C1.5"));
+    }
+  }
+
+  @Test(dataProvider = "getTree", expectedExceptions = {UnsupportedOperationException.class})
+  public void addEE(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  Assert.assertEquals(true, tree.add(tree.root(), "New"));
+  }
+
+  @Test(dataProvider = "getTree")
+  public void addAllCollectionextendsE(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	int initialSize = tree.size();
+	for (String i : new String[]{"1","2","3"})
+		tree.add(i);
+	Assert.assertEquals(initialSize + 3, tree.size());
+	Assert.assertEquals(true, tree.contains("1"));
+	Assert.assertEquals(true, tree.contains("2"));
+	Assert.assertEquals(true, tree.contains("3"));
+  }
+
+  @Test(dataProvider = "getTree")
+  public void addAllECollectionextendsE(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  int initialSize = tree.size();
+	  if(initialSize > 0) {
+	      for (String i : Arrays.asList(new String[]{"1","2","3"}))
+		    tree.add(i);
+	      Assert.assertEquals(initialSize + 3, tree.size());
+		  Assert.assertEquals(true, tree.contains("1"));
+		  Assert.assertEquals(true, tree.contains("2"));
+		  Assert.assertEquals(true, tree.contains("3"));
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void children(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  try {
+		  tree.children(null);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  try {
+		  tree.children("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  if(testCaseNumber == 1)
+		for(String i : tree.children(tree.root()))
+		  Assert.assertEquals(tree.root(), tree.parent(i));
+  }
+
+  @Test(dataProvider = "getTree")
+  public void clear(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	tree.clear();
+    Assert.assertEquals(0, tree.size());
+  }
+
+  @Test(dataProvider = "getTree")
+  public void commonAncestor(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	for(String i: tree)
+		for(String j: tree)
+			Assert.assertNotEquals(null, tree.commonAncestor(i, j));
+	if(testCaseNumber == 1) {
+	  Assert.assertEquals(tree.root(), tree.commonAncestor(tree.root(), tree.leaves().get(0)));
+	  List<String> leaves = tree.leaves();
+	  Assert.assertEquals(tree.root(), tree.commonAncestor(tree.children(tree.root()).get(0), leaves.get(leaves.size() - 1)));
+	}
+  }
+
+  @Test(dataProvider = "getTree")
+  public void contains(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  Assert.assertEquals(false, tree.contains(null));
+	  Assert.assertEquals(false, tree.contains("Not present"));
+	  Assert.assertEquals(false, tree.contains(new ArrayList<Object>()));
+	  for(String i: tree)
+		  Assert.assertEquals(true, tree.contains(i));
+  }
+
+  @Test(dataProvider = "getTree")
+  public void containsAll(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  try {
+		  Arrays.asList(new String[]{null}).contains(null);
+		  Assert.assertEquals(false, tree.containsAll(Arrays.asList(new String[]{null})));
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  Assert.assertEquals(false, tree.containsAll(Arrays.asList(new String[]{"Not Present"})));
+	  Assert.assertEquals(true, tree.containsAll(tree.inOrderTraversal())); 
+  }
+
+  @Test(dataProvider = "getTree")
+  public void depth(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  if(testCaseNumber == 0)
+		  Assert.assertEquals(0, tree.depth());
+	  else if(testCaseNumber == 1) {
+		  Assert.assertEquals((int)Math.ceil(Math.log10(tree.size()) / Math.log10(2)), tree.depth());
+		  tree.removeAll(tree.leaves());
+		  Assert.assertEquals((int)Math.ceil(Math.log10(tree.size()) / Math.log10(2)), tree.depth());
+		  tree.removeAll(tree.leaves());
+		  Assert.assertEquals((int)Math.ceil(Math.log10(tree.size()) / Math.log10(2)), tree.depth());
+		  tree.clear();
+		  Assert.assertEquals(0, tree.depth());
+	  }
+  }
+
+  
+  @Test(dataProvider = "getTree")
+  public void inOrderTraversal(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  switch(testCaseNumber) {
+	  case 0:
+		  Assert.assertEquals(true, tree.inOrderTraversal().isEmpty());
+	  	  break;
+	  case 1:
+		  Assert.assertEquals(true, Arrays.equals(tree.inOrderTraversal().toArray(new String[0])
+			, new String[]{"C1","C2","C3","C4","C5","C6","C7","C8","C9","CA","CB","CC"}));
+		  break;
+	  }
+  }
+
+  
+  @Test(dataProvider = "getTree")
+  public void isAncestor(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  try {
+		  tree.isAncestor(null, null);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed;
+	  }
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(false, tree.isAncestor(null, "C2"));
+		  try {
+			  tree.isAncestor("C6", null);
+			  Assert.assertEquals(false, true);
+		  } catch (IllegalArgumentException e) {
+			  //passed;
+		  }
+		  try {
+			  tree.isAncestor("C6", "Not present");
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed;
+		  }
+		  Assert.assertEquals(true, tree.isAncestor("C6", "C2"));
+		  Assert.assertEquals(true, tree.isAncestor("C3", "C2"));
+		  Assert.assertEquals(true, tree.isAncestor("C1", "C2"));
+		  Assert.assertEquals(false, tree.isAncestor("C1", "CC"));
+		  Assert.assertEquals(true, tree.isAncestor("CB", "CC"));
+		  Assert.assertEquals(true, tree.isAncestor("C9", "CC"));
+		  Assert.assertEquals(true, tree.isAncestor("C6", "CC"));
+	  }
+  }
+  
+  @Test(dataProvider = "getTree")
+  public void isDescendant(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(false, tree.isDescendant("C2", null));
+		  try {
+			  tree.isDescendant(null, "C6");
+			  Assert.assertEquals(false, true);
+		  } catch (IllegalArgumentException e) {
+			  //passed;
+		  }
+		  try {
+			  tree.isDescendant("Not present", "C6");
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed;
+		  }
+		  Assert.assertEquals(true, tree.isAncestor("C6", "C2"));
+		  Assert.assertEquals(true, tree.isAncestor("C3", "C2"));
+		  Assert.assertEquals(true, tree.isAncestor("C1", "C2"));
+		  Assert.assertEquals(false, tree.isAncestor("C1", "CC"));
+		  Assert.assertEquals(true, tree.isAncestor("CB", "CC"));
+		  Assert.assertEquals(true, tree.isAncestor("C9", "CC"));
+		  Assert.assertEquals(true, tree.isAncestor("C6", "CC"));
+		  
+		  Assert.assertEquals(true, tree.isAncestor("C6", "C3"));
+		  Assert.assertEquals(true, tree.isAncestor("C6", "C9"));
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void isEmpty(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(true, tree.isEmpty());
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(false, tree.isEmpty());
+	  		tree.remove("C1");
+	  		tree.remove("C2");
+	  		Assert.assertEquals(false, tree.isEmpty());
+	  		tree.clear();
+	  		Assert.assertEquals(true, tree.isEmpty());
+	  		break;
+	  }
+		  
+  }
+
+  @Test(dataProvider = "getTree")
+  public void leaves(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(true, tree.leaves().isEmpty());
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.leaves().toArray(new String[0]), new String[]{"C2","C5","C8","CA","CC"});
+	  		tree.remove("C2");
+			Assert.assertEquals(true, Arrays.equals(tree.leaves().toArray(new String[0]), new String[]{"C1", "C5","C8","CA","CC"}));
+	  		break;
+	  }
+  }
+  
+  @Test(dataProvider = "getTree")
+  public void levelOrderTraversal(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(true, tree.levelOrderTraversal().isEmpty());
+	  		break;
+	  	case 1:
+	  		/*ArrayRedBlackTree.add("C6");
+			ArrayRedBlackTree.add("C6", "C1");
+			ArrayRedBlackTree.add("C6", "C2");
+			ArrayRedBlackTree.add("C1", "C1-1");
+			ArrayRedBlackTree.add("C1", "C1-2");
+			ArrayRedBlackTree.add("C2", "C2-1");
+			ArrayRedBlackTree.add("C2", "C2-2");
+			ArrayRedBlackTree.add("C1-1", "C1-1-1");
+			ArrayRedBlackTree.add("C1-1", "C1-1-2");
+			ArrayRedBlackTree.add("C1-2", "C1-2-1");
+			ArrayRedBlackTree.add("C2-1", "C2-1-1");
+			ArrayRedBlackTree.add("C2-1", "C2-1-2");*/
+	  		Assert.assertEquals(tree.levelOrderTraversal().toArray(new String[0])
+	  			, new String[]{"C6","C3","C9","C1","C4","C7","CB","C2","C5","C8","CA","CC"});
+	  		break;
+	  }
+  }
+  
+  @Test(dataProvider = "getTree")
+  public void parent(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		 try {
+	  			  tree.parent(null);
+	  			  Assert.assertEquals(false, true);
+	  		  } catch (IllegalArgumentException e) {
+	  			  //passed
+	  		  }
+	  		  try {
+	  			  tree.parent("Not present");
+	  			  Assert.assertEquals(false, true);
+	  		  } catch (NodeNotFoundException e) {
+	  			  //passed
+	  		  }
+	  		  break;
+	  	case 1:
+	  		Assert.assertEquals(tree.parent("C2"), "C1");
+	  		Assert.assertEquals(tree.parent("C1"), "C3");
+	  		Assert.assertNull(tree.parent("C6"));
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void postOrderTraversal(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(true, tree.postOrderTraversal().isEmpty());
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.postOrderTraversal().toArray(new String[0])
+	  			, new String[]{"C2","C1","C5","C4","C3","C8","C7","CA","CC","CB","C9","C6"});
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void preOrderTraversal(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(true, tree.preOrderTraversal().isEmpty());
+	  		break;
+	  	case 1:
+	  		/*ArrayRedBlackTree.add("C6");
+			ArrayRedBlackTree.add("C6", "C1");
+			ArrayRedBlackTree.add("C6", "C2");
+			ArrayRedBlackTree.add("C1", "C1-1");
+			ArrayRedBlackTree.add("C1", "C1-2");
+			ArrayRedBlackTree.add("C2", "C2-1");
+			ArrayRedBlackTree.add("C2", "C2-2");
+			ArrayRedBlackTree.add("C1-1", "C1-1-1");
+			ArrayRedBlackTree.add("C1-1", "C1-1-2");
+			ArrayRedBlackTree.add("C1-2", "C1-2-1");
+			ArrayRedBlackTree.add("C2-1", "C2-1-1");
+			ArrayRedBlackTree.add("C2-1", "C2-1-2");*/
+	  		Assert.assertEquals(tree.preOrderTraversal().toArray(new String[0])
+	  			, new String[]{"C6","C3","C1","C2","C4","C5","C9","C7","C8","CB","CA","CC"});
+	  		break;
+	  }
+  }
+  @SuppressWarnings("unchecked")
+  @Test(dataProvider = "getTree")
+  public void remove(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  		  tree.remove(null);
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (IllegalArgumentException e) {
+	  		  //passed
+	  	    }
+	  		Assert.assertEquals(false, tree.remove("Not present"));
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(false, tree.remove("Not present"));
+	  		
+	  		ArrayRedBlackTree<String> clone = (ArrayRedBlackTree<String>) tree.clone();
+	  		Assert.assertEquals(true, clone.remove("C2"));//delete case leaf
+	  		Assert.assertEquals(clone.inOrderTraversal().toArray(new String[0]), new String[]{"C1","C3","C4","C5","C6","C7","C8","C9","CA","CB","CC"});
+	  		Assert.assertEquals(clone.preOrderTraversal().toArray(new String[0]), new String[]{"C6","C3","C1","C4","C5","C9","C7","C8","CB","CA","CC"});
+	  		//deleteCaseRedNode
+	  		clone = (ArrayRedBlackTree<String>) tree.clone();
+	  		Assert.assertEquals(true, clone.remove("C1"));//deleteCase0, child is red
+	  		Assert.assertEquals(clone.inOrderTraversal().toArray(new String[0]), new String[]{"C2","C3","C4","C5","C6","C7","C8","C9","CA","CB","CC"});
+	  		Assert.assertEquals(clone.preOrderTraversal().toArray(new String[0]), new String[]{"C6","C3","C2","C4","C5","C9","C7","C8","CB","CA","CC"});
+	  		
+	  		clone = (ArrayRedBlackTree<String>) tree.clone();
+	  		Assert.assertEquals(true, clone.remove("C6"));//deferDelete
+	  		Assert.assertEquals(clone.inOrderTraversal().toArray(new String[0]), new String[]{"C1","C2","C3","C4","C5","C7","C8","C9","CA","CB","CC"});
+	  		Assert.assertEquals(true, clone.remove("C1"));//delete twice and check
+	  		Assert.assertEquals(clone.inOrderTraversal().toArray(new String[0]), new String[]{"C2","C3","C4","C5","C7","C8","C9","CA","CB","CC"});
+	  		
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void removeAll(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(true, tree.preOrderTraversal().isEmpty());
+	  		break;
+	  	case 1:
+	  		tree.removeAll(Arrays.asList(new String[]{}));
+	  		Assert.assertEquals(true, Arrays.equals(tree.inOrderTraversal().toArray(new String[0])
+	  				, new String[]{"C1","C2","C3","C4","C5","C6","C7","C8","C9","CA","CB","CC"}));
+	  		tree.removeAll(Arrays.asList(new String[]{"C6","C1","C2"}));
+	  		Assert.assertEquals(tree.inOrderTraversal().toArray(new String[0]), new String[]{"C3","C4","C5","C7","C8","C9","CA","CB","CC"});
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void retainAll(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+   try {
+	   tree.retainAll(Arrays.asList(new String[]{""}));
+   } catch (UnsupportedOperationException e) {
+	   //passed
+   }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void root(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(null, tree.root());
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals("C6", tree.root());
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void siblings(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  		  tree.siblings(null);
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (IllegalArgumentException e) {
+	  		  //passed
+	  	    }
+	  	    try {
+	  		  tree.parent("Not present");
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (NodeNotFoundException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  	case 1:
+	  		/*ArrayRedBlackTree.add("C6");
+			ArrayRedBlackTree.add("C6", "C1");
+			ArrayRedBlackTree.add("C6", "C2");
+			ArrayRedBlackTree.add("C1", "C1-1");
+			ArrayRedBlackTree.add("C1", "C1-2");
+			ArrayRedBlackTree.add("C2", "C2-1");
+			ArrayRedBlackTree.add("C2", "C2-2");
+			ArrayRedBlackTree.add("C1-1", "C1-1-1");
+			ArrayRedBlackTree.add("C1-1", "C1-1-2");
+			ArrayRedBlackTree.add("C1-2", "C1-2-1");
+			ArrayRedBlackTree.add("C2-1", "C2-1-1");
+			ArrayRedBlackTree.add("C2-1", "C2-1-2");*/
+	  		Assert.assertEquals(tree.siblings("C6").toArray(new String[0]), new String[]{});
+	  		Assert.assertEquals(tree.siblings("C3").toArray(new String[0]), new String[]{"C9"});
+	  		Assert.assertEquals(tree.siblings("C9").toArray(new String[0]), new String[]{"C3"});
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void size(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(0, tree.size());
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(12, tree.size());
+	  		tree.remove("C2");
+	  		Assert.assertEquals(11, tree.size());
+	  		tree.remove("C6");
+	  		Assert.assertEquals(10, tree.size());
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void toArray(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(new String[]{}, tree.toArray());
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.toArray(), new String[]{"C1","C2","C3","C4","C5","C6","C7","C8","C9","CA","CB","CC"});
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void toArrayT(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(new String[]{}, tree.toArray(new String[0]));
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.toArray(new String[0])
+	  				, new String[]{"C1","C2","C3","C4","C5","C6","C7","C8","C9","CA","CB","CC"});
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void equals(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		ArrayRedBlackTree<String> ArrayRedBlackTree = new ArrayRedBlackTree<String>();
+	  		Assert.assertEquals(true, tree.equals(ArrayRedBlackTree));
+	  		ArrayRedBlackTree.add("Root2");
+	  		Assert.assertEquals(false, tree.equals(ArrayRedBlackTree));
+	  		break;
+	  	case 1:
+	  		@SuppressWarnings("unchecked")
+			ArrayRedBlackTree<String> clone = (ArrayRedBlackTree<String>) tree.clone();
+	  		@SuppressWarnings("unchecked")
+			ArrayRedBlackTree<String> clone2 = (ArrayRedBlackTree<String>) tree.clone();
+	  		Assert.assertEquals(true, tree.equals(clone));
+	  		clone.remove("C2");
+	  		Assert.assertEquals(false, tree.equals(clone));
+	  		clone2.add("CD");
+	  		Assert.assertEquals(false, tree.equals(clone2));
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void left(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  			tree.left(null);
+	  			Assert.assertEquals(false, true);
+	  		} catch(IllegalArgumentException e) {
+	  			//passed
+	  		}
+	  		try {
+	  			tree.left("not present");
+	  			Assert.assertEquals(false, true);
+	  		} catch(NodeNotFoundException e) {
+	  			//passed
+	  		}
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.left("C6"), "C3");
+	  		Assert.assertEquals(tree.left("C3"), "C1");
+	  		Assert.assertNull(tree.left("C1"));
+	  		Assert.assertNull(tree.left("C2"));
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void right(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 1:
+	  		try {
+	  			tree.right(null);
+	  			Assert.assertEquals(false, true);
+	  		} catch(IllegalArgumentException e) {
+	  			//passed
+	  		}
+	  		try {
+	  			tree.right("not present");
+	  			Assert.assertEquals(false, true);
+	  		} catch(NodeNotFoundException e) {
+	  			//passed
+	  		}
+	  		break;
+	  	case 2:
+	  		Assert.assertEquals(tree.right("C6"), "C9");
+	  		Assert.assertEquals(tree.right("C3"), "C4");
+	  		Assert.assertNull(tree.right("C7"));
+	  		Assert.assertNull(tree.right("C2"));
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void successor(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 1:
+	  		try {
+	  			tree.predecessor(null);
+	  			Assert.assertEquals(false, true);
+	  		} catch(IllegalArgumentException e) {
+	  			//passed
+	  		}
+	  		try {
+	  			tree.predecessor("not present");
+	  			Assert.assertEquals(false, true);
+	  		} catch(NodeNotFoundException e) {
+	  			//passed
+	  		}
+	  		break;
+	  	case 2:
+	  		Assert.assertEquals(tree.successor("C5"), "C6");
+	  		Assert.assertEquals(tree.successor("C2"), "C3");
+	  		Assert.assertEquals(tree.successor("C4"), "C5");
+	  		Assert.assertEquals(tree.successor("C9"), "CA");
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void predecessor(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 1:
+	  		try {
+	  			tree.predecessor(null);
+	  			Assert.assertEquals(false, true);
+	  		} catch(IllegalArgumentException e) {
+	  			//passed
+	  		}
+	  		try {
+	  			tree.predecessor("not present");
+	  			Assert.assertEquals(false, true);
+	  		} catch(NodeNotFoundException e) {
+	  			//passed
+	  		}
+	  		break;
+	  	case 2:
+	  		Assert.assertEquals(tree.predecessor("C6"), "C5");
+	  		Assert.assertEquals(tree.predecessor("C3"), "C2");
+	  		Assert.assertEquals(tree.predecessor("C5"), "C4");
+	  		Assert.assertEquals(tree.predecessor("CA"), "C9");
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void depthAfterBulkAdd(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  for(int i = 0; i < 1000; i++)
+		  tree.add(String.format("D%03d", i));
+	  Assert.assertEquals(height(tree, tree.root()), tree.depth());
+	  Assert.assertTrue(tree.depth() <= 2 * Math.log(tree.size() + 1) / Math.log(2));
+	  for(int i = 0; i < 1000; i += 2)
+		  tree.remove(String.format("D%03d", i));
+	  Assert.assertEquals(height(tree, tree.root()), tree.depth());
+	  tree.remove(tree.root());
+	  Assert.assertEquals(height(tree, tree.root()), tree.depth());
+	  if(testCaseNumber == 0) {
+		  for(String node : tree.inOrderTraversal())
+			  tree.remove(node);
+		  Assert.assertEquals(0, tree.depth());
+		  Assert.assertEquals(true, tree.add("C1"));
+		  Assert.assertEquals(1, tree.depth());
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void addAllBalanced(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  List<String> values = new ArrayList<String>();
+	  for(int i = 0; i < 1000; i++)
+		  values.add(String.format("D%03d", i));
+	  List<String> expected = new ArrayList<String>(tree.inOrderTraversal());
+	  expected.addAll(values);
+	  Collections.reverse(values);
+	  values.add("D500");
+	  values.add(null);
+	  try {
+		  tree.addAll(values);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  values.remove(null);
+	  Assert.assertEquals(true, tree.addAll(values));
+	  Assert.assertEquals(tree.inOrderTraversal(), expected);
+	  Assert.assertEquals(tree.size(), expected.size());
+	  Assert.assertEquals(tree.depth(), 32 - Integer.numberOfLeadingZeros(expected.size()));
+	  Assert.assertEquals(tree.depth(), height(tree, tree.root()));
+	  Assert.assertEquals(false, tree.addAll(values));
+	  for(int i = 0; i < 1000; i += 2)
+		  tree.remove(String.format("D%03d", i));
+	  tree.add("D0005");
+	  Assert.assertEquals(tree.successor("D0005"), "D001");
+	  Assert.assertEquals(tree.depth(), height(tree, tree.root()));
+  }
+  private int height(ArrayRedBlackTree<String> tree, String node) throws NodeNotFoundException {
+	  int height = 0;
+	  for(String child : tree.children(node))
+		  height = Math.max(height, height(tree, child));
+	  return height + 1;
+  }
+  @Test(dataProvider = "getTree")
+  public void iterators(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  Assert.assertEquals(toList(tree.preOrderIterator()), tree.preOrderTraversal());
+	  Assert.assertEquals(toList(tree.inOrderIterator()), tree.inOrderTraversal());
+	  Assert.assertEquals(toList(tree.postOrderIterator()), tree.postOrderTraversal());
+	  Assert.assertEquals(toList(tree.levelOrderIterator()), tree.levelOrderTraversal());
+	  Assert.assertEquals(toList(tree.iterator()), tree.inOrderTraversal());
+	  Assert.assertEquals(tree.toArray(), tree.inOrderTraversal().toArray());
+	  Assert.assertEquals(tree.toArray(new String[tree.size() + 1])[tree.size()], null);
+	  Iterator<String> iterator = tree.preOrderIterator();
+	  if(testCaseNumber == 1)
+		  Assert.assertEquals(iterator.next(), tree.root());
+	  else {
+		  Assert.assertEquals(iterator.hasNext(), false);
+		  try {
+			  iterator.next();
+			  Assert.assertEquals(false, true);
+		  } catch (NoSuchElementException e) {
+			  //passed
+		  }
+	  }
+	  try {
+		  iterator.remove();
+		  Assert.assertEquals(false, true);
+	  } catch (UnsupportedOperationException e) {
+		  //passed
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void spliterator(int testCaseNumber, ArrayRedBlackTree<String> tree) {
+	  List<String> inOrder = tree.inOrderTraversal();
+	  Assert.assertEquals(tree.stream().collect(Collectors.toList()), inOrder);
+	  Assert.assertEquals(tree.parallelStream().collect(Collectors.toList()), inOrder);
+	  Spliterator<String> spliterator = tree.spliterator();
+	  Assert.assertEquals(spliterator.getExactSizeIfKnown(), tree.size());
+	  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.DISTINCT | Spliterator.ORDERED), true);
+	  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.SORTED), true);
+	  Assert.assertEquals(spliterator.getComparator(), null);
+	  List<String> list = new ArrayList<String>();
+	  Spliterator<String> prefix = spliterator.trySplit();
+	  if(testCaseNumber == 1) {
+		  prefix.forEachRemaining(list::add);
+		  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.SIZED), false);
+	  } else
+		  Assert.assertEquals(prefix, null);
+	  while(spliterator.tryAdvance(list::add));
+	  Assert.assertEquals(list, inOrder);
+  }
+  @Test(dataProvider = "getTree")
+  public void distance(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  for(String i : tree)
+		  for(String j : tree) {
+			  List<String> ancestors = new ArrayList<String>();
+			  for(String k = i; k != null; k = tree.parent(k))
+				  ancestors.add(k);
+			  String ancestor = j;
+			  while(!ancestors.contains(ancestor))
+				  ancestor = tree.parent(ancestor);
+			  Assert.assertEquals(tree.commonAncestor(i, j), ancestor);
+			  Assert.assertEquals(tree.distance(i, j), level(tree, i) + level(tree, j) - 2 * level(tree, ancestor));
+		  }
+	  if(testCaseNumber == 1) {
+		  String leaf = tree.leaves().get(0);
+		  Assert.assertEquals(tree.distance(tree.root(), leaf), level(tree, leaf));
+		  tree.remove(leaf);
+		  try {
+			  tree.distance(tree.root(), leaf);
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed
+		  }
+	  }
+  }
+  private int level(ArrayRedBlackTree<String> tree, String node) throws NodeNotFoundException {
+	  int level = 0;
+	  for(String i = tree.parent(node); i != null; i = tree.parent(i))
+		  level++;
+	  return level;
+  }
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.floor("C5"), null);
+	  		Assert.assertEquals(tree.ceiling("C5"), null);
+	  		Assert.assertEquals(tree.headTree("C5").isEmpty(), true);
+	  		Assert.assertEquals(tree.descendingIterator().hasNext(), false);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.successor("C5"), "C6");
+	  		Assert.assertEquals(tree.successor("C2"), "C3");
+	  		Assert.assertEquals(tree.successor("C8"), "C9");
+	  		Assert.assertEquals(tree.successor("CC"), null);
+	  		Assert.assertEquals(tree.predecessor("C7"), "C6");
+	  		Assert.assertEquals(tree.predecessor("C1"), null);
+	  		Assert.assertEquals(tree.floor("C55"), "C5");
+	  		Assert.assertEquals(tree.floor("C5"), "C5");
+	  		Assert.assertEquals(tree.lower("C5"), "C4");
+	  		Assert.assertEquals(tree.ceiling("C55"), "C6");
+	  		Assert.assertEquals(tree.higher("C6"), "C7");
+	  		Assert.assertEquals(tree.floor("C0"), null);
+	  		Assert.assertEquals(tree.higher("CC"), null);
+	  		SortedSet<String> range = tree.subTree("C3", "C8");
+	  		Assert.assertEquals(new ArrayList<String>(range), Arrays.asList("C3", "C4", "C5", "C6", "C7"));
+	  		Assert.assertEquals(range.size(), 5);
+	  		Assert.assertEquals(range.first(), "C3");
+	  		Assert.assertEquals(range.last(), "C7");
+	  		Assert.assertEquals(range.contains("C8"), false);
+	  		Assert.assertEquals(range.contains("C4"), true);
+	  		Assert.assertEquals(new ArrayList<String>(range.headSet("C5")), Arrays.asList("C3", "C4"));
+	  		Assert.assertEquals(new ArrayList<String>(tree.headTree("C3")), Arrays.asList("C1", "C2"));
+	  		Assert.assertEquals(new ArrayList<String>(tree.tailTree("CB")), Arrays.asList("CB", "CC"));
+	  		tree.add("C45");
+	  		tree.remove("C6");
+	  		Assert.assertEquals(new ArrayList<String>(range), Arrays.asList("C3", "C4", "C45", "C5", "C7"));
+	  		List<String> descending = new ArrayList<String>();
+	  		for(Iterator<String> i = tree.descendingIterator(); i.hasNext();)
+	  			descending.add(i.next());
+	  		List<String> ascending = tree.inOrderTraversal();
+	  		Collections.reverse(ascending);
+	  		Assert.assertEquals(descending, ascending);
+	  		try {
+	  			range.subSet("C1", "C5");
+	  			Assert.assertEquals(false, true);
+	  		} catch(IllegalArgumentException e) {
+	  			//passed
+	  		}
+	  		break;
+	  }
+  }
+  private List<String> toList(Iterator<String> iterator) {
+	  List<String> list = new ArrayList<String>();
+	  while(iterator.hasNext())
+		  list.add(iterator.next());
+	  return list;
+  }
+
+  @Test(dataProvider = "getTree")
+  public void childAccess(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  		  tree.childCount("Not present");
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (NodeNotFoundException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.childCount("C6"), 2);
+	  		Assert.assertEquals(tree.child("C6", 0), "C3");
+	  		Assert.assertEquals(tree.child("C6", 1), "C9");
+	  		Assert.assertEquals(tree.childCount("C1"), 1);
+	  		Assert.assertEquals(tree.child("C1", 0), "C2");
+	  		Assert.assertEquals(tree.child("C1", 1), null);
+	  		Assert.assertEquals(tree.childCount("C2"), 0);
+	  		Assert.assertEquals(tree.siblings("C2").toArray(new String[0]), new String[]{});
+	  		List<String> visited = new ArrayList<String>();
+	  		tree.forEachChild("CB", visited::add);
+	  		Assert.assertEquals(visited, Arrays.asList("CA", "CC"));
+	  		List<String> view = tree.childrenView("CB");
+	  		Assert.assertEquals(view, Arrays.asList("CA", "CC"));
+	  		tree.remove("CA");
+	  		Assert.assertEquals(view, Arrays.asList("CC"));
+	  		tree.remove("CB");
+	  		Assert.assertEquals(view.isEmpty(), true);
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void compactAndTrimToSize(int testCaseNumber, ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  List<String> expected = tree.inOrderTraversal();
+	  for(int i = 0; i < 100; i++)
+		  tree.add(String.format("D%03d", i));
+	  for(int i = 0; i < 100; i++)
+		  tree.remove(String.format("D%03d", i));
+	  ArrayRedBlackTree<String> clone = (ArrayRedBlackTree<String>) tree.clone();
+	  tree.compact();
+	  Assert.assertEquals(tree.inOrderTraversal(), expected);
+	  Assert.assertEquals(tree, clone);
+	  Assert.assertEquals(tree.depth(), height(tree));
+	  tree.trimToSize();
+	  Assert.assertEquals(tree.inOrderTraversal(), expected);
+	  Assert.assertEquals(tree.levelOrderTraversal(), clone.levelOrderTraversal());
+	  Assert.assertEquals(true, tree.add("D000"));
+	  Assert.assertEquals(tree.contains("D000"), true);
+	  Assert.assertEquals(tree.size(), expected.size() + 1);
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.parent("C6"), null);
+		  Assert.assertEquals(tree.successor("CC"), "D000");
+	  }
+  }
+
+  @Test
+  public void balanceAfterRandomChanges() throws NodeNotFoundException {
+	  ArrayRedBlackTree<Integer> tree = new ArrayRedBlackTree<Integer>(0);
+	  java.util.TreeSet<Integer> set = new java.util.TreeSet<Integer>();
+	  java.util.Random random = new java.util.Random(11);
+	  for(int i = 0; i < 20000; i++) {
+		  int value = random.nextInt(2000);
+		  if(random.nextInt(3) == 0)
+			  Assert.assertEquals(tree.remove(value), set.remove(value));
+		  else
+			  Assert.assertEquals(tree.add(value), set.add(value));
+	  }
+	  Assert.assertEquals(tree.inOrderTraversal(), new ArrayList<Integer>(set));
+	  Assert.assertEquals(tree.depth() <= 2 * (32 - Integer.numberOfLeadingZeros(set.size() + 1)), true);
+	  for(int value = -1; value <= 2000; value++) {
+		  Assert.assertEquals(tree.ceiling(value), set.ceiling(value));
+		  Assert.assertEquals(tree.lower(value), set.lower(value));
+	  }
+	  Assert.assertEquals(tree.successor(set.first()), set.higher(set.first()));
+  }
+  private int height(ArrayRedBlackTree<String> tree) throws NodeNotFoundException {
+	  return tree.isEmpty() ? 0 : height(tree, tree.root());
+  }
+}
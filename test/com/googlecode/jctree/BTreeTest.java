@@ -0,0 +1,382 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.googlecode.jctree.BTree;
+import com.googlecode.jctree.NodeNotFoundException;
+
+public class BTreeTest {
+	@DataProvider
+	public Object[][] getTree() {
+		BTree<String> bTree = new BTree<String>(3);
+		for(String i : Arrays.asList("C1", "C2", "C3", "C4", "C5", "C6", "C7", "C8", "C9", "CA", "CB", "CC"))
+			bTree.add(i);
+		/*
+		 Nodes of the B-tree of order 3:
+		                          [C4 C8]
+		                    _________|_________
+		                   |         |         |
+		                  [C2]      [C6]      [CA]
+		                 __|__     __|__     __|___
+		                |     |   |     |   |      |
+		               [C1]  [C3][C5]  [C7][C9]  [CB CC]
+		 Binary form seen through the tree methods:
+		                C4
+		          ______|______
+		         |             |
+		         C2            C8
+		       __|__        ___|___
+		      |     |      |       |
+		      C1    C3     C6      CA
+		                 __|__   __|__
+		                |     | |     |
+		                C5    C7 C9   CB
+		                              |__
+		                                 |
+		                                 CC
+		 */
+		return new Object[][]{{0, new BTree<String>(3)},{1, bTree}};
+	  }
+
+  @Test(expectedExceptions = {IllegalArgumentException.class})
+  public void order() {
+	  new BTree<String>(2);
+  }
+
+  @Test(dataProvider = "getTree")
+  public void addE(int testCaseNumber, BTree<String> tree) throws NodeNotFoundException {
+	int initialSize = tree.size();
+    Assert.assertEquals(true, tree.add("C1.5"));
+    Assert.assertEquals(initialSize, tree.size() - 1);
+    Assert.assertEquals(true, tree.contains("C1.5"));
+    Assert.assertEquals(false, tree.add("C1.5"));
+    switch(testCaseNumber) {
+    	case 0:
+    		Assert.assertEquals("C1.5", tree.root());
+    		break;
+    	case 1:
+    		Assert.assertEquals("C1", tree.parent("C1.5"));
+    		Assert.assertEquals(true, tree.add("C1.7"));
+    		Assert.assertEquals(tree.children("C1.5"), Arrays.asList("C1", "C2"));
+    		Assert.assertEquals(tree.children("C2"), Arrays.asList("C1.7", "C3"));
+    }
+    try {
+    	tree.add(null);
+    	Assert.assertEquals(false, true);
+    } catch (IllegalArgumentException e) {
+    	//passed
+    }
+  }
+
+  @Test(dataProvider = "getTree", expectedExceptions = {UnsupportedOperationException.class})
+  public void addEE(int testCaseNumber, BTree<String> tree) throws NodeNotFoundException {
+	  Assert.assertEquals(true, tree.add(tree.root(), "New"));
+  }
+
+  @Test(dataProvider = "getTree")
+  public void children(int testCaseNumber, BTree<String> tree) throws NodeNotFoundException {
+	  try {
+		  tree.children(null);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  try {
+		  tree.children("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.children("C4"), Arrays.asList("C2", "C8"));
+		  Assert.assertEquals(tree.children("C8"), Arrays.asList("C6", "CA"));
+		  Assert.assertEquals(tree.children("CB"), Arrays.asList("CC"));
+		  Assert.assertEquals(tree.children("C1").isEmpty(), true);
+		  for(String i : tree)
+			  for(String j : tree.children(i))
+				  Assert.assertEquals(tree.parent(j), i);
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void parent(int testCaseNumber, BTree<String> tree) throws NodeNotFoundException {
+	  try {
+		  tree.parent("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.parent("C4"), null);
+		  Assert.assertEquals(tree.parent("C8"), "C4");
+		  Assert.assertEquals(tree.parent("C6"), "C8");
+		  Assert.assertEquals(tree.parent("C9"), "CA");
+		  Assert.assertEquals(tree.parent("CC"), "CB");
+		  Assert.assertEquals(tree.siblings("C6"), Arrays.asList("CA"));
+		  Assert.assertEquals(tree.siblings("C4").isEmpty(), true);
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void depth(int testCaseNumber, BTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.depth(), 0);
+	  		Assert.assertEquals(tree.root(), null);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.depth(), 5);
+	  		Assert.assertEquals(tree.root(), "C4");
+	  		Assert.assertEquals(tree.leaves(), Arrays.asList("C1", "C3", "C5", "C7", "C9", "CC"));
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void traversals(int testCaseNumber, BTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.inOrderTraversal().isEmpty(), true);
+	  		Assert.assertEquals(tree.preOrderTraversal().isEmpty(), true);
+	  		Assert.assertEquals(tree.iterator().hasNext(), false);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.inOrderTraversal(), Arrays.asList("C1", "C2", "C3", "C4", "C5", "C6", "C7", "C8", "C9", "CA", "CB", "CC"));
+	  		Assert.assertEquals(tree.preOrderTraversal(), Arrays.asList("C4", "C2", "C1", "C3", "C8", "C6", "C5", "C7", "CA", "C9", "CB", "CC"));
+	  		Assert.assertEquals(tree.postOrderTraversal(), Arrays.asList("C1", "C3", "C2", "C5", "C7", "C6", "C9", "CC", "CB", "CA", "C8", "C4"));
+	  		Assert.assertEquals(tree.levelOrderTraversal(), Arrays.asList("C4", "C2", "C8", "C1", "C3", "C6", "CA", "C5", "C7", "C9", "CB", "CC"));
+	  		Assert.assertEquals(tree.toString(), tree.inOrderTraversal().toString());
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void commonAncestor(int testCaseNumber, BTree<String> tree) throws NodeNotFoundException {
+	  for(String i : tree)
+		  for(String j : tree) {
+			  List<String> ancestors = new ArrayList<String>();
+			  for(String k = i; k != null; k = tree.parent(k))
+				  ancestors.add(k);
+			  String common = j;
+			  int distance = 0;
+			  while(!ancestors.contains(common)) {
+				  common = tree.parent(common);
+				  distance++;
+			  }
+			  Assert.assertEquals(tree.commonAncestor(i, j), common);
+			  Assert.assertEquals(tree.distance(i, j), distance + ancestors.indexOf(common));
+		  }
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.commonAncestor("C5", "CC"), "C8");
+		  Assert.assertEquals(tree.distance("C5", "CC"), 5);
+		  Assert.assertEquals(tree.isAncestor("C8", "CC"), true);
+		  Assert.assertEquals(tree.isAncestor("C2", "CC"), false);
+		  Assert.assertEquals(tree.isDescendant("CA", "CC"), true);
+		  try {
+			  tree.distance("C5", "C55");
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed
+		  }
+		  try {
+			  tree.commonAncestor("C0", "C1");
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed
+		  }
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void remove(int testCaseNumber, BTree<String> tree) throws NodeNotFoundException {
+	  List<String> expected = tree.inOrderTraversal();
+	  Assert.assertEquals(tree.remove("Not present"), false);
+	  try {
+		  tree.remove(null);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.remove("C4"), true);
+		  Assert.assertEquals(tree.root(), "C8");
+		  Assert.assertEquals(tree.children("C8"), Arrays.asList("C3", "CA"));
+		  Assert.assertEquals(tree.remove("C1"), true);
+		  Assert.assertEquals(tree.remove("CC"), true);
+		  expected.removeAll(Arrays.asList("C1", "C4", "CC"));
+		  Assert.assertEquals(tree.inOrderTraversal(), expected);
+		  Assert.assertEquals(tree.size(), expected.size());
+		  Assert.assertEquals(tree.contains("C4"), false);
+		  for(String i : tree)
+			  for(String j : tree.children(i))
+				  Assert.assertEquals(tree.parent(j), i);
+		  for(String i : expected)
+			  Assert.assertEquals(tree.remove(i), true);
+	  }
+	  Assert.assertEquals(tree.isEmpty(), true);
+	  Assert.assertEquals(tree.depth(), 0);
+  }
+
+  @Test
+  public void matchesTreeSet() throws NodeNotFoundException {
+	  Random random = new Random(3);
+	  for(int order : new int[]{3, 4, 5, 64}) {
+		  BTree<Integer> tree = new BTree<Integer>(order);
+		  TreeSet<Integer> set = new TreeSet<Integer>();
+		  for(int i = 0; i < 5000; i++) {
+			  Integer value = random.nextInt(1000);
+			  if(random.nextInt(3) > 0)
+				  Assert.assertEquals(tree.add(value), set.add(value));
+			  else
+				  Assert.assertEquals(tree.remove(value), set.remove(value));
+		  }
+		  Assert.assertEquals(tree.inOrderTraversal(), new ArrayList<Integer>(set));
+		  Assert.assertEquals(tree.size(), set.size());
+		  for(Integer i : tree) {
+			  Assert.assertEquals(tree.successor(i), set.higher(i));
+			  Assert.assertEquals(tree.predecessor(i), set.lower(i));
+			  for(Integer j : tree.children(i))
+				  Assert.assertEquals(tree.parent(j), i);
+		  }
+		  for(int i = -1; i <= 1000; i++) {
+			  Assert.assertEquals(tree.floor(i), set.floor(i));
+			  Assert.assertEquals(tree.higher(i), set.higher(i));
+		  }
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, BTree<String> tree) throws NodeNotFoundException {
+	  try {
+		  tree.successor("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.floor("C5"), null);
+	  		Assert.assertEquals(tree.ceiling("C5"), null);
+	  		Assert.assertEquals(tree.subTree("C1", "C5").isEmpty(), true);
+	  		Assert.assertEquals(tree.descendingIterator().hasNext(), false);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.successor("C3"), "C4");
+	  		Assert.assertEquals(tree.successor("C4"), "C5");
+	  		Assert.assertEquals(tree.successor("CB"), "CC");
+	  		Assert.assertEquals(tree.successor("CC"), null);
+	  		Assert.assertEquals(tree.predecessor("C5"), "C4");
+	  		Assert.assertEquals(tree.predecessor("C8"), "C7");
+	  		Assert.assertEquals(tree.predecessor("C1"), null);
+	  		Assert.assertEquals(tree.floor("C45"), "C4");
+	  		Assert.assertEquals(tree.floor("C4"), "C4");
+	  		Assert.assertEquals(tree.lower("C4"), "C3");
+	  		Assert.assertEquals(tree.ceiling("C45"), "C5");
+	  		Assert.assertEquals(tree.higher("C8"), "C9");
+	  		Assert.assertEquals(tree.higher("CC"), null);
+	  		Assert.assertEquals(tree.lower("C1"), null);
+	  		SortedSet<String> range = tree.subTree("C3", "C8");
+	  		Assert.assertEquals(new ArrayList<String>(range), Arrays.asList("C3", "C4", "C5", "C6", "C7"));
+	  		Assert.assertEquals(range.size(), 5);
+	  		Assert.assertEquals(range.last(), "C7");
+	  		Assert.assertEquals(range.contains("C8"), false);
+	  		Assert.assertEquals(new ArrayList<String>(tree.headTree("C3")), Arrays.asList("C1", "C2"));
+	  		Assert.assertEquals(new ArrayList<String>(tree.tailTree("CB")), Arrays.asList("CB", "CC"));
+	  		tree.add("C45");
+	  		tree.remove("C6");
+	  		Assert.assertEquals(new ArrayList<String>(range), Arrays.asList("C3", "C4", "C45", "C5", "C7"));
+	  		List<String> descending = new ArrayList<String>();
+	  		for(Iterator<String> i = tree.descendingIterator(); i.hasNext();)
+	  			descending.add(0, i.next());
+	  		Assert.assertEquals(descending, tree.inOrderTraversal());
+	  }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test(dataProvider = "getTree")
+  public void cloneAndEquals(int testCaseNumber, BTree<String> tree) {
+	  BTree<String> clone = (BTree<String>) tree.clone();
+	  Assert.assertEquals(clone, tree);
+	  Assert.assertEquals(clone.hashCode(), tree.hashCode());
+	  Assert.assertEquals(clone.inOrderTraversal(), tree.inOrderTraversal());
+	  clone.add("C0");
+	  Assert.assertEquals(tree.contains("C0"), false);
+	  Assert.assertNotEquals(clone, tree);
+  }
+
+  @Test(dataProvider = "getTree")
+  public void spliterator(int testCaseNumber, BTree<String> tree) {
+	  List<String> inOrder = tree.inOrderTraversal();
+	  Assert.assertEquals(tree.stream().collect(Collectors.toList()), inOrder);
+	  Assert.assertEquals(tree.parallelStream().collect(Collectors.toList()), inOrder);
+	  Spliterator<String> spliterator = tree.spliterator();
+	  Assert.assertEquals(spliterator.getExactSizeIfKnown(), tree.size());
+	  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.SORTED), true);
+	  List<String> list = new ArrayList<String>();
+	  Spliterator<String> prefix = spliterator.trySplit();
+	  if(testCaseNumber == 1)
+		  prefix.forEachRemaining(list::add);
+	  else
+		  Assert.assertEquals(prefix, null);
+	  while(spliterator.tryAdvance(list::add));
+	  Assert.assertEquals(list, inOrder);
+  }
+
+  @Test(dataProvider = "getTree")
+  public void childAccess(int testCaseNumber, BTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  		  tree.child("Not present", 0);
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (NodeNotFoundException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.childCount("C4"), 2);
+	  		Assert.assertEquals(tree.child("C4", 0), "C2");
+	  		Assert.assertEquals(tree.child("C4", 1), "C8");
+	  		Assert.assertEquals(tree.child("C8", 0), "C6");
+	  		Assert.assertEquals(tree.child("C8", 1), "CA");
+	  		Assert.assertEquals(tree.childCount("CB"), 1);
+	  		Assert.assertEquals(tree.child("CB", 0), "CC");
+	  		Assert.assertEquals(tree.child("CB", 1), null);
+	  		Assert.assertEquals(tree.childCount("CC"), 0);
+	  		Assert.assertEquals(tree.siblings("C9").toArray(new String[0]), new String[]{"CB"});
+	  		Assert.assertEquals(tree.siblings("C8").toArray(new String[0]), new String[]{"C2"});
+	  		Assert.assertEquals(tree.siblings("CC").toArray(new String[0]), new String[]{});
+	  		List<String> visited = new ArrayList<String>();
+	  		tree.forEachChild("CA", visited::add);
+	  		Assert.assertEquals(visited, Arrays.asList("C9", "CB"));
+	  		List<String> view = tree.childrenView("CB");
+	  		Assert.assertEquals(view, Arrays.asList("CC"));
+	  		tree.remove("CC");
+	  		Assert.assertEquals(view.isEmpty(), true);
+	  		break;
+	  }
+  }
+}
@@ -15,7 +15,13 @@ package com.googlecode.jctree;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -67,7 +73,8 @@ public class BinaryRedBlackTreeTest {
     		Assert.assertEquals(false, tree.add("C1.5"));
     		break;
     	case 1:
-    		Assert.assertEquals("C1.5", tree.right("C1"));
+    		Assert.assertEquals("C1", tree.left("C1.5"));//C1 -> C2 -> C1.5 is rotated to keep red nodes apart
+    		Assert.assertEquals("C2", tree.right("C1.5"));
     		Assert.assertEquals(true, tree.add("C0.5"));
     		Assert.assertEquals("C0.5", tree.left("C1"));
     		Assert.assertEquals(true, tree.add("CD"));
@@ -644,4 +651,320 @@ public class BinaryRedBlackTreeTest {
 	  		break;
 	  }
   }
+  @Test(dataProvider = "getTree")
+  public void depthAfterBulkAdd(int testCaseNumber, BinaryRedBlackTree<String> tree) throws NodeNotFoundException {
+	  for(int i = 0; i < 1000; i++)
+		  tree.add(String.format("D%03d", i));
+	  Assert.assertEquals(height(tree, tree.root()), tree.depth());
+	  Assert.assertTrue(tree.depth() <= 2 * Math.log(tree.size() + 1) / Math.log(2));
+	  for(int i = 0; i < 1000; i += 2)
+		  tree.remove(String.format("D%03d", i));
+	  Assert.assertEquals(height(tree, tree.root()), tree.depth());
+	  tree.remove(tree.root());
+	  Assert.assertEquals(height(tree, tree.root()), tree.depth());
+	  if(testCaseNumber == 0) {
+		  for(String node : tree.inOrderTraversal())
+			  tree.remove(node);
+		  Assert.assertEquals(0, tree.depth());
+		  Assert.assertEquals(true, tree.add("C1"));
+		  Assert.assertEquals(1, tree.depth());
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void orderStatistics(int testCaseNumber, BinaryRedBlackTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(tree.select(0), "C1");
+		  Assert.assertEquals(tree.rank("C6"), 5);
+		  Assert.assertEquals(tree.countInRange("C1", "C9"), 9);
+	  }
+	  for(int i = 0; i < 300; i++)
+		  tree.add(String.format("D%03d", (i * 37) % 300));
+	  for(int i = 0; i < 300; i += 3)
+		  tree.remove(String.format("D%03d", i));
+	  tree.remove(tree.root());
+	  List<String> sorted = tree.inOrderTraversal();
+	  for(int i = 0; i < sorted.size(); i++) {
+		  Assert.assertEquals(tree.select(i), sorted.get(i));
+		  Assert.assertEquals(tree.rank(sorted.get(i)), i);
+	  }
+	  Assert.assertEquals(tree.rank("D000"), sorted.indexOf("D001"));
+	  Assert.assertEquals(tree.rank("E"), sorted.size());
+	  Assert.assertEquals(tree.countInRange("D000", "D099"), sorted.indexOf("D100") - sorted.indexOf("D001"));
+	  Assert.assertEquals(tree.countInRange("D100", "D100"), sorted.contains("D100") ? 1 : 0);
+	  Assert.assertEquals(tree.countInRange("D002", "D001"), 0);
+	  Assert.assertEquals(tree.countInRange("A", "Z"), tree.size());
+	  try {
+		  tree.select(tree.size());
+		  Assert.assertEquals(false, true);
+	  } catch (IndexOutOfBoundsException e) {
+		  //passed
+	  }
+	  try {
+		  tree.rank(null);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void addAllBalanced(int testCaseNumber, BinaryRedBlackTree<String> tree) throws NodeNotFoundException {
+	  List<String> values = new ArrayList<String>();
+	  for(int i = 0; i < 1000; i++)
+		  values.add(String.format("D%03d", i));
+	  List<String> expected = new ArrayList<String>(tree.inOrderTraversal());
+	  expected.addAll(values);
+	  Collections.reverse(values);
+	  values.add("D500");
+	  values.add(null);
+	  try {
+		  tree.addAll(values);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  values.remove(null);
+	  Assert.assertEquals(true, tree.addAll(values));
+	  Assert.assertEquals(tree.inOrderTraversal(), expected);
+	  Assert.assertEquals(tree.size(), expected.size());
+	  Assert.assertEquals(tree.depth(), 32 - Integer.numberOfLeadingZeros(expected.size()));
+	  Assert.assertEquals(tree.depth(), height(tree, tree.root()));
+	  Assert.assertEquals(false, tree.addAll(values));
+	  for(int i = 0; i < 1000; i += 2)
+		  tree.remove(String.format("D%03d", i));
+	  tree.add("D0005");
+	  Assert.assertEquals(tree.successor("D0005"), "D001");
+	  Assert.assertEquals(tree.depth(), height(tree, tree.root()));
+  }
+  private int height(BinaryRedBlackTree<String> tree, String node) throws NodeNotFoundException {
+	  int height = 0;
+	  for(String child : tree.children(node))
+		  height = Math.max(height, height(tree, child));
+	  return height + 1;
+  }
+  @Test(dataProvider = "getTree")
+  public void iterators(int testCaseNumber, BinaryRedBlackTree<String> tree) {
+	  Assert.assertEquals(toList(tree.preOrderIterator()), tree.preOrderTraversal());
+	  Assert.assertEquals(toList(tree.inOrderIterator()), tree.inOrderTraversal());
+	  Assert.assertEquals(toList(tree.postOrderIterator()), tree.postOrderTraversal());
+	  Assert.assertEquals(toList(tree.levelOrderIterator()), tree.levelOrderTraversal());
+	  Assert.assertEquals(toList(tree.iterator()), tree.inOrderTraversal());
+	  Assert.assertEquals(tree.toArray(), tree.inOrderTraversal().toArray());
+	  Assert.assertEquals(tree.toArray(new String[tree.size() + 1])[tree.size()], null);
+	  Iterator<String> iterator = tree.preOrderIterator();
+	  if(testCaseNumber == 1)
+		  Assert.assertEquals(iterator.next(), tree.root());
+	  else {
+		  Assert.assertEquals(iterator.hasNext(), false);
+		  try {
+			  iterator.next();
+			  Assert.assertEquals(false, true);
+		  } catch (NoSuchElementException e) {
+			  //passed
+		  }
+	  }
+	  try {
+		  iterator.remove();
+		  Assert.assertEquals(false, true);
+	  } catch (UnsupportedOperationException e) {
+		  //passed
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void spliterator(int testCaseNumber, BinaryRedBlackTree<String> tree) {
+	  List<String> inOrder = tree.inOrderTraversal();
+	  Assert.assertEquals(tree.stream().collect(Collectors.toList()), inOrder);
+	  Assert.assertEquals(tree.parallelStream().collect(Collectors.toList()), inOrder);
+	  Spliterator<String> spliterator = tree.spliterator();
+	  Assert.assertEquals(spliterator.getExactSizeIfKnown(), tree.size());
+	  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.DISTINCT | Spliterator.ORDERED), true);
+	  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.SORTED), true);
+	  Assert.assertEquals(spliterator.getComparator(), null);
+	  List<String> list = new ArrayList<String>();
+	  Spliterator<String> prefix = spliterator.trySplit();
+	  if(testCaseNumber == 1) {
+		  prefix.forEachRemaining(list::add);
+		  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.SIZED), false);
+	  } else
+		  Assert.assertEquals(prefix, null);
+	  while(spliterator.tryAdvance(list::add));
+	  Assert.assertEquals(list, inOrder);
+  }
+  @Test(dataProvider = "getTree")
+  public void distance(int testCaseNumber, BinaryRedBlackTree<String> tree) throws NodeNotFoundException {
+	  for(String i : tree)
+		  for(String j : tree) {
+			  List<String> ancestors = new ArrayList<String>();
+			  for(String k = i; k != null; k = tree.parent(k))
+				  ancestors.add(k);
+			  String ancestor = j;
+			  while(!ancestors.contains(ancestor))
+				  ancestor = tree.parent(ancestor);
+			  Assert.assertEquals(tree.commonAncestor(i, j), ancestor);
+			  Assert.assertEquals(tree.distance(i, j), level(tree, i) + level(tree, j) - 2 * level(tree, ancestor));
+		  }
+	  if(testCaseNumber == 1) {
+		  String leaf = tree.leaves().get(0);
+		  Assert.assertEquals(tree.distance(tree.root(), leaf), level(tree, leaf));
+		  tree.remove(leaf);
+		  try {
+			  tree.distance(tree.root(), leaf);
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed
+		  }
+	  }
+  }
+  private int level(BinaryRedBlackTree<String> tree, String node) throws NodeNotFoundException {
+	  int level = 0;
+	  for(String i = tree.parent(node); i != null; i = tree.parent(i))
+		  level++;
+	  return level;
+  }
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, BinaryRedBlackTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.floor("C5"), null);
+	  		Assert.assertEquals(tree.ceiling("C5"), null);
+	  		Assert.assertEquals(tree.headTree("C5").isEmpty(), true);
+	  		Assert.assertEquals(tree.descendingIterator().hasNext(), false);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.successor("C5"), "C6");
+	  		Assert.assertEquals(tree.successor("C2"), "C3");
+	  		Assert.assertEquals(tree.successor("C8"), "C9");
+	  		Assert.assertEquals(tree.successor("CC"), null);
+	  		Assert.assertEquals(tree.predecessor("C7"), "C6");
+	  		Assert.assertEquals(tree.predecessor("C1"), null);
+	  		Assert.assertEquals(tree.floor("C55"), "C5");
+	  		Assert.assertEquals(tree.floor("C5"), "C5");
+	  		Assert.assertEquals(tree.lower("C5"), "C4");
+	  		Assert.assertEquals(tree.ceiling("C55"), "C6");
+	  		Assert.assertEquals(tree.higher("C6"), "C7");
+	  		Assert.assertEquals(tree.floor("C0"), null);
+	  		Assert.assertEquals(tree.higher("CC"), null);
+	  		SortedSet<String> range = tree.subTree("C3", "C8");
+	  		Assert.assertEquals(new ArrayList<String>(range), Arrays.asList("C3", "C4", "C5", "C6", "C7"));
+	  		Assert.assertEquals(range.size(), 5);
+	  		Assert.assertEquals(range.first(), "C3");
+	  		Assert.assertEquals(range.last(), "C7");
+	  		Assert.assertEquals(range.contains("C8"), false);
+	  		Assert.assertEquals(range.contains("C4"), true);
+	  		Assert.assertEquals(new ArrayList<String>(range.headSet("C5")), Arrays.asList("C3", "C4"));
+	  		Assert.assertEquals(new ArrayList<String>(tree.headTree("C3")), Arrays.asList("C1", "C2"));
+	  		Assert.assertEquals(new ArrayList<String>(tree.tailTree("CB")), Arrays.asList("CB", "CC"));
+	  		tree.add("C45");
+	  		tree.remove("C6");
+	  		Assert.assertEquals(new ArrayList<String>(range), Arrays.asList("C3", "C4", "C45", "C5", "C7"));
+	  		List<String> descending = new ArrayList<String>();
+	  		for(Iterator<String> i = tree.descendingIterator(); i.hasNext();)
+	  			descending.add(i.next());
+	  		List<String> ascending = tree.inOrderTraversal();
+	  		Collections.reverse(ascending);
+	  		Assert.assertEquals(descending, ascending);
+	  		try {
+	  			range.subSet("C1", "C5");
+	  			Assert.assertEquals(false, true);
+	  		} catch(IllegalArgumentException e) {
+	  			//passed
+	  		}
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void splitAndJoin(int testCaseNumber, BinaryRedBlackTree<String> tree) throws NodeNotFoundException {
+	  List<String> all = tree.inOrderTraversal();
+	  List<BinaryRedBlackTree<String>> parts = tree.split("C5");
+	  Assert.assertEquals(tree.isEmpty(), true);
+	  Assert.assertEquals(parts.size(), 2);
+	  BinaryRedBlackTree<String> left = parts.get(0), right = parts.get(1);
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(left.isEmpty(), true);
+	  		Assert.assertEquals(right.isEmpty(), true);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(left.inOrderTraversal(), Arrays.asList("C1", "C2", "C3", "C4"));
+	  		Assert.assertEquals(right.inOrderTraversal(), Arrays.asList("C5", "C6", "C7", "C8", "C9", "CA", "CB", "CC"));
+	  		Assert.assertEquals(right.select(0), "C5");
+	  		Assert.assertEquals(left.depth(), height(left, left.root()));
+	  		Assert.assertEquals(right.depth(), height(right, right.root()));
+	  		try {
+	  			BinaryRedBlackTree.join(right, left);
+	  			Assert.assertEquals(false, true);
+	  		} catch(IllegalArgumentException e) {
+	  			//passed
+	  		}
+	  		try {
+	  			BinaryRedBlackTree.join(left, "C6", right);
+	  			Assert.assertEquals(false, true);
+	  		} catch(IllegalArgumentException e) {
+	  			//passed
+	  		}
+	  		break;
+	  }
+	  Assert.assertEquals(right.remove("C5"), testCaseNumber == 1);
+	  BinaryRedBlackTree<String> joined = BinaryRedBlackTree.join(left, "C5", right);
+	  Assert.assertEquals(left.isEmpty(), true);
+	  Assert.assertEquals(right.isEmpty(), true);
+	  List<String> expected = new ArrayList<String>(all);
+	  if(!expected.contains("C5"))
+		  expected.add("C5");
+	  Assert.assertEquals(joined.inOrderTraversal(), expected);
+	  Assert.assertEquals(joined.size(), expected.size());
+	  Assert.assertEquals(joined.depth(), height(joined, joined.root()));
+	  Assert.assertEquals(joined.rank("C5"), expected.indexOf("C5"));
+	  joined.add("C55");
+	  Assert.assertEquals(joined.successor("C5"), "C55");
+	  parts = joined.split("C0");
+	  Assert.assertEquals(parts.get(0).isEmpty(), true);
+	  joined = BinaryRedBlackTree.join(parts.get(0), parts.get(1));
+	  Assert.assertEquals(joined.size(), expected.size() + 1);
+	  Assert.assertEquals(joined.depth(), height(joined, joined.root()));
+	  try {
+		  joined.split(null);
+		  Assert.assertEquals(false, true);
+	  } catch(IllegalArgumentException e) {
+		  //passed
+	  }
+  }
+  private List<String> toList(Iterator<String> iterator) {
+	  List<String> list = new ArrayList<String>();
+	  while(iterator.hasNext())
+		  list.add(iterator.next());
+	  return list;
+  }
+
+  @Test(dataProvider = "getTree")
+  public void childAccess(int testCaseNumber, BinaryRedBlackTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  		  tree.childCount("Not present");
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (NodeNotFoundException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.childCount("C6"), 2);
+	  		Assert.assertEquals(tree.child("C6", 0), "C3");
+	  		Assert.assertEquals(tree.child("C6", 1), "C9");
+	  		Assert.assertEquals(tree.childCount("C1"), 1);
+	  		Assert.assertEquals(tree.child("C1", 0), "C2");
+	  		Assert.assertEquals(tree.child("C1", 1), null);
+	  		Assert.assertEquals(tree.childCount("C2"), 0);
+	  		Assert.assertEquals(tree.siblings("C2").toArray(new String[0]), new String[]{});
+	  		List<String> visited = new ArrayList<String>();
+	  		tree.forEachChild("CB", visited::add);
+	  		Assert.assertEquals(visited, Arrays.asList("CA", "CC"));
+	  		List<String> view = tree.childrenView("CB");
+	  		Assert.assertEquals(view, Arrays.asList("CA", "CC"));
+	  		tree.remove("CA");
+	  		Assert.assertEquals(view, Arrays.asList("CC"));
+	  		tree.remove("CB");
+	  		Assert.assertEquals(view.isEmpty(), true);
+	  		break;
+	  }
+  }
 }
@@ -15,7 +15,13 @@ package com.googlecode.jctree;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -632,4 +638,252 @@ public class BinarySearchTreeTest {
 	  		break;
 	  }
   }
-}
\ No newline at end of file
+  @Test(dataProvider = "getTree")
+  public void depthAfterBulkAdd(int testCaseNumber, BinarySearchTree<String> tree) throws NodeNotFoundException {
+	  for(int i = 0; i < 500; i++)
+		  tree.add(String.format("D%03d", i));
+	  Assert.assertEquals(height(tree, tree.root()), tree.depth());
+	  for(int i = 499; i >= 250; i--)
+		  tree.remove(String.format("D%03d", i));
+	  Assert.assertEquals(height(tree, tree.root()), tree.depth());
+	  tree.remove(tree.root());
+	  Assert.assertEquals(height(tree, tree.root()), tree.depth());
+	  if(testCaseNumber == 0) {
+		  Assert.assertEquals(249, tree.depth());
+		  for(String node : tree.inOrderTraversal())
+			  tree.remove(node);
+		  Assert.assertEquals(0, tree.depth());
+		  Assert.assertEquals(true, tree.add("C1"));
+		  Assert.assertEquals(1, tree.depth());
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void addAllBalanced(int testCaseNumber, BinarySearchTree<String> tree) throws NodeNotFoundException {
+	  List<String> values = new ArrayList<String>();
+	  for(int i = 0; i < 1000; i++)
+		  values.add(String.format("D%03d", i));
+	  List<String> expected = new ArrayList<String>(tree.inOrderTraversal());
+	  expected.addAll(values);
+	  Collections.reverse(values);
+	  values.add("D500");
+	  values.add(null);
+	  try {
+		  tree.addAll(values);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  values.remove(null);
+	  Assert.assertEquals(true, tree.addAll(values));
+	  Assert.assertEquals(tree.inOrderTraversal(), expected);
+	  Assert.assertEquals(tree.size(), expected.size());
+	  Assert.assertEquals(tree.depth(), 32 - Integer.numberOfLeadingZeros(expected.size()));
+	  Assert.assertEquals(tree.depth(), height(tree, tree.root()));
+	  Assert.assertEquals(false, tree.addAll(values));
+	  for(int i = 0; i < 1000; i += 2)
+		  tree.remove(String.format("D%03d", i));
+	  tree.add("D0005");
+	  Assert.assertEquals(tree.successor("D0005"), "D001");
+	  Assert.assertEquals(tree.depth(), height(tree, tree.root()));
+  }
+  private int height(BinarySearchTree<String> tree, String node) throws NodeNotFoundException {
+	  int height = 0;
+	  for(String child : tree.children(node))
+		  height = Math.max(height, height(tree, child));
+	  return height + 1;
+  }
+  @Test(dataProvider = "getTree")
+  public void iterators(int testCaseNumber, BinarySearchTree<String> tree) {
+	  Assert.assertEquals(toList(tree.preOrderIterator()), tree.preOrderTraversal());
+	  Assert.assertEquals(toList(tree.inOrderIterator()), tree.inOrderTraversal());
+	  Assert.assertEquals(toList(tree.postOrderIterator()), tree.postOrderTraversal());
+	  Assert.assertEquals(toList(tree.levelOrderIterator()), tree.levelOrderTraversal());
+	  Assert.assertEquals(toList(tree.iterator()), tree.inOrderTraversal());
+	  Assert.assertEquals(tree.toArray(), tree.inOrderTraversal().toArray());
+	  Assert.assertEquals(tree.toArray(new String[tree.size() + 1])[tree.size()], null);
+	  Iterator<String> iterator = tree.preOrderIterator();
+	  if(testCaseNumber == 1)
+		  Assert.assertEquals(iterator.next(), tree.root());
+	  else {
+		  Assert.assertEquals(iterator.hasNext(), false);
+		  try {
+			  iterator.next();
+			  Assert.assertEquals(false, true);
+		  } catch (NoSuchElementException e) {
+			  //passed
+		  }
+	  }
+	  try {
+		  iterator.remove();
+		  Assert.assertEquals(false, true);
+	  } catch (UnsupportedOperationException e) {
+		  //passed
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void spliterator(int testCaseNumber, BinarySearchTree<String> tree) {
+	  List<String> inOrder = tree.inOrderTraversal();
+	  Assert.assertEquals(tree.stream().collect(Collectors.toList()), inOrder);
+	  Assert.assertEquals(tree.parallelStream().collect(Collectors.toList()), inOrder);
+	  Spliterator<String> spliterator = tree.spliterator();
+	  Assert.assertEquals(spliterator.getExactSizeIfKnown(), tree.size());
+	  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.DISTINCT | Spliterator.ORDERED), true);
+	  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.SORTED), true);
+	  Assert.assertEquals(spliterator.getComparator(), null);
+	  List<String> list = new ArrayList<String>();
+	  Spliterator<String> prefix = spliterator.trySplit();
+	  if(testCaseNumber == 1) {
+		  prefix.forEachRemaining(list::add);
+		  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.SIZED), false);
+	  } else
+		  Assert.assertEquals(prefix, null);
+	  while(spliterator.tryAdvance(list::add));
+	  Assert.assertEquals(list, inOrder);
+  }
+  @Test(dataProvider = "getTree")
+  public void distance(int testCaseNumber, BinarySearchTree<String> tree) throws NodeNotFoundException {
+	  for(String i : tree)
+		  for(String j : tree) {
+			  List<String> ancestors = new ArrayList<String>();
+			  for(String k = i; k != null; k = tree.parent(k))
+				  ancestors.add(k);
+			  String ancestor = j;
+			  while(!ancestors.contains(ancestor))
+				  ancestor = tree.parent(ancestor);
+			  Assert.assertEquals(tree.commonAncestor(i, j), ancestor);
+			  Assert.assertEquals(tree.distance(i, j), level(tree, i) + level(tree, j) - 2 * level(tree, ancestor));
+		  }
+	  if(testCaseNumber == 1) {
+		  String leaf = tree.leaves().get(0);
+		  Assert.assertEquals(tree.distance(tree.root(), leaf), level(tree, leaf));
+		  tree.remove(leaf);
+		  try {
+			  tree.distance(tree.root(), leaf);
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed
+		  }
+	  }
+  }
+  private int level(BinarySearchTree<String> tree, String node) throws NodeNotFoundException {
+	  int level = 0;
+	  for(String i = tree.parent(node); i != null; i = tree.parent(i))
+		  level++;
+	  return level;
+  }
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, BinarySearchTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.floor("C5"), null);
+	  		Assert.assertEquals(tree.ceiling("C5"), null);
+	  		Assert.assertEquals(tree.headTree("C5").isEmpty(), true);
+	  		Assert.assertEquals(tree.descendingIterator().hasNext(), false);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.successor("C5"), "C6");
+	  		Assert.assertEquals(tree.successor("C2"), "C3");
+	  		Assert.assertEquals(tree.successor("C8"), "C9");
+	  		Assert.assertEquals(tree.successor("CC"), null);
+	  		Assert.assertEquals(tree.predecessor("C7"), "C6");
+	  		Assert.assertEquals(tree.predecessor("C1"), null);
+	  		Assert.assertEquals(tree.floor("C55"), "C5");
+	  		Assert.assertEquals(tree.floor("C5"), "C5");
+	  		Assert.assertEquals(tree.lower("C5"), "C4");
+	  		Assert.assertEquals(tree.ceiling("C55"), "C6");
+	  		Assert.assertEquals(tree.higher("C6"), "C7");
+	  		Assert.assertEquals(tree.floor("C0"), null);
+	  		Assert.assertEquals(tree.higher("CC"), null);
+	  		SortedSet<String> range = tree.subTree("C3", "C8");
+	  		Assert.assertEquals(new ArrayList<String>(range), Arrays.asList("C3", "C4", "C5", "C6", "C7"));
+	  		Assert.assertEquals(range.size(), 5);
+	  		Assert.assertEquals(range.first(), "C3");
+	  		Assert.assertEquals(range.last(), "C7");
+	  		Assert.assertEquals(range.contains("C8"), false);
+	  		Assert.assertEquals(range.contains("C4"), true);
+	  		Assert.assertEquals(new ArrayList<String>(range.headSet("C5")), Arrays.asList("C3", "C4"));
+	  		Assert.assertEquals(new ArrayList<String>(tree.headTree("C3")), Arrays.asList("C1", "C2"));
+	  		Assert.assertEquals(new ArrayList<String>(tree.tailTree("CB")), Arrays.asList("CB", "CC"));
+	  		tree.add("C45");
+	  		tree.remove("C6");
+	  		Assert.assertEquals(new ArrayList<String>(range), Arrays.asList("C3", "C4", "C45", "C5", "C7"));
+	  		List<String> descending = new ArrayList<String>();
+	  		for(Iterator<String> i = tree.descendingIterator(); i.hasNext();)
+	  			descending.add(i.next());
+	  		List<String> ascending = tree.inOrderTraversal();
+	  		Collections.reverse(ascending);
+	  		Assert.assertEquals(descending, ascending);
+	  		try {
+	  			range.subSet("C1", "C5");
+	  			Assert.assertEquals(false, true);
+	  		} catch(IllegalArgumentException e) {
+	  			//passed
+	  		}
+	  		break;
+	  }
+  }
+  private List<String> toList(Iterator<String> iterator) {
+	  List<String> list = new ArrayList<String>();
+	  while(iterator.hasNext())
+		  list.add(iterator.next());
+	  return list;
+  }
+  @Test
+  public void deepTree() throws NodeNotFoundException {
+	  BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>();
+	  for(int i = 0; i < 20000; i++)
+		  tree.add(i);
+	  Assert.assertEquals(20000, tree.depth());
+	  Assert.assertEquals(19999, tree.inOrderTraversal().get(19999).intValue());
+	  Assert.assertEquals(19999, tree.postOrderTraversal().get(0).intValue());
+	  Assert.assertEquals(Arrays.asList(19999), tree.leaves());
+	  Assert.assertEquals(true, tree.contains(19999));
+	  Assert.assertEquals(19998, tree.parent(19999).intValue());
+	  Assert.assertEquals(tree.clone(), tree);
+	  Assert.assertEquals(tree.clone().hashCode(), tree.hashCode());
+	  Assert.assertEquals(true, tree.remove(19999));
+	  Assert.assertEquals(19999, tree.depth());
+  }
+  @Test
+  public void removeNodeWithOneChild() {
+	  BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>();
+	  for(int i : Arrays.asList(50, 30, 20, 40))
+		  tree.add(i);//addAll would build a balanced tree in which 50 has no single child
+	  Assert.assertEquals(true, tree.remove(50));
+	  Assert.assertEquals(Arrays.asList(20, 30, 40), tree.inOrderTraversal());
+	  Assert.assertEquals(3, tree.depth());
+  }
+
+  @Test(dataProvider = "getTree")
+  public void childAccess(int testCaseNumber, BinarySearchTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  		  tree.childCount("Not present");
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (NodeNotFoundException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.childCount("C6"), 2);
+	  		Assert.assertEquals(tree.child("C6", 0), "C3");
+	  		Assert.assertEquals(tree.child("C6", 1), "C9");
+	  		Assert.assertEquals(tree.childCount("C1"), 1);
+	  		Assert.assertEquals(tree.child("C1", 0), "C2");
+	  		Assert.assertEquals(tree.child("C1", 1), null);
+	  		Assert.assertEquals(tree.childCount("C2"), 0);
+	  		Assert.assertEquals(tree.siblings("C2").toArray(new String[0]), new String[]{});
+	  		List<String> visited = new ArrayList<String>();
+	  		tree.forEachChild("CB", visited::add);
+	  		Assert.assertEquals(visited, Arrays.asList("CA", "CC"));
+	  		List<String> view = tree.childrenView("CB");
+	  		Assert.assertEquals(view, Arrays.asList("CA", "CC"));
+	  		tree.remove("CA");
+	  		Assert.assertEquals(view, Arrays.asList("CC"));
+	  		tree.remove("CB");
+	  		Assert.assertEquals(view.isEmpty(), true);
+	  		break;
+	  }
+  }
+}
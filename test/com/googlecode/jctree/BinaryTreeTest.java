@@ -30,6 +30,6 @@ public class BinaryTreeTest {
 		Assert.assertEquals("00", binaryTree.left("0"));
 	}
 	public void right() throws NodeNotFoundException {
-		Assert.assertEquals("01", binaryTree.left("0"));
+		Assert.assertEquals("01", binaryTree.right("0"));
 	}
 }
\ No newline at end of file
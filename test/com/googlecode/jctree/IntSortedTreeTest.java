@@ -0,0 +1,210 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class IntSortedTreeTest {
+	@DataProvider
+	public Object[][] getTree() {
+		IntSortedTree intSortedTree = new IntSortedTree();
+		for(int i = 1; i <= 10; i++)
+			intSortedTree.add(i * 10);
+		/*
+		 Red black tree after adding 10 to 100 in order:
+		                 40
+		          _______|_______
+		         |               |
+		         20              60
+		       __|__          ___|___
+		      |     |        |       |
+		      10    30       50      80
+		                           __|__
+		                          |     |
+		                          70    90
+		                                |__
+		                                   |
+		                                   100
+		 */
+		return new Object[][]{{0, new IntSortedTree()},{1, intSortedTree}};
+	  }
+
+  @Test(dataProvider = "getTree")
+  public void add(int testCaseNumber, IntSortedTree tree) throws NodeNotFoundException {
+	  int initialSize = tree.size();
+	  Assert.assertEquals(tree.add(55), true);
+	  Assert.assertEquals(tree.add(55), false);
+	  Assert.assertEquals(tree.size(), initialSize + 1);
+	  Assert.assertEquals(tree.contains(55), true);
+	  try {
+		  tree.add(-1);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.root(), 55);
+	  		Assert.assertEquals(tree.depth(), 1);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.parent(55), 50);
+	  		Assert.assertEquals(tree.right(50), 55);
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void structure(int testCaseNumber, IntSortedTree tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.root(), -1);
+	  		Assert.assertEquals(tree.depth(), 0);
+	  		try {
+	  		  tree.parent(10);
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (NodeNotFoundException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.root(), 40);
+	  		Assert.assertEquals(tree.depth(), 5);
+	  		Assert.assertEquals(tree.parent(40), -1);
+	  		Assert.assertEquals(tree.parent(70), 80);
+	  		Assert.assertEquals(tree.left(60), 50);
+	  		Assert.assertEquals(tree.right(90), 100);
+	  		Assert.assertEquals(tree.left(90), -1);
+	  		int[] children = new int[2];
+	  		Assert.assertEquals(tree.children(80, children), 2);
+	  		Assert.assertEquals(children, new int[]{70, 90});
+	  		Assert.assertEquals(tree.children(90, children), 1);
+	  		Assert.assertEquals(children[0], 100);
+	  		Assert.assertEquals(tree.children(100, children), 0);
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, IntSortedTree tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.first(), -1);
+	  		Assert.assertEquals(tree.last(), -1);
+	  		Assert.assertEquals(tree.ceiling(5), -1);
+	  		Assert.assertEquals(tree.floor(5), -1);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.first(), 10);
+	  		Assert.assertEquals(tree.last(), 100);
+	  		Assert.assertEquals(tree.successor(50), 60);
+	  		Assert.assertEquals(tree.successor(100), -1);
+	  		Assert.assertEquals(tree.predecessor(50), 40);
+	  		Assert.assertEquals(tree.predecessor(10), -1);
+	  		Assert.assertEquals(tree.ceiling(45), 50);
+	  		Assert.assertEquals(tree.ceiling(50), 50);
+	  		Assert.assertEquals(tree.higher(50), 60);
+	  		Assert.assertEquals(tree.higher(100), -1);
+	  		Assert.assertEquals(tree.floor(45), 40);
+	  		Assert.assertEquals(tree.floor(40), 40);
+	  		Assert.assertEquals(tree.lower(40), 30);
+	  		Assert.assertEquals(tree.lower(10), -1);
+	  		try {
+	  		  tree.successor(45);
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (NodeNotFoundException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void traversals(int testCaseNumber, IntSortedTree tree) {
+	  int[] out = new int[tree.size()];
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.inOrderTraversal(out), 0);
+	  		Assert.assertEquals(tree.preOrderTraversal(out), 0);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.inOrderTraversal(out), 10);
+	  		Assert.assertEquals(out, new int[]{10, 20, 30, 40, 50, 60, 70, 80, 90, 100});
+	  		tree.preOrderTraversal(out);
+	  		Assert.assertEquals(out, new int[]{40, 20, 10, 30, 60, 50, 80, 70, 90, 100});
+	  		try {
+	  		  tree.inOrderTraversal(new int[9]);
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (IllegalArgumentException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void remove(int testCaseNumber, IntSortedTree tree) throws NodeNotFoundException {
+	  Assert.assertEquals(tree.remove(45), false);
+	  switch(testCaseNumber) {
+	  	case 1:
+	  		Assert.assertEquals(tree.remove(40), true);
+	  		Assert.assertEquals(tree.contains(40), false);
+	  		Assert.assertEquals(tree.root(), 50);
+	  		Assert.assertEquals(tree.remove(10), true);
+	  		Assert.assertEquals(tree.remove(100), true);
+	  		Assert.assertEquals(tree.size(), 7);
+	  		int[] out = new int[tree.size()];
+	  		tree.inOrderTraversal(out);
+	  		Assert.assertEquals(out, new int[]{20, 30, 50, 60, 70, 80, 90});
+	  		Assert.assertEquals(tree.add(40), true);
+	  		Assert.assertEquals(tree.predecessor(40), 30);
+	  		break;
+	  }
+  }
+
+  @Test
+  public void matchesTreeSet() throws NodeNotFoundException {
+	  IntSortedTree tree = new IntSortedTree(1);
+	  TreeSet<Integer> set = new TreeSet<Integer>();
+	  java.util.Random random = new java.util.Random(7);
+	  for(int i = 0; i < 5000; i++) {
+		  int value = random.nextInt(1000);
+		  if(random.nextInt(3) == 0)
+			  Assert.assertEquals(tree.remove(value), set.remove(value));
+		  else
+			  Assert.assertEquals(tree.add(value), set.add(value));
+	  }
+	  int[] out = new int[tree.size()];
+	  tree.inOrderTraversal(out);
+	  Assert.assertEquals(out, set.stream().mapToInt(Integer::intValue).toArray());
+	  Assert.assertEquals(tree.depth() <= 2 * (32 - Integer.numberOfLeadingZeros(set.size() + 1)), true);
+  }
+
+  @Test(dataProvider = "getTree")
+  public void cloneAndEquals(int testCaseNumber, IntSortedTree tree) {
+	  IntSortedTree clone = tree.clone();
+	  Assert.assertEquals(clone, tree);
+	  Assert.assertEquals(clone.hashCode(), tree.hashCode());
+	  clone.add(5);
+	  Assert.assertEquals(tree.contains(5), false);
+	  Assert.assertNotEquals(clone, tree);
+	  if(testCaseNumber == 1)
+		  Assert.assertEquals(tree.toString(), Arrays.toString(new int[]{10, 20, 30, 40, 50, 60, 70, 80, 90, 100}));
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class IntTreeTest {
+	@DataProvider
+	public Object[][] getTree() {
+		try {
+			IntTree intTree = new IntTree();
+			intTree.add(0);
+			intTree.add(0, 1);
+			intTree.add(0, 2);
+			intTree.add(1, 3);
+			intTree.add(1, 4);
+			intTree.add(1, 5);
+			intTree.add(2, 6);
+			intTree.add(2, 7);
+			intTree.add(3, 8);
+			intTree.add(3, 9);
+			intTree.add(4, 10);
+			intTree.add(6, 11);
+			intTree.add(6, 12);
+			/*
+			                 0
+			         ________|________
+			        |                 |
+			        1                 2
+			   _____|_____          __|__
+			  |     |     |        |     |
+			  3     4     5        6     7
+			 _|_    |            __|__
+			|   |   |           |     |
+			8   9   10          11    12
+			 */
+			return new Object[][]{{0, new IntTree()},{1, intTree}};
+		} catch(NodeNotFoundException e) {
+			throw new RuntimeException();
+		}
+	  }
+
+  @Test(dataProvider = "getTree")
+  public void add(int testCaseNumber, IntTree tree) throws NodeNotFoundException {
+	  int initialSize = tree.size();
+	  Assert.assertEquals(tree.add(100), true);
+	  Assert.assertEquals(tree.size(), initialSize + 1);
+	  Assert.assertEquals(tree.contains(100), true);
+	  Assert.assertEquals(tree.add(100), false);
+	  try {
+		  tree.add(-2);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  try {
+		  tree.add(99, 101);
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.root(), 100);
+	  		Assert.assertEquals(tree.depth(), 1);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.parent(100), 0);
+	  		Assert.assertEquals(tree.add(11, 13), true);
+	  		Assert.assertEquals(tree.depth(), 5);
+	  		Assert.assertEquals(tree.add(13, 1), false);
+	  		Assert.assertEquals(tree.parent(1), 0);
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void children(int testCaseNumber, IntTree tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  		  tree.children(0, new int[0]);
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (NodeNotFoundException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  	case 1:
+	  		int[] children = new int[3];
+	  		Assert.assertEquals(tree.children(1, children), 3);
+	  		Assert.assertEquals(children, new int[]{3, 4, 5});
+	  		Assert.assertEquals(tree.children(5, children), 0);
+	  		Assert.assertEquals(tree.childCount(2), 2);
+	  		Assert.assertEquals(tree.child(2, 1), 7);
+	  		Assert.assertEquals(tree.child(2, 2), -1);
+	  		Assert.assertEquals(tree.firstChild(6), 11);
+	  		Assert.assertEquals(tree.nextSibling(11), 12);
+	  		Assert.assertEquals(tree.nextSibling(12), -1);
+	  		Assert.assertEquals(tree.nextSibling(0), -1);
+	  		try {
+	  		  tree.children(1, new int[2]);
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (IllegalArgumentException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void parent(int testCaseNumber, IntTree tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.root(), -1);
+	  		try {
+	  		  tree.parent(0);
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (NodeNotFoundException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.parent(0), -1);
+	  		Assert.assertEquals(tree.parent(10), 4);
+	  		Assert.assertEquals(tree.commonAncestor(8, 10), 1);
+	  		Assert.assertEquals(tree.commonAncestor(9, 12), 0);
+	  		Assert.assertEquals(tree.commonAncestor(6, 12), 6);
+	  		Assert.assertEquals(tree.isAncestor(1, 9), true);
+	  		Assert.assertEquals(tree.isAncestor(2, 9), false);
+	  		Assert.assertEquals(tree.depth(), 4);
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void traversals(int testCaseNumber, IntTree tree) {
+	  int[] out = new int[tree.size()];
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.preOrderTraversal(out), 0);
+	  		Assert.assertEquals(tree.postOrderTraversal(out), 0);
+	  		Assert.assertEquals(tree.levelOrderTraversal(out), 0);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.preOrderTraversal(out), 13);
+	  		Assert.assertEquals(out, new int[]{0, 1, 3, 8, 9, 4, 10, 5, 2, 6, 11, 12, 7});
+	  		tree.postOrderTraversal(out);
+	  		Assert.assertEquals(out, new int[]{8, 9, 3, 10, 4, 5, 1, 11, 12, 6, 7, 2, 0});
+	  		tree.levelOrderTraversal(out);
+	  		Assert.assertEquals(out, new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+	  		try {
+	  		  tree.preOrderTraversal(new int[12]);
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (IllegalArgumentException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void remove(int testCaseNumber, IntTree tree) throws NodeNotFoundException {
+	  Assert.assertEquals(tree.remove(99), false);
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.remove(0), false);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.remove(3), true);
+	  		Assert.assertEquals(tree.size(), 10);
+	  		Assert.assertEquals(tree.contains(8), false);
+	  		Assert.assertEquals(tree.child(1, 0), 4);
+	  		Assert.assertEquals(tree.remove(6), true);
+	  		Assert.assertEquals(tree.depth(), 4);
+	  		Assert.assertEquals(tree.remove(10), true);
+	  		Assert.assertEquals(tree.depth(), 3);
+	  		Assert.assertEquals(tree.add(7, 8), true);
+	  		Assert.assertEquals(tree.parent(8), 7);
+	  		Assert.assertEquals(tree.childCount(8), 0);
+	  		int[] out = new int[tree.size()];
+	  		tree.preOrderTraversal(out);
+	  		Assert.assertEquals(out, new int[]{0, 1, 4, 5, 2, 7, 8});
+	  		Assert.assertEquals(tree.remove(0), true);
+	  		Assert.assertEquals(tree.isEmpty(), true);
+	  		Assert.assertEquals(tree.root(), -1);
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void cloneAndEquals(int testCaseNumber, IntTree tree) throws NodeNotFoundException {
+	  IntTree clone = tree.clone();
+	  Assert.assertEquals(clone, tree);
+	  Assert.assertEquals(clone.hashCode(), tree.hashCode());
+	  clone.add(50);
+	  Assert.assertEquals(tree.contains(50), false);
+	  Assert.assertNotEquals(clone, tree);
+	  Assert.assertEquals(new IntTree(1000), new IntTree());
+	  if(testCaseNumber == 1)
+		  Assert.assertEquals(Arrays.toString(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12}), tree.toString());
+  }
+}
@@ -83,4 +83,33 @@ public class KAryTreeTest {
 	  Assert.assertEquals(3, kAryTree.child(1, 1).intValue());
 	  Assert.assertEquals(6, kAryTree.child(2, 2).intValue());
   }
+  @Test
+  public void deepTree() throws NodeNotFoundException {
+	  KAryTree<Integer> tree = new KAryTree<>(1);
+	  tree.add(0);
+	  for(int i = 1; i < 20000; i++)
+		  tree.add(i - 1, i);
+	  Assert.assertEquals(20000, tree.depth());
+	  Assert.assertEquals(20000, tree.preOrderTraversal().size());
+	  Assert.assertEquals(19999, tree.postOrderTraversal().get(0).intValue());
+	  Assert.assertEquals(19999, tree.inOrderTraversal().get(0).intValue());
+	  Assert.assertEquals(Arrays.asList(19999), tree.leaves());
+	  Assert.assertEquals(tree.clone(), tree);
+	  Assert.assertEquals(tree.clone().hashCode(), tree.hashCode());
+	  tree.remove(10000);
+	  Assert.assertEquals(10000, tree.size());
+	  Assert.assertEquals(10000, tree.depth());
+	  tree.remove(1);
+	  Assert.assertEquals(1, tree.size());
+	  Assert.assertEquals(1, tree.depth());
+  }
+  @Test(expectedExceptions=IndexOutOfBoundsException.class)
+  public void cursorAddMore() throws NodeNotFoundException {
+	  KAryTree<Integer> kAryTree = new KAryTree<>(2);
+	  kAryTree.add(1);
+	  TreeCursor<Integer> cursor = kAryTree.cursor(1);
+	  cursor.add(2);
+	  cursor.add(3);
+	  cursor.add(4);
+  }
 }
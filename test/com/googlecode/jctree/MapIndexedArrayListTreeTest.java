@@ -1,7 +1,25 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
 package com.googlecode.jctree;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -10,7 +28,7 @@ import org.testng.annotations.Test;
 import com.googlecode.jctree.MapIndexedArrayListTree;
 import com.googlecode.jctree.NodeNotFoundException;
 
-class MapIndexedArrayListTreeTest {
+public class MapIndexedArrayListTreeTest {
 	@DataProvider
 	public Object[][] getTree() {
 		try {
@@ -28,7 +46,7 @@ class MapIndexedArrayListTreeTest {
 			arrayListTree.add("C1-2", "C1-2-1");
 			arrayListTree.add("C2-1", "C2-1-1");
 			arrayListTree.add("C2-1", "C2-1-2");
-			return new Object[][]{{0, new MapIndexedArrayListTree<String>()},{1, arrayListTree}};
+			return new Object[][]{{0, new MapIndexedArrayListTree<String>(0)},{1, arrayListTree}};
 		} catch(NodeNotFoundException e) {
 			throw new RuntimeException();
 		}
@@ -212,6 +230,49 @@ class MapIndexedArrayListTreeTest {
 	  }
   }
   
+  @Test(dataProvider = "getTree")
+  public void isAncestorAfterChanges(int testCaseNumber, MapIndexedArrayListTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(true, tree.isAncestor("C1", "C1-2-1"));
+		  tree.add("C1-2-1", "C1-2-1-1");
+		  tree.add("C2-2", "C2-2-1");
+		  Assert.assertEquals(true, tree.isAncestor("C1", "C1-2-1-1"));
+		  Assert.assertEquals(true, tree.isAncestor("C1-2-1", "C1-2-1-1"));
+		  Assert.assertEquals(false, tree.isAncestor("C1-2-1-1", "C1-2-1"));
+		  Assert.assertEquals(false, tree.isAncestor("C2", "C1-2-1-1"));
+		  Assert.assertEquals(true, tree.isDescendant("C2", "C2-2-1"));
+		  Assert.assertEquals("C1-2", tree.commonAncestor("C1-2-1-1", "C1-2"));
+		  Assert.assertEquals(6, tree.distance("C1-2-1-1", "C2-2"));
+		  tree.remove("C1-2");
+		  tree.add("C2-2-1", "C1-2-1");
+		  Assert.assertEquals(false, tree.isAncestor("C1", "C1-2-1"));
+		  Assert.assertEquals(true, tree.isAncestor("C2", "C1-2-1"));
+		  Assert.assertEquals(false, tree.isAncestor("C1-2", "C2-2"));
+		  Assert.assertEquals(3, tree.distance("C1-2-1", "C2"));
+		  try {
+			  tree.isAncestor("C1", "C1-2-1-1");
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed
+		  }
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void isAncestorAfterClone(int testCaseNumber, MapIndexedArrayListTree<String> tree) throws NodeNotFoundException {
+	  if(testCaseNumber == 1) {
+		  Assert.assertEquals(true, tree.isAncestor("C1", "C1-2-1"));
+		  @SuppressWarnings("unchecked")
+		  MapIndexedArrayListTree<String> clone = (MapIndexedArrayListTree<String>) tree.clone();
+		  clone.add("C1", "X");
+		  tree.add("C2", "X");
+		  Assert.assertEquals(true, clone.isAncestor("C1", "X"));
+		  Assert.assertEquals(false, clone.isAncestor("C2", "X"));
+		  Assert.assertEquals("C1", clone.commonAncestor("C1", "X"));
+		  Assert.assertEquals(true, tree.isAncestor("C2", "X"));
+		  Assert.assertEquals(false, tree.isAncestor("C1", "X"));
+		  Assert.assertEquals("C2", tree.commonAncestor("C2", "X"));
+	  }
+  }
   @Test(dataProvider = "getTree")
   public void isDescendant(int testCaseNumber, MapIndexedArrayListTree<String> tree) throws NodeNotFoundException {
 	  if(testCaseNumber == 1) {
@@ -551,6 +612,291 @@ class MapIndexedArrayListTreeTest {
 	  		Assert.assertEquals(false, tree.equals(clone));
 	  		clone2.add("C2-2", "C2-2-1");
 	  		Assert.assertEquals(false, tree.equals(clone2));
+	  		Assert.assertEquals(tree.hashCode(), ((MapIndexedArrayListTree<String>) tree.clone()).hashCode());
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void removeAndAddAgain(int testCaseNumber, MapIndexedArrayListTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		tree.add("Root1");
+	  		Assert.assertEquals(true, tree.remove("Root1"));
+	  		Assert.assertEquals(false, tree.contains("Root1"));
+	  		Assert.assertEquals(true, tree.add("Root1"));
+	  		Assert.assertEquals("Root1", tree.root());
+	  		break;
+	  	case 1:
+	  		@SuppressWarnings("unchecked")
+			MapIndexedArrayListTree<String> clone = (MapIndexedArrayListTree<String>) tree.clone();
+	  		tree.remove("C1-1");
+	  		Assert.assertEquals(false, tree.contains("C1-1"));
+	  		Assert.assertEquals(false, tree.contains("C1-1-2"));
+	  		Assert.assertEquals(true, clone.contains("C1-1-2"));
+	  		Assert.assertEquals("C1-1", clone.parent("C1-1-2"));
+	  		Assert.assertEquals(true, tree.add("C2-2", "C1-1-2"));
+	  		Assert.assertEquals("C2-2", tree.parent("C1-1-2"));
+	  		Assert.assertEquals(false, tree.add("C1", "C1-2"));
+	  		Assert.assertEquals(tree.children("C1").toArray(new String[0]), new String[]{"C1-2","C1-3"});
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void child(int testCaseNumber, MapIndexedArrayListTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  			tree.child("Not present", 0);
+	  			Assert.assertEquals(false, true);
+	  		} catch (NodeNotFoundException e) {
+	  			//passed
+	  		}
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.child("C1", 0), "C1-1");
+	  		Assert.assertEquals(tree.child("C1", 2), "C1-3");
+	  		Assert.assertNull(tree.child("C1", 3));
+	  		Assert.assertNull(tree.child("C1-3", 0));
+	  		try {
+	  			tree.child("C1", -1);
+	  			Assert.assertEquals(false, true);
+	  		} catch (IndexOutOfBoundsException e) {
+	  			//passed
+	  		}
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void addEEIndex(int testCaseNumber, MapIndexedArrayListTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  			tree.add(null, "New", 1);
+	  			Assert.assertEquals(false, true);
+	  		} catch (IndexOutOfBoundsException e) {
+	  			//passed
+	  		}
+	  		Assert.assertEquals(true, tree.add(null, "New", 0));
+	  		Assert.assertEquals("New", tree.root());
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(true, tree.add("C1", "New", 1));
+	  		Assert.assertEquals(tree.children("C1").toArray(new String[0]), new String[]{"C1-1","New","C1-2","C1-3"});
+	  		Assert.assertEquals(true, tree.add("C1", "Last", 4));
+	  		Assert.assertEquals(tree.child("C1", 4), "Last");
+	  		Assert.assertEquals(false, tree.add("C1", "New", 0));
+	  		Assert.assertEquals(tree.child("C1", 1), "New");
+	  		Assert.assertEquals(15, tree.size());
+	  		try {
+	  			tree.add("C1", "Outside", 6);
+	  			Assert.assertEquals(false, true);
+	  		} catch (IndexOutOfBoundsException e) {
+	  			//passed
+	  		}
+	  		Assert.assertEquals(false, tree.contains("Outside"));
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void compact(int testCaseNumber, MapIndexedArrayListTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		tree.compact();
+	  		tree.trimToSize();
+	  		Assert.assertEquals(0, tree.size());
+	  		Assert.assertEquals(true, tree.add("Root1"));
+	  		Assert.assertEquals("Root1", tree.root());
+	  		break;
+	  	case 1:
+	  		tree.remove("C1-1");
+	  		Assert.assertEquals(true, tree.add("C2-2", "C2-2-1"));
+	  		Assert.assertEquals(true, tree.add("C2-2", "C2-2-2"));
+	  		Assert.assertEquals(true, tree.add("C2-2", "C2-2-3"));
+	  		tree.remove("C1-3");
+	  		List<String> preOrder = tree.preOrderTraversal();
+	  		tree.compact();
+	  		Assert.assertEquals(preOrder, tree.preOrderTraversal());
+	  		Assert.assertEquals(4, tree.depth());
+	  		Assert.assertEquals("C2-2", tree.parent("C2-2-3"));
+	  		Assert.assertEquals(true, tree.add("C1", "C1-1"));
+	  		Assert.assertEquals(tree.children("C1").toArray(new String[0]), new String[]{"C1-2","C1-1"});
+	  		tree.remove("C1-1");
+	  		tree.remove("C2-2");
+	  		tree.add("C1", "C1-3");
+	  		tree.add("C1", "C1-1");
+	  		tree.add("C1-1", "C1-1-1");
+	  		tree.add("C1-1", "C1-1-2");
+	  		tree.trimToSize();
+	  		Assert.assertEquals(true, tree.add("C2", "C2-2"));
+	  		Assert.assertEquals(13, tree.size());
+	  		Assert.assertEquals(tree.levelOrderTraversal().toArray(new String[0]), new String[]{"Root1", "C1", "C2", "C1-2", "C1-3", "C1-1", "C2-1", "C2-2", "C1-2-1", "C1-1-1", "C1-1-2", "C2-1-1", "C2-1-2"});
+	  		break;
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void iterators(int testCaseNumber, MapIndexedArrayListTree<String> tree) {
+	  Assert.assertEquals(toList(tree.preOrderIterator()), tree.preOrderTraversal());
+	  Assert.assertEquals(toList(tree.inOrderIterator()), tree.inOrderTraversal());
+	  Assert.assertEquals(toList(tree.postOrderIterator()), tree.postOrderTraversal());
+	  Assert.assertEquals(toList(tree.levelOrderIterator()), tree.levelOrderTraversal());
+	  Assert.assertEquals(toList(tree.iterator()), tree.inOrderTraversal());
+	  Assert.assertEquals(tree.toArray(), tree.inOrderTraversal().toArray());
+	  Assert.assertEquals(tree.toArray(new String[tree.size() + 1])[tree.size()], null);
+	  Iterator<String> iterator = tree.preOrderIterator();
+	  if(testCaseNumber == 1)
+		  Assert.assertEquals(iterator.next(), tree.root());
+	  else {
+		  Assert.assertEquals(iterator.hasNext(), false);
+		  try {
+			  iterator.next();
+			  Assert.assertEquals(false, true);
+		  } catch (NoSuchElementException e) {
+			  //passed
+		  }
+	  }
+	  try {
+		  iterator.remove();
+		  Assert.assertEquals(false, true);
+	  } catch (UnsupportedOperationException e) {
+		  //passed
+	  }
+  }
+  @Test(dataProvider = "getTree")
+  public void spliterator(int testCaseNumber, MapIndexedArrayListTree<String> tree) {
+	  List<String> inOrder = tree.inOrderTraversal();
+	  Assert.assertEquals(tree.stream().collect(Collectors.toList()), inOrder);
+	  Assert.assertEquals(tree.parallelStream().collect(Collectors.toList()), inOrder);
+	  Spliterator<String> spliterator = tree.spliterator();
+	  Assert.assertEquals(spliterator.getExactSizeIfKnown(), tree.size());
+	  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.DISTINCT | Spliterator.ORDERED), true);
+	  List<String> list = new ArrayList<String>();
+	  Spliterator<String> prefix = spliterator.trySplit();
+	  if(testCaseNumber == 1) {
+		  prefix.forEachRemaining(list::add);
+		  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.SIZED), false);
+	  } else
+		  Assert.assertEquals(prefix, null);
+	  while(spliterator.tryAdvance(list::add));
+	  Assert.assertEquals(list, inOrder);
+  }
+  @Test(dataProvider = "getTree")
+  public void distance(int testCaseNumber, MapIndexedArrayListTree<String> tree) throws NodeNotFoundException {
+	  for(String i : tree)
+		  for(String j : tree) {
+			  List<String> ancestors = new ArrayList<String>();
+			  for(String k = i; k != null; k = tree.parent(k))
+				  ancestors.add(k);
+			  String ancestor = j;
+			  while(!ancestors.contains(ancestor))
+				  ancestor = tree.parent(ancestor);
+			  Assert.assertEquals(tree.commonAncestor(i, j), ancestor);
+			  Assert.assertEquals(tree.distance(i, j), level(tree, i) + level(tree, j) - 2 * level(tree, ancestor));
+		  }
+	  if(testCaseNumber == 1) {
+		  String leaf = tree.leaves().get(0);
+		  Assert.assertEquals(tree.distance(tree.root(), leaf), level(tree, leaf));
+		  tree.remove(leaf);
+		  try {
+			  tree.distance(tree.root(), leaf);
+			  Assert.assertEquals(false, true);
+		  } catch (NodeNotFoundException e) {
+			  //passed
+		  }
+	  }
+  }
+  private int level(MapIndexedArrayListTree<String> tree, String node) throws NodeNotFoundException {
+	  int level = 0;
+	  for(String i = tree.parent(node); i != null; i = tree.parent(i))
+		  level++;
+	  return level;
+  }
+  private List<String> toList(Iterator<String> iterator) {
+	  List<String> list = new ArrayList<String>();
+	  while(iterator.hasNext())
+		  list.add(iterator.next());
+	  return list;
+  }
+
+  @Test(dataProvider = "getTree")
+  public void childrenViewAfterCompact(int testCaseNumber, MapIndexedArrayListTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 1:
+	  		List<String> view = tree.childrenView("C2");
+	  		tree.remove("C1");
+	  		tree.compact();
+	  		tree.add("C2", "C2-3");
+	  		List<String> visited = new ArrayList<String>();
+	  		view.forEach(visited::add);
+	  		Assert.assertEquals(visited, Arrays.asList("C2-1", "C2-2", "C2-3"));
+	  		Assert.assertEquals(new ArrayList<String>(view), visited);
+	  		Assert.assertEquals(view.get(2), "C2-3");
+	  		tree.remove("C2");
+	  		Assert.assertEquals(view.iterator().hasNext(), false);
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void cursor(int testCaseNumber, MapIndexedArrayListTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  		  tree.cursor("Not present");
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (NodeNotFoundException e) {
+	  		  //passed
+	  	    }
+	  		break;
+	  	case 1:
+	  		TreeCursor<String> cursor = tree.cursor("Root1");
+	  		Assert.assertEquals(cursor.element(), "Root1");
+	  		Assert.assertEquals(cursor.parent(), false);
+	  		Assert.assertEquals(cursor.nextSibling(), false);
+	  		Assert.assertEquals(cursor.childCount(), 2);
+	  		Assert.assertEquals(cursor.firstChild(), true);
+	  		Assert.assertEquals(cursor.element(), "C1");
+	  		Assert.assertEquals(cursor.nextSibling(), true);
+	  		Assert.assertEquals(cursor.element(), "C2");
+	  		Assert.assertEquals(cursor.nextSibling(), false);
+	  		Assert.assertEquals(cursor.firstChild(), true);
+	  		Assert.assertEquals(cursor.nextSibling(), true);
+	  		Assert.assertEquals(cursor.element(), "C2-2");
+	  		Assert.assertEquals(cursor.firstChild(), false);
+	  		Assert.assertEquals(cursor.parent(), true);
+	  		Assert.assertEquals(cursor.element(), "C2");
+	  		TreeCursor<String> copy = cursor.copy();
+	  		copy.parent();
+	  		copy.firstChild();
+	  		Assert.assertEquals(cursor.element(), "C2");
+	  		Assert.assertEquals(copy.element(), "C1");
+	  		TreeCursor<String> added = copy.add("C1-4");
+	  		Assert.assertEquals(added.element(), "C1-4");
+	  		Assert.assertEquals(copy.element(), "C1");
+	  		Assert.assertEquals(tree.parent("C1-4"), "C1");
+	  		Assert.assertEquals(tree.children("C1"), Arrays.asList("C1-1", "C1-2", "C1-3", "C1-4"));
+	  		Assert.assertEquals(added.add("C1-4-1").parent(), true);
+	  		Assert.assertEquals(tree.depth(), 4);
+	  		Assert.assertEquals(copy.add("C2"), null);
+	  		TreeCursor<String> removed = tree.cursor("C1-1");
+	  		tree.remove("C1-1");
+	  		tree.add("C2", "New");
+	  		try {
+	  		  removed.element();
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (IllegalStateException e) {
+	  		  //passed
+	  	    }
+	  		Assert.assertEquals(copy.firstChild(), true);
+	  		Assert.assertEquals(copy.element(), "C1-2");
+	  		Assert.assertEquals(copy.nextSibling(), true);
+	  		Assert.assertEquals(copy.element(), "C1-3");
+	  		tree.clear();
+	  		try {
+	  		  cursor.firstChild();
+	  		  Assert.assertEquals(false, true);
+	  	    } catch (IllegalStateException e) {
+	  		  //passed
+	  	    }
 	  		break;
 	  }
   }
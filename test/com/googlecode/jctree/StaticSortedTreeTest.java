@@ -0,0 +1,294 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class StaticSortedTreeTest {
+	@DataProvider
+	public Object[][] getTree() {
+		StaticSortedTree<String> staticSortedTree = Trees.staticSortedTree(new String[]{"C1", "C2", "C3", "C4", "C5", "C6", "C7", "C8", "C9", "CA", "CB", "CC"});
+		/*
+		 Keys are laid out in level order as C8 C4 CB C2 C6 CA CC C1 C3 C5 C7 C9
+		                    C8
+		             _______|_______
+		            |               |
+		            C4              CB
+		         ___|___         ___|___
+		        |       |       |       |
+		        C2      C6      CA      CC
+		       _|_     _|_     _|
+		      |   |   |   |   |
+		      C1  C3  C5  C7  C9
+		 */
+		return new Object[][]{{0, Trees.staticSortedTree(new BinaryRedBlackTree<String>())},{1, staticSortedTree}};
+	  }
+
+  @Test
+  public void construction() throws NodeNotFoundException {
+	  BinaryRedBlackTree<String> tree = new BinaryRedBlackTree<String>();
+	  tree.addAll(Arrays.asList("C5", "C3", "C9", "C1"));
+	  StaticSortedTree<String> staticSortedTree = Trees.staticSortedTree(tree);
+	  Assert.assertEquals(staticSortedTree.inOrderTraversal(), tree.inOrderTraversal());
+	  Assert.assertEquals(staticSortedTree.levelOrderTraversal(), Arrays.asList("C5", "C3", "C9", "C1"));
+	  Assert.assertEquals(staticSortedTree, Trees.staticSortedTree(new String[]{"C1", "C3", "C5", "C9"}));
+	  try {
+		  Trees.staticSortedTree(new String[]{"C1", "C3", "C3"});
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  try {
+		  Trees.staticSortedTree(new String[]{"C1", null});
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  try {
+		  Trees.staticSortedTree((SortedTree<String>) null);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void unsupported(int testCaseNumber, StaticSortedTree<String> tree) throws NodeNotFoundException {
+	  try {
+		  tree.add("C0");
+		  Assert.assertEquals(false, true);
+	  } catch (UnsupportedOperationException e) {
+		  //passed
+	  }
+	  try {
+		  tree.remove("C1");
+		  Assert.assertEquals(false, true);
+	  } catch (UnsupportedOperationException e) {
+		  //passed
+	  }
+	  try {
+		  tree.clear();
+		  Assert.assertEquals(false, true);
+	  } catch (UnsupportedOperationException e) {
+		  //passed
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void search(int testCaseNumber, StaticSortedTree<String> tree) throws NodeNotFoundException {
+	  Assert.assertEquals(tree.contains(null), false);
+	  Assert.assertEquals(tree.contains("C0"), false);
+	  try {
+		  tree.successor("C0");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  try {
+		  tree.ceiling(null);
+		  Assert.assertEquals(false, true);
+	  } catch (IllegalArgumentException e) {
+		  //passed
+	  }
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.ceiling("C5"), null);
+	  		Assert.assertEquals(tree.floor("C5"), null);
+	  		break;
+	  	case 1:
+	  		for(String key : tree.levelOrderTraversal())
+	  			Assert.assertEquals(tree.contains(key), true);
+	  		Assert.assertEquals(tree.contains("C55"), false);
+	  		Assert.assertEquals(tree.successor("C7"), "C8");
+	  		Assert.assertEquals(tree.successor("C8"), "C9");
+	  		Assert.assertEquals(tree.successor("CC"), null);
+	  		Assert.assertEquals(tree.predecessor("C9"), "C8");
+	  		Assert.assertEquals(tree.predecessor("C5"), "C4");
+	  		Assert.assertEquals(tree.predecessor("C1"), null);
+	  		Assert.assertEquals(tree.ceiling("C55"), "C6");
+	  		Assert.assertEquals(tree.ceiling("C6"), "C6");
+	  		Assert.assertEquals(tree.higher("C6"), "C7");
+	  		Assert.assertEquals(tree.higher("CC"), null);
+	  		Assert.assertEquals(tree.floor("C55"), "C5");
+	  		Assert.assertEquals(tree.floor("C5"), "C5");
+	  		Assert.assertEquals(tree.lower("C5"), "C4");
+	  		Assert.assertEquals(tree.lower("C1"), null);
+	  		Assert.assertEquals(tree.ceiling("D"), null);
+	  		Assert.assertEquals(tree.floor("B"), null);
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void navigation(int testCaseNumber, StaticSortedTree<String> tree) throws NodeNotFoundException {
+	  try {
+		  tree.parent("C0");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.root(), null);
+	  		Assert.assertEquals(tree.depth(), 0);
+	  		Assert.assertEquals(tree.size(), 0);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.root(), "C8");
+	  		Assert.assertEquals(tree.depth(), 4);
+	  		Assert.assertEquals(tree.parent("C8"), null);
+	  		Assert.assertEquals(tree.parent("C4"), "C8");
+	  		Assert.assertEquals(tree.parent("C9"), "CA");
+	  		Assert.assertEquals(tree.left("C8"), "C4");
+	  		Assert.assertEquals(tree.right("C8"), "CB");
+	  		Assert.assertEquals(tree.left("CA"), "C9");
+	  		Assert.assertEquals(tree.right("CA"), null);
+	  		Assert.assertEquals(tree.left("CC"), null);
+	  		Assert.assertEquals(tree.children("C2"), Arrays.asList("C1", "C3"));
+	  		Assert.assertEquals(tree.children("CA"), Arrays.asList("C9"));
+	  		Assert.assertEquals(tree.children("CC").isEmpty(), true);
+	  		Assert.assertEquals(tree.childCount("C6"), 2);
+	  		Assert.assertEquals(tree.childCount("CA"), 1);
+	  		Assert.assertEquals(tree.child("CB", 1), "CC");
+	  		Assert.assertEquals(tree.child("CA", 1), null);
+	  		Assert.assertEquals(tree.childrenView("C4"), Arrays.asList("C2", "C6"));
+	  		List<String> children = new ArrayList<String>();
+	  		tree.forEachChild("CB", children::add);
+	  		Assert.assertEquals(children, Arrays.asList("CA", "CC"));
+	  		Assert.assertEquals(tree.siblings("C6"), Arrays.asList("C2"));
+	  		Assert.assertEquals(tree.siblings("C9").isEmpty(), true);
+	  		Assert.assertEquals(tree.siblings("C8").isEmpty(), true);
+	  		try {
+	  			tree.child("C8", -1);
+	  			Assert.assertEquals(false, true);
+	  		} catch (IndexOutOfBoundsException e) {
+	  			//passed
+	  		}
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void ancestors(int testCaseNumber, StaticSortedTree<String> tree) throws NodeNotFoundException {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		try {
+	  			tree.commonAncestor("C1", "C2");
+	  			Assert.assertEquals(false, true);
+	  		} catch (NodeNotFoundException e) {
+	  			//passed
+	  		}
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.commonAncestor("C1", "C7"), "C4");
+	  		Assert.assertEquals(tree.commonAncestor("C1", "C3"), "C2");
+	  		Assert.assertEquals(tree.commonAncestor("C9", "C4"), "C8");
+	  		Assert.assertEquals(tree.commonAncestor("C9", "CB"), "CB");
+	  		Assert.assertEquals(tree.commonAncestor("C5", "C5"), "C5");
+	  		Assert.assertEquals(tree.distance("C1", "C7"), 4);
+	  		Assert.assertEquals(tree.distance("C9", "C8"), 3);
+	  		Assert.assertEquals(tree.distance("C5", "C5"), 0);
+	  		Assert.assertEquals(tree.isAncestor("C4", "C5"), true);
+	  		Assert.assertEquals(tree.isAncestor("C8", "C9"), true);
+	  		Assert.assertEquals(tree.isAncestor("CB", "C5"), false);
+	  		Assert.assertEquals(tree.isAncestor("C5", "C5"), false);
+	  		Assert.assertEquals(tree.isAncestor("C0", "C5"), false);
+	  		Assert.assertEquals(tree.isDescendant("CB", "C9"), true);
+	  		Assert.assertEquals(tree.isDescendant("C9", "CB"), false);
+	  		Assert.assertEquals(tree.isDescendant("C2", null), false);
+	  		try {
+	  			tree.isAncestor("C4", "C0");
+	  			Assert.assertEquals(false, true);
+	  		} catch (NodeNotFoundException e) {
+	  			//passed
+	  		}
+	  		break;
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void traversals(int testCaseNumber, StaticSortedTree<String> tree) {
+	  switch(testCaseNumber) {
+	  	case 0:
+	  		Assert.assertEquals(tree.inOrderTraversal().isEmpty(), true);
+	  		Assert.assertEquals(tree.levelOrderTraversal().isEmpty(), true);
+	  		Assert.assertEquals(tree.leaves().isEmpty(), true);
+	  		Assert.assertEquals(tree.iterator().hasNext(), false);
+	  		Assert.assertEquals(tree.descendingIterator().hasNext(), false);
+	  		break;
+	  	case 1:
+	  		Assert.assertEquals(tree.inOrderTraversal(), Arrays.asList("C1", "C2", "C3", "C4", "C5", "C6", "C7", "C8", "C9", "CA", "CB", "CC"));
+	  		Assert.assertEquals(tree.levelOrderTraversal(), Arrays.asList("C8", "C4", "CB", "C2", "C6", "CA", "CC", "C1", "C3", "C5", "C7", "C9"));
+	  		Assert.assertEquals(tree.preOrderTraversal(), Arrays.asList("C8", "C4", "C2", "C1", "C3", "C6", "C5", "C7", "CB", "CA", "C9", "CC"));
+	  		Assert.assertEquals(tree.postOrderTraversal(), Arrays.asList("C1", "C3", "C2", "C5", "C7", "C6", "C4", "C9", "CA", "CC", "CB", "C8"));
+	  		Assert.assertEquals(tree.leaves(), Arrays.asList("C1", "C3", "C5", "C7", "C9", "CC"));
+	  		Assert.assertEquals(new ArrayList<String>(tree.subTree("C3", "C9")), Arrays.asList("C3", "C4", "C5", "C6", "C7", "C8"));
+	  		Assert.assertEquals(new ArrayList<String>(tree.headTree("C3")), Arrays.asList("C1", "C2"));
+	  		Assert.assertEquals(new ArrayList<String>(tree.tailTree("CA")), Arrays.asList("CA", "CB", "CC"));
+	  		List<String> descending = new ArrayList<String>();
+	  		tree.descendingIterator().forEachRemaining(descending::add);
+	  		Assert.assertEquals(descending.get(0), "CC");
+	  		Assert.assertEquals(descending.size(), 12);
+	  		Assert.assertEquals(tree.toString(), tree.inOrderTraversal().toString());
+	  		break;
+	  }
+	  Spliterator<String> spliterator = tree.spliterator();
+	  Assert.assertEquals(spliterator.hasCharacteristics(Spliterator.SORTED | Spliterator.IMMUTABLE), true);
+	  Assert.assertEquals(spliterator.getExactSizeIfKnown(), tree.size());
+	  Assert.assertEquals(tree.stream().count(), tree.size());
+	  Assert.assertEquals(tree.toArray(), tree.inOrderTraversal().toArray());
+  }
+
+  @Test
+  public void matchesTreeSet() throws NodeNotFoundException {
+	  Random random = new Random(5);
+	  for(int size = 0; size < 70; size++) {
+		  TreeSet<Integer> set = new TreeSet<Integer>();
+		  while(set.size() < size)
+			  set.add(random.nextInt(4 * size) * 2);
+		  StaticSortedTree<Integer> tree = Trees.staticSortedTree(set.toArray(new Integer[size]));
+		  Assert.assertEquals(tree.inOrderTraversal(), new ArrayList<Integer>(set));
+		  Assert.assertEquals(tree.depth(), 32 - Integer.numberOfLeadingZeros(size));
+		  for(int value = -1; value <= 8 * size; value++) {
+			  Assert.assertEquals(tree.contains(value), set.contains(value));
+			  Assert.assertEquals(tree.ceiling(value), set.ceiling(value));
+			  Assert.assertEquals(tree.higher(value), set.higher(value));
+			  Assert.assertEquals(tree.floor(value), set.floor(value));
+			  Assert.assertEquals(tree.lower(value), set.lower(value));
+			  if(set.contains(value)) {
+				  Assert.assertEquals(tree.successor(value), set.higher(value));
+				  Assert.assertEquals(tree.predecessor(value), set.lower(value));
+			  }
+		  }
+	  }
+  }
+
+  @Test(dataProvider = "getTree")
+  public void equals(int testCaseNumber, StaticSortedTree<String> tree) {
+	  StaticSortedTree<String> copy = Trees.staticSortedTree(tree);
+	  Assert.assertEquals(copy, tree);
+	  Assert.assertEquals(copy.hashCode(), tree.hashCode());
+	  Assert.assertEquals(tree.equals(Trees.staticSortedTree(new String[]{"C0"})), false);
+	  Assert.assertEquals(tree.equals(null), false);
+  }
+}
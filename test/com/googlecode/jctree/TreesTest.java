@@ -0,0 +1,225 @@
+/*
+ * Copyright 2014 Gaurav Saxena
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.googlecode.jctree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TreesTest {
+  @Test
+  public void concurrentTree() throws NodeNotFoundException {
+	  Tree<String> tree = Trees.concurrentTree(new ArrayListTree<String>());
+	  Assert.assertEquals(true, tree.add("Root1"));
+	  Assert.assertEquals(true, tree.add("C1"));
+	  Assert.assertEquals(true, tree.add("C1", "C1-1"));
+	  Assert.assertEquals(true, tree.add("Root1", "C2"));
+	  Assert.assertEquals(4, tree.size());
+	  Assert.assertEquals(3, tree.depth());
+	  Assert.assertEquals("Root1", tree.root());
+	  Assert.assertEquals("C1", tree.parent("C1-1"));
+	  Assert.assertEquals(Arrays.asList("C1-1"), tree.children("C1"));
+	  Assert.assertEquals(Arrays.asList("C2"), tree.siblings("C1"));
+	  Assert.assertEquals("Root1", tree.commonAncestor("C1-1", "C2"));
+	  Assert.assertEquals(true, tree.isAncestor("C1", "C1-1"));
+	  Assert.assertEquals(Arrays.asList("Root1", "C1", "C1-1", "C2"), tree.preOrderTraversal());
+	  Assert.assertEquals(Arrays.asList("C1-1", "C1", "Root1", "C2"), tree.inOrderTraversal());
+	  Assert.assertEquals(Arrays.asList("C1-1", "C1", "C2", "Root1"), tree.postOrderTraversal());
+	  Assert.assertEquals(Arrays.asList("Root1", "C1", "C2", "C1-1"), tree.levelOrderTraversal());
+	  Assert.assertEquals(Arrays.asList("C1-1", "C2"), tree.leaves());
+	  Assert.assertEquals(tree.stream().collect(Collectors.toList()), tree.inOrderTraversal());
+	  Iterator<String> iterator = tree.preOrderIterator();
+	  Assert.assertEquals(true, tree.remove("C1"));
+	  Assert.assertEquals(Arrays.asList("Root1", "C1", "C1-1", "C2"), toList(iterator));
+	  Assert.assertEquals(false, tree.contains("C1-1"));
+	  Assert.assertEquals(2, tree.size());
+	  tree.clear();
+	  Assert.assertEquals(true, tree.isEmpty());
+	  Assert.assertEquals(null, tree.root());
+  }
+  @Test
+  public void concurrentSortedTree() throws NodeNotFoundException {
+	  SortedTree<Integer> tree = Trees.concurrentSortedTree(new BinaryRedBlackTree<Integer>());
+	  tree.addAll(Arrays.asList(5, 3, 8, 1));
+	  Assert.assertEquals(8, tree.successor(5).intValue());
+	  Assert.assertEquals(3, tree.predecessor(5).intValue());
+	  Assert.assertEquals(true, tree.spliterator().hasCharacteristics(Spliterator.SORTED));
+	  Assert.assertEquals(Arrays.asList(1, 3, 5, 8), tree.parallelStream().collect(Collectors.toList()));
+  }
+  @Test
+  public void concurrentNumberedTree() throws NodeNotFoundException {
+	  NumberedTree<String> tree = Trees.concurrentNumberedTree(new ArrayTree<String>(3));
+	  Assert.assertEquals(true, tree.add("Root1"));
+	  Assert.assertEquals(true, tree.add("Root1", "C3", 2));
+	  Assert.assertEquals("C3", tree.child("Root1", 2));
+	  Assert.assertEquals(null, tree.child("Root1", 0));
+  }
+  @Test(expectedExceptions=IllegalArgumentException.class)
+  public void concurrentTreeOfNull() {
+	  Trees.concurrentTree(null);
+  }
+  @Test
+  public void parallelReadsAndWrites() throws Exception {
+	  final SortedTree<Integer> tree = Trees.concurrentSortedTree(new BinaryRedBlackTree<Integer>());
+	  ExecutorService executor = Executors.newFixedThreadPool(4);
+	  List<Future<?>> futures = new ArrayList<Future<?>>();
+	  for(int i = 0; i < 4; i++) {
+		  final int offset = i;
+		  futures.add(executor.submit(new Runnable() {
+			  @Override
+			  public void run() {
+				  for(int j = offset; j < 4000; j += 4) {
+					  tree.add(j);
+					  Assert.assertEquals(true, tree.contains(j));
+					  List<Integer> inOrder = new ArrayList<Integer>(tree.inOrderTraversal());
+					  for(int k = 1; k < inOrder.size(); k += 97)
+						  Assert.assertEquals(true, inOrder.get(k - 1) < inOrder.get(k));
+				  }
+			  }
+		  }));
+	  }
+	  for(Future<?> future : futures)
+		  future.get();
+	  executor.shutdown();
+	  executor.awaitTermination(1, TimeUnit.SECONDS);
+	  Assert.assertEquals(4000, tree.size());
+	  Assert.assertEquals(4000, tree.inOrderTraversal().size());
+	  Assert.assertEquals(new ArrayList<Integer>(tree.inOrderTraversal()).get(3999).intValue(), 3999);
+  }
+  @Test
+  public void freeze() throws NodeNotFoundException {
+	  ArrayListTree<String> tree = new ArrayListTree<String>();
+	  tree.add("Root1");
+	  tree.add("Root1", "C1");
+	  tree.add("Root1", "C2");
+	  tree.add("C1", "C1-1");
+	  tree.add("C1", "C1-2");
+	  tree.add("C1", "C1-3");
+	  tree.add("C2", "C2-1");
+	  tree.add("C1-1", "C1-1-1");
+	  tree.add("C1-1", "C1-1-2");
+	  tree.add("C2-1", "C2-1-1");
+	  FrozenTree<String> frozen = Trees.freeze(tree);
+	  Assert.assertEquals(frozen.size(), tree.size());
+	  Assert.assertEquals(frozen.depth(), 4);
+	  Assert.assertEquals(frozen.root(), "Root1");
+	  Assert.assertEquals(frozen.preOrderTraversal(), Arrays.asList("Root1", "C1", "C1-1", "C1-1-1", "C1-1-2", "C1-2", "C1-3", "C2", "C2-1", "C2-1-1"));
+	  Assert.assertEquals(frozen.inOrderTraversal(), tree.inOrderTraversal());
+	  Assert.assertEquals(frozen.postOrderTraversal(), tree.postOrderTraversal());
+	  Assert.assertEquals(frozen.levelOrderTraversal(), tree.levelOrderTraversal());
+	  Assert.assertEquals(frozen.leaves(), tree.leaves());
+	  Assert.assertEquals(frozen.parallelStream().collect(Collectors.toList()), tree.inOrderTraversal());
+	  Assert.assertEquals(frozen.children("C1"), Arrays.asList("C1-1", "C1-2", "C1-3"));
+	  Assert.assertEquals(frozen.children("C1-3").isEmpty(), true);
+	  Assert.assertEquals(frozen.parent("C2-1-1"), "C2-1");
+	  Assert.assertEquals(frozen.parent("Root1"), null);
+	  Assert.assertEquals(frozen.siblings("C1-2"), Arrays.asList("C1-1", "C1-3"));
+	  Assert.assertEquals(frozen.commonAncestor("C1-1-2", "C1-3"), "C1");
+	  Assert.assertEquals(frozen.commonAncestor("C1-1-2", "C2-1-1"), "Root1");
+	  Assert.assertEquals(frozen.distance("C1-1-2", "C2-1-1"), 6);
+	  Assert.assertEquals(frozen.isAncestor("C1", "C1-1-1"), true);
+	  Assert.assertEquals(frozen.isAncestor("C2", "C1-1-1"), false);
+	  Assert.assertEquals(frozen.isAncestor("C1", "C1"), false);
+	  Assert.assertEquals(frozen.isDescendant("C2", "C2-1-1"), true);
+	  Assert.assertEquals(frozen.contains("Not present"), false);
+	  Assert.assertEquals(frozen, Trees.freeze(tree));
+	  tree.remove("C2");
+	  Assert.assertEquals(frozen.contains("C2-1"), true);
+	  try {
+		  frozen.parent("Not present");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  try {
+		  frozen.add("C1", "New");
+		  Assert.assertEquals(false, true);
+	  } catch (UnsupportedOperationException e) {
+		  //passed
+	  }
+	  try {
+		  frozen.children("C1").remove(0);
+		  Assert.assertEquals(false, true);
+	  } catch (UnsupportedOperationException e) {
+		  //passed
+	  }
+  }
+  @Test
+  public void frozenSubtree() throws NodeNotFoundException {
+	  LinkedTree<String> tree = new LinkedTree<String>();
+	  tree.add("Root1");
+	  tree.add("Root1", "C1");
+	  tree.add("Root1", "C2");
+	  tree.add("C1", "C1-1");
+	  tree.add("C1", "C1-2");
+	  tree.add("C1-1", "C1-1-1");
+	  FrozenTree<String> subtree = Trees.freeze(tree).subtree("C1");
+	  Assert.assertEquals(subtree.size(), 4);
+	  Assert.assertEquals(subtree.depth(), 3);
+	  Assert.assertEquals(subtree.root(), "C1");
+	  Assert.assertEquals(subtree.parent("C1"), null);
+	  Assert.assertEquals(subtree.preOrderTraversal(), Arrays.asList("C1", "C1-1", "C1-1-1", "C1-2"));
+	  Assert.assertEquals(subtree.levelOrderTraversal(), Arrays.asList("C1", "C1-1", "C1-2", "C1-1-1"));
+	  Assert.assertEquals(subtree.leaves(), Arrays.asList("C1-1-1", "C1-2"));
+	  Assert.assertEquals(subtree.contains("C2"), false);
+	  Assert.assertEquals(subtree.contains("Root1"), false);
+	  Assert.assertEquals(subtree.distance("C1-1-1", "C1-2"), 3);
+	  Assert.assertEquals(subtree.subtree("C1-1").preOrderTraversal(), Arrays.asList("C1-1", "C1-1-1"));
+	  TreeCursor<String> cursor = subtree.cursor("C1-1-1");
+	  Assert.assertEquals(cursor.nextSibling(), false);
+	  Assert.assertEquals(cursor.parent(), true);
+	  Assert.assertEquals(cursor.childCount(), 1);
+	  Assert.assertEquals(cursor.nextSibling(), true);
+	  Assert.assertEquals(cursor.element(), "C1-2");
+	  Assert.assertEquals(cursor.firstChild(), false);
+	  Assert.assertEquals(cursor.parent(), true);
+	  Assert.assertEquals(cursor.element(), "C1");
+	  Assert.assertEquals(cursor.parent(), false);
+	  Assert.assertEquals(cursor.nextSibling(), false);
+	  try {
+		  cursor.add("New");
+		  Assert.assertEquals(false, true);
+	  } catch (UnsupportedOperationException e) {
+		  //passed
+	  }
+	  try {
+		  subtree.parent("C2");
+		  Assert.assertEquals(false, true);
+	  } catch (NodeNotFoundException e) {
+		  //passed
+	  }
+	  Assert.assertEquals(Trees.freeze(new LinkedTree<String>()).isEmpty(), true);
+	  Assert.assertEquals(Trees.freeze(new LinkedTree<String>()).depth(), 0);
+  }
+  @Test(expectedExceptions=IllegalArgumentException.class)
+  public void freezeNull() throws NodeNotFoundException {
+	  Trees.freeze(null);
+  }
+  private List<String> toList(Iterator<String> iterator) {
+	  List<String> list = new ArrayList<String>();
+	  while(iterator.hasNext())
+		  list.add(iterator.next());
+	  return list;
+  }
+}